@@ -68,6 +68,16 @@ public interface IJFormatter extends Closeable
    */
   boolean isPrinting ();
 
+  /**
+   * @return <code>true</code> if this formatter only looks for references to error types. Nothing
+   *         is generated in this mode, but all statements are visited.
+   * @since 4.3.1
+   */
+  default boolean isFindingErrorTypes ()
+  {
+    return false;
+  }
+
   /**
    * Increment the indentation level.
    *
@@ -49,6 +49,7 @@ import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.jcodemodel.JLazyStatements.IStatementSupplier;
 import com.helger.jcodemodel.vars.JBlockVar;
 
 /**
@@ -935,6 +936,29 @@ public class JBlock implements IJGenerable, IJStatement
     return internalInsert (new JSynchronizedBlock (aExpr));
   }
 
+  /**
+   * Adds statements that are only created while the source code is printed. See
+   * {@link JLazyStatements} for the restrictions.
+   *
+   * @param aSupplier
+   *        The supplier of the statements. Must return a new stream on every invocation. May not be
+   *        <code>null</code>.
+   * @param aReferencedTypes
+   *        The classes used by the statements that should be imported. May be <code>null</code>.
+   * @return The created lazy statements, to which more referenced types can be added.
+   * @since 4.3.1
+   */
+  @NonNull
+  public JLazyStatements addLazy (@NonNull final IStatementSupplier aSupplier,
+                                  @NonNull final AbstractJClass @Nullable... aReferencedTypes)
+  {
+    final JLazyStatements ret = new JLazyStatements (aSupplier);
+    if (aReferencedTypes != null)
+      for (final AbstractJClass aType : aReferencedTypes)
+        ret.reference (aType);
+    return internalInsert (ret);
+  }
+
   /**
    * Creates a "literal" statement directly.
    * <p>
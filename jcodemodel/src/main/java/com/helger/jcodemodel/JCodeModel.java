@@ -769,8 +769,37 @@ public class JCodeModel implements Serializable
   public JDefinedClass ref (@NonNull final TypeElement aElement, @NonNull final Elements aElementUtils)
                                                                                                         throws ErrorTypeFound,
                                                                                                         CodeModelBuildingException
+  {
+    return ref (aElement, aElementUtils, false);
+  }
+
+  /**
+   * Obtains a reference to a processable class from its TypeElement description, optionally
+   * populating the methods of the class only when they are accessed for the first time. This is
+   * much faster, if only a few members of the referenced classes are used.
+   *
+   * @param aElement
+   *        Processable class to reference
+   * @param aElementUtils
+   *        Utility functions to handle Element-objects
+   * @param bLazyMembers
+   *        <code>true</code> to populate the methods on first access, <code>false</code> to populate
+   *        them immediately.
+   * @return Singleton reference to this class.
+   * @throws ErrorTypeFound
+   *         if some classes are not fully defined during annotation processing.
+   * @throws CodeModelBuildingException
+   *         In case of an internal error (?)
+   * @see JCodeModelJavaxLangModelAdapter#setLazyMembers(boolean)
+   * @since 4.3.1
+   */
+  @NonNull
+  public JDefinedClass ref (@NonNull final TypeElement aElement,
+                            @NonNull final Elements aElementUtils,
+                            final boolean bLazyMembers) throws ErrorTypeFound, CodeModelBuildingException
   {
     final JCodeModelJavaxLangModelAdapter adapter = new JCodeModelJavaxLangModelAdapter (this, aElementUtils);
+    adapter.setLazyMembers (bLazyMembers);
     return adapter.getClass (aElement);
   }
 
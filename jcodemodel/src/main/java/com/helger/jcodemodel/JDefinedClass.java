@@ -172,6 +172,18 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
    */
   private List <JAnnotationUse> m_aAnnotations;
 
+  /**
+   * Optional callback to populate the fields, constructors and methods on first access. Only reset
+   * once it completed successfully.
+   */
+  private Runnable m_aLazyMemberInitializer;
+
+  /**
+   * <code>true</code> while the lazy member initializer is running, as it accesses the members
+   * itself.
+   */
+  private boolean m_bLazyMembersInProgress;
+
   /**
    * Helper class to implement {@link IJGenerifiable}.
    */
@@ -604,6 +616,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
                           @NonNull final String sName,
                           @Nullable final IVariableInitializer aInit)
   {
+    ensureMembersInitialized ();
     ValueEnforcer.isFalse (m_aFields.containsKey (sName), () -> "trying to create the same field twice: " + sName);
 
     final JFieldVar f = new com.helger.jcodemodel.vars.JFieldVar (this, JMods.forField (nMods), aType, sName, aInit);
@@ -625,6 +638,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @NonNull
   public LinkedHashMap <String, JFieldVar> fieldsMutable ()
   {
+    ensureMembersInitialized ();
     return m_aFields;
   }
 
@@ -650,6 +664,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
    */
   public void removeField (@NonNull final JFieldVar aField)
   {
+    ensureMembersInitialized ();
     if (m_aFields.remove (aField.name ()) != aField)
       throw new IllegalArgumentException ("Failed to remove field " + aField);
   }
@@ -661,6 +676,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
    */
   public boolean containsField (@Nullable final String sName)
   {
+    ensureMembersInitialized ();
     return (sName != null) && m_aFields.containsKey (sName);
   }
 
@@ -717,6 +733,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @NonNull
   public JMethod constructor (final int nMods)
   {
+    ensureMembersInitialized ();
     final JMethod c = new JMethod (nMods, this);
     m_aConstructors.add (c);
     return c;
@@ -728,6 +745,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @NonNull
   public Iterator <JMethod> constructors ()
   {
+    ensureMembersInitialized ();
     return m_aConstructors.iterator ();
   }
 
@@ -736,6 +754,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
    */
   public Stream <JMethod> constructorsStream ()
   {
+    ensureMembersInitialized ();
     return m_aConstructors.stream ();
   }
 
@@ -749,6 +768,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @Nullable
   public JMethod getConstructor (@NonNull final AbstractJType [] aArgTypes)
   {
+    ensureMembersInitialized ();
     for (final JMethod m : m_aConstructors)
     {
       if (m.hasSignature (aArgTypes))
@@ -771,6 +791,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @NonNull
   public JMethod method (final int nMods, @NonNull final AbstractJType aType, @NonNull final String sName)
   {
+    ensureMembersInitialized ();
     // XXX problems caught in M constructor
     final JMethod m = new JMethod (this, nMods, aType, sName);
     m_aMethods.add (m);
@@ -789,6 +810,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @NonNull
   public Collection <JMethod> methods ()
   {
+    ensureMembersInitialized ();
     return m_aMethods;
   }
 
@@ -804,6 +826,7 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @Nullable
   public JMethod getMethod (final String sName, final AbstractJType [] aArgTypes)
   {
+    ensureMembersInitialized ();
     for (final JMethod m : m_aMethods)
     {
       if (m.name ().equals (sName))
@@ -815,6 +838,65 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
     return null;
   }
 
+  /**
+   * Set a callback that populates the fields, constructors and methods of this class on first
+   * access. This is e.g. used for classes mirrored from <code>javax.lang.model</code> elements,
+   * where most members are never used. The callback is invoked at most once, by the first call to a
+   * method accessing or adding members.
+   *
+   * @param aLazyMemberInitializer
+   *        The callback to use. May be <code>null</code> to remove a pending callback.
+   * @since 4.3.1
+   */
+  public void setLazyMemberInitializer (@Nullable final Runnable aLazyMemberInitializer)
+  {
+    m_aLazyMemberInitializer = aLazyMemberInitializer;
+  }
+
+  /**
+   * @return <code>true</code> if the members of this class are not yet populated by the lazy member
+   *         initializer.
+   * @since 4.3.1
+   */
+  public boolean hasPendingLazyMembers ()
+  {
+    return m_aLazyMemberInitializer != null;
+  }
+
+  /**
+   * Invoke the pending lazy member initializer, if any. Usually it is not necessary to call this
+   * method explicitly, as all member accessing methods do it. If the initializer fails, the methods
+   * it added so far are removed again and the initializer stays pending, so that every later access
+   * fails the same way.
+   *
+   * @see #setLazyMemberInitializer(Runnable)
+   * @since 4.3.1
+   */
+  public void ensureMembersInitialized ()
+  {
+    final Runnable aInitializer = m_aLazyMemberInitializer;
+    if (aInitializer != null && !m_bLazyMembersInProgress)
+    {
+      final int nMethods = m_aMethods.size ();
+      m_bLazyMembersInProgress = true;
+      try
+      {
+        aInitializer.run ();
+        m_aLazyMemberInitializer = null;
+      }
+      catch (final RuntimeException ex)
+      {
+        // Don't leave a partial method list behind
+        m_aMethods.subList (nMethods, m_aMethods.size ()).clear ();
+        throw ex;
+      }
+      finally
+      {
+        m_bLazyMembersInProgress = false;
+      }
+    }
+  }
+
   public LinkedHashSet <IJDeclaration> getExtraDeclarations ()
   {
     return m_sExtraDeclarations;
@@ -872,6 +954,8 @@ public class JDefinedClass extends AbstractJClassContainer <JDefinedClass> imple
   @Override
   public void declare (@NonNull final IJFormatter f)
   {
+    ensureMembersInitialized ();
+
     // Java docs
     if (m_aJDoc != null)
     {
@@ -0,0 +1,143 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * A sequence of statements that is only created while the source code is printed. This allows to
+ * emit e.g. huge lookup tables or static initializers without holding all the statements in memory
+ * at the same time. The supplier is invoked once per print run, and each statement can be garbage
+ * collected directly after it was printed.
+ * <p>
+ * Because the statements don't exist while the imports are collected, all classes that shall be
+ * imported must be declared up front via {@link #reference(AbstractJClass)}. Classes that are used
+ * by the statements but were not declared are emitted with their fully qualified name, so the
+ * generated code is correct in any case. Local variables declared in the lazy statements must not
+ * have the same name as an imported class.
+ * </p>
+ * <p>
+ * The supplier is invoked as well when looking for error types (see
+ * {@link JDefinedClass#containsErrorTypes()} and {@link JCodeModel#buildsErrorTypeRefs()}), so error
+ * types used by the statements are found.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class JLazyStatements implements IJStatement
+{
+  /**
+   * A serializable supplier for the statements. Must return a new stream on every invocation.
+   */
+  @FunctionalInterface
+  public interface IStatementSupplier extends Supplier <Stream <? extends IJStatement>>, Serializable
+  {}
+
+  private final IStatementSupplier m_aSupplier;
+  private final List <AbstractJClass> m_aReferencedTypes = new ArrayList <> ();
+
+  public JLazyStatements (@NonNull final IStatementSupplier aSupplier)
+  {
+    ValueEnforcer.notNull (aSupplier, "Supplier");
+    m_aSupplier = aSupplier;
+  }
+
+  /**
+   * @return The supplier of the statements. Never <code>null</code>.
+   */
+  @NonNull
+  public IStatementSupplier supplier ()
+  {
+    return m_aSupplier;
+  }
+
+  /**
+   * Declare a class that is used by the lazy statements, so that it can be imported.
+   *
+   * @param aType
+   *        The referenced class. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public JLazyStatements reference (@NonNull final AbstractJClass aType)
+  {
+    ValueEnforcer.notNull (aType, "Type");
+    m_aReferencedTypes.add (aType);
+    return this;
+  }
+
+  /**
+   * @return An unmodifiable list of all declared referenced classes. Never <code>null</code>.
+   */
+  @NonNull
+  public List <AbstractJClass> referencedTypes ()
+  {
+    return Collections.unmodifiableList (m_aReferencedTypes);
+  }
+
+  public void state (@NonNull final IJFormatter f)
+  {
+    if (f.isPrinting () || f.isFindingErrorTypes ())
+    {
+      // The error type scan is a streaming pass as well
+      try (final Stream <? extends IJStatement> aStream = m_aSupplier.get ())
+      {
+        aStream.forEachOrdered (f::statement);
+      }
+    }
+    else
+    {
+      // Only the declared types are visible to the import collection
+      for (final AbstractJClass aType : m_aReferencedTypes)
+        f.type (aType);
+    }
+  }
+}
@@ -0,0 +1,491 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * A persistent cache for compiled byte code, to be used via
+ * {@link MemoryCodeWriter#setBytecodeCache(BytecodeCache)}. The key of an entry is a hash over all
+ * Java sources that are compiled together, the compiler options, the Java version and the class
+ * path. The whole set of sources is used, because the byte code of a class may depend on other
+ * classes (e.g. inlined constants). On a cache hit, the compiler is not invoked at all.
+ * <p>
+ * JAR files on the class path are part of the key with their size and modification time. The
+ * content of class directories is read only once per cache instance and the resulting fingerprint is
+ * reused for all later keys, so changes to a class directory while the cache is in use are only
+ * detected after {@link #clearClassPathFingerprints()}.
+ * </p>
+ * <p>
+ * Each entry is a single file in the cache directory. The total size of all entries is limited. If
+ * the limit is exceeded, the least recently used entries are deleted. Entries are written to a
+ * temporary file first and moved afterwards, so a directory may be shared by multiple processes.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public class BytecodeCache
+{
+  public static final long DEFAULT_MAX_SIZE = 512L * 1024 * 1024;
+  public static final String FILE_EXTENSION = ".jcmclasses";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (BytecodeCache.class);
+  private static final int MAGIC = 0x4a434d43;
+  private static final int VERSION = 1;
+
+  private final Path m_aDirectory;
+  private final long m_nMaxSize;
+  private final AtomicInteger m_aHits = new AtomicInteger (0);
+  private final AtomicInteger m_aMisses = new AtomicInteger (0);
+  // Absolute path of a class path directory to the fingerprint of its content
+  private final Map <String, byte []> m_aDirFingerprints = new ConcurrentHashMap <> ();
+
+  /**
+   * Constructor with the default maximum size of 512 MB.
+   *
+   * @param aDirectory
+   *        The cache directory. Is created if it does not exist. May not be <code>null</code>.
+   */
+  public BytecodeCache (@NonNull final Path aDirectory)
+  {
+    this (aDirectory, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDirectory
+   *        The cache directory. Is created if it does not exist. May not be <code>null</code>.
+   * @param nMaxSize
+   *        The maximum size of all cache entries in bytes. Must be &gt; 0.
+   */
+  public BytecodeCache (@NonNull final Path aDirectory, final long nMaxSize)
+  {
+    ValueEnforcer.notNull (aDirectory, "Directory");
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    m_aDirectory = aDirectory;
+    m_nMaxSize = nMaxSize;
+  }
+
+  /**
+   * @return The cache directory. Never <code>null</code>.
+   */
+  @NonNull
+  public final Path getDirectory ()
+  {
+    return m_aDirectory;
+  }
+
+  /**
+   * @return The maximum size of all cache entries in bytes. Always &gt; 0.
+   */
+  public final long getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * @return The number of cache hits of this instance.
+   */
+  @Nonnegative
+  public final int getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  /**
+   * @return The number of cache misses of this instance.
+   */
+  @Nonnegative
+  public final int getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  private static void _add (@NonNull final MessageDigest aMD, @Nullable final String s)
+  {
+    aMD.update (String.valueOf (s).getBytes (StandardCharsets.UTF_8));
+    aMD.update ((byte) 0);
+  }
+
+  @NonNull
+  private static byte [] _fingerprintDirectory (@NonNull final Path aDir) throws IOException
+  {
+    final MessageDigest aMD = ClassFileAPI.createDigest ();
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      aStream.sorted ().forEach (x -> {
+        final File f = x.toFile ();
+        _add (aMD, x.toString ());
+        _add (aMD, f.length () + "/" + f.lastModified ());
+      });
+    }
+    return aMD.digest ();
+  }
+
+  private void _addClassPathEntry (@NonNull final MessageDigest aMD, @NonNull final File aFile) throws IOException
+  {
+    _add (aMD, aFile.getAbsolutePath ());
+    if (aFile.isDirectory ())
+    {
+      // Class directories change often - include all files, but walk them only once
+      byte [] aFingerprint = m_aDirFingerprints.get (aFile.getAbsolutePath ());
+      if (aFingerprint == null)
+      {
+        aFingerprint = _fingerprintDirectory (aFile.toPath ());
+        m_aDirFingerprints.put (aFile.getAbsolutePath (), aFingerprint);
+      }
+      aMD.update (aFingerprint);
+    }
+    else
+      if (aFile.exists ())
+        _add (aMD, aFile.length () + "/" + aFile.lastModified ());
+  }
+
+  /**
+   * Forget the fingerprints of the class path directories, so that they are read again by the next
+   * {@link #createKey(Map, Charset, Iterable, ClassLoader)}. Call this after the content of a class
+   * directory was changed while this cache is in use.
+   */
+  public void clearClassPathFingerprints ()
+  {
+    m_aDirFingerprints.clear ();
+  }
+
+  /**
+   * Create the cache key for the provided compilation.
+   *
+   * @param aSources
+   *        All Java sources to be compiled, from path to content. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the sources. May not be <code>null</code>.
+   * @param aOptions
+   *        The compiler options. May not be <code>null</code>.
+   * @param aClassLoader
+   *        The class loader used to resolve classes during compilation. All URL class loaders in
+   *        the hierarchy are part of the key. May be <code>null</code>.
+   * @return The hex encoded key. Never <code>null</code>.
+   * @throws IOException
+   *         If reading class path information failed
+   */
+  @NonNull
+  public String createKey (@NonNull final Map <String, ByteBuffer> aSources,
+                           @NonNull final Charset aCharset,
+                           @NonNull final Iterable <String> aOptions,
+                           @Nullable final ClassLoader aClassLoader) throws IOException
+  {
+    final MessageDigest aMD = ClassFileAPI.createDigest ();
+    _add (aMD, Integer.toString (VERSION));
+    _add (aMD, Runtime.version ().toString ());
+    _add (aMD, System.getProperty ("java.vendor"));
+    _add (aMD, aCharset.name ());
+    for (final String sOption : aOptions)
+      _add (aMD, sOption);
+
+    // Class path
+    final String sClassPath = System.getProperty ("java.class.path");
+    if (sClassPath != null)
+      for (final String sEntry : sClassPath.split (File.pathSeparator))
+        if (!sEntry.isEmpty ())
+          _addClassPathEntry (aMD, new File (sEntry));
+    ClassLoader aCL = aClassLoader;
+    while (aCL != null)
+    {
+      if (aCL instanceof URLClassLoader)
+        for (final URL aURL : ((URLClassLoader) aCL).getURLs ())
+          if ("file".equals (aURL.getProtocol ()))
+            try
+            {
+              _addClassPathEntry (aMD, Paths.get (aURL.toURI ()).toFile ());
+            }
+            catch (final URISyntaxException ex)
+            {
+              _add (aMD, aURL.toExternalForm ());
+            }
+          else
+            _add (aMD, aURL.toExternalForm ());
+      aCL = aCL.getParent ();
+    }
+
+    // Sources in a stable order
+    for (final Map.Entry <String, ByteBuffer> aEntry : new TreeMap <> (aSources).entrySet ())
+    {
+      _add (aMD, aEntry.getKey ());
+      final ByteBuffer aContent = aEntry.getValue ().duplicate ();
+      _add (aMD, Integer.toString (aContent.remaining ()));
+      aMD.update (aContent);
+    }
+
+    final StringBuilder aSB = new StringBuilder (64);
+    for (final byte b : aMD.digest ())
+      aSB.append (Character.forDigit ((b >> 4) & 0xf, 16)).append (Character.forDigit (b & 0xf, 16));
+    return aSB.toString ();
+  }
+
+  @NonNull
+  private Path _getFile (@NonNull final String sKey)
+  {
+    return m_aDirectory.resolve (sKey + FILE_EXTENSION);
+  }
+
+  /**
+   * Get the compiled classes of the provided key.
+   *
+   * @param sKey
+   *        The key as created by {@link #createKey(Map, Charset, Iterable, ClassLoader)}.
+   * @return A map from binary class name to byte code or <code>null</code> if the key is not
+   *         contained.
+   */
+  @Nullable
+  public Map <String, byte []> get (@NonNull final String sKey)
+  {
+    final Path aFile = _getFile (sKey);
+    try (final DataInputStream aDIS = new DataInputStream (new BufferedInputStream (Files.newInputStream (aFile))))
+    {
+      if (aDIS.readInt () != MAGIC || aDIS.readInt () != VERSION)
+        throw new IOException ("Invalid cache file");
+      final int nCount = aDIS.readInt ();
+      final Map <String, byte []> ret = new TreeMap <> ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final String sClassName = aDIS.readUTF ();
+        final byte [] aByteCode = new byte [aDIS.readInt ()];
+        aDIS.readFully (aByteCode);
+        ret.put (sClassName, aByteCode);
+      }
+
+      // Mark as recently used
+      Files.setLastModifiedTime (aFile, FileTime.fromMillis (System.currentTimeMillis ()));
+      m_aHits.incrementAndGet ();
+      return ret;
+    }
+    catch (final NoSuchFileException ex)
+    {
+      // Not contained
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to read bytecode cache file '" + aFile + "' - deleting it", ex);
+      try
+      {
+        Files.deleteIfExists (aFile);
+      }
+      catch (final IOException ex2)
+      {
+        // ignore
+      }
+    }
+    m_aMisses.incrementAndGet ();
+    return null;
+  }
+
+  /**
+   * Store compiled classes in the cache and remove the least recently used entries if the cache is
+   * too large.
+   *
+   * @param sKey
+   *        The key as created by {@link #createKey(Map, Charset, Iterable, ClassLoader)}.
+   * @param aClasses
+   *        A map from binary class name to byte code. May not be <code>null</code>.
+   * @throws IOException
+   *         If writing failed
+   */
+  public void put (@NonNull final String sKey, @NonNull final Map <String, byte []> aClasses) throws IOException
+  {
+    ValueEnforcer.notNull (sKey, "Key");
+    ValueEnforcer.notNull (aClasses, "Classes");
+
+    Files.createDirectories (m_aDirectory);
+    final Path aTempFile = Files.createTempFile (m_aDirectory, sKey, ".tmp");
+    try
+    {
+      try (final DataOutputStream aDOS = new DataOutputStream (new BufferedOutputStream (Files.newOutputStream (aTempFile))))
+      {
+        aDOS.writeInt (MAGIC);
+        aDOS.writeInt (VERSION);
+        aDOS.writeInt (aClasses.size ());
+        for (final Map.Entry <String, byte []> aEntry : aClasses.entrySet ())
+        {
+          aDOS.writeUTF (aEntry.getKey ());
+          aDOS.writeInt (aEntry.getValue ().length);
+          aDOS.write (aEntry.getValue ());
+        }
+      }
+      if (Files.size (aTempFile) > m_nMaxSize)
+      {
+        LOGGER.info ("Not caching " + aClasses.size () + " classes, because they exceed the maximum cache size");
+        return;
+      }
+      Files.move (aTempFile, _getFile (sKey), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      Files.deleteIfExists (aTempFile);
+    }
+
+    evict ();
+  }
+
+  private static final class CacheFile
+  {
+    private final Path m_aPath;
+    private final long m_nSize;
+    private final long m_nLastModified;
+
+    CacheFile (@NonNull final Path aPath, @NonNull final BasicFileAttributes aAttrs)
+    {
+      m_aPath = aPath;
+      m_nSize = aAttrs.size ();
+      m_nLastModified = aAttrs.lastModifiedTime ().toMillis ();
+    }
+  }
+
+  @NonNull
+  private List <CacheFile> _getAllCacheFiles () throws IOException
+  {
+    final List <CacheFile> ret = new ArrayList <> ();
+    if (Files.isDirectory (m_aDirectory))
+      try (final Stream <Path> aStream = Files.list (m_aDirectory))
+      {
+        for (final Path aPath : (Iterable <Path>) aStream::iterator)
+          if (aPath.getFileName ().toString ().endsWith (FILE_EXTENSION))
+            try
+            {
+              ret.add (new CacheFile (aPath, Files.readAttributes (aPath, BasicFileAttributes.class)));
+            }
+            catch (final NoSuchFileException ex)
+            {
+              // Deleted concurrently
+            }
+      }
+    return ret;
+  }
+
+  /**
+   * @return The total size of all cache entries in bytes.
+   * @throws IOException
+   *         If the cache directory cannot be read
+   */
+  public long getCurrentSize () throws IOException
+  {
+    long ret = 0;
+    for (final CacheFile aFile : _getAllCacheFiles ())
+      ret += aFile.m_nSize;
+    return ret;
+  }
+
+  /**
+   * Delete the least recently used entries until the total size is below the maximum size.
+   *
+   * @throws IOException
+   *         If the cache directory cannot be read
+   */
+  public void evict () throws IOException
+  {
+    final List <CacheFile> aFiles = _getAllCacheFiles ();
+    long nTotal = 0;
+    for (final CacheFile aFile : aFiles)
+      nTotal += aFile.m_nSize;
+    if (nTotal <= m_nMaxSize)
+      return;
+
+    aFiles.sort (Comparator.comparingLong (x -> x.m_nLastModified));
+    for (final CacheFile aFile : aFiles)
+    {
+      if (nTotal <= m_nMaxSize)
+        break;
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Evicting bytecode cache file '" + aFile.m_aPath + "'");
+      Files.deleteIfExists (aFile.m_aPath);
+      nTotal -= aFile.m_nSize;
+    }
+  }
+
+  /**
+   * Delete all cache entries.
+   *
+   * @throws IOException
+   *         If deleting failed
+   */
+  public void clear () throws IOException
+  {
+    for (final CacheFile aFile : _getAllCacheFiles ())
+      Files.deleteIfExists (aFile.m_aPath);
+  }
+}
@@ -0,0 +1,409 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+
+/**
+ * Calculates a hash over the API of a class file. The API consists of the class declaration and all
+ * non-private fields and methods, including generic signatures, thrown exceptions and compile time
+ * constants. Method bodies and private members are not part of it, so changing them does not change
+ * the hash. Annotation types and class files that cannot be parsed are hashed completely.
+ * Additionally the names of all classes referenced by a class file can be determined.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+final class ClassFileAPI
+{
+  private static final int ACC_PRIVATE = 0x0002;
+  private static final int ACC_SUPER = 0x0020;
+  private static final int ACC_SYNTHETIC = 0x1000;
+  private static final int ACC_ANNOTATION = 0x2000;
+
+  private ClassFileAPI ()
+  {}
+
+  @NonNull
+  static MessageDigest createDigest ()
+  {
+    try
+    {
+      return MessageDigest.getInstance ("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      throw new IllegalStateException ("SHA-256 is not supported", ex);
+    }
+  }
+
+  private static final class Parser
+  {
+    private final DataInputStream m_aDIS;
+    private final MessageDigest m_aMD;
+    private String [] m_aUtf8;
+    private int [] m_aClassIndex;
+    private int [] m_aStringIndex;
+    private Object [] m_aConstants;
+    private String m_sThisClass;
+
+    Parser (@NonNull final byte [] aClassFile, @NonNull final MessageDigest aMD)
+    {
+      m_aDIS = new DataInputStream (new NonBlockingByteArrayInputStream (aClassFile));
+      m_aMD = aMD;
+    }
+
+    private void _add (final String s)
+    {
+      m_aMD.update (String.valueOf (s).getBytes (StandardCharsets.UTF_8));
+      m_aMD.update ((byte) 0);
+    }
+
+    private void _add (final int n)
+    {
+      _add (Integer.toString (n));
+    }
+
+    private String _className (final int nCPIndex)
+    {
+      return nCPIndex == 0 ? null : m_aUtf8[m_aClassIndex[nCPIndex]];
+    }
+
+    private void _readConstantPool () throws IOException
+    {
+      final int nCount = m_aDIS.readUnsignedShort ();
+      m_aUtf8 = new String [nCount];
+      m_aClassIndex = new int [nCount];
+      m_aStringIndex = new int [nCount];
+      m_aConstants = new Object [nCount];
+      for (int i = 1; i < nCount; ++i)
+      {
+        final int nTag = m_aDIS.readUnsignedByte ();
+        switch (nTag)
+        {
+          case 1:
+            m_aUtf8[i] = m_aDIS.readUTF ();
+            break;
+          case 3:
+            m_aConstants[i] = Integer.valueOf (m_aDIS.readInt ());
+            break;
+          case 4:
+            m_aConstants[i] = Float.valueOf (m_aDIS.readFloat ());
+            break;
+          case 5:
+            m_aConstants[i] = Long.valueOf (m_aDIS.readLong ());
+            // Takes two entries
+            ++i;
+            break;
+          case 6:
+            m_aConstants[i] = Double.valueOf (m_aDIS.readDouble ());
+            // Takes two entries
+            ++i;
+            break;
+          case 7:
+            m_aClassIndex[i] = m_aDIS.readUnsignedShort ();
+            break;
+          case 8:
+            // Resolved later, as the UTF-8 entry may follow
+            m_aStringIndex[i] = m_aDIS.readUnsignedShort ();
+            break;
+          case 15:
+            m_aDIS.skipBytes (3);
+            break;
+          case 16:
+          case 19:
+          case 20:
+            m_aDIS.skipBytes (2);
+            break;
+          case 9:
+          case 10:
+          case 11:
+          case 12:
+          case 17:
+          case 18:
+            m_aDIS.skipBytes (4);
+            break;
+          default:
+            throw new IOException ("Unsupported constant pool tag " + nTag);
+        }
+      }
+    }
+
+    private String _constant (final int nCPIndex)
+    {
+      if (m_aStringIndex[nCPIndex] != 0)
+        return "S" + m_aUtf8[m_aStringIndex[nCPIndex]];
+      return String.valueOf (m_aConstants[nCPIndex]);
+    }
+
+    private void _readAttributes (final boolean bIsClass) throws IOException
+    {
+      final int nCount = m_aDIS.readUnsignedShort ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final String sName = m_aUtf8[m_aDIS.readUnsignedShort ()];
+        final int nLength = m_aDIS.readInt ();
+        switch (sName)
+        {
+          case "ConstantValue":
+            _add (sName);
+            _add (_constant (m_aDIS.readUnsignedShort ()));
+            break;
+          case "Signature":
+            _add (sName);
+            _add (m_aUtf8[m_aDIS.readUnsignedShort ()]);
+            break;
+          case "Exceptions":
+          case "PermittedSubclasses":
+          {
+            _add (sName);
+            final int nEntries = m_aDIS.readUnsignedShort ();
+            for (int j = 0; j < nEntries; ++j)
+              _add (_className (m_aDIS.readUnsignedShort ()));
+            break;
+          }
+          case "InnerClasses":
+          {
+            final int nEntries = m_aDIS.readUnsignedShort ();
+            for (int j = 0; j < nEntries; ++j)
+            {
+              final String sInner = _className (m_aDIS.readUnsignedShort ());
+              final String sOuter = _className (m_aDIS.readUnsignedShort ());
+              final int nSimpleName = m_aDIS.readUnsignedShort ();
+              final int nFlags = m_aDIS.readUnsignedShort ();
+              // Only the own nested classes are relevant - all other referenced classes are
+              // listed here as well
+              if (bIsClass &&
+                  (m_sThisClass.equals (sInner) || m_sThisClass.equals (sOuter)) &&
+                  (nFlags & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0)
+              {
+                _add (sName);
+                _add (sInner);
+                _add (sOuter);
+                _add (nSimpleName == 0 ? null : m_aUtf8[nSimpleName]);
+                _add (nFlags);
+              }
+            }
+            break;
+          }
+          case "Record":
+          {
+            _add (sName);
+            final int nEntries = m_aDIS.readUnsignedShort ();
+            for (int j = 0; j < nEntries; ++j)
+            {
+              _add (m_aUtf8[m_aDIS.readUnsignedShort ()]);
+              _add (m_aUtf8[m_aDIS.readUnsignedShort ()]);
+              // Component attributes
+              final int nAttrs = m_aDIS.readUnsignedShort ();
+              for (int k = 0; k < nAttrs; ++k)
+              {
+                m_aDIS.readUnsignedShort ();
+                m_aDIS.skipBytes (m_aDIS.readInt ());
+              }
+            }
+            break;
+          }
+          default:
+            // Code, debug information, annotations etc.
+            m_aDIS.skipBytes (nLength);
+            break;
+        }
+      }
+    }
+
+    private void _readMembers (final String sKind) throws IOException
+    {
+      final int nCount = m_aDIS.readUnsignedShort ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final int nAccess = m_aDIS.readUnsignedShort ();
+        final String sName = m_aUtf8[m_aDIS.readUnsignedShort ()];
+        final String sDescriptor = m_aUtf8[m_aDIS.readUnsignedShort ()];
+        if ((nAccess & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0)
+        {
+          _add (sKind);
+          _add (nAccess);
+          _add (sName);
+          _add (sDescriptor);
+          _readAttributes (false);
+        }
+        else
+        {
+          // Skip all attributes
+          final int nAttrs = m_aDIS.readUnsignedShort ();
+          for (int k = 0; k < nAttrs; ++k)
+          {
+            m_aDIS.readUnsignedShort ();
+            m_aDIS.skipBytes (m_aDIS.readInt ());
+          }
+        }
+      }
+    }
+
+    /**
+     * @return All names that may reference a class, in internal form. Contains the names of all
+     *         class constants and all class names mentioned in descriptors and signatures.
+     */
+    @NonNull
+    Set <String> getReferencedNames () throws IOException
+    {
+      if (m_aDIS.readInt () != 0xCAFEBABE)
+        throw new IOException ("Not a class file");
+      // Version
+      m_aDIS.skipBytes (4);
+      _readConstantPool ();
+
+      final Set <String> ret = new HashSet <> ();
+      for (final String sUtf8 : m_aUtf8)
+        if (sUtf8 != null)
+        {
+          // Either a class name or a descriptor
+          ret.add (sUtf8);
+          int nStart = sUtf8.indexOf ('L');
+          while (nStart >= 0)
+          {
+            int nEnd = nStart + 1;
+            while (nEnd < sUtf8.length () && sUtf8.charAt (nEnd) != ';' && sUtf8.charAt (nEnd) != '<')
+              ++nEnd;
+            if (nEnd < sUtf8.length ())
+              ret.add (sUtf8.substring (nStart + 1, nEnd));
+            nStart = sUtf8.indexOf ('L', nStart + 1);
+          }
+        }
+      return ret;
+    }
+
+    /**
+     * @return <code>false</code> if the class must be hashed completely
+     */
+    boolean parse () throws IOException
+    {
+      if (m_aDIS.readInt () != 0xCAFEBABE)
+        throw new IOException ("Not a class file");
+      // Version
+      m_aDIS.skipBytes (4);
+      _readConstantPool ();
+
+      final int nAccess = m_aDIS.readUnsignedShort ();
+      if ((nAccess & ACC_ANNOTATION) != 0)
+        return false;
+
+      m_sThisClass = _className (m_aDIS.readUnsignedShort ());
+      _add (nAccess & ~ACC_SUPER);
+      _add (m_sThisClass);
+      _add (_className (m_aDIS.readUnsignedShort ()));
+      final int nInterfaces = m_aDIS.readUnsignedShort ();
+      for (int i = 0; i < nInterfaces; ++i)
+        _add (_className (m_aDIS.readUnsignedShort ()));
+
+      _readMembers ("F");
+      _readMembers ("M");
+      _readAttributes (true);
+      return true;
+    }
+  }
+
+  /**
+   * Get the names of all classes, that are potentially referenced by the provided class file. The
+   * result is an over-approximation and must be intersected with the set of interesting class
+   * names.
+   *
+   * @param aClassFile
+   *        The class file bytes. May not be <code>null</code>.
+   * @return The binary class names (e.g. <code>org.example.Outer$Inner</code>) or <code>null</code>
+   *         if the class file cannot be parsed.
+   */
+  @Nullable
+  static Set <String> getReferencedClassNames (@NonNull final byte [] aClassFile)
+  {
+    try
+    {
+      final Set <String> ret = new HashSet <> ();
+      for (final String sName : new Parser (aClassFile, createDigest ()).getReferencedNames ())
+        ret.add (sName.replace ('/', '.'));
+      return ret;
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Get the hash of the API of the provided class file.
+   *
+   * @param aClassFile
+   *        The class file bytes. May not be <code>null</code>.
+   * @return The SHA-256 hash. Never <code>null</code>.
+   */
+  @NonNull
+  static byte [] getAPIHash (@NonNull final byte [] aClassFile)
+  {
+    final MessageDigest aMD = createDigest ();
+    boolean bParsed;
+    try
+    {
+      bParsed = new Parser (aClassFile, aMD).parse ();
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      bParsed = false;
+    }
+    if (bParsed)
+      return aMD.digest ();
+
+    // Use everything
+    aMD.reset ();
+    return aMD.digest (aClassFile);
+  }
+}
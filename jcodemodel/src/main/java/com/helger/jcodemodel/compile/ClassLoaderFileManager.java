@@ -46,16 +46,16 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
-import java.net.JarURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.jar.JarEntry;
 
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.NestingKind;
@@ -67,9 +67,10 @@ import javax.tools.JavaFileObject.Kind;
 import javax.tools.StandardLocation;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.style.UnsupportedOperation;
-import com.helger.base.string.StringHelper;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.string.StringReplace;
 
 /**
@@ -90,11 +91,53 @@ public class ClassLoaderFileManager extends ForwardingJavaFileManager <JavaFileM
   public static final String CLASS_FILE_EXTENSION = JavaFileObject.Kind.CLASS.extension;
 
   private final DynamicClassLoader m_aCL;
+  private final ClassPathIndex m_aIndex;
+  // Package name to the already compiled classes of the class loader - lazily created
+  private Map <String, List <JavaFileObject>> m_aCompiledClasses;
+  private CompileMetrics m_aMetrics;
 
   public ClassLoaderFileManager (final JavaFileManager aFileManager, final DynamicClassLoader cl)
+  {
+    this (aFileManager, cl, new ClassPathIndex ());
+  }
+
+  /**
+   * @param aFileManager
+   *        The file manager to delegate to.
+   * @param cl
+   *        The dynamic class loader to use.
+   * @param aIndex
+   *        The index for JAR files and class directories. May be shared between file managers.
+   * @since 4.3.1
+   */
+  public ClassLoaderFileManager (final JavaFileManager aFileManager,
+                                 final DynamicClassLoader cl,
+                                 @NonNull final ClassPathIndex aIndex)
   {
     super (aFileManager);
+    ValueEnforcer.notNull (aIndex, "Index");
     m_aCL = cl;
+    m_aIndex = aIndex;
+  }
+
+  /**
+   * @return The index for JAR files and class directories used. Never <code>null</code>.
+   * @since 4.3.1
+   */
+  @NonNull
+  public final ClassPathIndex getClassPathIndex ()
+  {
+    return m_aIndex;
+  }
+
+  /**
+   * @param aMetrics
+   *        The metrics to record the duration of {@link #list(Location, String, Set, boolean)} into.
+   *        May be <code>null</code>.
+   */
+  void setMetrics (@Nullable final CompileMetrics aMetrics)
+  {
+    m_aMetrics = aMetrics;
   }
 
   @Override
@@ -114,18 +157,73 @@ public class ClassLoaderFileManager extends ForwardingJavaFileManager <JavaFileM
                                          @NonNull final String packageName,
                                          @NonNull final Set <Kind> kinds,
                                          final boolean recurse) throws IOException
+  {
+    final FileManagerListEvent aEvent = new FileManagerListEvent ();
+    aEvent.begin ();
+    final long nStart = System.nanoTime ();
+
+    final Iterable <JavaFileObject> ret = _list (location, packageName, kinds, recurse);
+
+    if (m_aMetrics != null)
+      m_aMetrics.addListDuration (System.nanoTime () - nStart);
+    if (aEvent.shouldCommit ())
+    {
+      aEvent.location = location == null ? null : location.getName ();
+      aEvent.packageName = packageName;
+      aEvent.resultCount = ret instanceof Collection <?> ? ((Collection <?>) ret).size () : -1;
+      aEvent.commit ();
+    }
+    return ret;
+  }
+
+  @NonNull
+  private Iterable <JavaFileObject> _list (final Location location,
+                                           @NonNull final String packageName,
+                                           @NonNull final Set <Kind> kinds,
+                                           final boolean recurse) throws IOException
   {
     if (location == StandardLocation.PLATFORM_CLASS_PATH || packageName.startsWith ("java"))
       // let standard manager handle
       return super.list (location, packageName, kinds, recurse);
 
     if (location == StandardLocation.CLASS_PATH && kinds.contains (JavaFileObject.Kind.CLASS))
+    {
       // app specific classes are here
-      return find (packageName);
+      final List <JavaFileObject> ret = find (packageName);
+      ret.addAll (_getCompiledClasses (packageName));
+      return ret;
+    }
 
     return Collections.emptyList ();
   }
 
+  /**
+   * Get the classes of the provided package, that were already compiled into the dynamic class
+   * loader (e.g. by a previous compilation). Classes that are about to be compiled have no byte code
+   * yet and are ignored.
+   *
+   * @param sPackageName
+   *        The package name to search
+   * @return The list of classes. Never <code>null</code>.
+   */
+  @NonNull
+  private List <JavaFileObject> _getCompiledClasses (@NonNull final String sPackageName)
+  {
+    if (m_aCompiledClasses == null)
+    {
+      m_aCompiledClasses = new HashMap <> ();
+      for (final CompiledCodeJavaFile aFile : m_aCL.getAllCode ())
+        if (aFile.hasByteCode ())
+        {
+          final String sClassName = aFile.getClassName ();
+          final int nLastDot = sClassName.lastIndexOf ('.');
+          final String sPackage = nLastDot < 0 ? "" : sClassName.substring (0, nLastDot);
+          m_aCompiledClasses.computeIfAbsent (sPackage, k -> new ArrayList <> ()).add (aFile);
+        }
+    }
+    return m_aCompiledClasses.getOrDefault (sPackageName, Collections.emptyList ());
+  }
+
   public List <JavaFileObject> find (@NonNull final String packageName) throws IOException
   {
     final String sJavaPackageName = StringReplace.replaceAll (packageName, '.', '/');
@@ -142,68 +240,21 @@ public class ClassLoaderFileManager extends ForwardingJavaFileManager <JavaFileM
     return result;
   }
 
-  private Collection <JavaFileObject> listUnder (final String packageName, final URL packageFolderURL)
+  private List <JavaFileObject> listUnder (final String packageName, final URL packageFolderURL)
   {
     final File directory = new File (packageFolderURL.getFile ());
     if (directory.isDirectory ())
       // local execution
-      return processDir (packageName, directory);
-    return processJar (packageFolderURL);
-  }
+      return m_aIndex.getDirectoryPackage (packageName, directory);
 
-  private List <JavaFileObject> processJar (final URL packageFolderURL)
-  {
-    final List <JavaFileObject> result = new ArrayList <> ();
     try
     {
-      final String jarUri = StringHelper.getExplodedArray ('!', packageFolderURL.toExternalForm (), 2)[0];
-
-      final JarURLConnection jarConn = (JarURLConnection) packageFolderURL.openConnection ();
-      final String rootEntryName = jarConn.getEntryName ();
-      final int rootEnd = rootEntryName.length () + 1;
-
-      final Enumeration <JarEntry> entryEnum = jarConn.getJarFile ().entries ();
-      while (entryEnum.hasMoreElements ())
-      {
-        final JarEntry jarEntry = entryEnum.nextElement ();
-        final String name = jarEntry.getName ();
-        if (name.startsWith (rootEntryName) &&
-          name.indexOf ('/', rootEnd) == -1 &&
-          name.endsWith (CLASS_FILE_EXTENSION))
-        {
-          final URI uri = URI.create (jarUri + "!/" + name);
-          String binaryName = StringReplace.replaceAll (name, '/', '.');
-          binaryName = StringHelper.trimEnd (binaryName, CLASS_FILE_EXTENSION);
-
-          result.add (new CustomJavaFileObject (binaryName, uri));
-        }
-      }
+      return m_aIndex.getJarPackage (packageFolderURL);
     }
     catch (final Exception e)
     {
       throw new RuntimeException ("Wasn't able to open " + packageFolderURL + " as a jar file", e);
     }
-    return result;
-  }
-
-  @NonNull
-  private List <JavaFileObject> processDir (@NonNull final String packageName, @NonNull final File directory)
-  {
-    final List <JavaFileObject> result = new ArrayList <> ();
-
-    final File [] childFiles = directory.listFiles ();
-    for (final File childFile : childFiles)
-      if (childFile.isFile ())
-        // We only want the .class files.
-        if (childFile.getName ().endsWith (CLASS_FILE_EXTENSION))
-        {
-          String binaryName = packageName + "." + childFile.getName ();
-          binaryName = StringHelper.trimEnd (binaryName, CLASS_FILE_EXTENSION);
-
-          result.add (new CustomJavaFileObject (binaryName, childFile.toURI ()));
-        }
-
-    return result;
   }
 
   @Override
@@ -231,6 +282,8 @@ public class ClassLoaderFileManager extends ForwardingJavaFileManager <JavaFileM
   {
     if (file instanceof CustomJavaFileObject)
       return ((CustomJavaFileObject) file).binaryName ();
+    if (file instanceof CompiledCodeJavaFile)
+      return ((CompiledCodeJavaFile) file).getClassName ();
 
     // if it's not CustomJavaFileObject, then it's coming from standard file
     // manager - let it handle the file
@@ -241,7 +294,7 @@ public class ClassLoaderFileManager extends ForwardingJavaFileManager <JavaFileM
    * @author atamur
    * @since 15-Oct-2009
    */
-  private static class CustomJavaFileObject implements JavaFileObject
+  static class CustomJavaFileObject implements JavaFileObject
   {
     private final String m_sBinaryName;
     private final URI m_sURI;
@@ -0,0 +1,426 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.tools.JavaCompiler;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * Manages generations of class loaders for models that are regenerated and recompiled at runtime.
+ * Each compilation creates a new {@link DynamicClassLoaderGeneration}, that is a child of the
+ * previous generation. The new generation only defines the classes whose byte code changed,
+ * together with all classes referencing them and all classes of the same packages (as package
+ * private access only works within a single class loader). All other classes are shared with the
+ * previous generation. Sources are compiled incrementally, so unchanged sources are not compiled
+ * again.
+ * <p>
+ * To limit the depth of the class loader chain, a full generation that contains all classes is
+ * created every {@link #getMaxDepth()} generations or on request via {@link #requestFull()}. The
+ * previous chain is then retired. Retired generations can be closed via
+ * {@link #closeRetiredGenerations()} once their classes are no longer used, so that they can be
+ * unloaded.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public class ClassLoaderGenerations implements Closeable
+{
+  /** The default maximum number of generations in a chain */
+  public static final int DEFAULT_MAX_DEPTH = 8;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (ClassLoaderGenerations.class);
+
+  private final ReentrantLock m_aLock = new ReentrantLock ();
+  private final ClassLoader m_aBaseClassLoader;
+  private final IncrementalCompilationState m_aIncrementalState = new IncrementalCompilationState ();
+  private int m_nMaxDepth = DEFAULT_MAX_DEPTH;
+  private boolean m_bFullRequested = false;
+  private int m_nNextGeneration = 0;
+  // The current chain, from the full generation to the current generation
+  private final List <DynamicClassLoaderGeneration> m_aChain = new ArrayList <> ();
+  private final List <DynamicClassLoaderGeneration> m_aRetired = new ArrayList <> ();
+  // The effective byte code of the current generation
+  private Map <String, byte []> m_aCurrentClasses = Collections.emptyMap ();
+
+  /**
+   * Constructor using the class loader of the Java compiler as the base, like
+   * {@link MemoryCodeWriter#dynCL()}.
+   */
+  public ClassLoaderGenerations ()
+  {
+    this (JavaCompiler.class.getClassLoader ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aBaseClassLoader
+   *        The parent class loader of all full generations. May be <code>null</code> to use the
+   *        bootstrap class loader.
+   */
+  public ClassLoaderGenerations (@Nullable final ClassLoader aBaseClassLoader)
+  {
+    m_aBaseClassLoader = aBaseClassLoader;
+  }
+
+  /**
+   * @return The maximum number of generations in a chain. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxDepth ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_nMaxDepth;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Set the maximum number of generations in a chain. If the chain would get deeper, a full
+   * generation is created instead.
+   *
+   * @param nMaxDepth
+   *        The maximum depth. Must be &gt; 0. 1 means that each generation is a full generation.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ClassLoaderGenerations setMaxDepth (final int nMaxDepth)
+  {
+    ValueEnforcer.isGT0 (nMaxDepth, "MaxDepth");
+    m_aLock.lock ();
+    try
+    {
+      m_nMaxDepth = nMaxDepth;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+    return this;
+  }
+
+  /**
+   * Request that the next generation is a full generation, e.g. because the previous classes are
+   * no longer used.
+   */
+  public void requestFull ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      m_bFullRequested = true;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The current generation. May be <code>null</code> if nothing was compiled yet.
+   */
+  @Nullable
+  public DynamicClassLoaderGeneration getCurrentGeneration ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_aChain.isEmpty () ? null : m_aChain.get (m_aChain.size () - 1);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return A copy of the current chain of generations, starting with the full generation. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public List <DynamicClassLoaderGeneration> getAllChainGenerations ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return new ArrayList <> (m_aChain);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return A copy of all generations, that are no longer part of the current chain and were not
+   *         yet closed. Never <code>null</code>.
+   */
+  @NonNull
+  public List <DynamicClassLoaderGeneration> getAllRetiredGenerations ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return new ArrayList <> (m_aRetired);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Close all retired generations. Classes of these generations that were not yet loaded can no
+   * longer be loaded afterwards.
+   *
+   * @return The number of closed generations.
+   */
+  @Nonnegative
+  public int closeRetiredGenerations ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      for (final DynamicClassLoaderGeneration aGeneration : m_aRetired)
+        aGeneration.close ();
+      final int ret = m_aRetired.size ();
+      m_aRetired.clear ();
+      return ret;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Determine the classes that must be defined in a new partial generation.
+   *
+   * @param aClasses
+   *        All classes of the new generation. May not be <code>null</code>.
+   * @param aChanged
+   *        The names of the classes that were added, changed or removed. May not be
+   *        <code>null</code>.
+   * @return The names of the classes to define. Never <code>null</code>.
+   */
+  @NonNull
+  static Set <String> getClassesToDefine (@NonNull final Map <String, byte []> aClasses,
+                                          @NonNull final Set <String> aChanged)
+  {
+    // Reverse references and classes per package
+    final Map <String, Set <String>> aReferrers = new HashMap <> ();
+    final Map <String, Set <String>> aPerPackage = new HashMap <> ();
+    for (final Map.Entry <String, byte []> aEntry : aClasses.entrySet ())
+    {
+      final String sClassName = aEntry.getKey ();
+      aPerPackage.computeIfAbsent (_getPackageName (sClassName), k -> new HashSet <> ()).add (sClassName);
+
+      final Set <String> aReferenced = ClassFileAPI.getReferencedClassNames (aEntry.getValue ());
+      // Unknown references - always define it
+      for (final String sReferenced : aReferenced == null ? aClasses.keySet () : aReferenced)
+        if (!sReferenced.equals (sClassName))
+          aReferrers.computeIfAbsent (sReferenced, k -> new HashSet <> ()).add (sClassName);
+    }
+
+    final Set <String> ret = new HashSet <> ();
+    final Set <String> aHandled = new HashSet <> ();
+    final Set <String> aHandledPackages = new HashSet <> ();
+    final Deque <String> aOpen = new ArrayDeque <> (aChanged);
+    while (!aOpen.isEmpty ())
+    {
+      final String sClassName = aOpen.pop ();
+      if (!aHandled.add (sClassName))
+        continue;
+      if (aClasses.containsKey (sClassName))
+        ret.add (sClassName);
+
+      // All classes referencing it
+      aOpen.addAll (aReferrers.getOrDefault (sClassName, Collections.emptySet ()));
+      // All classes of the same package
+      final String sPackageName = _getPackageName (sClassName);
+      if (aHandledPackages.add (sPackageName))
+        aOpen.addAll (aPerPackage.getOrDefault (sPackageName, Collections.emptySet ()));
+    }
+    return ret;
+  }
+
+  @NonNull
+  private static String _getPackageName (@NonNull final String sClassName)
+  {
+    final int nLastDot = sClassName.lastIndexOf ('.');
+    return nLastDot < 0 ? "" : sClassName.substring (0, nLastDot);
+  }
+
+  /**
+   * Compile the sources of the provided writer into a new generation. It is usually invoked via
+   * {@link MemoryCodeWriter#compile(ClassLoaderGenerations)}. The incremental state of the writer
+   * is not used, as the generations manage their own state.
+   *
+   * @param aWriter
+   *        The writer with the sources to compile. May not be <code>null</code>.
+   * @return <code>null</code> if compiling didn't work. The new current generation otherwise.
+   */
+  @Nullable
+  DynamicClassLoaderGeneration compile (@NonNull final MemoryCodeWriter aWriter)
+  {
+    m_aLock.lock ();
+    try
+    {
+      // Compile into a temporary class loader, whose classes are never defined
+      final DynamicClassLoader aDCL = new DynamicClassLoader (m_aBaseClassLoader);
+      if (aWriter.compile (aDCL, m_aIncrementalState).isFailure ())
+        return null;
+
+      final Map <String, byte []> aClasses = new HashMap <> ();
+      for (final CompiledCodeJavaFile aFile : aDCL.getAllCode ())
+        if (aFile.hasByteCode ())
+          aClasses.put (aFile.getClassName (), aFile.getByteCode ());
+
+      final boolean bFull = m_aChain.isEmpty () || m_aChain.size () >= m_nMaxDepth || m_bFullRequested;
+      final Set <String> aToDefine;
+      final Set <String> aRemoved = new HashSet <> ();
+      if (bFull)
+        aToDefine = aClasses.keySet ();
+      else
+      {
+        final Set <String> aChanged = new HashSet <> ();
+        for (final Map.Entry <String, byte []> aEntry : aClasses.entrySet ())
+          if (!Arrays.equals (aEntry.getValue (), m_aCurrentClasses.get (aEntry.getKey ())))
+            aChanged.add (aEntry.getKey ());
+        for (final String sClassName : m_aCurrentClasses.keySet ())
+          if (!aClasses.containsKey (sClassName))
+            aRemoved.add (sClassName);
+        aChanged.addAll (aRemoved);
+        aToDefine = getClassesToDefine (aClasses, aChanged);
+      }
+
+      final DynamicClassLoaderGeneration aParent = bFull ? null : m_aChain.get (m_aChain.size () - 1);
+      final DynamicClassLoaderGeneration ret = new DynamicClassLoaderGeneration (aParent != null ? aParent
+                                                                                                 : m_aBaseClassLoader,
+                                                                                 m_nNextGeneration++,
+                                                                                 bFull,
+                                                                                 aRemoved);
+      try
+      {
+        for (final String sClassName : aToDefine)
+          ret.setCode (new CompiledCodeJavaFile (sClassName, aClasses.get (sClassName)));
+      }
+      catch (final Exception ex)
+      {
+        throw new UnsupportedOperationException (ex);
+      }
+      ret.addResources (aWriter.getAllResources ());
+
+      if (bFull)
+      {
+        m_aRetired.addAll (m_aChain);
+        m_aChain.clear ();
+        m_bFullRequested = false;
+      }
+      m_aChain.add (ret);
+      m_aCurrentClasses = aClasses;
+
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Created class loader generation " +
+                      ret.getGeneration () +
+                      " defining " +
+                      aToDefine.size () +
+                      " of " +
+                      aClasses.size () +
+                      " classes");
+      return ret;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Close all generations, including the current chain. Afterwards the next compilation creates a
+   * new full generation.
+   */
+  @Override
+  public void close ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      m_aRetired.addAll (m_aChain);
+      m_aChain.clear ();
+      closeRetiredGenerations ();
+      m_aCurrentClasses = Collections.emptyMap ();
+      m_aIncrementalState.clear ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import javax.tools.JavaFileObject;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.string.StringHelper;
+import com.helger.base.string.StringReplace;
+
+/**
+ * An index of the class files contained in JAR files and class directories, used by
+ * {@link ClassLoaderFileManager}. Each JAR file is scanned only once and all its class files are
+ * grouped by package, so that looking up the classes of a package does not iterate all JAR entries
+ * again. An instance can be shared between multiple compilations (see
+ * {@link MemoryCodeWriter#setClassPathIndex(ClassPathIndex)}), as long as the indexed JAR files and
+ * directories don't change. Use {@link #clear()} otherwise.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public class ClassPathIndex
+{
+  /** JAR URI (without "!/") to a map from package path to the contained class files */
+  private final Map <String, Map <String, List <JavaFileObject>>> m_aJars = new ConcurrentHashMap <> ();
+  /** Directory path to the contained class files */
+  private final Map <String, List <JavaFileObject>> m_aDirs = new ConcurrentHashMap <> ();
+
+  public ClassPathIndex ()
+  {}
+
+  @NonNull
+  private static Map <String, List <JavaFileObject>> _indexJar (@NonNull final String sJarURI,
+                                                               @NonNull final JarFile aJarFile)
+  {
+    final Map <String, List <JavaFileObject>> ret = new HashMap <> ();
+    final Enumeration <JarEntry> aEntries = aJarFile.entries ();
+    while (aEntries.hasMoreElements ())
+    {
+      final String sName = aEntries.nextElement ().getName ();
+      if (sName.endsWith (ClassLoaderFileManager.CLASS_FILE_EXTENSION))
+      {
+        final int nLastSlash = sName.lastIndexOf ('/');
+        final String sPackagePath = nLastSlash < 0 ? "" : sName.substring (0, nLastSlash);
+
+        final URI aURI = URI.create (sJarURI + "!/" + sName);
+        final String sBinaryName = StringHelper.trimEnd (StringReplace.replaceAll (sName, '/', '.'),
+                                                         ClassLoaderFileManager.CLASS_FILE_EXTENSION);
+        ret.computeIfAbsent (sPackagePath, k -> new ArrayList <> ())
+           .add (new ClassLoaderFileManager.CustomJavaFileObject (sBinaryName, aURI));
+      }
+    }
+    // Make all lists immutable
+    ret.replaceAll ( (k, v) -> Collections.unmodifiableList (v));
+    return ret;
+  }
+
+  /**
+   * Get all class files directly contained in the package folder of a JAR file.
+   *
+   * @param aPackageFolderURL
+   *        The <code>jar:</code> URL of the package folder, as returned by
+   *        {@link ClassLoader#getResources(String)}. May not be <code>null</code>.
+   * @return An unmodifiable list of all class files. Never <code>null</code>.
+   * @throws IOException
+   *         If the JAR file cannot be read
+   */
+  @NonNull
+  public List <JavaFileObject> getJarPackage (@NonNull final URL aPackageFolderURL) throws IOException
+  {
+    final String sJarURI = StringHelper.getExplodedArray ('!', aPackageFolderURL.toExternalForm (), 2)[0];
+    final JarURLConnection aJarConn = (JarURLConnection) aPackageFolderURL.openConnection ();
+    final String sPackagePath = aJarConn.getEntryName ();
+
+    Map <String, List <JavaFileObject>> aIndex = m_aJars.get (sJarURI);
+    if (aIndex == null)
+    {
+      // Don't use computeIfAbsent, as the IOException must be propagated
+      aIndex = _indexJar (sJarURI, aJarConn.getJarFile ());
+      m_aJars.putIfAbsent (sJarURI, aIndex);
+    }
+
+    // The entry name may or may not end with a slash
+    final String sKey = sPackagePath.endsWith ("/") ? sPackagePath.substring (0, sPackagePath.length () - 1)
+                                                    : sPackagePath;
+    return aIndex.getOrDefault (sKey, Collections.emptyList ());
+  }
+
+  /**
+   * Get all class files directly contained in a directory.
+   *
+   * @param sPackageName
+   *        The Java package name that corresponds to the directory. May not be <code>null</code>.
+   * @param aDirectory
+   *        The directory to list. May not be <code>null</code>.
+   * @return An unmodifiable list of all class files. Never <code>null</code>.
+   */
+  @NonNull
+  public List <JavaFileObject> getDirectoryPackage (@NonNull final String sPackageName, @NonNull final File aDirectory)
+  {
+    return m_aDirs.computeIfAbsent (aDirectory.getAbsolutePath (), k -> {
+      final List <JavaFileObject> ret = new ArrayList <> ();
+      final File [] aChildFiles = aDirectory.listFiles ();
+      if (aChildFiles != null)
+        for (final File aChildFile : aChildFiles)
+          if (aChildFile.isFile ())
+            // We only want the .class files.
+            if (aChildFile.getName ().endsWith (ClassLoaderFileManager.CLASS_FILE_EXTENSION))
+            {
+              final String sBinaryName = StringHelper.trimEnd (sPackageName + "." + aChildFile.getName (),
+                                                               ClassLoaderFileManager.CLASS_FILE_EXTENSION);
+              ret.add (new ClassLoaderFileManager.CustomJavaFileObject (sBinaryName, aChildFile.toURI ()));
+            }
+      return Collections.unmodifiableList (ret);
+    });
+  }
+
+  /**
+   * @return The number of indexed JAR files.
+   */
+  public int getJarCount ()
+  {
+    return m_aJars.size ();
+  }
+
+  /**
+   * Remove all cached information, e.g. after the class path changed.
+   */
+  public void clear ()
+  {
+    m_aJars.clear ();
+    m_aDirs.clear ();
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.tools.JavaFileObject;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskEvent.Kind;
+import com.sun.source.util.TaskListener;
+
+/**
+ * Detailed timing of the in-memory compilation. The compiler phases are measured with a javac
+ * {@link TaskListener}, both in total and per compilation unit. Additionally the time spent in
+ * {@link ClassLoaderFileManager#list(javax.tools.JavaFileManager.Location, String, java.util.Set, boolean)}
+ * is measured, as searching the class path is a common bottleneck. Available via
+ * {@link CompileStatistics#getMetrics()}.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public final class CompileMetrics
+{
+  /**
+   * The listener for a single compilation task. A task runs in a single thread.
+   */
+  private final class PhaseListener implements TaskListener
+  {
+    private final Map <String, Long> m_aStarts = new HashMap <> ();
+
+    @NonNull
+    private String _getKey (@NonNull final TaskEvent aEvent)
+    {
+      final JavaFileObject aSourceFile = aEvent.getSourceFile ();
+      return aEvent.getKind ().name () +
+             '|' +
+             (aSourceFile == null ? "" : aSourceFile.toUri ().toString ()) +
+             '|' +
+             (aEvent.getTypeElement () == null ? "" : aEvent.getTypeElement ().getQualifiedName ().toString ());
+    }
+
+    @Override
+    public void started (@NonNull final TaskEvent aEvent)
+    {
+      m_aStarts.put (_getKey (aEvent), Long.valueOf (System.nanoTime ()));
+    }
+
+    @Override
+    public void finished (@NonNull final TaskEvent aEvent)
+    {
+      final Long aStart = m_aStarts.remove (_getKey (aEvent));
+      if (aStart != null)
+      {
+        final JavaFileObject aSourceFile = aEvent.getSourceFile ();
+        addPhaseDuration (aEvent.getKind (),
+                          aSourceFile == null ? null : aSourceFile.getName (),
+                          System.nanoTime () - aStart.longValue ());
+      }
+    }
+  }
+
+  private final ReentrantLock m_aLock = new ReentrantLock ();
+  private final Map <Kind, Long> m_aPhaseNanos = new EnumMap <> (Kind.class);
+  private final Map <String, Map <Kind, Long>> m_aUnitNanos = new TreeMap <> ();
+  private final AtomicInteger m_aListCount = new AtomicInteger (0);
+  private final AtomicLong m_aListNanos = new AtomicLong (0);
+
+  public CompileMetrics ()
+  {}
+
+  /**
+   * @return A new listener that records the phases of a single compilation task into this object.
+   */
+  @NonNull
+  TaskListener createTaskListener ()
+  {
+    return new PhaseListener ();
+  }
+
+  void addPhaseDuration (@NonNull final Kind eKind, @Nullable final String sUnitName, final long nNanos)
+  {
+    m_aLock.lock ();
+    try
+    {
+      m_aPhaseNanos.merge (eKind, Long.valueOf (nNanos), Long::sum);
+      if (sUnitName != null)
+        m_aUnitNanos.computeIfAbsent (sUnitName, k -> new EnumMap <> (Kind.class))
+                    .merge (eKind, Long.valueOf (nNanos), Long::sum);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  void addListDuration (final long nNanos)
+  {
+    m_aListCount.incrementAndGet ();
+    m_aListNanos.addAndGet (nNanos);
+  }
+
+  /**
+   * @param eKind
+   *        The compiler phase. May not be <code>null</code>.
+   * @return The total time spent in the provided phase in nanoseconds. If multiple tasks ran in
+   *         parallel, this is the sum over all tasks.
+   */
+  @Nonnegative
+  public long getPhaseDurationNanos (@NonNull final Kind eKind)
+  {
+    ValueEnforcer.notNull (eKind, "Kind");
+    m_aLock.lock ();
+    try
+    {
+      return m_aPhaseNanos.getOrDefault (eKind, Long.valueOf (0)).longValue ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return A copy of the total time per compiler phase in nanoseconds. Phases that didn't occur are
+   *         not contained. Never <code>null</code>.
+   */
+  @NonNull
+  public Map <Kind, Long> getAllPhaseDurationNanos ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return new EnumMap <> (m_aPhaseNanos);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return A copy of the time per compilation unit and compiler phase in nanoseconds. The key is
+   *         the name of the source file. Phases that are not related to a single unit are not
+   *         contained. Never <code>null</code>.
+   */
+  @NonNull
+  public Map <String, Map <Kind, Long>> getAllUnitDurationNanos ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      final Map <String, Map <Kind, Long>> ret = new TreeMap <> ();
+      for (final Map.Entry <String, Map <Kind, Long>> aEntry : m_aUnitNanos.entrySet ())
+        ret.put (aEntry.getKey (), Collections.unmodifiableMap (new EnumMap <> (aEntry.getValue ())));
+      return ret;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The number of calls to the <code>list</code> method of the file manager.
+   */
+  @Nonnegative
+  public int getListCount ()
+  {
+    return m_aListCount.get ();
+  }
+
+  /**
+   * @return The total time spent in the <code>list</code> method of the file manager in
+   *         nanoseconds.
+   */
+  @Nonnegative
+  public long getListDurationNanos ()
+  {
+    return m_aListNanos.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "CompileMetrics[phaseNanos=" +
+           getAllPhaseDurationNanos () +
+           ", unitCount=" +
+           m_aUnitNanos.size () +
+           ", listCount=" +
+           getListCount () +
+           ", listNanos=" +
+           getListDurationNanos () +
+           "]";
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+
+/**
+ * Statistics of a single {@link MemoryCodeWriter#compile(DynamicClassLoader)} call.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@Immutable
+public final class CompileStatistics
+{
+  private final long m_nDurationMillis;
+  private final long m_nPeakHeapBytes;
+  private final int m_nSourceCount;
+  private final int m_nCompiledUnitCount;
+  private final int m_nTaskCount;
+  private final int m_nRoundCount;
+  private final CompileMetrics m_aMetrics;
+
+  CompileStatistics (final long nDurationMillis,
+                     final long nPeakHeapBytes,
+                     final int nSourceCount,
+                     final int nCompiledUnitCount,
+                     final int nTaskCount,
+                     final int nRoundCount,
+                     @NonNull final CompileMetrics aMetrics)
+  {
+    m_nDurationMillis = nDurationMillis;
+    m_nPeakHeapBytes = nPeakHeapBytes;
+    m_nSourceCount = nSourceCount;
+    m_nCompiledUnitCount = nCompiledUnitCount;
+    m_nTaskCount = nTaskCount;
+    m_nRoundCount = nRoundCount;
+    m_aMetrics = aMetrics;
+  }
+
+  /**
+   * @return The wall time of the compilation in milliseconds.
+   */
+  @Nonnegative
+  public long getDurationMillis ()
+  {
+    return m_nDurationMillis;
+  }
+
+  /**
+   * @return The peak growth of the heap usage in bytes during the compilation, compared to the usage
+   *         at its start. It is derived from the heap memory pools without resetting their peak
+   *         usage, so it is a lower bound and it includes everything else that happened in the JVM at
+   *         the same time.
+   */
+  @Nonnegative
+  public long getPeakHeapBytes ()
+  {
+    return m_nPeakHeapBytes;
+  }
+
+  /**
+   * @return The number of Java sources of the writer.
+   */
+  @Nonnegative
+  public int getSourceCount ()
+  {
+    return m_nSourceCount;
+  }
+
+  /**
+   * @return The number of compilation units passed to the compiler. May be less than the number of
+   *         sources for incremental or cached compilations.
+   */
+  @Nonnegative
+  public int getCompiledUnitCount ()
+  {
+    return m_nCompiledUnitCount;
+  }
+
+  /**
+   * @return The number of compilation tasks executed.
+   */
+  @Nonnegative
+  public int getTaskCount ()
+  {
+    return m_nTaskCount;
+  }
+
+  /**
+   * @return The number of sequential rounds of compilation tasks. Tasks within a round may run in
+   *         parallel.
+   */
+  @Nonnegative
+  public int getRoundCount ()
+  {
+    return m_nRoundCount;
+  }
+
+  /**
+   * @return The detailed timing of the compiler phases. Never <code>null</code>. It is not modified
+   *         after the compilation finished.
+   */
+  @NonNull
+  public CompileMetrics getMetrics ()
+  {
+    return m_aMetrics;
+  }
+
+  /**
+   * The heap usage at the start of a compilation. The JVM wide peak usage of the memory pools is
+   * never reset, as that would disturb other monitoring and concurrent compilations.
+   */
+  static final class HeapSnapshot
+  {
+    private final List <MemoryPoolMXBean> m_aPools;
+    private final long [] m_aUsed;
+    private final long [] m_aPeak;
+
+    HeapSnapshot ()
+    {
+      m_aPools = new ArrayList <> ();
+      for (final MemoryPoolMXBean aPool : ManagementFactory.getMemoryPoolMXBeans ())
+        if (aPool.getType () == MemoryType.HEAP && aPool.isValid ())
+          m_aPools.add (aPool);
+      m_aUsed = new long [m_aPools.size ()];
+      m_aPeak = new long [m_aPools.size ()];
+      for (int i = 0; i < m_aUsed.length; ++i)
+      {
+        m_aUsed[i] = m_aPools.get (i).getUsage ().getUsed ();
+        m_aPeak[i] = m_aPools.get (i).getPeakUsage ().getUsed ();
+      }
+    }
+
+    /**
+     * @return The growth of the heap usage since this snapshot, at its peak. If a pool did not
+     *         exceed its previous peak, its usage at the end is used instead, so this is a lower
+     *         bound. Always &ge; 0.
+     */
+    @Nonnegative
+    long getPeakGrowth ()
+    {
+      long nStart = 0;
+      long nMax = 0;
+      for (int i = 0; i < m_aUsed.length; ++i)
+      {
+        final MemoryPoolMXBean aPool = m_aPools.get (i);
+        if (!aPool.isValid ())
+          continue;
+        final long nPeak = aPool.getPeakUsage ().getUsed ();
+        nStart += m_aUsed[i];
+        nMax += nPeak > m_aPeak[i] ? nPeak : Math.max (m_aUsed[i], aPool.getUsage ().getUsed ());
+      }
+      return Math.max (0, nMax - nStart);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "CompileStatistics[durationMillis=" +
+           m_nDurationMillis +
+           ", peakHeapBytes=" +
+           m_nPeakHeapBytes +
+           ", sourceCount=" +
+           m_nSourceCount +
+           ", compiledUnitCount=" +
+           m_nCompiledUnitCount +
+           ", taskCount=" +
+           m_nTaskCount +
+           ", roundCount=" +
+           m_nRoundCount +
+           ", metrics=" +
+           m_aMetrics +
+           "]";
+  }
+}
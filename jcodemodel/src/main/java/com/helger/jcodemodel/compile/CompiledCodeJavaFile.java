@@ -41,6 +41,7 @@
 package com.helger.jcodemodel.compile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 
@@ -66,6 +67,24 @@ public class CompiledCodeJavaFile extends SimpleJavaFileObject
     m_sClassName = className;
   }
 
+  /**
+   * Constructor for an already compiled class, e.g. from a previous compilation. Such a file can be
+   * used by the compiler as an input.
+   *
+   * @param className
+   *        The fully qualified binary class name.
+   * @param aByteCode
+   *        The byte code of the class. May not be <code>null</code>.
+   * @throws Exception
+   *         in case the class name is not a valid URI
+   * @since 4.3.1
+   */
+  public CompiledCodeJavaFile (final String className, final byte [] aByteCode) throws Exception
+  {
+    this (className);
+    m_aBAOS.write (aByteCode);
+  }
+
   public String getClassName ()
   {
     return m_sClassName;
@@ -74,11 +93,37 @@ public class CompiledCodeJavaFile extends SimpleJavaFileObject
   @Override
   public OutputStream openOutputStream () throws IOException
   {
+    // Don't append if the same class is written again
+    m_aBAOS.reset ();
     return m_aBAOS;
   }
 
+  @Override
+  public InputStream openInputStream () throws IOException
+  {
+    return m_aBAOS.getAsInputStream ();
+  }
+
+  /**
+   * @return <code>true</code> if the compiler already wrote the byte code of this class.
+   * @since 4.3.1
+   */
+  public boolean hasByteCode ()
+  {
+    return !m_aBAOS.isEmpty ();
+  }
+
   public byte [] getByteCode ()
   {
     return m_aBAOS.toByteArray ();
   }
+
+  @Override
+  public boolean isNameCompatible (final String sSimpleName, final Kind eKind)
+  {
+    if (eKind != Kind.CLASS)
+      return false;
+    final int nLastDot = m_sClassName.lastIndexOf ('.');
+    return m_sClassName.substring (nLastDot + 1).equals (sSimpleName);
+  }
 }
@@ -0,0 +1,292 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.StreamSupport;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.sun.source.util.JavacTask;
+
+/**
+ * A long living compiler session that can be used for many in-memory compilations. Creating the
+ * {@link StandardJavaFileManager} is expensive, because it opens the platform class archives and
+ * builds up internal caches. This class creates it only once and keeps it, together with a shared
+ * {@link ClassPathIndex} and the compiler options, for all compilations. Use it via
+ * {@link MemoryCodeWriter#setCompilerSession(CompilerSession)}.
+ * <p>
+ * The underlying file manager is not thread-safe, so compilations of the same session are
+ * serialized. Use one session per thread if parallel compilations are needed. Call
+ * {@link #close()} to release the file manager if the session is no longer needed.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public class CompilerSession implements AutoCloseable
+{
+  private static final JavaCompiler JAVAC = ToolProvider.getSystemJavaCompiler ();
+
+  private final Lock m_aLock = new ReentrantLock ();
+  private final ClassPathIndex m_aClassPathIndex;
+  private final ICommonsList <String> m_aOptions;
+  private final AtomicInteger m_aCompilationCount = new AtomicInteger (0);
+  // Status vars
+  private StandardJavaFileManager m_aFileManager;
+  // The listener of the running compilation, also used for the diagnostics of the shared file
+  // manager
+  private DiagnosticListener <? super JavaFileObject> m_aCurrentDL;
+  private boolean m_bClosed = false;
+
+  /**
+   * Constructor with a new {@link ClassPathIndex} and no compiler options.
+   */
+  public CompilerSession ()
+  {
+    this (new ClassPathIndex (), null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aClassPathIndex
+   *        The class path index to use. May not be <code>null</code>.
+   * @param aOptions
+   *        The compiler options to be used for all compilations (e.g. <code>-proc:none</code> or
+   *        <code>--release 17</code>). May be <code>null</code>.
+   */
+  public CompilerSession (@NonNull final ClassPathIndex aClassPathIndex, @Nullable final Iterable <String> aOptions)
+  {
+    ValueEnforcer.notNull (aClassPathIndex, "ClassPathIndex");
+    m_aClassPathIndex = aClassPathIndex;
+    m_aOptions = new CommonsArrayList <> ();
+    if (aOptions != null)
+      for (final String sOption : aOptions)
+        m_aOptions.add (sOption);
+  }
+
+  /**
+   * @return The class path index shared by all compilations. Never <code>null</code>.
+   */
+  @NonNull
+  public final ClassPathIndex getClassPathIndex ()
+  {
+    return m_aClassPathIndex;
+  }
+
+  /**
+   * @return A copy of all compiler options. Never <code>null</code> but maybe empty.
+   */
+  @NonNull
+  public final ICommonsList <String> getAllOptions ()
+  {
+    return m_aOptions.getClone ();
+  }
+
+  /**
+   * @return The number of compilations performed in this session. Always &ge; 0.
+   */
+  public final int getCompilationCount ()
+  {
+    return m_aCompilationCount.get ();
+  }
+
+  /**
+   * @return <code>true</code> if this session was already closed.
+   */
+  public final boolean isClosed ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_bClosed;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Compile the provided compilation units into the provided class loader.
+   *
+   * @param aCompilationUnits
+   *        The sources to compile. May not be <code>null</code>.
+   * @param aDynamicClassLoader
+   *        The class loader that receives the compiled classes. It is also used to resolve the
+   *        referenced classes. May not be <code>null</code>.
+   * @param aDL
+   *        The diagnostic listener for this compilation, also receiving the diagnostics of the
+   *        shared file manager. May be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if compilation worked, {@link ESuccess#FAILURE} otherwise.
+   * @throws IllegalStateException
+   *         if the session was already closed
+   */
+  @NonNull
+  public ESuccess compile (@NonNull final Iterable <? extends JavaFileObject> aCompilationUnits,
+                           @NonNull final DynamicClassLoader aDynamicClassLoader,
+                           @Nullable final DiagnosticListener <? super JavaFileObject> aDL)
+  {
+    return compile (aCompilationUnits, aDynamicClassLoader, aDL, null);
+  }
+
+  /**
+   * Compile the provided compilation units into the provided class loader and record the timing of
+   * the compiler phases.
+   *
+   * @param aCompilationUnits
+   *        The sources to compile. May not be <code>null</code>.
+   * @param aDynamicClassLoader
+   *        The class loader that receives the compiled classes. It is also used to resolve the
+   *        referenced classes. May not be <code>null</code>.
+   * @param aDL
+   *        The diagnostic listener for this compilation, also receiving the diagnostics of the
+   *        shared file manager. May be <code>null</code>.
+   * @param aMetrics
+   *        The metrics to record into. May be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if compilation worked, {@link ESuccess#FAILURE} otherwise.
+   * @throws IllegalStateException
+   *         if the session was already closed
+   */
+  @NonNull
+  public ESuccess compile (@NonNull final Iterable <? extends JavaFileObject> aCompilationUnits,
+                           @NonNull final DynamicClassLoader aDynamicClassLoader,
+                           @Nullable final DiagnosticListener <? super JavaFileObject> aDL,
+                           @Nullable final CompileMetrics aMetrics)
+  {
+    ValueEnforcer.notNull (aCompilationUnits, "CompilationUnits");
+    ValueEnforcer.notNull (aDynamicClassLoader, "DynamicClassLoader");
+
+    m_aLock.lock ();
+    try
+    {
+      if (m_bClosed)
+        throw new IllegalStateException ("This compiler session was already closed");
+
+      if (m_aFileManager == null)
+        m_aFileManager = JAVAC.getStandardFileManager (aDiagnostic -> {
+          final DiagnosticListener <? super JavaFileObject> aCurrentDL = m_aCurrentDL;
+          if (aCurrentDL != null)
+            aCurrentDL.report (aDiagnostic);
+        }, null, StandardCharsets.UTF_8);
+      m_aCurrentDL = aDL;
+
+      // The wrapping file manager is cheap and must not be closed, as that would close the shared
+      // standard file manager
+      final ClassLoaderFileManager aFileManager = new ClassLoaderFileManager (m_aFileManager,
+                                                                              aDynamicClassLoader,
+                                                                              m_aClassPathIndex);
+      aFileManager.setMetrics (aMetrics);
+      final JavaCompiler.CompilationTask aTask = JAVAC.getTask (null,
+                                                                aFileManager,
+                                                                aDL,
+                                                                m_aOptions.isEmpty () ? null : m_aOptions,
+                                                                null,
+                                                                aCompilationUnits);
+      if (aMetrics != null && aTask instanceof JavacTask)
+        ((JavacTask) aTask).addTaskListener (aMetrics.createTaskListener ());
+      m_aCompilationCount.incrementAndGet ();
+
+      final CompileEvent aEvent = new CompileEvent ();
+      aEvent.begin ();
+      final boolean bSuccess = aTask.call ().booleanValue ();
+      if (aEvent.shouldCommit ())
+      {
+        aEvent.compilationUnits = (int) StreamSupport.stream (aCompilationUnits.spliterator (), false).count ();
+        aEvent.success = bSuccess;
+        aEvent.commit ();
+      }
+      return ESuccess.valueOf (bSuccess);
+    }
+    finally
+    {
+      m_aCurrentDL = null;
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Close the underlying file manager. Afterwards no more compilations are possible. Calling this
+   * method more than once has no effect.
+   *
+   * @throws IOException
+   *         If closing the file manager failed
+   */
+  @Override
+  public void close () throws IOException
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (!m_bClosed)
+      {
+        m_bClosed = true;
+        if (m_aFileManager != null)
+        {
+          m_aFileManager.close ();
+          m_aFileManager = null;
+        }
+      }
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+
+/**
+ * An {@link IMemoryStorage} that keeps all files outside of the heap, in direct byte buffers. To
+ * avoid the overhead of many small direct allocations, files are stored contiguously in large
+ * segments. Only files that are larger than a quarter of the segment size get a buffer of their
+ * own. While a file is written, its content is collected in a reusable heap scratch buffer, so the
+ * heap only needs to hold the largest file.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@NotThreadSafe
+public class DirectMemoryStorage implements IMemoryStorage
+{
+  /** Default segment size of 4 MB */
+  public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+  private static final int MAX_SCRATCH_SIZE = 16 * 1024 * 1024;
+
+  private final int m_nSegmentSize;
+  private final Map <String, ByteBuffer> m_aFiles = new HashMap <> ();
+  private ByteBuffer m_aCurrentSegment;
+  private long m_nAllocatedBytes = 0;
+  private NonBlockingByteArrayOutputStream m_aScratch;
+
+  public DirectMemoryStorage ()
+  {
+    this (DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nSegmentSize
+   *        The size of each direct memory segment in bytes. Must be &gt; 0.
+   */
+  public DirectMemoryStorage (final int nSegmentSize)
+  {
+    ValueEnforcer.isGT0 (nSegmentSize, "SegmentSize");
+    m_nSegmentSize = nSegmentSize;
+  }
+
+  /**
+   * @return The size of each direct memory segment in bytes.
+   */
+  public final int getSegmentSize ()
+  {
+    return m_nSegmentSize;
+  }
+
+  /**
+   * @return The number of direct memory bytes allocated so far.
+   */
+  @Nonnegative
+  public final long getAllocatedBytes ()
+  {
+    return m_nAllocatedBytes;
+  }
+
+  @NonNull
+  private ByteBuffer _allocate (final int nSize)
+  {
+    if (nSize > m_nSegmentSize / 4)
+    {
+      // Large file
+      m_nAllocatedBytes += nSize;
+      return ByteBuffer.allocateDirect (nSize);
+    }
+
+    if (m_aCurrentSegment == null || m_aCurrentSegment.remaining () < nSize)
+    {
+      m_nAllocatedBytes += m_nSegmentSize;
+      m_aCurrentSegment = ByteBuffer.allocateDirect (m_nSegmentSize);
+    }
+    final int nPos = m_aCurrentSegment.position ();
+    final ByteBuffer ret = m_aCurrentSegment.duplicate ();
+    ret.limit (nPos + nSize);
+    m_aCurrentSegment.position (nPos + nSize);
+    return ret.slice ();
+  }
+
+  private void _store (@NonNull final String sPath, @NonNull final NonBlockingByteArrayOutputStream aScratch)
+  {
+    final ByteBuffer aExisting = m_aFiles.get (sPath);
+    final int nExisting = aExisting == null ? 0 : aExisting.remaining ();
+    final ByteBuffer aTarget = _allocate (nExisting + aScratch.size ());
+    if (aExisting != null)
+      aTarget.put (aExisting.duplicate ());
+    aTarget.put (aScratch.directGetBuffer (), 0, aScratch.size ());
+    aTarget.flip ();
+    m_aFiles.put (sPath, aTarget.asReadOnlyBuffer ());
+
+    // Reuse the scratch buffer, unless it grew too large
+    aScratch.reset ();
+    if (aScratch.directGetBuffer ().length <= MAX_SCRATCH_SIZE)
+      m_aScratch = aScratch;
+  }
+
+  @Override
+  @NonNull
+  public OutputStream openOutputStream (@NonNull final String sPath)
+  {
+    ValueEnforcer.notNull (sPath, "Path");
+    NonBlockingByteArrayOutputStream aScratch = m_aScratch;
+    if (aScratch != null)
+      m_aScratch = null;
+    else
+      aScratch = new NonBlockingByteArrayOutputStream ();
+    return new StorageOutputStream (aScratch, x -> _store (sPath, x));
+  }
+
+  @Override
+  public boolean contains (@Nullable final String sPath)
+  {
+    return m_aFiles.containsKey (sPath);
+  }
+
+  @Override
+  @NonNull
+  public Set <String> getAllPaths ()
+  {
+    return new HashSet <> (m_aFiles.keySet ());
+  }
+
+  @Override
+  @Nullable
+  public ByteBuffer getContent (@Nullable final String sPath)
+  {
+    final ByteBuffer ret = m_aFiles.get (sPath);
+    return ret == null ? null : ret.duplicate ();
+  }
+
+  @Override
+  public void close ()
+  {
+    // The memory is released by the garbage collector
+    m_aFiles.clear ();
+    m_aCurrentSegment = null;
+    m_aScratch = null;
+  }
+}
@@ -47,11 +47,18 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 
 /**
@@ -61,11 +68,22 @@ import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
  * {@link #addResources(Map)}; then you can use it as a normal classloader, eg
  * {@link ClassLoader#loadClass(String)} or {@link ClassLoader#getResource(String)}
  * </p>
+ * <p>
+ * The class loader is parallel capable, so classes can be loaded from multiple threads without
+ * blocking each other.
+ * </p>
  */
+@ThreadSafe
 public class DynamicClassLoader extends ClassLoader
 {
-  private final Map <String, CompiledCodeJavaFile> m_aCustomCompiledCode = new HashMap <> ();
-  private final Map <String, NonBlockingByteArrayOutputStream> m_aCustomResources = new HashMap <> ();
+  static
+  {
+    registerAsParallelCapable ();
+  }
+
+  private final Map <String, CompiledCodeJavaFile> m_aCustomCompiledCode = new ConcurrentHashMap <> ();
+  private final Map <String, NonBlockingByteArrayOutputStream> m_aCustomResources = new ConcurrentHashMap <> ();
+  private volatile boolean m_bReleaseByteCode = false;
 
   /**
    * internal url handler that generates url to load inside its own resources, if exists. It
@@ -110,6 +128,33 @@ public class DynamicClassLoader extends ClassLoader
     super (parent);
   }
 
+  /**
+   * @return <code>true</code> if the byte code of a class is released after the class was defined.
+   * @since 4.3.1
+   */
+  public final boolean isReleaseByteCode ()
+  {
+    return m_bReleaseByteCode;
+  }
+
+  /**
+   * Define whether the byte code of a class should be released after the class was defined, to
+   * free the heap. Released classes are no longer returned by {@link #getCode(String)} and
+   * {@link #getAllCode()}, so they can e.g. no longer be used as the input of another compilation
+   * or be written to a JAR file. By default the byte code is kept.
+   *
+   * @param bReleaseByteCode
+   *        <code>true</code> to release the byte code after definition.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final DynamicClassLoader setReleaseByteCode (final boolean bReleaseByteCode)
+  {
+    m_bReleaseByteCode = bReleaseByteCode;
+    return this;
+  }
+
   /**
    * set the bytecode for a given class
    *
@@ -121,6 +166,19 @@ public class DynamicClassLoader extends ClassLoader
     m_aCustomCompiledCode.put (cc.getName (), cc);
   }
 
+  /**
+   * remove the bytecode for a given class name. Has no effect on classes that were already defined.
+   *
+   * @param fullClassName
+   *        the full name of the class, including its package, eg java.lang.String
+   * @return the removed compiledCode for that class, or null.
+   * @since 4.3.1
+   */
+  public CompiledCodeJavaFile removeCode (final String fullClassName)
+  {
+    return m_aCustomCompiledCode.remove (fullClassName);
+  }
+
   /**
    * get the bytecode for a given class name.
    *
@@ -133,6 +191,17 @@ public class DynamicClassLoader extends ClassLoader
     return m_aCustomCompiledCode.get (fullClassName);
   }
 
+  /**
+   * @return An unmodifiable view on all compiled code files of this class loader. Never
+   *         <code>null</code>. Entries may be empty if the compilation did not succeed.
+   * @since 4.3.1
+   */
+  @NonNull
+  public Collection <CompiledCodeJavaFile> getAllCode ()
+  {
+    return Collections.unmodifiableCollection (m_aCustomCompiledCode.values ());
+  }
+
   /**
    * add a map of path-> resource
    *
@@ -144,14 +213,75 @@ public class DynamicClassLoader extends ClassLoader
     m_aCustomResources.putAll (resources);
   }
 
+  /**
+   * Remove all byte code and all resources. Classes that were already defined are not affected.
+   *
+   * @since 4.3.1
+   */
+  protected void clearCodeAndResources ()
+  {
+    m_aCustomCompiledCode.clear ();
+    m_aCustomResources.clear ();
+  }
+
+  /**
+   * @param sName
+   *        The resource name. May be <code>null</code>.
+   * @return <code>true</code> if this class loader itself contains the provided resource.
+   * @since 4.3.1
+   */
+  protected final boolean containsResource (@Nullable final String sName)
+  {
+    return sName != null && m_aCustomResources.containsKey (sName);
+  }
+
+  /**
+   * Define all classes, whose byte code is available, at once. This avoids the lazy definition when
+   * the classes are used for the first time, e.g. from multiple request threads.
+   *
+   * @return The number of classes that were defined by this call.
+   * @throws ClassNotFoundException
+   *         If a class cannot be defined, e.g. because a referenced class is missing
+   * @since 4.3.1
+   */
+  @Nonnegative
+  public int defineAllClasses () throws ClassNotFoundException
+  {
+    final List <String> aToDefine = new ArrayList <> ();
+    for (final CompiledCodeJavaFile cc : m_aCustomCompiledCode.values ())
+      if (cc.hasByteCode () && findLoadedClass (cc.getClassName ()) == null)
+        aToDefine.add (cc.getClassName ());
+
+    // Defining a class may implicitly define its super classes
+    for (final String sClassName : aToDefine)
+      loadClass (sClassName);
+
+    int ret = 0;
+    for (final String sClassName : aToDefine)
+      if (findLoadedClass (sClassName) != null)
+        ret++;
+    return ret;
+  }
+
   @Override
   protected Class <?> findClass (final String sName) throws ClassNotFoundException
   {
     final CompiledCodeJavaFile cc = m_aCustomCompiledCode.get (sName);
     if (cc != null)
     {
+      final FindClassEvent aEvent = new FindClassEvent ();
+      aEvent.begin ();
       final byte [] aByteCode = cc.getByteCode ();
-      return defineClass (sName, aByteCode, 0, aByteCode.length);
+      final Class <?> ret = defineClass (sName, aByteCode, 0, aByteCode.length);
+      if (m_bReleaseByteCode)
+        m_aCustomCompiledCode.remove (sName, cc);
+      if (aEvent.shouldCommit ())
+      {
+        aEvent.className = sName;
+        aEvent.byteCodeSize = aByteCode.length;
+        aEvent.commit ();
+      }
+      return ret;
     }
 
     return super.findClass (sName);
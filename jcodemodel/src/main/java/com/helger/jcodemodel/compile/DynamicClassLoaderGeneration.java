@@ -0,0 +1,200 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.Closeable;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+
+/**
+ * A single generation of a {@link ClassLoaderGenerations}. A generation only contains the classes
+ * that changed compared to its parent generation, all other classes are shared with the parent.
+ * Therefore the own classes are loaded before asking the parent (child first), and classes that were
+ * removed from the model are hidden.
+ * <p>
+ * Closing a generation releases all byte code and resources. Already defined classes keep working,
+ * but no more classes can be loaded from it. Once no more references to the class loader and its
+ * classes exist, the classes can be unloaded.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public class DynamicClassLoaderGeneration extends DynamicClassLoader implements Closeable
+{
+  static
+  {
+    registerAsParallelCapable ();
+  }
+
+  private final int m_nGeneration;
+  private final boolean m_bFull;
+  private final Set <String> m_aHiddenClassNames;
+  private volatile boolean m_bClosed = false;
+
+  /**
+   * Constructor
+   *
+   * @param aParent
+   *        The parent generation or the base class loader. May not be <code>null</code>.
+   * @param nGeneration
+   *        The generation number.
+   * @param bFull
+   *        <code>true</code> if this generation contains all classes and does not share classes with
+   *        a parent generation.
+   * @param aHiddenClassNames
+   *        The names of the classes that must not be loaded from the parent. May not be
+   *        <code>null</code>.
+   */
+  DynamicClassLoaderGeneration (@NonNull final ClassLoader aParent,
+                                @Nonnegative final int nGeneration,
+                                final boolean bFull,
+                                @NonNull final Set <String> aHiddenClassNames)
+  {
+    super (aParent);
+    m_nGeneration = nGeneration;
+    m_bFull = bFull;
+    m_aHiddenClassNames = new HashSet <> (aHiddenClassNames);
+  }
+
+  /**
+   * @return The generation number. The first generation has the number 0.
+   */
+  @Nonnegative
+  public final int getGeneration ()
+  {
+    return m_nGeneration;
+  }
+
+  /**
+   * @return <code>true</code> if this generation contains all classes and does not share classes
+   *         with a parent generation.
+   */
+  public final boolean isFull ()
+  {
+    return m_bFull;
+  }
+
+  /**
+   * @return The names of the classes, that are hidden from the parent generation. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public final Set <String> getAllHiddenClassNames ()
+  {
+    return Collections.unmodifiableSet (m_aHiddenClassNames);
+  }
+
+  /**
+   * @return <code>true</code> if this generation was closed.
+   */
+  public final boolean isClosed ()
+  {
+    return m_bClosed;
+  }
+
+  @Override
+  protected Class <?> loadClass (final String sName, final boolean bResolve) throws ClassNotFoundException
+  {
+    synchronized (getClassLoadingLock (sName))
+    {
+      Class <?> ret = findLoadedClass (sName);
+      if (ret == null)
+      {
+        if (m_bClosed)
+          throw new ClassNotFoundException (sName + " - generation " + m_nGeneration + " is closed");
+        if (m_aHiddenClassNames.contains (sName))
+          throw new ClassNotFoundException (sName);
+
+        final CompiledCodeJavaFile cc = getCode (sName);
+        if (cc == null || !cc.hasByteCode ())
+          return super.loadClass (sName, bResolve);
+
+        // Own classes have precedence over the parent
+        ret = findClass (sName);
+      }
+      if (bResolve)
+        resolveClass (ret);
+      return ret;
+    }
+  }
+
+  @Override
+  public URL getResource (final String sName)
+  {
+    if (containsResource (sName))
+      return findResource (sName);
+    return super.getResource (sName);
+  }
+
+  /**
+   * Release all byte code and resources of this generation. Calling this method more than once has
+   * no effect.
+   */
+  @Override
+  public void close ()
+  {
+    m_bClosed = true;
+    clearCodeAndResources ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "DynamicClassLoaderGeneration[generation=" +
+           m_nGeneration +
+           ", full=" +
+           m_bFull +
+           ", classes=" +
+           getAllCode ().size () +
+           ", closed=" +
+           m_bClosed +
+           "]";
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+
+/**
+ * The default {@link IMemoryStorage} that keeps all files in heap byte arrays.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@NotThreadSafe
+public class HeapMemoryStorage implements IMemoryStorage
+{
+  private final Map <String, NonBlockingByteArrayOutputStream> m_aFiles = new HashMap <> ();
+
+  public HeapMemoryStorage ()
+  {}
+
+  @Override
+  @NonNull
+  public OutputStream openOutputStream (@NonNull final String sPath)
+  {
+    return m_aFiles.computeIfAbsent (sPath, k -> new NonBlockingByteArrayOutputStream ());
+  }
+
+  @Override
+  public boolean contains (@Nullable final String sPath)
+  {
+    return m_aFiles.containsKey (sPath);
+  }
+
+  @Override
+  @NonNull
+  public Set <String> getAllPaths ()
+  {
+    return new HashSet <> (m_aFiles.keySet ());
+  }
+
+  @Override
+  @Nullable
+  public ByteBuffer getContent (@Nullable final String sPath)
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = m_aFiles.get (sPath);
+    if (aBAOS == null)
+      return null;
+    return ByteBuffer.wrap (aBAOS.directGetBuffer (), 0, aBAOS.size ()).slice ().asReadOnlyBuffer ();
+  }
+
+  /**
+   * @return An unmodifiable view on all files. Never <code>null</code>.
+   */
+  @NonNull
+  public Map <String, NonBlockingByteArrayOutputStream> getAllFiles ()
+  {
+    return Collections.unmodifiableMap (m_aFiles);
+  }
+
+  @Override
+  public void close ()
+  {
+    m_aFiles.clear ();
+  }
+}
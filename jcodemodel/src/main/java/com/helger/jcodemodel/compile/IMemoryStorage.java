@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The storage of the files written into a {@link MemoryCodeWriter}. Implementations may keep the
+ * content in the heap ({@link HeapMemoryStorage}), in direct memory ({@link DirectMemoryStorage})
+ * or in a memory mapped temporary file ({@link SpillingMemoryStorage}).
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public interface IMemoryStorage extends Closeable
+{
+  /**
+   * Open a stream to write the content of a file. If the file already exists, the new content is
+   * appended. The content is only visible via {@link #getContent(String)} after the stream was
+   * closed.
+   *
+   * @param sPath
+   *        The path of the file. May not be <code>null</code>.
+   * @return The stream to write to. Never <code>null</code>.
+   * @throws IOException
+   *         In case of an error
+   */
+  @NonNull
+  OutputStream openOutputStream (@NonNull String sPath) throws IOException;
+
+  /**
+   * @param sPath
+   *        The path of the file. May be <code>null</code>.
+   * @return <code>true</code> if the file exists.
+   */
+  boolean contains (@Nullable String sPath);
+
+  /**
+   * @return A copy of the paths of all files. Never <code>null</code>.
+   */
+  @NonNull
+  Set <String> getAllPaths ();
+
+  /**
+   * Get the content of a file without copying it.
+   *
+   * @param sPath
+   *        The path of the file. May be <code>null</code>.
+   * @return A new read-only buffer with the position 0 and the limit at the end of the content, or
+   *         <code>null</code> if the file does not exist.
+   * @throws IOException
+   *         In case of an error
+   */
+  @Nullable
+  ByteBuffer getContent (@Nullable String sPath) throws IOException;
+
+  /**
+   * Release all resources. Afterwards the content is no longer available.
+   *
+   * @throws IOException
+   *         In case of an error
+   */
+  @Override
+  void close () throws IOException;
+}
@@ -0,0 +1,390 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.tools.JavaFileObject;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * The state of incremental compilations via {@link MemoryCodeWriter}. It remembers the content hash
+ * and the compiled classes of each compilation unit of the last successful compilation. The next
+ * compilation only compiles the units that changed - all other classes are taken from the previous
+ * compilation and are provided to the compiler as class files.
+ * <p>
+ * If the API of a changed unit changes (see {@link ClassFileAPI}), or a unit is removed, all units
+ * that mention its simple name - directly or transitively - are recompiled as well. This is
+ * conservative, because the simple name may also appear in comments or as an unrelated identifier.
+ * Changes to <code>package-info.java</code> or <code>module-info.java</code> trigger a full
+ * compilation.
+ * </p>
+ * Use it via {@link MemoryCodeWriter#setIncrementalState(IncrementalCompilationState)}. Use a new
+ * {@link DynamicClassLoader} for each compilation, as already defined classes cannot be redefined.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+public class IncrementalCompilationState
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (IncrementalCompilationState.class);
+
+  private static final class UnitState
+  {
+    private final byte [] m_aSourceHash;
+    private final Set <String> m_aIdentifiers;
+    private final Map <String, byte []> m_aClasses;
+    private final byte [] m_aAPIHash;
+
+    UnitState (@NonNull final byte [] aSourceHash,
+               @NonNull final Set <String> aIdentifiers,
+               @NonNull final Map <String, byte []> aClasses,
+               @NonNull final byte [] aAPIHash)
+    {
+      m_aSourceHash = aSourceHash;
+      m_aIdentifiers = aIdentifiers;
+      m_aClasses = aClasses;
+      m_aAPIHash = aAPIHash;
+    }
+  }
+
+  private final Lock m_aLock = new ReentrantLock ();
+  // Source path to state
+  private final Map <String, UnitState> m_aUnits = new HashMap <> ();
+  private int m_nLastCompiledUnitCount = 0;
+
+  public IncrementalCompilationState ()
+  {}
+
+  /**
+   * @return The number of compilation units known from the last successful compilation.
+   */
+  public int getUnitCount ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_aUnits.size ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The number of compilation units that were passed to the compiler in the last
+   *         compilation. Units that were compiled more than once are counted more than once.
+   */
+  public int getLastCompiledUnitCount ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_nLastCompiledUnitCount;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Forget everything, so that the next compilation is a full compilation.
+   */
+  public void clear ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      m_aUnits.clear ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @NonNull
+  private static String _getSimpleName (@NonNull final String sPath)
+  {
+    final String sClassName = MemoryCodeWriter.getClassName (sPath);
+    return sClassName.substring (sClassName.lastIndexOf ('.') + 1);
+  }
+
+  private static boolean _isInfoFile (@NonNull final String sPath)
+  {
+    final String sSimpleName = _getSimpleName (sPath);
+    return sSimpleName.equals ("package-info") || sSimpleName.equals ("module-info");
+  }
+
+  /**
+   * @param sSource
+   *        Java source code
+   * @return All identifiers contained in the source, including the ones in comments and string
+   *         literals.
+   */
+  @NonNull
+  static Set <String> getAllIdentifiers (@NonNull final String sSource)
+  {
+    final Set <String> ret = new HashSet <> ();
+    final int nLen = sSource.length ();
+    int i = 0;
+    while (i < nLen)
+    {
+      if (Character.isJavaIdentifierStart (sSource.charAt (i)))
+      {
+        final int nStart = i;
+        ++i;
+        while (i < nLen && Character.isJavaIdentifierPart (sSource.charAt (i)))
+          ++i;
+        ret.add (sSource.substring (nStart, i));
+      }
+      else
+        ++i;
+    }
+    return ret;
+  }
+
+  /**
+   * Find all units that directly or transitively reference one of the provided simple names.
+   */
+  @NonNull
+  private Set <String> _getDependents (@NonNull final Set <String> aSimpleNames,
+                                       @NonNull final Set <String> aAllPaths,
+                                       @NonNull final Set <String> aExcluded)
+  {
+    final Set <String> ret = new TreeSet <> ();
+    final Deque <String> aOpen = new ArrayDeque <> (aSimpleNames);
+    final Set <String> aHandled = new HashSet <> ();
+    while (!aOpen.isEmpty ())
+    {
+      final String sSimpleName = aOpen.pop ();
+      if (aHandled.add (sSimpleName))
+        for (final String sPath : aAllPaths)
+          if (!aExcluded.contains (sPath) && !ret.contains (sPath))
+          {
+            final UnitState aUnit = m_aUnits.get (sPath);
+            if (aUnit == null || aUnit.m_aIdentifiers.contains (sSimpleName))
+            {
+              ret.add (sPath);
+              aOpen.add (_getSimpleName (sPath));
+            }
+          }
+    }
+    return ret;
+  }
+
+  /**
+   * Compile the provided sources incrementally.
+   *
+   * @param aSources
+   *        All Java sources of the current model, from path to source bytes. May not be
+   *        <code>null</code>. Only the sources that need to be compiled are decoded.
+   * @param aCharset
+   *        The charset of the sources. May not be <code>null</code>.
+   * @param aDynamicClassLoader
+   *        The class loader to be filled. May not be <code>null</code>.
+   * @param aCompiler
+   *        The compiler to be invoked with a list of compilation units. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess}. On failure the state remains unchanged.
+   */
+  @NonNull
+  ESuccess compile (@NonNull final Map <String, ByteBuffer> aSources,
+                    @NonNull final Charset aCharset,
+                    @NonNull final DynamicClassLoader aDynamicClassLoader,
+                    @NonNull final Function <List <JavaFileObject>, ESuccess> aCompiler) throws Exception
+  {
+    m_aLock.lock ();
+    try
+    {
+      // Determine the changed units
+      final Function <String, String> aSourceTexts = sPath -> aCharset.decode (aSources.get (sPath).duplicate ())
+                                                                      .toString ();
+      final Map <String, byte []> aSourceHashes = new HashMap <> ();
+      final Set <String> aChanged = new TreeSet <> ();
+      boolean bFull = false;
+      for (final Map.Entry <String, ByteBuffer> aEntry : aSources.entrySet ())
+      {
+        final String sPath = aEntry.getKey ();
+        final MessageDigest aMD = ClassFileAPI.createDigest ();
+        aMD.update (aEntry.getValue ().duplicate ());
+        final byte [] aHash = aMD.digest ();
+        aSourceHashes.put (sPath, aHash);
+
+        final UnitState aOld = m_aUnits.get (sPath);
+        if (aOld == null || !Arrays.equals (aOld.m_aSourceHash, aHash))
+        {
+          aChanged.add (sPath);
+          if (_isInfoFile (sPath))
+            bFull = true;
+        }
+      }
+
+      // Removed units
+      final Set <String> aRemovedNames = new HashSet <> ();
+      for (final String sPath : m_aUnits.keySet ())
+        if (!aSources.containsKey (sPath))
+        {
+          if (_isInfoFile (sPath))
+            bFull = true;
+          aRemovedNames.add (_getSimpleName (sPath));
+        }
+
+      if (bFull)
+        aChanged.addAll (aSources.keySet ());
+      else
+        aChanged.addAll (_getDependents (aRemovedNames, aSources.keySet (), aChanged));
+
+      // Provide all unchanged classes to the class loader
+      for (final Map.Entry <String, UnitState> aEntry : m_aUnits.entrySet ())
+        if (aSources.containsKey (aEntry.getKey ()) && !aChanged.contains (aEntry.getKey ()))
+          for (final Map.Entry <String, byte []> aClass : aEntry.getValue ().m_aClasses.entrySet ())
+            aDynamicClassLoader.setCode (new CompiledCodeJavaFile (aClass.getKey (), aClass.getValue ()));
+
+      final Map <String, UnitState> aNewUnits = new HashMap <> ();
+      final Set <String> aAllCompiled = new HashSet <> ();
+      Set <String> aToCompile = aChanged;
+      int nCompiledUnits = 0;
+      while (!aToCompile.isEmpty ())
+      {
+        if (LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Incrementally compiling " + aToCompile.size () + " of " + aSources.size () + " units");
+
+        // Remove all old classes of the units to compile
+        final Set <String> aClassNames = new HashSet <> ();
+        for (final String sPath : aToCompile)
+          aClassNames.add (MemoryCodeWriter.getClassName (sPath));
+        for (final CompiledCodeJavaFile aFile : new CommonsArrayList <> (aDynamicClassLoader.getAllCode ()))
+          if (aClassNames.contains (MemoryCodeWriter.getTopLevelClassName (aFile.getClassName ())))
+            aDynamicClassLoader.removeCode (aFile.getClassName ());
+
+        final ICommonsList <JavaFileObject> aCompilationUnits = new CommonsArrayList <> ();
+        final Map <String, String> aTexts = new HashMap <> ();
+        for (final String sPath : aToCompile)
+        {
+          final String sText = aSourceTexts.apply (sPath);
+          aTexts.put (sPath, sText);
+          aCompilationUnits.add (new SourceJavaFile (sPath, sText));
+          aDynamicClassLoader.setCode (new CompiledCodeJavaFile (MemoryCodeWriter.getClassName (sPath)));
+        }
+        nCompiledUnits += aToCompile.size ();
+        if (aCompiler.apply (aCompilationUnits).isFailure ())
+          return ESuccess.FAILURE;
+        aAllCompiled.addAll (aToCompile);
+
+        // Assign the created classes to the units
+        final Map <String, Map <String, byte []>> aClassesPerUnit = new HashMap <> ();
+        for (final CompiledCodeJavaFile aFile : aDynamicClassLoader.getAllCode ())
+          if (aFile.hasByteCode ())
+          {
+            final String sTopLevel = MemoryCodeWriter.getTopLevelClassName (aFile.getClassName ());
+            if (aClassNames.contains (sTopLevel))
+              aClassesPerUnit.computeIfAbsent (sTopLevel, k -> new TreeMap <> ())
+                             .put (aFile.getClassName (), aFile.getByteCode ());
+          }
+
+        // Find the units with a changed API
+        final Set <String> aAPIChanged = new HashSet <> ();
+        for (final String sPath : aToCompile)
+        {
+          final Map <String, byte []> aClasses = aClassesPerUnit.getOrDefault (MemoryCodeWriter.getClassName (sPath),
+                                                                              Collections.emptyMap ());
+          final MessageDigest aMD = ClassFileAPI.createDigest ();
+          for (final Map.Entry <String, byte []> aClass : aClasses.entrySet ())
+          {
+            aMD.update (aClass.getKey ().getBytes (aCharset));
+            aMD.update (ClassFileAPI.getAPIHash (aClass.getValue ()));
+          }
+          final byte [] aAPIHash = aMD.digest ();
+          final UnitState aOld = m_aUnits.get (sPath);
+          if (aOld == null || !Arrays.equals (aOld.m_aAPIHash, aAPIHash))
+            aAPIChanged.add (_getSimpleName (sPath));
+
+          aNewUnits.put (sPath,
+                         new UnitState (aSourceHashes.get (sPath),
+                                        getAllIdentifiers (aTexts.get (sPath)),
+                                        aClasses,
+                                        aAPIHash));
+        }
+
+        // Recompile all dependents of changed APIs, that were not yet compiled
+        aToCompile = _getDependents (aAPIChanged, aSources.keySet (), aAllCompiled);
+      }
+
+      // Remember the new state
+      m_aUnits.keySet ().retainAll (aSources.keySet ());
+      m_aUnits.putAll (aNewUnits);
+      m_nLastCompiledUnitCount = nCompiledUnits;
+      return ESuccess.SUCCESS;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.WillCloseWhenClosed;
+import com.helger.annotation.style.ReturnsMutableObject;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.base.string.StringReplace;
+
+/**
+ * A {@link MemoryCodeWriter} that compiles the collected sources in memory when it is closed and
+ * writes the resulting class files together with all resources into a JAR file. This avoids
+ * writing the sources to disk, invoking <code>javac</code> and packaging the result.
+ * <p>
+ * Usage: <code>new JCMWriter (cm).build (new JarCodeWriter (aOS));</code>. If the compilation
+ * fails, {@link #close()} throws an {@link IOException} and the target stream is closed without
+ * any content.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class JarCodeWriter extends MemoryCodeWriter
+{
+  public static final boolean DEFAULT_INCLUDE_SOURCES = false;
+
+  private final OutputStream m_aTarget;
+  private final Manifest m_aManifest = new Manifest ();
+  private boolean m_bIncludeSources = DEFAULT_INCLUDE_SOURCES;
+  private boolean m_bClosed = false;
+
+  /**
+   * @param aTarget
+   *        The stream to write the JAR file to. It is closed when this writer is closed. May not
+   *        be <code>null</code>.
+   */
+  public JarCodeWriter (@NonNull @WillCloseWhenClosed final OutputStream aTarget)
+  {
+    ValueEnforcer.notNull (aTarget, "Target");
+    m_aTarget = aTarget;
+    final Attributes aAttrs = m_aManifest.getMainAttributes ();
+    aAttrs.put (Attributes.Name.MANIFEST_VERSION, "1.0");
+    aAttrs.putValue ("Created-By", "jcodemodel");
+  }
+
+  /**
+   * @return The manifest to be written. Modify it to add e.g. a <code>Main-Class</code> attribute.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableObject
+  public final Manifest getManifest ()
+  {
+    return m_aManifest;
+  }
+
+  /**
+   * @return <code>true</code> if the Java sources are also written into the JAR file.
+   */
+  public final boolean isIncludeSources ()
+  {
+    return m_bIncludeSources;
+  }
+
+  /**
+   * @param bIncludeSources
+   *        <code>true</code> to also write the Java sources into the JAR file.
+   * @return this for chaining
+   */
+  @NonNull
+  public final JarCodeWriter setIncludeSources (final boolean bIncludeSources)
+  {
+    m_bIncludeSources = bIncludeSources;
+    return this;
+  }
+
+  @NonNull
+  private static String _getEntryName (@NonNull final String sFullname)
+  {
+    // Files in the root directory start with a slash
+    return sFullname.startsWith ("/") ? sFullname.substring (1) : sFullname;
+  }
+
+  private static void _addParentDirs (@NonNull final Set <String> aDirs, @NonNull final String sEntryName)
+  {
+    int nIdx = sEntryName.indexOf ('/');
+    while (nIdx > 0)
+    {
+      aDirs.add (sEntryName.substring (0, nIdx + 1));
+      nIdx = sEntryName.indexOf ('/', nIdx + 1);
+    }
+  }
+
+  private static void _writeEntry (@NonNull final JarOutputStream aJOS,
+                                   @NonNull final String sName,
+                                   @NonNull final byte [] aContent,
+                                   final int nOfs,
+                                   final int nLen) throws IOException
+  {
+    aJOS.putNextEntry (new JarEntry (sName));
+    aJOS.write (aContent, nOfs, nLen);
+    aJOS.closeEntry ();
+  }
+
+  /**
+   * Compile all sources and write the JAR file. Calling this method more than once has no effect.
+   *
+   * @throws IOException
+   *         If compilation fails or on IO error
+   */
+  @Override
+  public void close () throws IOException
+  {
+    if (m_bClosed)
+      return;
+    m_bClosed = true;
+
+    try (final OutputStream aTarget = m_aTarget)
+    {
+      final DynamicClassLoader aDCL = dynCL ();
+      if (compile (aDCL).isFailure ())
+        throw new IOException ("Failed to compile the sources for the JAR file");
+
+      // Sort by name for reproducible results
+      final Map <String, byte []> aClasses = new TreeMap <> ();
+      for (final CompiledCodeJavaFile aCC : aDCL.getAllCode ())
+      {
+        final byte [] aByteCode = aCC.getByteCode ();
+        // Entries for non-emitted classes are empty
+        if (aByteCode.length > 0)
+          aClasses.put (StringReplace.replaceAll (aCC.getClassName (), '.', '/') +
+                        ClassLoaderFileManager.CLASS_FILE_EXTENSION,
+                        aByteCode);
+      }
+      final Map <String, NonBlockingByteArrayOutputStream> aFiles = new TreeMap <> (getBinaries ());
+
+      // Directory entries are required to find packages via ClassLoader.getResources
+      final Set <String> aDirs = new TreeSet <> ();
+      for (final String sName : aClasses.keySet ())
+        _addParentDirs (aDirs, sName);
+      for (final String sName : aFiles.keySet ())
+        if (m_bIncludeSources || !sName.endsWith (JAVA_FILE_EXTENSION))
+          _addParentDirs (aDirs, _getEntryName (sName));
+
+      try (final JarOutputStream aJOS = new JarOutputStream (aTarget, m_aManifest))
+      {
+        for (final String sDir : aDirs)
+        {
+          aJOS.putNextEntry (new JarEntry (sDir));
+          aJOS.closeEntry ();
+        }
+
+        for (final Map.Entry <String, byte []> e : aClasses.entrySet ())
+          _writeEntry (aJOS, e.getKey (), e.getValue (), 0, e.getValue ().length);
+
+        for (final Map.Entry <String, NonBlockingByteArrayOutputStream> e : aFiles.entrySet ())
+          if (m_bIncludeSources || !e.getKey ().endsWith (JAVA_FILE_EXTENSION))
+          {
+            final NonBlockingByteArrayOutputStream aBAOS = e.getValue ();
+            _writeEntry (aJOS, _getEntryName (e.getKey ()), aBAOS.directGetBuffer (), 0, aBAOS.size ());
+          }
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+
+import javax.tools.SimpleJavaFileObject;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+/**
+ * A compilation unit that is backed directly by a {@link JDefinedClass}. The source code is only
+ * created when the compiler asks for it, and it is not kept afterwards. So the source code of all
+ * classes does not need to be in memory at the same time, and there is no conversion from
+ * characters to bytes and back.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class LazyJavaSourceFile extends SimpleJavaFileObject
+{
+  private final JCMWriter m_aJCMWriter;
+  private final JDefinedClass m_aClass;
+
+  /**
+   * Constructor
+   *
+   * @param aJCMWriter
+   *        The writer with the formatting settings to use. May not be <code>null</code>.
+   * @param aClass
+   *        The top-level class to be compiled. May not be <code>null</code>.
+   */
+  public LazyJavaSourceFile (@NonNull final JCMWriter aJCMWriter, @NonNull final JDefinedClass aClass)
+  {
+    super (URI.create ("string:///" +
+                       aClass.fullName ().replace ('.', '/') +
+                       MemoryCodeWriter.JAVA_FILE_EXTENSION), Kind.SOURCE);
+    ValueEnforcer.notNull (aJCMWriter, "JCMWriter");
+    ValueEnforcer.isTrue (aClass.outer () == null, "Only top-level classes can be compiled");
+    m_aJCMWriter = aJCMWriter;
+    m_aClass = aClass;
+  }
+
+  /**
+   * @return The class to be compiled. Never <code>null</code>.
+   */
+  @NonNull
+  public final JDefinedClass getJClass ()
+  {
+    return m_aClass;
+  }
+
+  @Override
+  public CharSequence getCharContent (final boolean ignoreEncodingErrors) throws IOException
+  {
+    final StringWriter aSW = new StringWriter (1024);
+    m_aJCMWriter.buildClass (m_aClass, aSW);
+    return aSW.getBuffer ();
+  }
+
+  @Override
+  public Reader openReader (final boolean ignoreEncodingErrors) throws IOException
+  {
+    return new StringReader (getCharContent (ignoreEncodingErrors).toString ());
+  }
+}
@@ -42,26 +42,29 @@ package com.helger.jcodemodel.compile;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import javax.tools.DiagnosticListener;
 import javax.tools.FileObject;
-import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaCompiler;
-import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
-import javax.tools.ToolProvider;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 import com.helger.base.state.ESuccess;
 import com.helger.base.string.StringHelper;
@@ -69,6 +72,9 @@ import com.helger.base.string.StringReplace;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JPackage;
+import com.helger.jcodemodel.JResourceDir;
 import com.helger.jcodemodel.writer.AbstractCodeWriter;
 import com.helger.jcodemodel.writer.JCMWriter;
 
@@ -82,25 +88,69 @@ import com.helger.jcodemodel.writer.JCMWriter;
  * Give access to the internal resources using {@link #getBinaries()} can also be compiled into
  * memory using {@link #compile()}
  * </p>
+ * <p>
+ * The content is kept in an {@link IMemoryStorage}, by default in the heap. For large models a
+ * {@link DirectMemoryStorage} or a {@link SpillingMemoryStorage} can be used instead. As the content
+ * is still needed after {@link #close()}, the storage must be closed by the user via
+ * {@link #getStorage()}.
+ * </p>
  */
 public class MemoryCodeWriter extends AbstractCodeWriter
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (MemoryCodeWriter.class);
-  private static final JavaCompiler JAVAC = ToolProvider.getSystemJavaCompiler ();
   public static final String JAVA_FILE_EXTENSION = JavaFileObject.Kind.SOURCE.extension;
+  /** The default minimum number of compilation units per parallel compilation task */
+  public static final int DEFAULT_MIN_UNITS_PER_PARTITION = 200;
 
   private DiagnosticListener <? super JavaFileObject> m_aDL;
-  private final Map <String, NonBlockingByteArrayOutputStream> m_aBinaries = new HashMap <> ();
+  private ClassPathIndex m_aClassPathIndex;
+  private CompilerSession m_aCompilerSession;
+  private IncrementalCompilationState m_aIncrementalState;
+  private BytecodeCache m_aBytecodeCache;
+  private int m_nCompileThreads = 1;
+  private int m_nMinUnitsPerPartition = DEFAULT_MIN_UNITS_PER_PARTITION;
+  // Statistics
+  private int m_nStatCompiledUnits;
+  private int m_nStatTasks;
+  private int m_nStatRounds;
+  private CompileMetrics m_aStatMetrics;
+  private CompileStatistics m_aLastCompileStatistics;
+  private final IMemoryStorage m_aStorage;
 
   public MemoryCodeWriter ()
+  {
+    this (new HeapMemoryStorage ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aStorage
+   *        The storage for the written files. May not be <code>null</code>. It is not closed by
+   *        {@link #close()}.
+   * @since 4.3.1
+   */
+  public MemoryCodeWriter (@NonNull final IMemoryStorage aStorage)
   {
     super (Charset.defaultCharset (), System.lineSeparator ());
+    ValueEnforcer.notNull (aStorage, "Storage");
+    m_aStorage = aStorage;
   }
 
   @Override
   public void close () throws IOException
   {
-    // nothing.
+    // nothing - the content is still needed afterwards
+  }
+
+  /**
+   * @return The storage of the written files. Never <code>null</code>.
+   * @since 4.3.1
+   */
+  @NonNull
+  public final IMemoryStorage getStorage ()
+  {
+    return m_aStorage;
   }
 
   /**
@@ -127,14 +177,220 @@ public class MemoryCodeWriter extends AbstractCodeWriter
     return this;
   }
 
+  /**
+   * @return The class path index to be shared between compilations. May be <code>null</code>.
+   * @since 4.3.1
+   */
+  @Nullable
+  public final ClassPathIndex getClassPathIndex ()
+  {
+    return m_aClassPathIndex;
+  }
+
+  /**
+   * Set an optional class path index that is used for all compilations. By default a new index is
+   * created for each compilation, so that each JAR file is scanned once per compilation. Sharing an
+   * index avoids scanning the JAR files at all for subsequent compilations.
+   *
+   * @param aClassPathIndex
+   *        The index to use. May be <code>null</code>.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final MemoryCodeWriter setClassPathIndex (@Nullable final ClassPathIndex aClassPathIndex)
+  {
+    m_aClassPathIndex = aClassPathIndex;
+    return this;
+  }
+
+  /**
+   * @return The compiler session to be used for all compilations. May be <code>null</code>.
+   * @since 4.3.1
+   */
+  @Nullable
+  public final CompilerSession getCompilerSession ()
+  {
+    return m_aCompilerSession;
+  }
+
+  /**
+   * Set an optional compiler session that is used for all compilations. By default a new session is
+   * created and closed for each compilation. Using a long living session keeps the file manager and
+   * the class path index of the compiler warm across compilations. If a session is set, the class
+   * path index of the session is used and {@link #getClassPathIndex()} is ignored.
+   *
+   * @param aCompilerSession
+   *        The session to use. May be <code>null</code>. The session is not closed by this class.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final MemoryCodeWriter setCompilerSession (@Nullable final CompilerSession aCompilerSession)
+  {
+    m_aCompilerSession = aCompilerSession;
+    return this;
+  }
+
+  /**
+   * @return The incremental compilation state. May be <code>null</code>.
+   * @since 4.3.1
+   */
+  @Nullable
+  public final IncrementalCompilationState getIncrementalState ()
+  {
+    return m_aIncrementalState;
+  }
+
+  /**
+   * Set an optional incremental compilation state. If it is set, only the compilation units that
+   * changed since the last successful compilation with the same state (and the units depending on
+   * them) are compiled. All other classes are taken from the state.
+   *
+   * @param aIncrementalState
+   *        The state to use. May be <code>null</code>.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final MemoryCodeWriter setIncrementalState (@Nullable final IncrementalCompilationState aIncrementalState)
+  {
+    m_aIncrementalState = aIncrementalState;
+    return this;
+  }
+
+  /**
+   * @return The persistent bytecode cache. May be <code>null</code>.
+   * @since 4.3.1
+   */
+  @Nullable
+  public final BytecodeCache getBytecodeCache ()
+  {
+    return m_aBytecodeCache;
+  }
+
+  /**
+   * Set an optional persistent bytecode cache. If the same sources were already compiled with the
+   * same options and class path, the compiled classes are taken from the cache and the compiler is
+   * not invoked.
+   *
+   * @param aBytecodeCache
+   *        The cache to use. May be <code>null</code>.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final MemoryCodeWriter setBytecodeCache (@Nullable final BytecodeCache aBytecodeCache)
+  {
+    m_aBytecodeCache = aBytecodeCache;
+    return this;
+  }
+
+  /**
+   * @return The number of threads used for compilation. Always &gt; 0.
+   * @since 4.3.1
+   */
+  public final int getCompileThreads ()
+  {
+    return m_nCompileThreads;
+  }
+
+  /**
+   * @return The minimum number of compilation units per parallel compilation task. Always &gt; 0.
+   * @since 4.3.1
+   */
+  public final int getMinUnitsPerPartition ()
+  {
+    return m_nMinUnitsPerPartition;
+  }
+
+  /**
+   * Enable parallel compilation for large models. The sources are split into groups of sources,
+   * that don't depend on each other. These groups are compiled concurrently with separate
+   * compilation tasks, each against the classes created by the groups it depends on. This reduces
+   * the wall time and the peak heap usage of the compiler. Parallel compilation is not used for
+   * incremental compilations (see {@link #setIncrementalState(IncrementalCompilationState)}).
+   *
+   * @param nCompileThreads
+   *        The number of threads to use. 1 disables parallel compilation. Must be &gt; 0.
+   * @param nMinUnitsPerPartition
+   *        The minimum number of compilation units per task, as each task has a certain overhead.
+   *        If the dependency chains are so deep that most groups are smaller, all sources are
+   *        compiled in one task. Must be &gt; 0.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final MemoryCodeWriter setParallelCompilation (final int nCompileThreads, final int nMinUnitsPerPartition)
+  {
+    ValueEnforcer.isGT0 (nCompileThreads, "CompileThreads");
+    ValueEnforcer.isGT0 (nMinUnitsPerPartition, "MinUnitsPerPartition");
+    m_nCompileThreads = nCompileThreads;
+    m_nMinUnitsPerPartition = nMinUnitsPerPartition;
+    return this;
+  }
+
+  /**
+   * @return The statistics of the last call to {@link #compile(DynamicClassLoader)}. May be
+   *         <code>null</code> if nothing was compiled yet.
+   * @since 4.3.1
+   */
+  @Nullable
+  public final CompileStatistics getLastCompileStatistics ()
+  {
+    return m_aLastCompileStatistics;
+  }
+
   /**
    * @return an unmodifiable map of the internal binaries. It's a map from filename to the payload.
-   *         Don't modify the payload, as it is not copied!
+   *         Don't modify the payload, as it is not copied! If the storage is not a
+   *         {@link HeapMemoryStorage}, the content is copied into the heap.
    */
   @NonNull
   public Map <String, NonBlockingByteArrayOutputStream> getBinaries ()
   {
-    return Collections.unmodifiableMap (m_aBinaries);
+    if (m_aStorage instanceof HeapMemoryStorage)
+      return ((HeapMemoryStorage) m_aStorage).getAllFiles ();
+
+    final Map <String, NonBlockingByteArrayOutputStream> ret = new HashMap <> ();
+    for (final String sPath : m_aStorage.getAllPaths ())
+      ret.put (sPath, _getAsBAOS (sPath));
+    return ret;
+  }
+
+  @NonNull
+  private NonBlockingByteArrayOutputStream _getAsBAOS (@NonNull final String sPath)
+  {
+    if (m_aStorage instanceof HeapMemoryStorage)
+      return ((HeapMemoryStorage) m_aStorage).getAllFiles ().get (sPath);
+
+    try
+    {
+      final ByteBuffer aContent = m_aStorage.getContent (sPath);
+      final byte [] aBytes = new byte [aContent.remaining ()];
+      aContent.get (aBytes);
+      final NonBlockingByteArrayOutputStream ret = new NonBlockingByteArrayOutputStream (aBytes.length);
+      ret.write (aBytes);
+      return ret;
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  /**
+   * @return All resources, that are not Java sources, as required by
+   *         {@link DynamicClassLoader#addResources(Map)}.
+   */
+  @NonNull
+  Map <String, NonBlockingByteArrayOutputStream> getAllResources ()
+  {
+    final Map <String, NonBlockingByteArrayOutputStream> ret = new HashMap <> ();
+    for (final String sPath : m_aStorage.getAllPaths ())
+      if (!sPath.endsWith (JAVA_FILE_EXTENSION))
+        ret.put (sPath, _getAsBAOS (sPath));
+    return ret;
   }
 
   @Override
@@ -145,22 +401,96 @@ public class MemoryCodeWriter extends AbstractCodeWriter
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("MemoryCodeWriter.openBinary (" + sFullname + ")");
 
-    NonBlockingByteArrayOutputStream aBAOS = m_aBinaries.get (sFullname);
-    if (aBAOS == null)
-    {
-      aBAOS = new NonBlockingByteArrayOutputStream ();
-      m_aBinaries.put (sFullname, aBAOS);
-    }
-    else
+    if (m_aStorage.contains (sFullname))
     {
       LOGGER.warn ("The filename '" + sFullname + "' is contained more than once. Expect compilation errors.");
     }
 
-    return aBAOS;
+    return m_aStorage.openOutputStream (sFullname);
+  }
+
+  /**
+   * @param sSourcePath
+   *        The path of a Java source file as used in {@link #getBinaries()}.
+   * @return The fully qualified class name of the source file.
+   */
+  @NonNull
+  static String getClassName (@NonNull final String sSourcePath)
+  {
+    final String sRelPath = sSourcePath.startsWith ("/") ? sSourcePath.substring (1) : sSourcePath;
+    return StringHelper.trimEnd (StringReplace.replaceAll (sRelPath, '/', '.'), JAVA_FILE_EXTENSION);
+  }
+
+  /**
+   * @param sClassName
+   *        A binary class name, e.g. of a nested class
+   * @return The name of the top-level class.
+   */
+  @NonNull
+  static String getTopLevelClassName (@NonNull final String sClassName)
+  {
+    final int nDollar = sClassName.indexOf ('$', sClassName.lastIndexOf ('.') + 1);
+    return nDollar < 0 ? sClassName : sClassName.substring (0, nDollar);
+  }
+
+  @NonNull
+  private DiagnosticListener <? super JavaFileObject> _getDiagnosticListener ()
+  {
+    final DiagnosticListener <? super JavaFileObject> aLoggingDL = x -> LOGGER.error (x.toString ());
+    final DiagnosticListener <? super JavaFileObject> aDL = m_aDL;
+    return aDL != null ? x -> {
+      aLoggingDL.report (x);
+      aDL.report (x);
+    } : aLoggingDL;
+  }
+
+  @NonNull
+  private ClassPathIndex _getClassPathIndex ()
+  {
+    if (m_aCompilerSession != null)
+      return m_aCompilerSession.getClassPathIndex ();
+    return m_aClassPathIndex != null ? m_aClassPathIndex : new ClassPathIndex ();
+  }
+
+  @NonNull
+  private ICommonsList <String> _getOptions ()
+  {
+    return m_aCompilerSession != null ? m_aCompilerSession.getAllOptions () : new CommonsArrayList <> ();
+  }
+
+  @NonNull
+  private ESuccess _compile (@NonNull final List <JavaFileObject> aCompilationUnits,
+                             @NonNull final DynamicClassLoader aDynamicClassLoader)
+  {
+    LOGGER.info ("Compiling: " + new CommonsArrayList <> (aCompilationUnits).getAllMapped (FileObject::getName));
+
+    final DiagnosticListener <? super JavaFileObject> aRealDL = _getDiagnosticListener ();
+    m_nStatCompiledUnits += aCompilationUnits.size ();
+    m_nStatTasks++;
+    m_nStatRounds++;
+    try
+    {
+      final ESuccess eSuccess;
+      if (m_aCompilerSession != null)
+        eSuccess = m_aCompilerSession.compile (aCompilationUnits, aDynamicClassLoader, aRealDL, m_aStatMetrics);
+      else
+        try (final CompilerSession aSession = new CompilerSession (_getClassPathIndex (), null))
+        {
+          eSuccess = aSession.compile (aCompilationUnits, aDynamicClassLoader, aRealDL, m_aStatMetrics);
+        }
+      if (eSuccess.isFailure ())
+        LOGGER.error ("Error compiling: " + new CommonsArrayList <> (aCompilationUnits).getAllMapped (FileObject::getName));
+      return eSuccess;
+    }
+    catch (final Exception e1)
+    {
+      throw new UnsupportedOperationException (e1);
+    }
   }
 
   /**
-   * Compiling the contained java sources.
+   * Compiling the contained java sources. Afterwards the statistics are available via
+   * {@link #getLastCompileStatistics()}.
    *
    * @param aDynamicClassLoader
    *        The dynamic class loader to use. May not be <code>null</code>.
@@ -169,60 +499,275 @@ public class MemoryCodeWriter extends AbstractCodeWriter
   @NonNull
   public ESuccess compile (@NonNull final DynamicClassLoader aDynamicClassLoader)
   {
+    return compile (aDynamicClassLoader, m_aIncrementalState);
+  }
+
+  /**
+   * Compile the contained java sources with the provided incremental state instead of the
+   * configured one.
+   *
+   * @param aDynamicClassLoader
+   *        The dynamic class loader to use. May not be <code>null</code>.
+   * @param aIncrementalState
+   *        The incremental state to use. May be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @NonNull
+  ESuccess compile (@NonNull final DynamicClassLoader aDynamicClassLoader,
+                    @Nullable final IncrementalCompilationState aIncrementalState)
+  {
+    int nSources = 0;
+    for (final String sPath : m_aStorage.getAllPaths ())
+      if (sPath.endsWith (JAVA_FILE_EXTENSION))
+        nSources++;
+    return _measure (nSources, () -> _compileAll (aDynamicClassLoader, aIncrementalState));
+  }
+
+  /**
+   * Compile the contained java sources into a new generation of the provided generations. Only the
+   * classes that changed compared to the current generation are defined in the new generation.
+   *
+   * @param aGenerations
+   *        The class loader generations to use. May not be <code>null</code>.
+   * @return <code>null</code> if compiling didn't work. The new current generation otherwise.
+   * @since 4.3.1
+   */
+  @Nullable
+  public DynamicClassLoaderGeneration compile (@NonNull final ClassLoaderGenerations aGenerations)
+  {
+    ValueEnforcer.notNull (aGenerations, "Generations");
+    return aGenerations.compile (this);
+  }
+
+  @NonNull
+  private ESuccess _measure (final int nSources, @NonNull final Supplier <ESuccess> aCompiler)
+  {
+    final long nStart = System.nanoTime ();
+    final CompileStatistics.HeapSnapshot aHeap = new CompileStatistics.HeapSnapshot ();
+    m_nStatCompiledUnits = 0;
+    m_nStatTasks = 0;
+    m_nStatRounds = 0;
+    m_aStatMetrics = new CompileMetrics ();
+
+    final ESuccess ret = aCompiler.get ();
+
+    m_aLastCompileStatistics = new CompileStatistics ((System.nanoTime () - nStart) / 1_000_000L,
+                                                      aHeap.getPeakGrowth (),
+                                                      nSources,
+                                                      m_nStatCompiledUnits,
+                                                      m_nStatTasks,
+                                                      m_nStatRounds,
+                                                      m_aStatMetrics);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (m_aLastCompileStatistics.toString ());
+    return ret;
+  }
+
+  /**
+   * Compile all classes of the model of the provided writer, without writing their source code into
+   * this writer first. Each class is rendered only when the compiler reads it (see
+   * {@link LazyJavaSourceFile}), which reduces the memory consumption for large models.
+   * <code>package-info.java</code> files and resources are written into this writer as usual. The
+   * bytecode cache, the incremental state and parallel compilation are not used.
+   *
+   * @param aJCMWriter
+   *        The writer with the model and the formatting settings to use. May not be
+   *        <code>null</code>.
+   * @param aDynamicClassLoader
+   *        The dynamic class loader to use. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if if worked, <code>false</code> if not.
+   * @since 4.3.1
+   */
+  @NonNull
+  public ESuccess compileLazy (@NonNull final JCMWriter aJCMWriter, @NonNull final DynamicClassLoader aDynamicClassLoader)
+  {
+    ValueEnforcer.notNull (aJCMWriter, "JCMWriter");
+    ValueEnforcer.notNull (aDynamicClassLoader, "DynamicClassLoader");
+
     final ICommonsList <JavaFileObject> aCompilationUnits = new CommonsArrayList <> ();
+    try
+    {
+      final JCodeModel aCM = aJCMWriter.getCodeModel ();
+      for (final JPackage aPackage : aCM.getAllPackages ())
+      {
+        for (final JDefinedClass aClass : aPackage.classes ())
+          if (!aClass.isHidden ())
+          {
+            aCompilationUnits.add (new LazyJavaSourceFile (aJCMWriter, aClass));
+            aDynamicClassLoader.setCode (new CompiledCodeJavaFile (aClass.fullName ()));
+          }
+        aJCMWriter.buildPackageInfo (this, aPackage);
+      }
+      for (final JResourceDir aResourceDir : aCM.getAllResourceDirs ())
+        aJCMWriter.buildResourceDir (this, aResourceDir);
+
+      for (final String sPath : m_aStorage.getAllPaths ())
+        if (sPath.endsWith (JAVA_FILE_EXTENSION))
+          aCompilationUnits.add (new StoredJavaSourceFile (sPath, m_aStorage.getContent (sPath), encoding ()));
+      final Map <String, NonBlockingByteArrayOutputStream> aNonJava = getAllResources ();
 
-    final Map <String, NonBlockingByteArrayOutputStream> aNonJava = new HashMap <> ();
+      if (aCompilationUnits.isEmpty ())
+        return ESuccess.SUCCESS;
+      return _measure (aCompilationUnits.size (), () -> {
+        if (_compile (aCompilationUnits, aDynamicClassLoader).isFailure ())
+          return ESuccess.FAILURE;
+        aDynamicClassLoader.addResources (aNonJava);
+        return ESuccess.SUCCESS;
+      });
+    }
+    catch (final Exception ex)
+    {
+      throw new UnsupportedOperationException (ex);
+    }
+  }
+
+  /**
+   * Shortcut for {@link #compileLazy(JCMWriter, DynamicClassLoader)} with default settings and a
+   * correct class loader.
+   *
+   * @param aCM
+   *        The code model to compile. May not be <code>null</code>.
+   * @return <code>null</code> if compiling didn't work. The non-<code>null</code> class loader
+   *         otherwise.
+   * @since 4.3.1
+   */
+  @Nullable
+  public static DynamicClassLoader compileLazy (@NonNull final JCodeModel aCM)
+  {
+    final DynamicClassLoader aDCL = dynCL ();
+    return new MemoryCodeWriter ().compileLazy (new JCMWriter (aCM), aDCL).isSuccess () ? aDCL : null;
+  }
 
-    for (final Entry <String, NonBlockingByteArrayOutputStream> e : getBinaries ().entrySet ())
-      if (e.getKey ().endsWith (JAVA_FILE_EXTENSION))
+  @NonNull
+  private ESuccess _compileAll (@NonNull final DynamicClassLoader aDynamicClassLoader,
+                                @Nullable final IncrementalCompilationState aIncrementalState)
+  {
+    final Map <String, ByteBuffer> aJava = new HashMap <> ();
+    try
+    {
+      for (final String sPath : m_aStorage.getAllPaths ())
+        if (sPath.endsWith (JAVA_FILE_EXTENSION))
+          aJava.put (sPath, m_aStorage.getContent (sPath));
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+    final Map <String, NonBlockingByteArrayOutputStream> aNonJava = getAllResources ();
+
+    if (!aJava.isEmpty ())
+    {
+      String sCacheKey = null;
+      if (m_aBytecodeCache != null)
         try
         {
-          // Use the configured encoding
-          aCompilationUnits.add (new SourceJavaFile (e.getKey (), e.getValue ().getAsString (encoding ())));
+          sCacheKey = m_aBytecodeCache.createKey (aJava,
+                                                  encoding (),
+                                                  _getOptions (),
+                                                  aDynamicClassLoader.getParent ());
+          final Map <String, byte []> aCached = m_aBytecodeCache.get (sCacheKey);
+          if (aCached != null)
+          {
+            LOGGER.info ("Using " + aCached.size () + " cached classes for " + aJava.size () + " sources");
+            for (final Entry <String, byte []> e : aCached.entrySet ())
+              aDynamicClassLoader.setCode (new CompiledCodeJavaFile (e.getKey (), e.getValue ()));
+            aDynamicClassLoader.addResources (aNonJava);
+            return ESuccess.SUCCESS;
+          }
+        }
+        catch (final Exception ex)
+        {
+          LOGGER.warn ("Failed to use the bytecode cache", ex);
+          sCacheKey = null;
+        }
 
-          final String className = StringHelper.trimEnd (StringReplace.replaceAll (e.getKey (), '/', '.'),
-                                                         JAVA_FILE_EXTENSION);
-          final CompiledCodeJavaFile cc = new CompiledCodeJavaFile (className);
-          aDynamicClassLoader.setCode (cc);
+      final ESuccess eSuccess;
+      if (aIncrementalState != null)
+      {
+        try
+        {
+          eSuccess = aIncrementalState.compile (aJava,
+                                                encoding (),
+                                                aDynamicClassLoader,
+                                                x -> _compile (x, aDynamicClassLoader));
         }
         catch (final Exception e1)
         {
           throw new UnsupportedOperationException (e1);
         }
+      }
       else
-        aNonJava.put (e.getKey (), e.getValue ());
+        if (m_nCompileThreads > 1)
+        {
+          final Map <String, String> aSources = new HashMap <> ();
+          for (final Entry <String, ByteBuffer> e : aJava.entrySet ())
+            aSources.put (e.getKey (), encoding ().decode (e.getValue ().duplicate ()).toString ());
+          LOGGER.info ("Compiling " + aSources.size () + " sources with " + m_nCompileThreads + " threads");
 
-    if (!aCompilationUnits.isEmpty ())
-      try
-      {
-        LOGGER.info ("Compiling: " + aCompilationUnits.getAllMapped (FileObject::getName));
-
-        final DiagnosticListener <? super JavaFileObject> aLoggingDL = x -> LOGGER.error (x.toString ());
-        final DiagnosticListener <? super JavaFileObject> aRealDL = m_aDL != null ? x -> {
-          aLoggingDL.report (x);
-          m_aDL.report (x);
-        } : aLoggingDL;
-
-        final ForwardingJavaFileManager <JavaFileManager> aFileManager = new ClassLoaderFileManager (JAVAC.getStandardFileManager (aRealDL,
-                                                                                                                                   null,
-                                                                                                                                   StandardCharsets.UTF_8),
-                                                                                                     aDynamicClassLoader);
-        final JavaCompiler.CompilationTask task = JAVAC.getTask (null,
-                                                                 aFileManager,
-                                                                 aRealDL,
-                                                                 null,
-                                                                 null,
-                                                                 aCompilationUnits);
-        if (!task.call ().booleanValue ())
+          final ParallelCompiler aCompiler = new ParallelCompiler (m_nCompileThreads,
+                                                                   m_nMinUnitsPerPartition,
+                                                                   _getClassPathIndex (),
+                                                                   _getOptions (),
+                                                                   _getDiagnosticListener (),
+                                                                   m_aStatMetrics);
+          try
+          {
+            eSuccess = aCompiler.compile (aSources, aDynamicClassLoader);
+          }
+          catch (final InterruptedException ex)
+          {
+            Thread.currentThread ().interrupt ();
+            throw new UnsupportedOperationException (ex);
+          }
+          m_nStatCompiledUnits += aSources.size ();
+          m_nStatTasks += aCompiler.getTaskCount ();
+          m_nStatRounds += aCompiler.getRoundCount ();
+          if (eSuccess.isFailure ())
+            LOGGER.error ("Error compiling " + aSources.size () + " sources");
+        }
+        else
         {
-          LOGGER.error ("Error compiling: " + aCompilationUnits.getAllMapped (FileObject::getName));
-          return ESuccess.FAILURE;
+          final ICommonsList <JavaFileObject> aCompilationUnits = new CommonsArrayList <> ();
+          for (final Entry <String, ByteBuffer> e : aJava.entrySet ())
+            try
+            {
+              // Use the configured encoding - decoded when the compiler reads it
+              aCompilationUnits.add (new StoredJavaSourceFile (e.getKey (), e.getValue (), encoding ()));
+
+              final String className = StringHelper.trimEnd (StringReplace.replaceAll (e.getKey (), '/', '.'),
+                                                             JAVA_FILE_EXTENSION);
+              final CompiledCodeJavaFile cc = new CompiledCodeJavaFile (className);
+              aDynamicClassLoader.setCode (cc);
+            }
+            catch (final Exception e1)
+            {
+              throw new UnsupportedOperationException (e1);
+            }
+          eSuccess = _compile (aCompilationUnits, aDynamicClassLoader);
         }
-      }
-      catch (final Exception e1)
+      if (eSuccess.isFailure ())
+        return ESuccess.FAILURE;
+
+      if (sCacheKey != null)
       {
-        throw new UnsupportedOperationException (e1);
+        // Remember all classes of the compiled sources
+        final Set <String> aClassNames = new HashSet <> ();
+        for (final String sPath : aJava.keySet ())
+          aClassNames.add (getClassName (sPath));
+        final Map <String, byte []> aClasses = new TreeMap <> ();
+        for (final CompiledCodeJavaFile aFile : aDynamicClassLoader.getAllCode ())
+          if (aFile.hasByteCode () && aClassNames.contains (getTopLevelClassName (aFile.getClassName ())))
+            aClasses.put (aFile.getClassName (), aFile.getByteCode ());
+        try
+        {
+          m_aBytecodeCache.put (sCacheKey, aClasses);
+        }
+        catch (final IOException ex)
+        {
+          LOGGER.warn ("Failed to store compiled classes in the bytecode cache", ex);
+        }
       }
+    }
     aDynamicClassLoader.addResources (aNonJava);
     return ESuccess.SUCCESS;
   }
@@ -0,0 +1,453 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaFileObject;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Compiles many sources with multiple compilation tasks in parallel. A dependency graph of the
+ * sources is created, where a source depends on another source if it mentions its simple name. The
+ * strongly connected components of the graph must be compiled together. They are ordered in levels,
+ * so that the components of one level only depend on components of previous levels. All components
+ * of a level are split into partitions that are compiled in parallel, against the class files
+ * created by the previous levels. Consecutive levels that are too small to be split are compiled in
+ * one task, and if there are many levels compared to the number of sources, everything is compiled
+ * in a single task. Each worker thread reuses one {@link CompilerSession} for all its tasks.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+final class ParallelCompiler
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ParallelCompiler.class);
+
+  private final int m_nThreads;
+  private final int m_nMinUnitsPerPartition;
+  private final ClassPathIndex m_aClassPathIndex;
+  private final ICommonsList <String> m_aOptions;
+  private final DiagnosticListener <? super JavaFileObject> m_aDL;
+  private final CompileMetrics m_aMetrics;
+  private int m_nTaskCount;
+  private int m_nRoundCount;
+  private int m_nSessionCount;
+
+  ParallelCompiler (final int nThreads,
+                    final int nMinUnitsPerPartition,
+                    @NonNull final ClassPathIndex aClassPathIndex,
+                    @NonNull final ICommonsList <String> aOptions,
+                    @NonNull final DiagnosticListener <? super JavaFileObject> aDL,
+                    @Nullable final CompileMetrics aMetrics)
+  {
+    m_nThreads = nThreads;
+    m_nMinUnitsPerPartition = nMinUnitsPerPartition;
+    m_aClassPathIndex = aClassPathIndex;
+    m_aOptions = aOptions;
+    m_aMetrics = aMetrics;
+    // Listeners are usually not thread-safe
+    m_aDL = x -> {
+      synchronized (aDL)
+      {
+        aDL.report (x);
+      }
+    };
+  }
+
+  int getTaskCount ()
+  {
+    return m_nTaskCount;
+  }
+
+  int getRoundCount ()
+  {
+    return m_nRoundCount;
+  }
+
+  int getSessionCount ()
+  {
+    return m_nSessionCount;
+  }
+
+  /**
+   * Build the dependency graph of the provided sources.
+   *
+   * @param aPaths
+   *        The source paths
+   * @param aSources
+   *        Source path to source code
+   * @return For each source the indices of the sources it depends on.
+   */
+  @NonNull
+  static int [] [] getDependencyGraph (@NonNull final List <String> aPaths, @NonNull final Map <String, String> aSources)
+  {
+    final int nCount = aPaths.size ();
+    final Map <String, List <Integer>> aBySimpleName = new HashMap <> ();
+    for (int i = 0; i < nCount; ++i)
+    {
+      final String sClassName = MemoryCodeWriter.getClassName (aPaths.get (i));
+      aBySimpleName.computeIfAbsent (sClassName.substring (sClassName.lastIndexOf ('.') + 1), k -> new ArrayList <> ())
+                   .add (Integer.valueOf (i));
+    }
+
+    final int [] [] ret = new int [nCount] [];
+    for (int i = 0; i < nCount; ++i)
+    {
+      final List <Integer> aDeps = new ArrayList <> ();
+      for (final String sIdentifier : IncrementalCompilationState.getAllIdentifiers (aSources.get (aPaths.get (i))))
+      {
+        final List <Integer> aTargets = aBySimpleName.get (sIdentifier);
+        if (aTargets != null)
+          for (final Integer aTarget : aTargets)
+            if (aTarget.intValue () != i)
+              aDeps.add (aTarget);
+      }
+      ret[i] = aDeps.stream ().mapToInt (Integer::intValue).toArray ();
+    }
+    return ret;
+  }
+
+  /**
+   * Determine the strongly connected components with an iterative version of Tarjan's algorithm.
+   *
+   * @param aGraph
+   *        The dependency graph
+   * @return The component index of each node. Components are numbered in reverse topological
+   *         order, so a component only depends on components with a lower index.
+   */
+  @NonNull
+  static int [] getComponents (@NonNull final int [] [] aGraph)
+  {
+    final int nCount = aGraph.length;
+    final int [] aIndex = new int [nCount];
+    Arrays.fill (aIndex, -1);
+    final int [] aLowLink = new int [nCount];
+    final boolean [] aOnStack = new boolean [nCount];
+    final int [] aStack = new int [nCount];
+    int nStackSize = 0;
+    final int [] aCallStack = new int [nCount];
+    final int [] aEdgePos = new int [nCount];
+    final int [] ret = new int [nCount];
+    int nNextIndex = 0;
+    int nComponents = 0;
+
+    for (int nStart = 0; nStart < nCount; ++nStart)
+    {
+      if (aIndex[nStart] != -1)
+        continue;
+
+      int nCallSize = 0;
+      aCallStack[nCallSize++] = nStart;
+      aIndex[nStart] = aLowLink[nStart] = nNextIndex++;
+      aStack[nStackSize++] = nStart;
+      aOnStack[nStart] = true;
+
+      while (nCallSize > 0)
+      {
+        final int v = aCallStack[nCallSize - 1];
+        if (aEdgePos[v] < aGraph[v].length)
+        {
+          final int w = aGraph[v][aEdgePos[v]++];
+          if (aIndex[w] == -1)
+          {
+            // Descend
+            aIndex[w] = aLowLink[w] = nNextIndex++;
+            aStack[nStackSize++] = w;
+            aOnStack[w] = true;
+            aCallStack[nCallSize++] = w;
+          }
+          else
+            if (aOnStack[w])
+              aLowLink[v] = Math.min (aLowLink[v], aIndex[w]);
+        }
+        else
+        {
+          // All edges handled
+          --nCallSize;
+          if (aLowLink[v] == aIndex[v])
+          {
+            int w;
+            do
+            {
+              w = aStack[--nStackSize];
+              aOnStack[w] = false;
+              ret[w] = nComponents;
+            } while (w != v);
+            ++nComponents;
+          }
+          if (nCallSize > 0)
+          {
+            final int u = aCallStack[nCallSize - 1];
+            aLowLink[u] = Math.min (aLowLink[u], aLowLink[v]);
+          }
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Split the sources into rounds of partitions. Consecutive levels with only one partition are
+   * merged into one round. If the rounds are too small on average to be split, a single round with
+   * a single partition is returned.
+   *
+   * @param aGraph
+   *        The dependency graph
+   * @return For each round the list of partitions, each being a list of source indices.
+   */
+  @NonNull
+  List <List <List <Integer>>> getRounds (@NonNull final int [] [] aGraph)
+  {
+    final int nCount = aGraph.length;
+    final int [] aComponents = getComponents (aGraph);
+    int nComponentCount = 0;
+    for (final int n : aComponents)
+      nComponentCount = Math.max (nComponentCount, n + 1);
+
+    final List <List <Integer>> aMembers = new ArrayList <> (nComponentCount);
+    for (int i = 0; i < nComponentCount; ++i)
+      aMembers.add (new ArrayList <> ());
+    for (int i = 0; i < nCount; ++i)
+      aMembers.get (aComponents[i]).add (Integer.valueOf (i));
+
+    // Level of a component is one more than the maximum level of its dependencies
+    final int [] aLevels = new int [nComponentCount];
+    int nLevelCount = 0;
+    for (int nComponent = 0; nComponent < nComponentCount; ++nComponent)
+    {
+      int nLevel = 0;
+      for (final Integer aMember : aMembers.get (nComponent))
+        for (final int nDep : aGraph[aMember.intValue ()])
+          if (aComponents[nDep] != nComponent)
+            nLevel = Math.max (nLevel, aLevels[aComponents[nDep]] + 1);
+      aLevels[nComponent] = nLevel;
+      nLevelCount = Math.max (nLevelCount, nLevel + 1);
+    }
+
+    final List <List <List <Integer>>> ret = new ArrayList <> (nLevelCount);
+    for (int nLevel = 0; nLevel < nLevelCount; ++nLevel)
+    {
+      final List <List <Integer>> aLevelComponents = new ArrayList <> ();
+      int nUnits = 0;
+      for (int nComponent = 0; nComponent < nComponentCount; ++nComponent)
+        if (aLevels[nComponent] == nLevel)
+        {
+          aLevelComponents.add (aMembers.get (nComponent));
+          nUnits += aMembers.get (nComponent).size ();
+        }
+
+      // Distribute the components, biggest first, into the smallest partition
+      final int nPartitions = Math.max (1, Math.min (m_nThreads, nUnits / m_nMinUnitsPerPartition));
+      aLevelComponents.sort (Comparator.comparingInt ( (final List <Integer> x) -> x.size ()).reversed ());
+      final List <List <Integer>> aPartitions = new ArrayList <> (nPartitions);
+      for (int i = 0; i < nPartitions; ++i)
+        aPartitions.add (new ArrayList <> ());
+      for (final List <Integer> aComponent : aLevelComponents)
+      {
+        List <Integer> aSmallest = aPartitions.get (0);
+        for (final List <Integer> aPartition : aPartitions)
+          if (aPartition.size () < aSmallest.size ())
+            aSmallest = aPartition;
+        aSmallest.addAll (aComponent);
+      }
+
+      if (nPartitions == 1 && !ret.isEmpty () && ret.get (ret.size () - 1).size () == 1)
+      {
+        // Too small to be split, so it is compiled in one task with the previous level
+        ret.get (ret.size () - 1).get (0).addAll (aPartitions.get (0));
+      }
+      else
+        ret.add (aPartitions);
+    }
+
+    // Every round is a serial compilation step, which only pays off if it can be split
+    if (ret.size () > 1 && nCount < ret.size () * 2 * m_nMinUnitsPerPartition)
+    {
+      final List <Integer> aAll = new ArrayList <> (nCount);
+      for (int i = 0; i < nCount; ++i)
+        aAll.add (Integer.valueOf (i));
+      final List <List <Integer>> aPartitions = new ArrayList <> (1);
+      aPartitions.add (aAll);
+      ret.clear ();
+      ret.add (aPartitions);
+    }
+    return ret;
+  }
+
+  @NonNull
+  private ESuccess _compilePartition (@NonNull final CompilerSession aSession,
+                                      @NonNull final List <String> aPaths,
+                                      @NonNull final Map <String, String> aSources,
+                                      @NonNull final ClassLoader aParentCL,
+                                      @NonNull final Map <String, CompiledCodeJavaFile> aProduced) throws Exception
+  {
+    final DynamicClassLoader aDCL = new DynamicClassLoader (aParentCL);
+    // The classes of the previous rounds are only read
+    for (final CompiledCodeJavaFile aFile : aProduced.values ())
+      aDCL.setCode (aFile);
+
+    final ICommonsList <JavaFileObject> aCompilationUnits = new CommonsArrayList <> ();
+    for (final String sPath : aPaths)
+    {
+      aCompilationUnits.add (new SourceJavaFile (sPath, aSources.get (sPath)));
+      aDCL.setCode (new CompiledCodeJavaFile (MemoryCodeWriter.getClassName (sPath)));
+    }
+
+    if (aSession.compile (aCompilationUnits, aDCL, m_aDL, m_aMetrics).isFailure ())
+      return ESuccess.FAILURE;
+
+    final Map <String, CompiledCodeJavaFile> aNew = new HashMap <> ();
+    for (final CompiledCodeJavaFile aFile : aDCL.getAllCode ())
+      if (aFile.hasByteCode () && !aProduced.containsKey (aFile.getClassName ()))
+        aNew.put (aFile.getClassName (), aFile);
+    aProduced.putAll (aNew);
+    return ESuccess.SUCCESS;
+  }
+
+  /**
+   * Compile all sources into the provided class loader.
+   *
+   * @param aSources
+   *        Source path to source code
+   * @param aDynamicClassLoader
+   *        The target class loader
+   * @return {@link ESuccess}
+   * @throws InterruptedException
+   *         if interrupted while waiting for the compilation
+   */
+  @NonNull
+  ESuccess compile (@NonNull final Map <String, String> aSources,
+                    @NonNull final DynamicClassLoader aDynamicClassLoader) throws InterruptedException
+  {
+    final List <String> aPaths = new ArrayList <> (aSources.keySet ());
+    final List <List <List <Integer>>> aRounds = getRounds (getDependencyGraph (aPaths, aSources));
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Compiling " + aPaths.size () + " sources in " + aRounds.size () + " rounds");
+
+    final Map <String, CompiledCodeJavaFile> aProduced = new ConcurrentHashMap <> ();
+    // One session per worker thread, so that the file manager is only created once per thread
+    final List <CompilerSession> aSessions = new CopyOnWriteArrayList <> ();
+    final ThreadLocal <CompilerSession> aThreadSession = ThreadLocal.withInitial ( () -> {
+      final CompilerSession ret = new CompilerSession (m_aClassPathIndex, m_aOptions);
+      aSessions.add (ret);
+      return ret;
+    });
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (m_nThreads, r -> {
+      final Thread t = new Thread (r, "jcodemodel-compile");
+      t.setDaemon (true);
+      return t;
+    });
+    try
+    {
+      for (final List <List <Integer>> aPartitions : aRounds)
+      {
+        ++m_nRoundCount;
+        final List <Future <ESuccess>> aFutures = new ArrayList <> ();
+        for (final List <Integer> aPartition : aPartitions)
+        {
+          final List <String> aPartitionPaths = new ArrayList <> (aPartition.size ());
+          for (final Integer aIndex : aPartition)
+            aPartitionPaths.add (aPaths.get (aIndex.intValue ()));
+          ++m_nTaskCount;
+          aFutures.add (aExecutor.submit ( () -> _compilePartition (aThreadSession.get (),
+                                                                   aPartitionPaths,
+                                                                   aSources,
+                                                                   aDynamicClassLoader.getParent (),
+                                                                   aProduced)));
+        }
+
+        boolean bFailure = false;
+        for (final Future <ESuccess> aFuture : aFutures)
+          try
+          {
+            if (aFuture.get ().isFailure ())
+              bFailure = true;
+          }
+          catch (final ExecutionException ex)
+          {
+            throw new IllegalStateException ("Failed to compile partition", ex.getCause ());
+          }
+        if (bFailure)
+          return ESuccess.FAILURE;
+      }
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+      m_nSessionCount += aSessions.size ();
+      for (final CompilerSession aSession : aSessions)
+        try
+        {
+          aSession.close ();
+        }
+        catch (final IOException ex)
+        {
+          LOGGER.warn ("Failed to close compiler session", ex);
+        }
+    }
+
+    for (final CompiledCodeJavaFile aFile : aProduced.values ())
+      aDynamicClassLoader.setCode (aFile);
+    return ESuccess.SUCCESS;
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+
+/**
+ * An {@link IMemoryStorage} that keeps files in the heap until their total size exceeds a
+ * threshold. All files written afterwards are appended to a temporary file, which is read back via
+ * read-only memory mapped windows. The temporary file is deleted when the storage is closed.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@NotThreadSafe
+public class SpillingMemoryStorage implements IMemoryStorage
+{
+  /** Default threshold of 64 MB */
+  public static final long DEFAULT_THRESHOLD = 64L * 1024 * 1024;
+  /** The size of each memory mapped window of the temporary file */
+  public static final int WINDOW_SIZE = 64 * 1024 * 1024;
+  private static final int MAX_SCRATCH_SIZE = 16 * 1024 * 1024;
+
+  private final long m_nThreshold;
+  private final Path m_aTempDir;
+  private final HeapMemoryStorage m_aHeap = new HeapMemoryStorage ();
+  private long m_nHeapSize = 0;
+  private NonBlockingByteArrayOutputStream m_aScratch;
+
+  private Path m_aFile;
+  private FileChannel m_aChannel;
+  private long m_nFileSize = 0;
+  // Path to offset and length in the file
+  private final Map <String, long []> m_aSpilled = new HashMap <> ();
+  // Window index to mapped window
+  private final Map <Long, MappedByteBuffer> m_aWindows = new HashMap <> ();
+
+  public SpillingMemoryStorage ()
+  {
+    this (DEFAULT_THRESHOLD, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nThreshold
+   *        The number of bytes that are kept in the heap, before files are written to the temporary
+   *        file. Must be &ge; 0.
+   * @param aTempDir
+   *        The directory in which the temporary file is created. May be <code>null</code> to use
+   *        the default temporary directory.
+   */
+  public SpillingMemoryStorage (@Nonnegative final long nThreshold, @Nullable final Path aTempDir)
+  {
+    ValueEnforcer.isGE0 (nThreshold, "Threshold");
+    m_nThreshold = nThreshold;
+    m_aTempDir = aTempDir;
+  }
+
+  /**
+   * @return The number of bytes that are kept in the heap at most.
+   */
+  @Nonnegative
+  public final long getThreshold ()
+  {
+    return m_nThreshold;
+  }
+
+  /**
+   * @return The number of bytes that are currently kept in the heap.
+   */
+  @Nonnegative
+  public final long getHeapSize ()
+  {
+    return m_nHeapSize;
+  }
+
+  /**
+   * @return The current size of the temporary file in bytes.
+   */
+  @Nonnegative
+  public final long getSpilledSize ()
+  {
+    return m_nFileSize;
+  }
+
+  /**
+   * @return <code>true</code> if at least one file was written to the temporary file.
+   */
+  public final boolean hasSpilled ()
+  {
+    return !m_aSpilled.isEmpty ();
+  }
+
+  private void _write (final long nOffset, @NonNull final ByteBuffer aSrc) throws IOException
+  {
+    long nPos = nOffset;
+    while (aSrc.hasRemaining ())
+      nPos += m_aChannel.write (aSrc, nPos);
+  }
+
+  private void _spill (@NonNull final String sPath, @NonNull final NonBlockingByteArrayOutputStream aScratch) throws IOException
+  {
+    if (m_aChannel == null)
+    {
+      m_aFile = m_aTempDir != null ? Files.createTempFile (m_aTempDir, "jcodemodel", ".tmp")
+                                   : Files.createTempFile ("jcodemodel", ".tmp");
+      m_aChannel = FileChannel.open (m_aFile,
+                                     StandardOpenOption.READ,
+                                     StandardOpenOption.WRITE,
+                                     StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    // Appending to an existing file rewrites it completely at the end
+    final ByteBuffer aExisting = getContent (sPath);
+    final long nLen = (aExisting == null ? 0 : aExisting.remaining ()) + aScratch.size ();
+
+    // Files that fit into a window must not cross a window boundary
+    long nOffset = m_nFileSize;
+    if (nLen <= WINDOW_SIZE && nLen > 0 && nOffset / WINDOW_SIZE != (nOffset + nLen - 1) / WINDOW_SIZE)
+      nOffset = (nOffset / WINDOW_SIZE + 1) * WINDOW_SIZE;
+
+    if (aExisting != null)
+      _write (nOffset, aExisting);
+    _write (nOffset + nLen - aScratch.size (), ByteBuffer.wrap (aScratch.directGetBuffer (), 0, aScratch.size ()));
+    m_nFileSize = nOffset + nLen;
+    m_aSpilled.put (sPath, new long [] { nOffset, nLen });
+  }
+
+  private void _store (@NonNull final String sPath, @NonNull final NonBlockingByteArrayOutputStream aScratch) throws IOException
+  {
+    try
+    {
+      if (m_aHeap.contains (sPath) || (m_nHeapSize + aScratch.size () <= m_nThreshold && !m_aSpilled.containsKey (sPath)))
+      {
+        // Keep in heap
+        try (final OutputStream aOS = m_aHeap.openOutputStream (sPath))
+        {
+          aOS.write (aScratch.directGetBuffer (), 0, aScratch.size ());
+        }
+        m_nHeapSize += aScratch.size ();
+      }
+      else
+        _spill (sPath, aScratch);
+    }
+    finally
+    {
+      // Reuse the scratch buffer, unless it grew too large
+      aScratch.reset ();
+      if (aScratch.directGetBuffer ().length <= MAX_SCRATCH_SIZE)
+        m_aScratch = aScratch;
+    }
+  }
+
+  @Override
+  @NonNull
+  public OutputStream openOutputStream (@NonNull final String sPath)
+  {
+    ValueEnforcer.notNull (sPath, "Path");
+    NonBlockingByteArrayOutputStream aScratch = m_aScratch;
+    if (aScratch != null)
+      m_aScratch = null;
+    else
+      aScratch = new NonBlockingByteArrayOutputStream ();
+    return new StorageOutputStream (aScratch, x -> _store (sPath, x));
+  }
+
+  @Override
+  public boolean contains (@Nullable final String sPath)
+  {
+    return m_aHeap.contains (sPath) || m_aSpilled.containsKey (sPath);
+  }
+
+  @Override
+  @NonNull
+  public Set <String> getAllPaths ()
+  {
+    final Set <String> ret = new HashSet <> (m_aHeap.getAllPaths ());
+    ret.addAll (m_aSpilled.keySet ());
+    return ret;
+  }
+
+  @Override
+  @Nullable
+  public ByteBuffer getContent (@Nullable final String sPath) throws IOException
+  {
+    final long [] aEntry = m_aSpilled.get (sPath);
+    if (aEntry == null)
+      return m_aHeap.getContent (sPath);
+
+    final long nOffset = aEntry[0];
+    final int nLen = (int) aEntry[1];
+    if (nLen > WINDOW_SIZE)
+    {
+      // Too large for a window - map it on its own
+      return m_aChannel.map (FileChannel.MapMode.READ_ONLY, nOffset, nLen).asReadOnlyBuffer ();
+    }
+
+    final long nWindow = nOffset / WINDOW_SIZE;
+    final long nWindowStart = nWindow * WINDOW_SIZE;
+    final int nRelOffset = (int) (nOffset - nWindowStart);
+    MappedByteBuffer aMapped = m_aWindows.get (Long.valueOf (nWindow));
+    if (aMapped == null || aMapped.capacity () < nRelOffset + nLen)
+    {
+      // Not yet mapped or the file has grown since
+      aMapped = m_aChannel.map (FileChannel.MapMode.READ_ONLY,
+                                nWindowStart,
+                                Math.min (WINDOW_SIZE, m_nFileSize - nWindowStart));
+      m_aWindows.put (Long.valueOf (nWindow), aMapped);
+    }
+    final ByteBuffer ret = aMapped.duplicate ();
+    ret.position (nRelOffset);
+    ret.limit (nRelOffset + nLen);
+    return ret.slice ().asReadOnlyBuffer ();
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    m_aHeap.close ();
+    m_nHeapSize = 0;
+    m_aScratch = null;
+    m_aSpilled.clear ();
+    m_aWindows.clear ();
+    if (m_aChannel != null)
+    {
+      m_aChannel.close ();
+      m_aChannel = null;
+      Files.deleteIfExists (m_aFile);
+      m_aFile = null;
+      m_nFileSize = 0;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+
+/**
+ * An output stream for {@link IMemoryStorage} implementations that collects the content of a file
+ * in a scratch buffer, and hands it over to the storage when it is closed. The scratch buffer can be
+ * reused for the next file.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+final class StorageOutputStream extends OutputStream
+{
+  /**
+   * Callback that is invoked exactly once when the stream is closed.
+   */
+  @FunctionalInterface
+  interface IStoreCallback
+  {
+    /**
+     * @param aScratch
+     *        The scratch buffer with the complete content. Must not be used after the method
+     *        returned.
+     * @throws IOException
+     *         In case of an error
+     */
+    void store (@NonNull NonBlockingByteArrayOutputStream aScratch) throws IOException;
+  }
+
+  private final NonBlockingByteArrayOutputStream m_aScratch;
+  private final IStoreCallback m_aCallback;
+  private boolean m_bClosed = false;
+
+  StorageOutputStream (@NonNull final NonBlockingByteArrayOutputStream aScratch, @NonNull final IStoreCallback aCallback)
+  {
+    m_aScratch = aScratch;
+    m_aCallback = aCallback;
+  }
+
+  private void _checkOpen () throws IOException
+  {
+    if (m_bClosed)
+      throw new IOException ("Stream is already closed");
+  }
+
+  @Override
+  public void write (final int b) throws IOException
+  {
+    _checkOpen ();
+    m_aScratch.write (b);
+  }
+
+  @Override
+  public void write (@NonNull final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+  {
+    _checkOpen ();
+    m_aScratch.write (aBuf, nOfs, nLen);
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (!m_bClosed)
+    {
+      m_bClosed = true;
+      m_aCallback.store (m_aScratch);
+    }
+  }
+}
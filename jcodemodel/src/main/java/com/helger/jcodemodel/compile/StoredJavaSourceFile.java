@@ -0,0 +1,93 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import javax.tools.SimpleJavaFileObject;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * A compilation unit for the Java compiler, whose source code is stored in an {@link IMemoryStorage}.
+ * The content is only decoded when the compiler reads it, so no additional copy of the source bytes
+ * is kept in the heap.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class StoredJavaSourceFile extends SimpleJavaFileObject
+{
+  private final ByteBuffer m_aContent;
+  private final Charset m_aCharset;
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        Filename. May not be <code>null</code>.
+   * @param aContent
+   *        The encoded content of the Java file. May not be <code>null</code>. It is not modified.
+   * @param aCharset
+   *        The charset to decode the content. May not be <code>null</code>.
+   */
+  public StoredJavaSourceFile (@NonNull final String sFilename,
+                               @NonNull final ByteBuffer aContent,
+                               @NonNull final Charset aCharset)
+  {
+    super (URI.create ("string:///" + sFilename), Kind.SOURCE);
+    ValueEnforcer.notNull (aContent, "Content");
+    ValueEnforcer.notNull (aCharset, "Charset");
+    m_aContent = aContent;
+    m_aCharset = aCharset;
+  }
+
+  @Override
+  @NonNull
+  public CharSequence getCharContent (final boolean bIgnoreEncodingErrors)
+  {
+    return m_aCharset.decode (m_aContent.duplicate ());
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.meta;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.jcodemodel.meta.Annotator.Translation;
+
+/**
+ * Cache for translated annotations, shared by all adapters working on the same code model. The
+ * key of an annotation is the qualified name of its type plus the source representation of all
+ * explicitly specified values, so that the thousands of equal usages of e.g.
+ * <code>&#64;Nonnull</code> are only translated once. Annotations referencing error types are not
+ * cached, as their translation may change when more classes are defined.
+ * <p>
+ * Additionally the enum classes used in annotation values are resolved once per JVM.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@ThreadSafe
+final class AnnotationCache
+{
+  // Enum class name to enum class - empty if the class could not be found
+  private static final Map <String, Optional <Class <?>>> ENUM_CLASSES = new ConcurrentHashMap <> ();
+  // Enum constants per enum class
+  private static final ClassValue <Map <String, Enum <?>>> ENUM_CONSTANTS = new ClassValue <> ()
+  {
+    @Override
+    protected Map <String, Enum <?>> computeValue (final Class <?> aClass)
+    {
+      final Map <String, Enum <?>> ret = new HashMap <> ();
+      for (final Object aConstant : aClass.getEnumConstants ())
+      {
+        final Enum <?> aEnum = (Enum <?>) aConstant;
+        ret.put (aEnum.name (), aEnum);
+      }
+      return ret;
+    }
+  };
+
+  private final Map <String, Translation> m_aTranslations = new ConcurrentHashMap <> ();
+
+  @NonNull
+  static String getKey (@NonNull final AnnotationMirror aAnnotation)
+  {
+    final TypeElement aTypeElement = (TypeElement) aAnnotation.getAnnotationType ().asElement ();
+    final StringBuilder aSB = new StringBuilder (aTypeElement.getQualifiedName ());
+    aSB.append ('(');
+    boolean bFirst = true;
+    for (final Map.Entry <? extends ExecutableElement, ? extends AnnotationValue> aEntry : aAnnotation.getElementValues ()
+                                                                                                         .entrySet ())
+    {
+      if (bFirst)
+        bFirst = false;
+      else
+        aSB.append (',');
+      // AnnotationValue.toString () is specified to return the source representation
+      aSB.append (aEntry.getKey ().getSimpleName ()).append ('=').append (aEntry.getValue ());
+    }
+    return aSB.append (')').toString ();
+  }
+
+  @Nullable
+  Translation get (@NonNull final String sKey)
+  {
+    return m_aTranslations.get (sKey);
+  }
+
+  void put (@NonNull final String sKey, @NonNull final Translation aTranslation)
+  {
+    m_aTranslations.putIfAbsent (sKey, aTranslation);
+  }
+
+  int size ()
+  {
+    return m_aTranslations.size ();
+  }
+
+  void clear ()
+  {
+    m_aTranslations.clear ();
+  }
+
+  /**
+   * Get the constant of an enum class that is available to this library.
+   *
+   * @param sClassName
+   *        The binary name of the enum class. May not be <code>null</code>.
+   * @param sConstantName
+   *        The name of the enum constant. May not be <code>null</code>.
+   * @return The enum constant. Never <code>null</code>.
+   * @throws ClassNotFoundException
+   *         If the enum class can't be loaded.
+   * @throws IllegalStateException
+   *         If the enum constant does not exist.
+   */
+  @NonNull
+  static Enum <?> getEnumConstant (@NonNull final String sClassName, @NonNull final String sConstantName)
+                                                                                                        throws ClassNotFoundException
+  {
+    final Optional <Class <?>> aClass = ENUM_CLASSES.computeIfAbsent (sClassName, k -> {
+      try
+      {
+        final Class <?> ret = Class.forName (k);
+        return ret.isEnum () ? Optional.of (ret) : Optional.empty ();
+      }
+      catch (final ClassNotFoundException | LinkageError ex)
+      {
+        return Optional.empty ();
+      }
+    });
+    if (aClass.isEmpty ())
+      throw new ClassNotFoundException (sClassName);
+
+    final Enum <?> ret = ENUM_CONSTANTS.get (aClass.get ()).get (sConstantName);
+    if (ret == null)
+      throw new IllegalStateException ("Unable to load enum constant: " + sClassName + "." + sConstantName);
+    return ret;
+  }
+}
@@ -40,8 +40,7 @@
  */
 package com.helger.jcodemodel.meta;
 
-import java.lang.reflect.Field;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -51,11 +50,14 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.concurrent.Immutable;
 import com.helger.jcodemodel.AbstractJClass;
 import com.helger.jcodemodel.AbstractJType;
 import com.helger.jcodemodel.IJAnnotatable;
@@ -63,12 +65,146 @@ import com.helger.jcodemodel.JAnnotationArrayMember;
 import com.helger.jcodemodel.JAnnotationUse;
 
 /**
+ * Translates annotation mirrors into {@link JAnnotationUse} objects. Each annotation is first
+ * translated into an immutable {@link Translation}, which is cached in the {@link AnnotationCache}
+ * of the adapter and applied to the annotatable afterwards.
+ *
  * @author Victor Nazarov &lt;asviraspossible@gmail.com&gt;
  */
 class Annotator
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (Annotator.class);
 
+  /**
+   * The code model independent representation of a single annotation. The values are either boxed
+   * primitives, {@link String}s, {@link Class}es, {@link AbstractJType}s, {@link Enum}s, nested
+   * {@link Translation}s or arrays of them. Primitive arrays are used for primitive values.
+   */
+  @Immutable
+  static final class Translation
+  {
+    private final AbstractJClass m_aAnnotationClass;
+    private final String [] m_aNames;
+    private final Object [] m_aValues;
+
+    Translation (@NonNull final AbstractJClass aAnnotationClass,
+                 @NonNull final String [] aNames,
+                 @NonNull final Object [] aValues)
+    {
+      m_aAnnotationClass = aAnnotationClass;
+      m_aNames = aNames;
+      m_aValues = aValues;
+    }
+
+    @NonNull
+    AbstractJClass getAnnotationClass ()
+    {
+      return m_aAnnotationClass;
+    }
+
+    void applyTo (@NonNull final JAnnotationUse aUse)
+    {
+      for (int i = 0; i < m_aNames.length; ++i)
+      {
+        final String sName = m_aNames[i];
+        final Object aValue = m_aValues[i];
+        if (aValue instanceof final String a)
+          aUse.param (sName, a);
+        else
+          if (aValue instanceof final Integer a)
+            aUse.param (sName, a.intValue ());
+          else
+            if (aValue instanceof final Long a)
+              aUse.param (sName, a.longValue ());
+            else
+              if (aValue instanceof final Short a)
+                aUse.param (sName, a.shortValue ());
+              else
+                if (aValue instanceof final Float a)
+                  aUse.param (sName, a.floatValue ());
+                else
+                  if (aValue instanceof final Double a)
+                    aUse.param (sName, a.doubleValue ());
+                  else
+                    if (aValue instanceof final Byte a)
+                      aUse.param (sName, a.byteValue ());
+                    else
+                      if (aValue instanceof final Character a)
+                        aUse.param (sName, a.charValue ());
+                      else
+                        if (aValue instanceof final Boolean a)
+                          aUse.param (sName, a.booleanValue ());
+                        else
+                          if (aValue instanceof final Class <?> a)
+                            aUse.param (sName, a);
+                          else
+                            if (aValue instanceof final AbstractJType a)
+                              aUse.param (sName, a);
+                            else
+                              if (aValue instanceof final Enum <?> a)
+                                aUse.param (sName, a);
+                              else
+                                if (aValue instanceof final Translation a)
+                                  a.applyTo (aUse.annotationParam (sName, a.m_aAnnotationClass));
+                                else
+                                  _applyArray (aUse, sName, aValue);
+      }
+    }
+
+    private static void _applyArray (@NonNull final JAnnotationUse aUse,
+                                     @NonNull final String sName,
+                                     @NonNull final Object aValue)
+    {
+      if (aValue instanceof final String [] a)
+        aUse.paramArray (sName, a);
+      else
+        if (aValue instanceof final int [] a)
+          aUse.paramArray (sName, a);
+        else
+          if (aValue instanceof final long [] a)
+            aUse.paramArray (sName, a);
+          else
+            if (aValue instanceof final short [] a)
+              aUse.paramArray (sName, a);
+            else
+              if (aValue instanceof final float [] a)
+                aUse.paramArray (sName, a);
+              else
+                if (aValue instanceof final double [] a)
+                  aUse.paramArray (sName, a);
+                else
+                  if (aValue instanceof final byte [] a)
+                    aUse.paramArray (sName, a);
+                  else
+                    if (aValue instanceof final char [] a)
+                      aUse.paramArray (sName, a);
+                    else
+                      if (aValue instanceof final boolean [] a)
+                        aUse.paramArray (sName, a);
+                      else
+                        if (aValue instanceof final Class <?> [] a)
+                          aUse.paramArray (sName, a);
+                        else
+                          if (aValue instanceof final AbstractJType [] a)
+                            aUse.paramArray (sName, a);
+                          else
+                            if (aValue instanceof final Enum <?> [] a)
+                              aUse.paramArray (sName, a);
+                            else
+                              if (aValue instanceof final Translation [] a)
+                              {
+                                final JAnnotationArrayMember aArray = aUse.paramArray (sName);
+                                for (final Translation aNested : a)
+                                  aNested.applyTo (aArray.annotate (aNested.m_aAnnotationClass));
+                              }
+                              else
+                                throw new IllegalStateException ("Unexpected translated annotation argument: " +
+                                                                 sName +
+                                                                 ": " +
+                                                                 aValue.getClass ());
+    }
+  }
+
   private final DecidedErrorTypesModelsAdapter m_aModelsAdapter;
   private final IJAnnotatable m_aAnnotatable;
   private final TypeEnvironment m_aTypeEnvironment;
@@ -86,344 +222,233 @@ class Annotator
                                                                                      IllegalStateException,
                                                                                      ErrorTypeFound
   {
+    final AnnotationCache cache = m_aModelsAdapter.getAnnotationCache ();
     for (final AnnotationMirror annotation : annotationMirrors)
     {
-      _annotate (annotation);
+      final String key = AnnotationCache.getKey (annotation);
+      Translation translation = cache.get (key);
+      if (translation == null)
+      {
+        final Translator translator = new Translator ();
+        translation = translator.translate (annotation);
+        if (translator.m_bCacheable)
+          cache.put (key, translation);
+      }
+      translation.applyTo (m_aAnnotatable.annotate (translation.getAnnotationClass ()));
     }
   }
 
-  private void _annotate (@NonNull final AnnotationMirror annotation) throws CodeModelBuildingException,
-                                                                      IllegalStateException,
-                                                                      ErrorTypeFound
-  {
-    final JAnnotationUse annotationUse = m_aAnnotatable.annotate ((AbstractJClass) m_aModelsAdapter.toJType (annotation.getAnnotationType (),
-                                                                                                             m_aTypeEnvironment));
-    final ArgumentAdder reader = new ArgumentAdder (annotationUse);
-    reader.addArguments (annotation);
-  }
-
-  class ArgumentAdder
+  private final class Translator
   {
-    private final JAnnotationUse m_aAnnotationUse;
+    // false if an error type was found
+    private boolean m_bCacheable = true;
 
-    public ArgumentAdder (@NonNull final JAnnotationUse annotationUse)
+    @NonNull
+    private AbstractJType _toJType (@NonNull final TypeMirror type) throws CodeModelBuildingException, ErrorTypeFound
     {
-      m_aAnnotationUse = annotationUse;
+      if (!TypeConversionCache.isCacheable (type))
+        m_bCacheable = false;
+      return m_aModelsAdapter.toJType (type, m_aTypeEnvironment);
     }
 
-    void addArguments (final AnnotationMirror annotation) throws CodeModelBuildingException,
-                                                          IllegalStateException,
-                                                          ErrorTypeFound
+    @NonNull
+    Translation translate (@NonNull final AnnotationMirror annotation) throws CodeModelBuildingException,
+                                                                       IllegalStateException,
+                                                                       ErrorTypeFound
     {
+      final AbstractJClass annotationClass = (AbstractJClass) _toJType (annotation.getAnnotationType ());
       final Map <? extends ExecutableElement, ? extends AnnotationValue> annotationArguments = m_aModelsAdapter.getElementValuesWithDefaults (annotation);
+      final String [] names = new String [annotationArguments.size ()];
+      final Object [] values = new Object [annotationArguments.size ()];
+      int count = 0;
       for (final Map.Entry <? extends ExecutableElement, ? extends AnnotationValue> annotationValueAssignment : annotationArguments.entrySet ())
       {
         final String name = annotationValueAssignment.getKey ().getSimpleName ().toString ();
-        final Object value = annotationValueAssignment.getValue ().getValue ();
-        _addArgument (name, value);
+        final Object value = _translateValue (name, annotationValueAssignment.getValue ().getValue ());
+        if (value != null)
+        {
+          names[count] = name;
+          values[count] = value;
+          count++;
+        }
       }
+      if (count < names.length)
+        return new Translation (annotationClass,
+                                Arrays.copyOf (names, count),
+                                Arrays.copyOf (values, count));
+      return new Translation (annotationClass, names, values);
     }
 
-    private void _addArgument (final String name, final Object value) throws IllegalStateException,
-                                                                      CodeModelBuildingException,
-                                                                      ErrorTypeFound
-    {
-      if (value instanceof final String a)
-        m_aAnnotationUse.param (name, a);
-      else
-        if (value instanceof final Integer a)
-          m_aAnnotationUse.param (name, a.intValue ());
-        else
-          if (value instanceof final Long a)
-            m_aAnnotationUse.param (name, a.longValue ());
-          else
-            if (value instanceof final Short a)
-              m_aAnnotationUse.param (name, a.shortValue ());
-            else
-              if (value instanceof final Float a)
-                m_aAnnotationUse.param (name, a.floatValue ());
-              else
-                if (value instanceof final Double a)
-                  m_aAnnotationUse.param (name, a.doubleValue ());
-                else
-                  if (value instanceof final Byte a)
-                    m_aAnnotationUse.param (name, a.byteValue ());
-                  else
-                    if (value instanceof final Character a)
-                      m_aAnnotationUse.param (name, a.charValue ());
-                    else
-                      if (value instanceof final Boolean a)
-                        m_aAnnotationUse.param (name, a.booleanValue ());
-                      else
-                        if (value instanceof final Class a)
-                          m_aAnnotationUse.param (name, a);
-                        else
-                          if (value instanceof final DeclaredType a)
-                          {
-                            m_aAnnotationUse.param (name, m_aModelsAdapter.toJType (a, m_aTypeEnvironment));
-                          }
-                          else
-                            if (value instanceof final VariableElement a)
-                            {
-                              try
-                              {
-                                m_aAnnotationUse.param (name, _actualEnumConstantValue (a));
-                              }
-                              catch (final ClassNotFoundException ex)
-                              {
-                                LOGGER.warn ("Not processing annotation argument: " + name + ": " + value);
-                              }
-                            }
-                            else
-                              if (value instanceof final AnnotationMirror annotation)
-                              {
-                                final AbstractJClass annotationClass = (AbstractJClass) m_aModelsAdapter.toJType (annotation.getAnnotationType (),
-                                                                                                                  m_aTypeEnvironment);
-                                final JAnnotationUse annotationParam = m_aAnnotationUse.annotationParam (name,
-                                                                                                         annotationClass);
-                                final ArgumentAdder adder = new ArgumentAdder (annotationParam);
-                                adder.addArguments (annotation);
-                              }
-                              else
-                                if (value instanceof List)
-                                {
-                                  @SuppressWarnings (value = "unchecked")
-                                  final List <? extends AnnotationValue> list = (List <? extends AnnotationValue>) value;
-                                  final Iterator <? extends AnnotationValue> iterator = list.iterator ();
-                                  if (iterator.hasNext ())
-                                  {
-                                    final AnnotationValue firstElementValue = iterator.next ();
-                                    final Object element = firstElementValue.getValue ();
-                                    if (element instanceof String)
-                                    {
-                                      final String [] elements = new String [list.size ()];
-                                      int i = 0;
-                                      for (final AnnotationValue elementValue : list)
-                                      {
-                                        elements[i] = (String) elementValue.getValue ();
-                                        i++;
-                                      }
-                                      m_aAnnotationUse.paramArray (name, elements);
-                                    }
-                                    else
-                                      if (element instanceof Integer)
-                                      {
-                                        final int [] elements = new int [list.size ()];
-                                        int i = 0;
-                                        for (final AnnotationValue elementValue : list)
-                                        {
-                                          elements[i] = ((Integer) elementValue.getValue ()).intValue ();
-                                          i++;
-                                        }
-                                        m_aAnnotationUse.paramArray (name, elements);
-                                      }
-                                      else
-                                        if (element instanceof Long)
-                                        {
-                                          final long [] elements = new long [list.size ()];
-                                          int i = 0;
-                                          for (final AnnotationValue elementValue : list)
-                                          {
-                                            elements[i] = ((Long) elementValue.getValue ()).longValue ();
-                                            i++;
-                                          }
-                                          m_aAnnotationUse.paramArray (name, elements);
-                                        }
-                                        else
-                                          if (element instanceof Short)
-                                          {
-                                            final short [] elements = new short [list.size ()];
-                                            int i = 0;
-                                            for (final AnnotationValue elementValue : list)
-                                            {
-                                              elements[i] = ((Short) elementValue.getValue ()).shortValue ();
-                                              i++;
-                                            }
-                                            m_aAnnotationUse.paramArray (name, elements);
-                                          }
-                                          else
-                                            if (element instanceof Float)
-                                            {
-                                              final float [] elements = new float [list.size ()];
-                                              int i = 0;
-                                              for (final AnnotationValue elementValue : list)
-                                              {
-                                                elements[i] = ((Float) elementValue.getValue ()).floatValue ();
-                                                i++;
-                                              }
-                                              m_aAnnotationUse.paramArray (name, elements);
-                                            }
-                                            else
-                                              if (element instanceof Double)
-                                              {
-                                                final double [] elements = new double [list.size ()];
-                                                int i = 0;
-                                                for (final AnnotationValue elementValue : list)
-                                                {
-                                                  elements[i] = ((Double) elementValue.getValue ()).doubleValue ();
-                                                  i++;
-                                                }
-                                                m_aAnnotationUse.paramArray (name, elements);
-                                              }
-                                              else
-                                                if (element instanceof Byte)
-                                                {
-                                                  final byte [] elements = new byte [list.size ()];
-                                                  int i = 0;
-                                                  for (final AnnotationValue elementValue : list)
-                                                  {
-                                                    elements[i] = ((Byte) elementValue.getValue ()).byteValue ();
-                                                    i++;
-                                                  }
-                                                  m_aAnnotationUse.paramArray (name, elements);
-                                                }
-                                                else
-                                                  if (element instanceof Character)
-                                                  {
-                                                    final char [] elements = new char [list.size ()];
-                                                    int i = 0;
-                                                    for (final AnnotationValue elementValue : list)
-                                                    {
-                                                      elements[i] = ((Character) elementValue.getValue ()).charValue ();
-                                                      i++;
-                                                    }
-                                                    m_aAnnotationUse.paramArray (name, elements);
-                                                  }
-                                                  else
-                                                    if (element instanceof Boolean)
-                                                    {
-                                                      final boolean [] elements = new boolean [list.size ()];
-                                                      int i = 0;
-                                                      for (final AnnotationValue elementValue : list)
-                                                      {
-                                                        elements[i] = ((Boolean) elementValue.getValue ()).booleanValue ();
-                                                        i++;
-                                                      }
-                                                      m_aAnnotationUse.paramArray (name, elements);
-                                                    }
-                                                    else
-                                                      if (element instanceof Class)
-                                                      {
-                                                        final Class <?> [] elements = new Class <?> [list.size ()];
-                                                        int i = 0;
-                                                        for (final AnnotationValue elementValue : list)
-                                                        {
-                                                          elements[i] = (Class <?>) elementValue.getValue ();
-                                                          i++;
-                                                        }
-                                                        m_aAnnotationUse.paramArray (name, elements);
-                                                      }
-                                                      else
-                                                        if (element instanceof DeclaredType)
-                                                        {
-                                                          final AbstractJType [] elements = new AbstractJType [list.size ()];
-                                                          int i = 0;
-                                                          for (final AnnotationValue elementValue : list)
-                                                          {
-                                                            elements[i] = m_aModelsAdapter.toJType ((DeclaredType) elementValue.getValue (),
-                                                                                                    m_aTypeEnvironment);
-                                                            i++;
-                                                          }
-                                                          m_aAnnotationUse.paramArray (name, elements);
-                                                        }
-                                                        else
-                                                          if (element instanceof VariableElement)
-                                                          {
-                                                            try
-                                                            {
-                                                              final Enum <?> [] elements = new Enum <?> [list.size ()];
-                                                              int i = 0;
-                                                              for (final AnnotationValue elementValue : list)
-                                                              {
-                                                                elements[i] = _actualEnumConstantValue ((VariableElement) elementValue.getValue ());
-                                                                i++;
-                                                              }
-                                                              m_aAnnotationUse.paramArray (name, elements);
-                                                            }
-                                                            catch (final ClassNotFoundException ex)
-                                                            {
-                                                              LOGGER.warn ("Not processing annotation argument: " +
-                                                                           name +
-                                                                           ": " +
-                                                                           list);
-                                                            }
-                                                          }
-                                                          else
-                                                            if (element instanceof AnnotationMirror)
-                                                            {
-                                                              final JAnnotationArrayMember paramArray = m_aAnnotationUse.paramArray (name);
-                                                              for (final AnnotationValue elementValue : list)
-                                                              {
-                                                                final AnnotationMirror annotation = (AnnotationMirror) elementValue.getValue ();
-                                                                final AbstractJClass annotationClass = (AbstractJClass) m_aModelsAdapter.toJType (annotation.getAnnotationType (),
-                                                                                                                                                  m_aTypeEnvironment);
-                                                                final JAnnotationUse annotationParam = paramArray.annotate (annotationClass);
-                                                                final ArgumentAdder adder = new ArgumentAdder (annotationParam);
-                                                                adder.addArguments (annotation);
-                                                              }
-                                                            }
-                                                            else
-                                                            {
-                                                              throw new IllegalStateException ("Unknown annotation array argument: " +
-                                                                                               name +
-                                                                                               ": " +
-                                                                                               element +
-                                                                                               " (" +
-                                                                                               element.getClass () +
-                                                                                               ")");
-                                                            }
-                                  }
-                                }
-                                else
-                                  throw new IllegalStateException ("Unknown annotation argument: " +
-                                                                   name +
-                                                                   ": " +
-                                                                   value +
-                                                                   " (" +
-                                                                   value.getClass () +
-                                                                   ")");
-    }
-
-    private Enum <?> _actualEnumConstantValue (@NonNull final VariableElement variableElement) throws ClassNotFoundException
+    @Nullable
+    private Enum <?> _enumConstant (@NonNull final String name, @NonNull final VariableElement variableElement)
     {
       final TypeElement enumClassElement = (TypeElement) variableElement.getEnclosingElement ();
-      final Class <?> enumClass = Class.forName (enumClassElement.getQualifiedName ().toString ());
-      final Field enumConstantField;
       try
       {
-        enumConstantField = enumClass.getField (variableElement.getSimpleName ().toString ());
+        return AnnotationCache.getEnumConstant (m_aModelsAdapter.getBinaryName (enumClassElement),
+                                                variableElement.getSimpleName ().toString ());
       }
-      catch (final NoSuchFieldException | SecurityException ex)
+      catch (final ClassNotFoundException ex)
       {
-        throw new IllegalStateException ("Unable to load enum constant: " +
-                                         enumClassElement.getQualifiedName ().toString () +
-                                         "." +
-                                         variableElement.getSimpleName ().toString (),
-                                         ex);
+        LOGGER.warn ("Not processing annotation argument: " + name + ": " + variableElement);
+        return null;
       }
+    }
 
-      try
+    /**
+     * @return The translated value or <code>null</code> if the argument should be skipped.
+     */
+    @Nullable
+    private Object _translateValue (@NonNull final String name, @NonNull final Object value) throws CodeModelBuildingException,
+                                                                                             IllegalStateException,
+                                                                                             ErrorTypeFound
+    {
+      if (value instanceof String ||
+          value instanceof Integer ||
+          value instanceof Long ||
+          value instanceof Short ||
+          value instanceof Float ||
+          value instanceof Double ||
+          value instanceof Byte ||
+          value instanceof Character ||
+          value instanceof Boolean ||
+          value instanceof Class)
+        return value;
+      if (value instanceof final DeclaredType a)
+        return _toJType (a);
+      if (value instanceof final VariableElement a)
+        return _enumConstant (name, a);
+      if (value instanceof final AnnotationMirror a)
+        return translate (a);
+      if (value instanceof List)
       {
-        final Enum <?> enumValue = (Enum <?>) enumConstantField.get (null);
-        return enumValue;
+        @SuppressWarnings (value = "unchecked")
+        final List <? extends AnnotationValue> list = (List <? extends AnnotationValue>) value;
+        if (list.isEmpty ())
+          return null;
+        return _translateList (name, list, list.iterator ().next ().getValue ());
       }
-      catch (final IllegalArgumentException ex)
+      throw new IllegalStateException ("Unknown annotation argument: " +
+                                       name +
+                                       ": " +
+                                       value +
+                                       " (" +
+                                       value.getClass () +
+                                       ")");
+    }
+
+    @Nullable
+    private Object _translateList (@NonNull final String name,
+                                   @NonNull final List <? extends AnnotationValue> list,
+                                   @NonNull final Object element) throws CodeModelBuildingException,
+                                                                  IllegalStateException,
+                                                                  ErrorTypeFound
+    {
+      final int size = list.size ();
+      int i = 0;
+      if (element instanceof String)
+      {
+        final String [] elements = new String [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = (String) elementValue.getValue ();
+        return elements;
+      }
+      if (element instanceof Integer)
       {
-        throw new IllegalStateException ("Unable to load enum constant actual value: " +
-                                         enumClassElement.getQualifiedName ().toString () +
-                                         "." +
-                                         variableElement.getSimpleName ().toString (),
-                                         ex);
+        final int [] elements = new int [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Integer) elementValue.getValue ()).intValue ();
+        return elements;
       }
-      catch (final IllegalAccessException ex)
+      if (element instanceof Long)
       {
-        throw new IllegalStateException ("Unable to load enum constant actual value:" +
-                                         enumClassElement.getQualifiedName ().toString () +
-                                         "." +
-                                         variableElement.getSimpleName ().toString (),
-                                         ex);
+        final long [] elements = new long [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Long) elementValue.getValue ()).longValue ();
+        return elements;
       }
+      if (element instanceof Short)
+      {
+        final short [] elements = new short [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Short) elementValue.getValue ()).shortValue ();
+        return elements;
+      }
+      if (element instanceof Float)
+      {
+        final float [] elements = new float [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Float) elementValue.getValue ()).floatValue ();
+        return elements;
+      }
+      if (element instanceof Double)
+      {
+        final double [] elements = new double [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Double) elementValue.getValue ()).doubleValue ();
+        return elements;
+      }
+      if (element instanceof Byte)
+      {
+        final byte [] elements = new byte [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Byte) elementValue.getValue ()).byteValue ();
+        return elements;
+      }
+      if (element instanceof Character)
+      {
+        final char [] elements = new char [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Character) elementValue.getValue ()).charValue ();
+        return elements;
+      }
+      if (element instanceof Boolean)
+      {
+        final boolean [] elements = new boolean [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = ((Boolean) elementValue.getValue ()).booleanValue ();
+        return elements;
+      }
+      if (element instanceof Class)
+      {
+        final Class <?> [] elements = new Class <?> [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = (Class <?>) elementValue.getValue ();
+        return elements;
+      }
+      if (element instanceof DeclaredType)
+      {
+        final AbstractJType [] elements = new AbstractJType [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = _toJType ((DeclaredType) elementValue.getValue ());
+        return elements;
+      }
+      if (element instanceof VariableElement)
+      {
+        final Enum <?> [] elements = new Enum <?> [size];
+        for (final AnnotationValue elementValue : list)
+        {
+          final Enum <?> constant = _enumConstant (name, (VariableElement) elementValue.getValue ());
+          if (constant == null)
+            return null;
+          elements[i++] = constant;
+        }
+        return elements;
+      }
+      if (element instanceof AnnotationMirror)
+      {
+        final Translation [] elements = new Translation [size];
+        for (final AnnotationValue elementValue : list)
+          elements[i++] = translate ((AnnotationMirror) elementValue.getValue ());
+        return elements;
+      }
+      throw new IllegalStateException ("Unknown annotation array argument: " +
+                                       name +
+                                       ": " +
+                                       element +
+                                       " (" +
+                                       element.getClass () +
+                                       ")");
     }
-
   }
 }
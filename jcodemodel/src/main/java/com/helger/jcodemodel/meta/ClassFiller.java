@@ -82,6 +82,71 @@ class ClassFiller
   void fillClass (@NonNull final TypeElement element, @NonNull final TypeEnvironment environment)
                                                                                                   throws CodeModelBuildingException,
                                                                                                   ErrorTypeFound
+  {
+    _fillHeader (element, environment);
+    for (final Element enclosedElement : element.getEnclosedElements ())
+    {
+      if (_isInnerClass (enclosedElement))
+      {
+        final TypeElement innerClassElement = (TypeElement) enclosedElement;
+        m_aModelsAdapter.defineInnerClass (m_aNewClass, innerClassElement, environment.enclosed ());
+      }
+      else
+        if (enclosedElement.getKind ().equals (ElementKind.METHOD))
+          _fillMethod ((ExecutableElement) enclosedElement, environment);
+    }
+  }
+
+  /**
+   * Fill the class declaration and the inner classes now, but the methods only when they are
+   * accessed for the first time.
+   *
+   * @param element
+   *        The element to mirror
+   * @param environment
+   *        The type environment
+   * @throws CodeModelBuildingException
+   *         In case of an error
+   * @throws ErrorTypeFound
+   *         If an error type is found in the declaration
+   * @since 4.3.1
+   */
+  void fillClassLazily (@NonNull final TypeElement element, @NonNull final TypeEnvironment environment)
+                                                                                                        throws CodeModelBuildingException,
+                                                                                                        ErrorTypeFound
+  {
+    _fillHeader (element, environment);
+    for (final Element enclosedElement : element.getEnclosedElements ())
+      if (_isInnerClass (enclosedElement))
+        m_aModelsAdapter.defineInnerClass (m_aNewClass, (TypeElement) enclosedElement, environment.enclosed ());
+
+    m_aNewClass.setLazyMemberInitializer ( () -> {
+      try
+      {
+        for (final Element enclosedElement : element.getEnclosedElements ())
+          if (enclosedElement.getKind ().equals (ElementKind.METHOD))
+            _fillMethod ((ExecutableElement) enclosedElement, environment);
+      }
+      catch (final CodeModelBuildingException ex)
+      {
+        throw new RuntimeCodeModelBuildingException (ex);
+      }
+      catch (final ErrorTypeFound ex)
+      {
+        throw new RuntimeErrorTypeFound (ex);
+      }
+    });
+  }
+
+  private static boolean _isInnerClass (@NonNull final Element enclosedElement)
+  {
+    return enclosedElement.getKind ().equals (ElementKind.INTERFACE) ||
+           enclosedElement.getKind ().equals (ElementKind.CLASS);
+  }
+
+  private void _fillHeader (@NonNull final TypeElement element, @NonNull final TypeEnvironment environment)
+                                                                                                            throws CodeModelBuildingException,
+                                                                                                            ErrorTypeFound
   {
     m_aNewClass.hide ();
     final Annotator classAnnotator = new Annotator (m_aModelsAdapter, m_aNewClass, environment);
@@ -104,65 +169,58 @@ class ClassFiller
     {
       m_aNewClass._implements ((AbstractJClass) m_aModelsAdapter.toJType (iface, environment));
     }
-    for (final Element enclosedElement : element.getEnclosedElements ())
+  }
+
+  private void _fillMethod (@NonNull final ExecutableElement executable, @NonNull final TypeEnvironment environment)
+                                                                                                                     throws CodeModelBuildingException,
+                                                                                                                     ErrorTypeFound
+  {
+    final JMethod method = m_aNewClass.method (DecidedErrorTypesModelsAdapter.toJMod (executable.getModifiers ()),
+                                               m_aCodeModel.VOID,
+                                               executable.getSimpleName ().toString ());
+    // Non-generic methods don't need an own scope
+    final TypeEnvironment methodEnvironment = executable.getTypeParameters ().isEmpty () ? environment
+                                                                                         : environment.enclosed ();
+    final Annotator methodAnnotator = new Annotator (m_aModelsAdapter, method, environment);
+    methodAnnotator.annotate (executable.getAnnotationMirrors ());
+    for (final TypeParameterElement parameter : executable.getTypeParameters ())
     {
-      if (enclosedElement.getKind ().equals (ElementKind.INTERFACE) ||
-        enclosedElement.getKind ().equals (ElementKind.CLASS))
+      final JTypeVar typeVariable = method.generify (parameter.getSimpleName ().toString ());
+      methodEnvironment.put (typeVariable.name (), typeVariable);
+      for (final TypeMirror type : parameter.getBounds ())
       {
-        final TypeElement innerClassElement = (TypeElement) enclosedElement;
-        m_aModelsAdapter.defineInnerClass (m_aNewClass, innerClassElement, environment.enclosed ());
+        typeVariable.bound ((AbstractJClass) m_aModelsAdapter.toJType (type, methodEnvironment));
+      }
+    }
+    method.type (m_aModelsAdapter.toJType (executable.getReturnType (), methodEnvironment));
+    for (final TypeMirror type : executable.getThrownTypes ())
+    {
+      final AbstractJClass throwable = (AbstractJClass) m_aModelsAdapter.toJType (type, methodEnvironment);
+      method._throws (throwable);
+    }
+    final List <? extends VariableElement> parameters = executable.getParameters ();
+    int n = 0;
+    for (final VariableElement variable : parameters)
+    {
+      final String parameterName = variable.getSimpleName ().toString ();
+      final TypeMirror parameterTypeMirror = variable.asType ();
+      final AbstractJType parameterType = m_aModelsAdapter.toJType (parameterTypeMirror, methodEnvironment);
+      JVar param;
+      if (executable.isVarArgs () && n == parameters.size () - 1)
+      {
+        param = method.varParam (DecidedErrorTypesModelsAdapter.toJMod (variable.getModifiers ()),
+                                 parameterType.elementType (),
+                                 parameterName);
       }
       else
-        if (enclosedElement.getKind ().equals (ElementKind.METHOD))
-        {
-          final ExecutableElement executable = (ExecutableElement) enclosedElement;
-          final JMethod method = m_aNewClass.method (DecidedErrorTypesModelsAdapter.toJMod (executable.getModifiers ()),
-                                                     m_aCodeModel.VOID,
-                                                     executable.getSimpleName ().toString ());
-          final TypeEnvironment methodEnvironment = environment.enclosed ();
-          final Annotator methodAnnotator = new Annotator (m_aModelsAdapter, method, environment);
-          methodAnnotator.annotate (executable.getAnnotationMirrors ());
-          for (final TypeParameterElement parameter : executable.getTypeParameters ())
-          {
-            final JTypeVar typeVariable = method.generify (parameter.getSimpleName ().toString ());
-            methodEnvironment.put (typeVariable.name (), typeVariable);
-            for (final TypeMirror type : parameter.getBounds ())
-            {
-              typeVariable.bound ((AbstractJClass) m_aModelsAdapter.toJType (type, methodEnvironment));
-            }
-          }
-          method.type (m_aModelsAdapter.toJType (executable.getReturnType (), methodEnvironment));
-          for (final TypeMirror type : executable.getThrownTypes ())
-          {
-            final AbstractJClass throwable = (AbstractJClass) m_aModelsAdapter.toJType (type, methodEnvironment);
-            method._throws (throwable);
-          }
-          final List <? extends VariableElement> parameters = executable.getParameters ();
-          int n = 0;
-          for (final VariableElement variable : parameters)
-          {
-            final String parameterName = variable.getSimpleName ().toString ();
-            final TypeMirror parameterTypeMirror = variable.asType ();
-            final AbstractJType parameterType = m_aModelsAdapter.toJType (parameterTypeMirror, methodEnvironment);
-            JVar param;
-            if (executable.isVarArgs () && n == parameters.size () - 1)
-            {
-              param = method.varParam (DecidedErrorTypesModelsAdapter.toJMod (variable.getModifiers ()),
-                                       parameterType.elementType (),
-                                       parameterName);
-            }
-            else
-            {
-              param = method.param (DecidedErrorTypesModelsAdapter.toJMod (variable.getModifiers ()),
-                                    parameterType,
-                                    parameterName);
-            }
-            final Annotator parametorAnnotator = new Annotator (m_aModelsAdapter, param, methodEnvironment);
-            parametorAnnotator.annotate (variable.getAnnotationMirrors ());
-            n++;
-          }
-        }
+      {
+        param = method.param (DecidedErrorTypesModelsAdapter.toJMod (variable.getModifiers ()),
+                              parameterType,
+                              parameterName);
+      }
+      final Annotator parametorAnnotator = new Annotator (m_aModelsAdapter, param, methodEnvironment);
+      parametorAnnotator.annotate (variable.getAnnotationMirrors ());
+      n++;
     }
   }
-
 }
@@ -55,6 +55,7 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -148,14 +149,61 @@ class DecidedErrorTypesModelsAdapter
   private final JCodeModel m_aCodeModel;
   private final Elements m_aElementUtils;
   private final ErrorTypePolicy m_aErrorTypePolicy;
+  private final boolean m_bLazyMembers;
+  private final TypeConversionCache m_aCache;
 
   DecidedErrorTypesModelsAdapter (final JCodeModel codeModel,
                                   final Elements elementUtils,
                                   final ErrorTypePolicy errorTypePolicy)
+  {
+    this (codeModel, elementUtils, errorTypePolicy, false, new TypeConversionCache ());
+  }
+
+  DecidedErrorTypesModelsAdapter (final JCodeModel codeModel,
+                                  final Elements elementUtils,
+                                  final ErrorTypePolicy errorTypePolicy,
+                                  final boolean bLazyMembers,
+                                  @NonNull final TypeConversionCache aCache)
   {
     m_aCodeModel = codeModel;
     m_aElementUtils = elementUtils;
     m_aErrorTypePolicy = errorTypePolicy;
+    m_bLazyMembers = bLazyMembers;
+    m_aCache = aCache;
+  }
+
+  @Nullable
+  private JDefinedClass _findInnerClass (@NonNull final JDefinedClass enclosingClass, @NonNull final TypeElement element)
+  {
+    final String qualifiedName = element.getQualifiedName ().toString ();
+    JDefinedClass result = m_aCache.getInnerClass (qualifiedName);
+    if (result != null && result.outer () == enclosingClass)
+      return result;
+
+    // Declared by another adapter instance
+    result = null;
+    for (final JDefinedClass innerClass : enclosingClass.classes ())
+    {
+      final String fullName = innerClass.fullName ();
+      if (fullName != null && fullName.equals (qualifiedName))
+      {
+        result = innerClass;
+        m_aCache.putInnerClass (qualifiedName, innerClass);
+        break;
+      }
+    }
+    return result;
+  }
+
+  private void _fill (@NonNull final JDefinedClass aClass,
+                      @NonNull final TypeElement element,
+                      @NonNull final TypeEnvironment environment) throws CodeModelBuildingException, ErrorTypeFound
+  {
+    final ClassFiller filler = new ClassFiller (m_aCodeModel, this, aClass);
+    if (m_bLazyMembers)
+      filler.fillClassLazily (element, environment);
+    else
+      filler.fillClass (element, environment);
   }
 
   @NonNull
@@ -179,12 +227,9 @@ class DecidedErrorTypesModelsAdapter
     {
       // Recursive call
       final JDefinedClass enclosingClass = getClass ((TypeElement) enclosingElement);
-      for (final JDefinedClass innerClass : enclosingClass.classes ())
-      {
-        final String fullName = innerClass.fullName ();
-        if (fullName != null && fullName.equals (element.getQualifiedName ().toString ()))
-          return innerClass;
-      }
+      final JDefinedClass innerClass = _findInnerClass (enclosingClass, element);
+      if (innerClass != null)
+        return innerClass;
       throw new CodeModelBuildingException ("Can't define inner class " +
                                             element.getQualifiedName () +
                                             ": enclosing class " +
@@ -242,8 +287,7 @@ class DecidedErrorTypesModelsAdapter
       throw new CodeModelBuildingException (ex);
     }
     _declareInnerClasses (newClass, element, environment);
-    final ClassFiller filler = new ClassFiller (m_aCodeModel, this, newClass);
-    filler.fillClass (element, environment);
+    _fill (newClass, element, environment);
     return newClass;
   }
 
@@ -289,6 +333,7 @@ class DecidedErrorTypesModelsAdapter
         {
           throw new CodeModelBuildingException (ex);
         }
+        m_aCache.putInnerClass (((TypeElement) enclosedElement).getQualifiedName ().toString (), enclosedClass);
         _declareInnerClasses (enclosedClass, (TypeElement) enclosedElement, environment);
       }
     }
@@ -298,15 +343,11 @@ class DecidedErrorTypesModelsAdapter
                          final TypeElement element,
                          final TypeEnvironment environment) throws CodeModelBuildingException, ErrorTypeFound
   {
-    for (final JDefinedClass innerClass : enclosingClass.classes ())
+    final JDefinedClass innerClass = _findInnerClass (enclosingClass, element);
+    if (innerClass != null)
     {
-      final String innerClassName = innerClass.fullName ();
-      if (innerClassName != null && innerClassName.equals (element.getQualifiedName ().toString ()))
-      {
-        final ClassFiller filler = new ClassFiller (m_aCodeModel, this, innerClass);
-        filler.fillClass (element, environment);
-        return;
-      }
+      _fill (innerClass, element, environment);
+      return;
     }
     throw new IllegalStateException ("Inner class should always be defined if outer class is defined: inner class " +
                                      element +
@@ -317,25 +358,39 @@ class DecidedErrorTypesModelsAdapter
   @NonNull
   AbstractJClass ref (final TypeElement element) throws CodeModelBuildingException, ErrorTypeFound
   {
-    try
+    AbstractJClass result = m_aCache.getElement (element);
+    if (result == null)
     {
-      final Class <?> klass = Class.forName (element.getQualifiedName ().toString ());
-      final AbstractJType declaredClass = m_aCodeModel.ref (klass);
-      return (AbstractJClass) declaredClass;
-    }
-    catch (final ClassNotFoundException ex)
-    {
-      return getClass (element);
+      try
+      {
+        final Class <?> klass = Class.forName (element.getQualifiedName ().toString ());
+        result = m_aCodeModel.ref (klass);
+      }
+      catch (final ClassNotFoundException ex)
+      {
+        result = getClass (element);
+      }
+      m_aCache.putElement (element, result);
     }
+    return result;
   }
 
   AbstractJType toJType (@NonNull final TypeMirror type, final TypeEnvironment environment)
                                                                                             throws CodeModelBuildingException,
                                                                                             ErrorTypeFound
   {
+    final AbstractJType cached = m_aCache.getType (type);
+    if (cached != null)
+      return cached;
     try
     {
-      return type.accept (new TypeMirrorToJTypeVisitor (m_aCodeModel, this, m_aErrorTypePolicy, environment), null);
+      final AbstractJType result = type.accept (new TypeMirrorToJTypeVisitor (m_aCodeModel,
+                                                                              this,
+                                                                              m_aErrorTypePolicy,
+                                                                              environment),
+                                                null);
+      m_aCache.putTypeIfCacheable (type, result);
+      return result;
     }
     catch (final RuntimeErrorTypeFound ex)
     {
@@ -347,6 +402,18 @@ class DecidedErrorTypesModelsAdapter
     }
   }
 
+  @NonNull
+  AnnotationCache getAnnotationCache ()
+  {
+    return m_aCache.getAnnotationCache ();
+  }
+
+  @NonNull
+  String getBinaryName (@NonNull final TypeElement element)
+  {
+    return m_aElementUtils.getBinaryName (element).toString ();
+  }
+
   Map <? extends ExecutableElement, ? extends AnnotationValue> getElementValuesWithDefaults (final AnnotationMirror annotation)
   {
     return m_aElementUtils.getElementValuesWithDefaults (annotation);
@@ -52,6 +52,8 @@ public class JCodeModelJavaxLangModelAdapter
 {
   private final JCodeModel m_aCodeModel;
   private final Elements m_aElementUtils;
+  private boolean m_bLazyMembers = false;
+  private final TypeConversionCache m_aCache = new TypeConversionCache ();
 
   /**
    * Creates new instance of JCodeModelJavaxLangModelAdapter.
@@ -67,6 +69,49 @@ public class JCodeModelJavaxLangModelAdapter
     m_aElementUtils = elementUtils;
   }
 
+  /**
+   * @return <code>true</code> if the methods of the created classes are populated on first access.
+   * @since 4.3.1
+   */
+  public final boolean isLazyMembers ()
+  {
+    return m_bLazyMembers;
+  }
+
+  /**
+   * Enable or disable the lazy population of the methods of the created classes. If enabled, only
+   * the class declarations (annotations, type parameters, super class, interfaces and inner classes)
+   * are mirrored immediately. The methods are mirrored when they are accessed for the first time
+   * (e.g. via {@link JDefinedClass#methods()}), so the types only used in method signatures are
+   * only referenced when needed. Errors found while mirroring the methods are thrown as
+   * {@link RuntimeErrorTypeFound} or {@link RuntimeCodeModelBuildingException} on every access, as
+   * the methods stay pending. By default the methods are populated immediately.
+   *
+   * @param bLazyMembers
+   *        <code>true</code> to populate the methods lazily
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public final JCodeModelJavaxLangModelAdapter setLazyMembers (final boolean bLazyMembers)
+  {
+    m_bLazyMembers = bLazyMembers;
+    return this;
+  }
+
+  /**
+   * Converted elements and types are cached by this instance, so that a type used in many
+   * signatures is only converted once, even across multiple annotation processing rounds. Call this
+   * method if the code model was modified outside of this adapter (e.g. classes were removed) or to
+   * release the elements of previous rounds.
+   *
+   * @since 4.3.1
+   */
+  public void clearTypeCache ()
+  {
+    m_aCache.clear ();
+  }
+
   /**
    * Returns jcodemodel class definition for given element.
    *
@@ -135,7 +180,9 @@ public class JCodeModelJavaxLangModelAdapter
   {
     final DecidedErrorTypesModelsAdapter errorTypeDecision = new DecidedErrorTypesModelsAdapter (m_aCodeModel,
                                                                                                  m_aElementUtils,
-                                                                                                 policy);
+                                                                                                 policy,
+                                                                                                 m_bLazyMembers,
+                                                                                                 m_aCache);
     return errorTypeDecision.getClass (element);
   }
 }
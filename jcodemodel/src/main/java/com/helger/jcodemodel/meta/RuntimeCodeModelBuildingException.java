@@ -41,9 +41,13 @@
 package com.helger.jcodemodel.meta;
 
 /**
+ * Unchecked wrapper of {@link CodeModelBuildingException}. It is thrown when the code model can't be built while the members of a class
+ * are populated lazily.
+ *
  * @author Victor Nazarov &lt;asviraspossible@gmail.com&gt;
+ * @see JCodeModelJavaxLangModelAdapter#setLazyMembers(boolean)
  */
-class RuntimeCodeModelBuildingException extends RuntimeException
+public class RuntimeCodeModelBuildingException extends RuntimeException
 {
   private final CodeModelBuildingException m_aCause;
 
@@ -41,9 +41,13 @@
 package com.helger.jcodemodel.meta;
 
 /**
+ * Unchecked wrapper of {@link ErrorTypeFound}. It is thrown when an error type is found while the members of a class
+ * are populated lazily.
+ *
  * @author Victor Nazarov &lt;asviraspossible@gmail.com&gt;
+ * @see JCodeModelJavaxLangModelAdapter#setLazyMembers(boolean)
  */
-class RuntimeErrorTypeFound extends RuntimeException
+public class RuntimeErrorTypeFound extends RuntimeException
 {
   private final ErrorTypeFound m_aCause;
 
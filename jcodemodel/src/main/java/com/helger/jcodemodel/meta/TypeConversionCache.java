@@ -0,0 +1,174 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.meta;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.jcodemodel.AbstractJClass;
+import com.helger.jcodemodel.AbstractJType;
+import com.helger.jcodemodel.JDefinedClass;
+
+/**
+ * Memoizes the conversions from <code>javax.lang.model</code> elements and types to code model
+ * types. It is owned by a {@link JCodeModelJavaxLangModelAdapter} and therefore survives multiple
+ * annotation processing rounds. Elements and types are keyed by identity, because this is how the
+ * compiler shares them. Only types that don't depend on the type environment (type variables) or on
+ * the error type policy (error types) are cached. The translated annotations are kept in an
+ * {@link AnnotationCache}.
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+@NotThreadSafe
+final class TypeConversionCache
+{
+  private final Map <TypeElement, AbstractJClass> m_aElements = new IdentityHashMap <> ();
+  private final Map <TypeMirror, AbstractJType> m_aTypes = new IdentityHashMap <> ();
+  private final Map <String, JDefinedClass> m_aInnerClasses = new HashMap <> ();
+  private final AnnotationCache m_aAnnotations = new AnnotationCache ();
+
+  @Nullable
+  AbstractJClass getElement (@NonNull final TypeElement aElement)
+  {
+    return m_aElements.get (aElement);
+  }
+
+  void putElement (@NonNull final TypeElement aElement, @NonNull final AbstractJClass aClass)
+  {
+    m_aElements.put (aElement, aClass);
+  }
+
+  @Nullable
+  AbstractJType getType (@NonNull final TypeMirror aType)
+  {
+    return m_aTypes.get (aType);
+  }
+
+  void putTypeIfCacheable (@NonNull final TypeMirror aType, @NonNull final AbstractJType aJType)
+  {
+    if (isCacheable (aType))
+      m_aTypes.put (aType, aJType);
+  }
+
+  /**
+   * @param sQualifiedName
+   *        Qualified name of the inner class as in {@link TypeElement#getQualifiedName()}.
+   * @return The inner class declared by the adapter or <code>null</code>.
+   */
+  @Nullable
+  JDefinedClass getInnerClass (@NonNull final String sQualifiedName)
+  {
+    return m_aInnerClasses.get (sQualifiedName);
+  }
+
+  void putInnerClass (@NonNull final String sQualifiedName, @NonNull final JDefinedClass aClass)
+  {
+    m_aInnerClasses.put (sQualifiedName, aClass);
+  }
+
+  @NonNull
+  AnnotationCache getAnnotationCache ()
+  {
+    return m_aAnnotations;
+  }
+
+  int getCachedTypeCount ()
+  {
+    return m_aTypes.size ();
+  }
+
+  void clear ()
+  {
+    m_aElements.clear ();
+    m_aTypes.clear ();
+    m_aInnerClasses.clear ();
+    m_aAnnotations.clear ();
+  }
+
+  /**
+   * @param aType
+   *        The type to check.
+   * @return <code>true</code> if the conversion result of the type only depends on the type itself.
+   */
+  static boolean isCacheable (@Nullable final TypeMirror aType)
+  {
+    if (aType == null)
+      return true;
+    switch (aType.getKind ())
+    {
+      case BOOLEAN:
+      case BYTE:
+      case CHAR:
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case VOID:
+        return true;
+      case ARRAY:
+        return isCacheable (((ArrayType) aType).getComponentType ());
+      case DECLARED:
+        for (final TypeMirror aTypeArg : ((DeclaredType) aType).getTypeArguments ())
+          if (!isCacheable (aTypeArg))
+            return false;
+        return true;
+      case WILDCARD:
+        final WildcardType aWildcard = (WildcardType) aType;
+        return isCacheable (aWildcard.getExtendsBound ()) && isCacheable (aWildcard.getSuperBound ());
+      default:
+        // Type variables, error types etc.
+        return false;
+    }
+  }
+}
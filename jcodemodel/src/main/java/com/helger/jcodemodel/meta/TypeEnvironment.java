@@ -40,8 +40,7 @@
  */
 package com.helger.jcodemodel.meta;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.Arrays;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -49,13 +48,24 @@ import org.jspecify.annotations.Nullable;
 import com.helger.jcodemodel.AbstractJType;
 
 /**
+ * Scope of the type variables visible while a class is mirrored. A scope usually holds only a few
+ * type variables (often none at all, e.g. for non-generic methods), so each scope stores them in
+ * small parallel arrays that are searched by hash code first. The arrays are only allocated on the
+ * first {@link #put(String, AbstractJType)}, so empty scopes cost a single size check on lookup.
+ * The package name is copied into each scope instead of being looked up in the root scope.
+ *
  * @author Victor Nazarov &lt;asviraspossible@gmail.com&gt;
  */
 class TypeEnvironment
 {
-  private final Map <String, AbstractJType> m_aMap = new TreeMap <> ();
+  private static final int INITIAL_CAPACITY = 4;
+
   private final TypeEnvironment m_aParent;
   private final String m_sPackageName;
+  private int [] m_aHashes;
+  private String [] m_aNames;
+  private AbstractJType [] m_aTypes;
+  private int m_nSize;
 
   TypeEnvironment (final String packageName)
   {
@@ -63,10 +73,10 @@ class TypeEnvironment
     m_sPackageName = packageName;
   }
 
-  private TypeEnvironment (final TypeEnvironment parent)
+  private TypeEnvironment (@NonNull final TypeEnvironment parent)
   {
-    m_sPackageName = null;
     m_aParent = parent;
+    m_sPackageName = parent.m_sPackageName;
   }
 
   @NonNull
@@ -75,23 +85,66 @@ class TypeEnvironment
     return new TypeEnvironment (this);
   }
 
+  private int _indexOf (@NonNull final String name, final int hash)
+  {
+    final int [] aHashes = m_aHashes;
+    for (int i = 0; i < m_nSize; ++i)
+      if (aHashes[i] == hash && m_aNames[i].equals (name))
+        return i;
+    return -1;
+  }
+
   @Nullable
   public AbstractJType get (@NonNull final String name)
   {
-    final AbstractJType result = m_aMap.get (name);
-    if (result != null || m_aParent == null)
-      return result;
-    return m_aParent.get (name);
+    final int hash = name.hashCode ();
+    TypeEnvironment aEnv = this;
+    while (aEnv != null)
+    {
+      final int index = aEnv._indexOf (name, hash);
+      if (index >= 0)
+        return aEnv.m_aTypes[index];
+      aEnv = aEnv.m_aParent;
+    }
+    return null;
   }
 
   public void put (@NonNull final String name, final AbstractJType type)
   {
-    m_aMap.put (name, type);
+    final int hash = name.hashCode ();
+    if (m_nSize > 0)
+    {
+      final int index = _indexOf (name, hash);
+      if (index >= 0)
+      {
+        m_aTypes[index] = type;
+        return;
+      }
+    }
+
+    if (m_aHashes == null)
+    {
+      m_aHashes = new int [INITIAL_CAPACITY];
+      m_aNames = new String [INITIAL_CAPACITY];
+      m_aTypes = new AbstractJType [INITIAL_CAPACITY];
+    }
+    else
+      if (m_nSize == m_aHashes.length)
+      {
+        final int nNewCapacity = m_nSize * 2;
+        m_aHashes = Arrays.copyOf (m_aHashes, nNewCapacity);
+        m_aNames = Arrays.copyOf (m_aNames, nNewCapacity);
+        m_aTypes = Arrays.copyOf (m_aTypes, nNewCapacity);
+      }
+    m_aHashes[m_nSize] = hash;
+    m_aNames[m_nSize] = name;
+    m_aTypes[m_nSize] = type;
+    m_nSize++;
   }
 
   @Nullable
   String packageName ()
   {
-    return m_aParent == null ? m_sPackageName : m_aParent.packageName ();
+    return m_sPackageName;
   }
 }
@@ -52,6 +52,7 @@ import javax.lang.model.type.IntersectionType;
 import javax.lang.model.type.NoType;
 import javax.lang.model.type.NullType;
 import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
 import javax.lang.model.type.UnionType;
@@ -259,6 +260,10 @@ class TypeMirrorToJTypeVisitor extends AbstractTypeVisitor14 <AbstractJType, Voi
   @Override
   public AbstractJType visitNoType (final NoType t, final Void p)
   {
+    // Return type of void methods
+    if (t.getKind () == TypeKind.VOID)
+      return m_aCodeModel.VOID;
+
     if (m_aErrorTypePolicy.action () == ErrorTypePolicy.EAction.CREATE_ERROR_TYPE)
       return m_aCodeModel.errorClass ("'no type' in annotated source code");
 
@@ -44,8 +44,10 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 
@@ -53,6 +55,7 @@ import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonempty;
+import com.helger.annotation.WillClose;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.jcodemodel.IJFormatter;
 import com.helger.jcodemodel.JAnnotationUse;
@@ -97,12 +100,25 @@ public class JCMWriter
    */
   private int m_nJavaFeature = DEFAULT_JAVA_FEATURE;
 
+  /** Write files on a separate I/O thread? */
+  private boolean m_bPipelinedIO = false;
+
   public JCMWriter (@NonNull final JCodeModel aCM)
   {
     ValueEnforcer.notNull (aCM, "CodeModel");
     m_aCM = aCM;
   }
 
+  /**
+   * @return The code model to be written. Never <code>null</code>.
+   * @since 4.3.1
+   */
+  @NonNull
+  public final JCodeModel getCodeModel ()
+  {
+    return m_aCM;
+  }
+
   /**
    * @return The default charset used for building. <code>null</code> means system default.
    */
@@ -193,6 +209,46 @@ public class JCMWriter
     return this;
   }
 
+  /**
+   * @return <code>true</code> if the file and path based <code>build</code> methods format the
+   *         files on the calling thread and write them on a separate I/O thread,
+   *         <code>false</code> if everything happens on the calling thread. Default is
+   *         <code>false</code>.
+   * @since 4.3.1
+   */
+  public boolean isPipelinedIO ()
+  {
+    return m_bPipelinedIO;
+  }
+
+  /**
+   * Enable or disable the pipelined I/O for the file and path based <code>build</code> methods. If
+   * enabled, the created writers are wrapped in a {@link PipelinedCodeWriter}.
+   *
+   * @param bPipelinedIO
+   *        <code>true</code> to enable pipelined I/O, <code>false</code> to disable it.
+   * @return this for chaining
+   * @since 4.3.1
+   */
+  @NonNull
+  public JCMWriter setPipelinedIO (final boolean bPipelinedIO)
+  {
+    m_bPipelinedIO = bPipelinedIO;
+    return this;
+  }
+
+  @NonNull
+  private AbstractCodeWriter _wrap (@NonNull final AbstractCodeWriter aWriter,
+                                    @Nullable final IProgressTracker aStatusPT)
+  {
+    AbstractCodeWriter ret = aWriter;
+    if (m_bPipelinedIO)
+      ret = new PipelinedCodeWriter (ret);
+    if (aStatusPT != null)
+      ret = new ProgressCodeWriter (ret, aStatusPT);
+    return ret;
+  }
+
   /**
    * Generates Java source code. A convenience method for
    * <code>build(destDir,destDir,status)</code>.
@@ -226,13 +282,49 @@ public class JCMWriter
                      @NonNull final File aResourceDir,
                      @Nullable final IProgressTracker aStatusPT) throws IOException
   {
-    AbstractCodeWriter aSrcWriter = new FileCodeWriter (aSrcDir, m_aCharset, m_sNewLine);
-    AbstractCodeWriter aResWriter = new FileCodeWriter (aResourceDir, m_aCharset, m_sNewLine);
-    if (aStatusPT != null)
-    {
-      aSrcWriter = new ProgressCodeWriter (aSrcWriter, aStatusPT);
-      aResWriter = new ProgressCodeWriter (aResWriter, aStatusPT);
-    }
+    final AbstractCodeWriter aSrcWriter = _wrap (new FileCodeWriter (aSrcDir, m_aCharset, m_sNewLine), aStatusPT);
+    final AbstractCodeWriter aResWriter = _wrap (new FileCodeWriter (aResourceDir, m_aCharset, m_sNewLine), aStatusPT);
+    build (aSrcWriter, aResWriter);
+  }
+
+  /**
+   * Generates Java source code into a directory of an arbitrary {@link java.nio.file.FileSystem}. A
+   * convenience method for <code>build(destDir,destDir,status)</code>.
+   *
+   * @param aDestDir
+   *        source files and resources are generated into this directory.
+   * @param aStatusPT
+   *        if non-<code>null</code>, progress indication will be sent to this stream.
+   * @throws IOException
+   *         on IO error
+   * @since 4.3.1
+   */
+  public void build (@NonNull final Path aDestDir, @Nullable final IProgressTracker aStatusPT) throws IOException
+  {
+    build (aDestDir, aDestDir, aStatusPT);
+  }
+
+  /**
+   * Generates Java source code into directories of an arbitrary {@link java.nio.file.FileSystem}
+   * using {@link PathCodeWriter}. A convenience method that calls
+   * {@link #build(AbstractCodeWriter,AbstractCodeWriter)}.
+   *
+   * @param aSrcDir
+   *        Java source files are generated into this directory.
+   * @param aResourceDir
+   *        Other resource files are generated into this directory.
+   * @param aStatusPT
+   *        Progress tracker. May be <code>null</code>.
+   * @throws IOException
+   *         on IO error
+   * @since 4.3.1
+   */
+  public void build (@NonNull final Path aSrcDir,
+                     @NonNull final Path aResourceDir,
+                     @Nullable final IProgressTracker aStatusPT) throws IOException
+  {
+    final AbstractCodeWriter aSrcWriter = _wrap (new PathCodeWriter (aSrcDir, m_aCharset, m_sNewLine), aStatusPT);
+    final AbstractCodeWriter aResWriter = _wrap (new PathCodeWriter (aResourceDir, m_aCharset, m_sNewLine), aStatusPT);
     build (aSrcWriter, aResWriter);
   }
 
@@ -311,8 +403,14 @@ public class JCMWriter
     }
     finally
     {
-      aSourceWriter.close ();
-      aResourceWriter.close ();
+      try
+      {
+        aSourceWriter.close ();
+      }
+      finally
+      {
+        aResourceWriter.close ();
+      }
     }
   }
 
@@ -321,7 +419,12 @@ public class JCMWriter
                                                   @NonNull final JPackage aPackage,
                                                   @NonNull final String sClassFilename) throws IOException
   {
-    final SourcePrintWriter aWriter = aSrcWriter.openSource (aPackage, sClassFilename);
+    return _createFormatter (aSrcWriter.openSource (aPackage, sClassFilename));
+  }
+
+  @NonNull
+  private JFormatter _createFormatter (@NonNull final SourcePrintWriter aWriter)
+  {
     final JFormatter ret = new JFormatter (aWriter, m_aSettings);
     ret.setJavaFeature (m_nJavaFeature);
     // Add all classes to not be imported (may be empty)
@@ -329,6 +432,27 @@ public class JCMWriter
     return ret;
   }
 
+  /**
+   * Write the source code of a single class, exactly as {@link #build(AbstractCodeWriter)} would
+   * write it, to the provided writer. No encoding and no unicode escaping is applied.
+   *
+   * @param aClass
+   *        The top-level class to write. May not be <code>null</code>.
+   * @param aWriter
+   *        The writer to write to. May not be <code>null</code>. Is closed afterwards.
+   * @since 4.3.1
+   */
+  public void buildClass (@NonNull final JDefinedClass aClass, @NonNull @WillClose final Writer aWriter)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+    ValueEnforcer.notNull (aWriter, "Writer");
+
+    try (final JFormatter f = _createFormatter (new SourcePrintWriter (aWriter, m_sNewLine)))
+    {
+      f.writeClassFull (aClass);
+    }
+  }
+
   public void buildPackage (@NonNull final AbstractCodeWriter aSourceWriter, @NonNull final JPackage aPackage)
                                                                                                                throws IOException
   {
@@ -350,7 +474,27 @@ public class JCMWriter
       }
     }
 
-    // write package annotations
+    buildPackageInfo (aSourceWriter, aPackage);
+  }
+
+  /**
+   * Write the <code>package-info.java</code> file of the provided package, if it has annotations
+   * or a Javadoc comment.
+   *
+   * @param aSourceWriter
+   *        Source code writer. May not be <code>null</code>.
+   * @param aPackage
+   *        The package to use. May not be <code>null</code>.
+   * @throws IOException
+   *         on IO error
+   * @since 4.3.1
+   */
+  public void buildPackageInfo (@NonNull final AbstractCodeWriter aSourceWriter, @NonNull final JPackage aPackage)
+                                                                                                                   throws IOException
+  {
+    ValueEnforcer.notNull (aSourceWriter, "SourceWriter");
+    ValueEnforcer.notNull (aPackage, "Package");
+
     final Collection <JAnnotationUse> aAnnotations = aPackage.annotations ();
     final JDocComment aJavaDoc = aPackage.javadoc ();
     if (!aAnnotations.isEmpty () || !aJavaDoc.isEmpty ())
@@ -545,6 +545,12 @@ public class JFormatter implements IJFormatter
     return m_eMode == EMode.PRINTING;
   }
 
+  @Override
+  public boolean isFindingErrorTypes ()
+  {
+    return m_eMode == EMode.FIND_ERROR_TYPES;
+  }
+
   @Override
   @NonNull
   public JFormatter indent (final int nb)
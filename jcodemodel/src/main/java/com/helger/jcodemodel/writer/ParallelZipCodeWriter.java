@@ -0,0 +1,419 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.base.string.StringHelper;
+
+/**
+ * Writes all the files into a zip file, like {@link ZipCodeWriter}, but compresses the entries
+ * concurrently. Each entry is deflated on a worker thread into a raw deflate buffer, and the
+ * finished entries are appended to the target stream in the order in which they were opened.
+ * <p>
+ * Entries can either be deflated with a configurable compression level ({@link ZipEntry#DEFLATED})
+ * or stored uncompressed ({@link ZipEntry#STORED}). ZIP64 is not supported, so the archive is
+ * limited to 65535 entries and 4 GB.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class ParallelZipCodeWriter extends AbstractCodeWriter
+{
+  private static final int LOCAL_FILE_HEADER_SIG = 0x04034b50;
+  private static final int CENTRAL_DIR_HEADER_SIG = 0x02014b50;
+  private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+  private static final int VERSION = 20;
+  /** General purpose flag: file names are UTF-8 encoded */
+  private static final int FLAG_UTF8 = 0x0800;
+  private static final long MAX_UINT32 = 0xffffffffL;
+  private static final int MAX_UINT16 = 0xffff;
+
+  private static final class Entry
+  {
+    private final byte [] m_aName;
+    private int m_nMethod;
+    private long m_nCRC;
+    private long m_nSize;
+    private long m_nCompressedSize;
+    private NonBlockingByteArrayOutputStream m_aData;
+    private long m_nOffset;
+
+    Entry (@NonNull final String sName)
+    {
+      m_aName = sName.getBytes (StandardCharsets.UTF_8);
+    }
+  }
+
+  private final OutputStream m_aTarget;
+  private final int m_nMethod;
+  private final int m_nLevel;
+  private final ExecutorService m_aExecutor;
+  private final boolean m_bOwnsExecutor;
+  private final int m_nMaxInFlight;
+  private final int m_nDosTime;
+  private final int m_nDosDate;
+
+  private final Deque <Future <Entry>> m_aInFlight = new ArrayDeque <> ();
+  private final List <Entry> m_aWritten = new ArrayList <> ();
+  private long m_nOffset = 0;
+  private boolean m_bClosed = false;
+
+  /**
+   * Deflate with the default compression level, using one thread per available processor.
+   *
+   * @param aTarget
+   *        Zip file will be written to this stream.
+   */
+  public ParallelZipCodeWriter (@NonNull final OutputStream aTarget)
+  {
+    this (aTarget, JCMWriter.DEFAULT_NEW_LINE);
+  }
+
+  /**
+   * Deflate with the default compression level, using one thread per available processor.
+   *
+   * @param aTarget
+   *        Zip file will be written to this stream.
+   * @param sNewLine
+   *        The new line string to be used for source files
+   */
+  public ParallelZipCodeWriter (@NonNull final OutputStream aTarget, @NonNull final String sNewLine)
+  {
+    this (aTarget, sNewLine, ZipEntry.DEFLATED, Deflater.DEFAULT_COMPRESSION, null);
+  }
+
+  /**
+   * @param aTarget
+   *        Zip file will be written to this stream.
+   * @param sNewLine
+   *        The new line string to be used for source files
+   * @param nMethod
+   *        The compression method. Either {@link ZipEntry#DEFLATED} or {@link ZipEntry#STORED}.
+   * @param nLevel
+   *        The compression level from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}. Ignored for
+   *        {@link ZipEntry#STORED}.
+   * @param aExecutor
+   *        The executor to deflate the entries. May be <code>null</code> in which case an internal
+   *        executor with one thread per available processor is created and shut down on
+   *        {@link #close()}. A provided executor is not shut down.
+   */
+  public ParallelZipCodeWriter (@NonNull final OutputStream aTarget,
+                                @NonNull final String sNewLine,
+                                final int nMethod,
+                                final int nLevel,
+                                @Nullable final ExecutorService aExecutor)
+  {
+    super (null, sNewLine);
+    ValueEnforcer.notNull (aTarget, "Target");
+    ValueEnforcer.isTrue (nMethod == ZipEntry.DEFLATED || nMethod == ZipEntry.STORED, "Unsupported method");
+    ValueEnforcer.isTrue (nLevel == Deflater.DEFAULT_COMPRESSION ||
+                          (nLevel >= Deflater.NO_COMPRESSION && nLevel <= Deflater.BEST_COMPRESSION),
+                          "Invalid compression level");
+    m_aTarget = aTarget;
+    m_nMethod = nMethod;
+    m_nLevel = nLevel;
+    final int nThreads = Runtime.getRuntime ().availableProcessors ();
+    if (aExecutor != null)
+    {
+      m_aExecutor = aExecutor;
+      m_bOwnsExecutor = false;
+    }
+    else
+    {
+      m_aExecutor = Executors.newFixedThreadPool (nThreads, r -> {
+        final Thread t = new Thread (r, "jcodemodel-zip");
+        t.setDaemon (true);
+        return t;
+      });
+      m_bOwnsExecutor = true;
+    }
+    // Limit the memory used for pending entries
+    m_nMaxInFlight = 4 * nThreads;
+
+    final LocalDateTime aNow = LocalDateTime.now ();
+    m_nDosTime = (aNow.getHour () << 11) | (aNow.getMinute () << 5) | (aNow.getSecond () >> 1);
+    m_nDosDate = (Math.max (aNow.getYear () - 1980, 0) << 9) | (aNow.getMonthValue () << 5) | aNow.getDayOfMonth ();
+  }
+
+  /**
+   * @return The compression method. Either {@link ZipEntry#DEFLATED} or {@link ZipEntry#STORED}.
+   */
+  public final int getMethod ()
+  {
+    return m_nMethod;
+  }
+
+  /**
+   * @return The compression level.
+   */
+  public final int getLevel ()
+  {
+    return m_nLevel;
+  }
+
+  @NonNull
+  private Entry _compress (@NonNull final String sName, @NonNull final NonBlockingByteArrayOutputStream aContent)
+  {
+    final Entry ret = new Entry (sName);
+    final byte [] aBytes = aContent.toByteArray ();
+    final CRC32 aCRC = new CRC32 ();
+    aCRC.update (aBytes);
+    ret.m_nCRC = aCRC.getValue ();
+    ret.m_nSize = aBytes.length;
+
+    if (m_nMethod == ZipEntry.STORED)
+    {
+      ret.m_nMethod = ZipEntry.STORED;
+      ret.m_aData = aContent;
+    }
+    else
+    {
+      final Deflater aDeflater = new Deflater (m_nLevel, true);
+      try
+      {
+        aDeflater.setInput (aBytes);
+        aDeflater.finish ();
+        final NonBlockingByteArrayOutputStream aDeflated = new NonBlockingByteArrayOutputStream (Math.max (aBytes.length /
+                                                                                                           2,
+                                                                                                           64));
+        final byte [] aBuf = new byte [16 * 1024];
+        while (!aDeflater.finished ())
+        {
+          final int nLen = aDeflater.deflate (aBuf);
+          aDeflated.write (aBuf, 0, nLen);
+        }
+        ret.m_nMethod = ZipEntry.DEFLATED;
+        ret.m_aData = aDeflated;
+      }
+      finally
+      {
+        aDeflater.end ();
+      }
+    }
+    return ret;
+  }
+
+  private static void _checkLimit (final long nValue, final long nMax, @NonNull final String sWhat) throws IOException
+  {
+    if (nValue > nMax)
+      throw new IOException (sWhat + " exceeds the ZIP limit of " + nMax + " - ZIP64 is not supported");
+  }
+
+  private void _writeEntry (@NonNull final Entry aEntry) throws IOException
+  {
+    _checkLimit (aEntry.m_nSize, MAX_UINT32, "Entry size");
+    _checkLimit (m_nOffset, MAX_UINT32, "Archive size");
+    aEntry.m_nCompressedSize = aEntry.m_aData.size ();
+
+    final ByteBuffer aHeader = ByteBuffer.allocate (30 + aEntry.m_aName.length).order (ByteOrder.LITTLE_ENDIAN);
+    aHeader.putInt (LOCAL_FILE_HEADER_SIG);
+    aHeader.putShort ((short) VERSION);
+    aHeader.putShort ((short) FLAG_UTF8);
+    aHeader.putShort ((short) aEntry.m_nMethod);
+    aHeader.putShort ((short) m_nDosTime);
+    aHeader.putShort ((short) m_nDosDate);
+    aHeader.putInt ((int) aEntry.m_nCRC);
+    aHeader.putInt ((int) aEntry.m_nCompressedSize);
+    aHeader.putInt ((int) aEntry.m_nSize);
+    aHeader.putShort ((short) aEntry.m_aName.length);
+    // extra field length
+    aHeader.putShort ((short) 0);
+    aHeader.put (aEntry.m_aName);
+
+    aEntry.m_nOffset = m_nOffset;
+    m_aTarget.write (aHeader.array ());
+    aEntry.m_aData.writeTo (m_aTarget);
+    m_nOffset += aHeader.capacity () + aEntry.m_nCompressedSize;
+
+    // Release the data as early as possible
+    aEntry.m_aData = null;
+    m_aWritten.add (aEntry);
+  }
+
+  private void _writeCompleted (final boolean bWaitForAll) throws IOException
+  {
+    while (!m_aInFlight.isEmpty ())
+    {
+      final Future <Entry> aHead = m_aInFlight.peekFirst ();
+      if (!bWaitForAll && !aHead.isDone () && m_aInFlight.size () < m_nMaxInFlight)
+        break;
+
+      m_aInFlight.removeFirst ();
+      try
+      {
+        _writeEntry (aHead.get ());
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        throw new InterruptedIOException ("Interrupted while compressing ZIP entries");
+      }
+      catch (final ExecutionException ex)
+      {
+        throw new IOException ("Failed to compress ZIP entry", ex.getCause ());
+      }
+    }
+  }
+
+  private void _writeCentralDirectory () throws IOException
+  {
+    _checkLimit (m_aWritten.size (), MAX_UINT16, "Number of entries");
+    _checkLimit (m_nOffset, MAX_UINT32, "Archive size");
+
+    final long nCDOffset = m_nOffset;
+    for (final Entry aEntry : m_aWritten)
+    {
+      final ByteBuffer aHeader = ByteBuffer.allocate (46 + aEntry.m_aName.length).order (ByteOrder.LITTLE_ENDIAN);
+      aHeader.putInt (CENTRAL_DIR_HEADER_SIG);
+      // version made by
+      aHeader.putShort ((short) VERSION);
+      // version needed
+      aHeader.putShort ((short) VERSION);
+      aHeader.putShort ((short) FLAG_UTF8);
+      aHeader.putShort ((short) aEntry.m_nMethod);
+      aHeader.putShort ((short) m_nDosTime);
+      aHeader.putShort ((short) m_nDosDate);
+      aHeader.putInt ((int) aEntry.m_nCRC);
+      aHeader.putInt ((int) aEntry.m_nCompressedSize);
+      aHeader.putInt ((int) aEntry.m_nSize);
+      aHeader.putShort ((short) aEntry.m_aName.length);
+      // extra field, comment, disk number, internal and external attributes
+      aHeader.putShort ((short) 0);
+      aHeader.putShort ((short) 0);
+      aHeader.putShort ((short) 0);
+      aHeader.putShort ((short) 0);
+      aHeader.putInt (0);
+      aHeader.putInt ((int) aEntry.m_nOffset);
+      aHeader.put (aEntry.m_aName);
+      m_aTarget.write (aHeader.array ());
+      m_nOffset += aHeader.capacity ();
+    }
+
+    final ByteBuffer aEnd = ByteBuffer.allocate (22).order (ByteOrder.LITTLE_ENDIAN);
+    aEnd.putInt (END_OF_CENTRAL_DIR_SIG);
+    // disk numbers
+    aEnd.putShort ((short) 0);
+    aEnd.putShort ((short) 0);
+    aEnd.putShort ((short) m_aWritten.size ());
+    aEnd.putShort ((short) m_aWritten.size ());
+    aEnd.putInt ((int) (m_nOffset - nCDOffset));
+    aEnd.putInt ((int) nCDOffset);
+    // comment length
+    aEnd.putShort ((short) 0);
+    m_aTarget.write (aEnd.array ());
+  }
+
+  @Override
+  @NonNull
+  public OutputStream openBinary (@NonNull final String sDirName, @NonNull final String sFilename) throws IOException
+  {
+    if (m_bClosed)
+      throw new IOException ("The writer is already closed");
+
+    // Append all entries that are already compressed and limit the number of pending entries
+    _writeCompleted (false);
+
+    final String sFullName;
+    if (StringHelper.isNotEmpty (sDirName))
+      sFullName = sDirName + '/' + sFilename;
+    else
+      sFullName = sFilename;
+
+    return new NonBlockingByteArrayOutputStream ()
+    {
+      private boolean m_bSubmitted = false;
+
+      @Override
+      public void close ()
+      {
+        if (!m_bSubmitted)
+        {
+          m_bSubmitted = true;
+          m_aInFlight.addLast (m_aExecutor.submit ( () -> _compress (sFullName, this)));
+        }
+      }
+    };
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (m_bClosed)
+      return;
+    m_bClosed = true;
+
+    try
+    {
+      _writeCompleted (true);
+      _writeCentralDirectory ();
+    }
+    finally
+    {
+      if (m_bOwnsExecutor)
+        m_aExecutor.shutdownNow ();
+      m_aTarget.close ();
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.string.StringHelper;
+
+/**
+ * Writes all the source files under the specified target directory, using the NIO {@link Path}
+ * API. Contrary to {@link FileCodeWriter} this writer
+ * <ul>
+ * <li>works with every {@link java.nio.file.FileSystem}, e.g. a ZIP file system or an in-memory
+ * file system</li>
+ * <li>remembers the directories it already created, so that each directory is only checked
+ * once</li>
+ * <li>overwrites existing files by truncating them instead of deleting and re-creating them</li>
+ * <li>writes through a channel using a single, reused direct buffer</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class PathCodeWriter extends AbstractCodeWriter
+{
+  public static final boolean DEFAULT_MARK_READ_ONLY = FileCodeWriter.DEFAULT_MARK_READ_ONLY;
+  public static final Charset DEFAULT_CHARSET = FileCodeWriter.DEFAULT_CHARSET;
+  /** The default size of the direct write buffer in bytes */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private static final OpenOption [] OPEN_OPTIONS = { StandardOpenOption.CREATE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                                      StandardOpenOption.WRITE };
+
+  /** The target directory to put source code. */
+  private final Path m_aTargetDir;
+
+  /** specify whether or not to mark the generated files read-only */
+  private final boolean m_bMarkReadOnly;
+
+  /** The size of the direct write buffer */
+  private final int m_nBufferSize;
+
+  /** All directories that are known to exist */
+  private final Set <Path> m_aExistingDirs = new HashSet <> ();
+
+  /** Files that shall be marked as read only. */
+  private final List <Path> m_aReadOnlyFiles = new ArrayList <> ();
+
+  /** The lazily allocated direct buffer, shared by all opened streams */
+  private ByteBuffer m_aBuffer;
+
+  public PathCodeWriter (@NonNull final Path aTargetDir) throws IOException
+  {
+    this (aTargetDir, DEFAULT_MARK_READ_ONLY, DEFAULT_CHARSET, JCMWriter.DEFAULT_NEW_LINE);
+  }
+
+  public PathCodeWriter (@NonNull final Path aTargetDir, @Nullable final Charset aEncoding) throws IOException
+  {
+    this (aTargetDir, DEFAULT_MARK_READ_ONLY, aEncoding, JCMWriter.DEFAULT_NEW_LINE);
+  }
+
+  public PathCodeWriter (@NonNull final Path aTargetDir,
+                         @Nullable final Charset aEncoding,
+                         @NonNull final String sNewLine) throws IOException
+  {
+    this (aTargetDir, DEFAULT_MARK_READ_ONLY, aEncoding, sNewLine);
+  }
+
+  public PathCodeWriter (@NonNull final Path aTargetDir,
+                         final boolean bMarkReadOnly,
+                         @Nullable final Charset aEncoding,
+                         @NonNull final String sNewLine) throws IOException
+  {
+    this (aTargetDir, bMarkReadOnly, aEncoding, sNewLine, DEFAULT_BUFFER_SIZE);
+  }
+
+  public PathCodeWriter (@NonNull final Path aTargetDir,
+                         final boolean bMarkReadOnly,
+                         @Nullable final Charset aEncoding,
+                         @NonNull final String sNewLine,
+                         @Nonnegative final int nBufferSize) throws IOException
+  {
+    super (aEncoding, sNewLine);
+    ValueEnforcer.notNull (aTargetDir, "TargetDir");
+    ValueEnforcer.isGT0 (nBufferSize, "BufferSize");
+    if (!Files.isDirectory (aTargetDir))
+      throw new IOException (aTargetDir + ": non-existent directory");
+    m_aTargetDir = aTargetDir;
+    m_bMarkReadOnly = bMarkReadOnly;
+    m_nBufferSize = nBufferSize;
+    m_aExistingDirs.add (aTargetDir);
+  }
+
+  /**
+   * @return The target directory as provided in the constructor. Never <code>null</code>.
+   */
+  @NonNull
+  public final Path getTargetDir ()
+  {
+    return m_aTargetDir;
+  }
+
+  @Override
+  @NonNull
+  public OutputStream openBinary (@NonNull final String sDirName, @NonNull final String sFilename) throws IOException
+  {
+    final Path aFile = getPath (sDirName, sFilename);
+
+    WritableByteChannel aChannel;
+    try
+    {
+      aChannel = Files.newByteChannel (aFile, OPEN_OPTIONS);
+    }
+    catch (final AccessDeniedException ex)
+    {
+      // E.g. a read-only file from a previous run
+      if (!Files.deleteIfExists (aFile))
+        throw ex;
+      aChannel = Files.newByteChannel (aFile, OPEN_OPTIONS);
+    }
+
+    if (m_aBuffer == null)
+      m_aBuffer = ByteBuffer.allocateDirect (m_nBufferSize);
+    return new ChannelOutputStream (aChannel, m_aBuffer);
+  }
+
+  @NonNull
+  protected Path getPath (@NonNull final String sDirName, @NonNull final String sFilename) throws IOException
+  {
+    final Path aDir;
+    if (StringHelper.isEmpty (sDirName))
+      aDir = m_aTargetDir;
+    else
+    {
+      aDir = m_aTargetDir.resolve (sDirName);
+      // Only remember the directory once it was created, so that a failure is retried
+      if (!m_aExistingDirs.contains (aDir))
+      {
+        Files.createDirectories (aDir);
+        m_aExistingDirs.add (aDir);
+      }
+    }
+
+    final Path aFile = aDir.resolve (sFilename);
+    if (m_bMarkReadOnly)
+      m_aReadOnlyFiles.add (aFile);
+    return aFile;
+  }
+
+  private static void _markReadOnly (@NonNull final Path aFile) throws IOException
+  {
+    final PosixFileAttributeView aPosix = Files.getFileAttributeView (aFile, PosixFileAttributeView.class);
+    if (aPosix != null)
+    {
+      final Set <PosixFilePermission> aPerms = aPosix.readAttributes ().permissions ();
+      aPerms.remove (PosixFilePermission.OWNER_WRITE);
+      aPerms.remove (PosixFilePermission.GROUP_WRITE);
+      aPerms.remove (PosixFilePermission.OTHERS_WRITE);
+      aPosix.setPermissions (aPerms);
+      return;
+    }
+
+    final DosFileAttributeView aDos = Files.getFileAttributeView (aFile, DosFileAttributeView.class);
+    if (aDos != null)
+    {
+      aDos.setReadOnly (true);
+      return;
+    }
+
+    throw new IOException (aFile + ": Can't make file read-only");
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    // mark files as read-only if necessary
+    for (final Path aFile : m_aReadOnlyFiles)
+      _markReadOnly (aFile);
+    m_aReadOnlyFiles.clear ();
+    m_aBuffer = null;
+  }
+
+  /**
+   * An {@link OutputStream} that writes to a channel using the provided buffer. The buffer is
+   * owned by the writer and re-used, which is fine because only one stream is open at a time.
+   */
+  private static final class ChannelOutputStream extends OutputStream
+  {
+    private final WritableByteChannel m_aChannel;
+    private final ByteBuffer m_aBuf;
+
+    ChannelOutputStream (@NonNull final WritableByteChannel aChannel, @NonNull final ByteBuffer aBuf)
+    {
+      m_aChannel = aChannel;
+      m_aBuf = aBuf;
+      m_aBuf.clear ();
+    }
+
+    private void _drain (@NonNull final ByteBuffer aBuf) throws IOException
+    {
+      while (aBuf.hasRemaining ())
+        m_aChannel.write (aBuf);
+    }
+
+    private void _flushBuffer () throws IOException
+    {
+      m_aBuf.flip ();
+      _drain (m_aBuf);
+      m_aBuf.clear ();
+    }
+
+    @Override
+    public void write (final int b) throws IOException
+    {
+      if (!m_aBuf.hasRemaining ())
+        _flushBuffer ();
+      m_aBuf.put ((byte) b);
+    }
+
+    @Override
+    public void write (final byte [] aBytes, final int nOfs, final int nLen) throws IOException
+    {
+      if (nLen >= m_aBuf.capacity ())
+      {
+        // Too large for the buffer - write directly
+        _flushBuffer ();
+        _drain (ByteBuffer.wrap (aBytes, nOfs, nLen));
+        return;
+      }
+      if (nLen > m_aBuf.remaining ())
+        _flushBuffer ();
+      m_aBuf.put (aBytes, nOfs, nLen);
+    }
+
+    @Override
+    public void close () throws IOException
+    {
+      if (m_aChannel.isOpen ())
+        try
+        {
+          _flushBuffer ();
+        }
+        finally
+        {
+          m_aChannel.close ();
+        }
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+
+/**
+ * An {@link AbstractCodeWriter} that decouples the formatting of files from writing them. Every
+ * file is rendered into memory and handed over to a dedicated I/O thread that writes it to the
+ * wrapped writer, so that formatting never waits for the disk.
+ * <p>
+ * The amount of data waiting to be written is limited by a byte budget. If the budget is exhausted,
+ * opening the next file blocks until the I/O thread caught up. The first {@link IOException}
+ * raised by the wrapped writer is rethrown on the next call to {@link #openBinary(String, String)}
+ * and from {@link #close()}.
+ * </p>
+ * <p>
+ * Source files are always rendered by this writer, so this class should directly wrap the writer
+ * that performs the actual storage (e.g. a {@link FileCodeWriter} or a {@link PathCodeWriter}).
+ * Decorators like {@link PrologCodeWriter} must wrap this writer and not vice versa.
+ * </p>
+ *
+ * @author Philip Helger
+ * @since 4.3.1
+ */
+public class PipelinedCodeWriter extends AbstractCodeWriter
+{
+  /** Default maximum number of bytes that are pending to be written: 16 MB */
+  public static final int DEFAULT_MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+  private static final class PendingFile
+  {
+    private final String m_sDirName;
+    private final String m_sFilename;
+    private final NonBlockingByteArrayOutputStream m_aContent;
+    private final int m_nPermits;
+
+    PendingFile (@Nullable final String sDirName,
+                 @Nullable final String sFilename,
+                 @Nullable final NonBlockingByteArrayOutputStream aContent,
+                 final int nPermits)
+    {
+      m_sDirName = sDirName;
+      m_sFilename = sFilename;
+      m_aContent = aContent;
+      m_nPermits = nPermits;
+    }
+  }
+
+  /** Marker to stop the I/O thread */
+  private static final PendingFile END_OF_QUEUE = new PendingFile (null, null, null, 0);
+
+  private final AbstractCodeWriter m_aCore;
+  private final int m_nMaxPendingBytes;
+  private final Semaphore m_aBudget;
+  private final BlockingQueue <PendingFile> m_aQueue = new LinkedBlockingQueue <> ();
+  private final Thread m_aIOThread;
+  private volatile IOException m_aError;
+  private boolean m_bClosed = false;
+
+  public PipelinedCodeWriter (@NonNull final AbstractCodeWriter aCore)
+  {
+    this (aCore, DEFAULT_MAX_PENDING_BYTES);
+  }
+
+  /**
+   * @param aCore
+   *        The writer that performs the actual writing. It is only accessed from the I/O thread.
+   *        May not be <code>null</code>.
+   * @param nMaxPendingBytes
+   *        The maximum number of bytes that were formatted but not yet written. Must be &gt; 0.
+   */
+  public PipelinedCodeWriter (@NonNull final AbstractCodeWriter aCore, @Nonnegative final int nMaxPendingBytes)
+  {
+    super (aCore.encoding (), aCore.getNewLine ());
+    ValueEnforcer.isGT0 (nMaxPendingBytes, "MaxPendingBytes");
+    m_aCore = aCore;
+    m_nMaxPendingBytes = nMaxPendingBytes;
+    m_aBudget = new Semaphore (nMaxPendingBytes);
+    m_aIOThread = new Thread (this::_drainQueue, "jcodemodel-io");
+    m_aIOThread.setDaemon (true);
+    m_aIOThread.start ();
+  }
+
+  @NonNull
+  protected final AbstractCodeWriter core ()
+  {
+    return m_aCore;
+  }
+
+  private void _drainQueue ()
+  {
+    try
+    {
+      while (true)
+      {
+        final PendingFile aFile = m_aQueue.take ();
+        if (aFile == END_OF_QUEUE)
+          break;
+
+        try
+        {
+          // After the first error, the remaining files are only discarded
+          if (m_aError == null)
+            try (final OutputStream aOS = m_aCore.openBinary (aFile.m_sDirName, aFile.m_sFilename))
+            {
+              aFile.m_aContent.writeTo (aOS);
+            }
+        }
+        catch (final IOException ex)
+        {
+          m_aError = ex;
+        }
+        catch (final RuntimeException ex)
+        {
+          m_aError = new IOException ("Failed to write " + aFile.m_sDirName + '/' + aFile.m_sFilename, ex);
+        }
+        finally
+        {
+          m_aBudget.release (aFile.m_nPermits);
+        }
+      }
+    }
+    catch (final InterruptedException ex)
+    {
+      m_aError = new InterruptedIOException ("I/O thread was interrupted");
+      Thread.currentThread ().interrupt ();
+    }
+  }
+
+  private void _checkError () throws IOException
+  {
+    final IOException aError = m_aError;
+    if (aError != null)
+      throw new IOException ("Failed to write generated file", aError);
+  }
+
+  private void _enqueue (@NonNull final String sDirName,
+                         @NonNull final String sFilename,
+                         @NonNull final NonBlockingByteArrayOutputStream aContent) throws IOException
+  {
+    // A single file larger than the budget only needs to wait for an empty queue
+    final int nPermits = Math.min (aContent.size (), m_nMaxPendingBytes);
+    try
+    {
+      m_aBudget.acquire (nPermits);
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new InterruptedIOException ("Interrupted while waiting for the I/O thread");
+    }
+    m_aQueue.add (new PendingFile (sDirName, sFilename, aContent, nPermits));
+  }
+
+  @Override
+  @NonNull
+  public OutputStream openBinary (@NonNull final String sDirName, @NonNull final String sFilename) throws IOException
+  {
+    _checkError ();
+    if (m_bClosed)
+      throw new IOException ("The writer is already closed");
+
+    return new NonBlockingByteArrayOutputStream ()
+    {
+      private boolean m_bEnqueued = false;
+
+      @Override
+      public void close ()
+      {
+        if (!m_bEnqueued)
+        {
+          m_bEnqueued = true;
+          try
+          {
+            _enqueue (sDirName, sFilename, this);
+          }
+          catch (final IOException ex)
+          {
+            // close may not throw an IOException
+            m_aError = ex;
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Wait until all pending files are written, close the wrapped writer and propagate the first
+   * error that occurred on the I/O thread. Calling this method more than once has no effect.
+   */
+  @Override
+  public void close () throws IOException
+  {
+    if (m_bClosed)
+      return;
+    m_bClosed = true;
+
+    m_aQueue.add (END_OF_QUEUE);
+    try
+    {
+      m_aIOThread.join ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new InterruptedIOException ("Interrupted while waiting for the I/O thread");
+    }
+
+    try
+    {
+      m_aCore.close ();
+    }
+    catch (final IOException ex)
+    {
+      if (m_aError == null)
+        throw ex;
+      m_aError.addSuppressed (ex);
+    }
+    _checkError ();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.compile.DynamicClassLoader;
+import com.helger.jcodemodel.compile.MemoryCodeWriter;
+import com.helger.jcodemodel.writer.StringCodeWriter;
+
+/**
+ * Test class for class {@link JLazyStatements}.
+ *
+ * @author Philip Helger
+ */
+public final class JLazyStatementsTest
+{
+  @Test
+  public void testLazyStaticInit () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Table");
+    final AbstractJClass aMapType = cm.ref (Map.class).narrow (Integer.class, String.class);
+    final AbstractJClass aHashMap = cm.ref ("java.util.HashMap");
+    final JFieldVar aMap = jClass.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                                         aMapType,
+                                         "MAP",
+                                         aHashMap.narrowEmpty ()._new ());
+
+    final AtomicInteger aCalls = new AtomicInteger ();
+    jClass.init ().addLazy ( () -> {
+      aCalls.incrementAndGet ();
+      return IntStream.range (0, 1000).mapToObj (i -> aMap.invoke ("put").arg (JExpr.lit (i)).arg (JExpr.lit ("v" + i)));
+    }, aMapType, aHashMap);
+
+    final String sSource = StringCodeWriter.represent (cm);
+    // Only invoked for printing, not for collecting the imports
+    assertEquals (1, aCalls.get ());
+    assertTrue (sSource.contains ("import java.util.HashMap;"));
+    assertTrue (sSource.contains ("MAP.put(999, \"v999\");"));
+
+    final DynamicClassLoader aLoader = MemoryCodeWriter.from (cm).compile ();
+    final Map <?, ?> aResult = (Map <?, ?>) aLoader.loadClass (jClass.fullName ()).getField ("MAP").get (null);
+    assertEquals (1000, aResult.size ());
+    assertEquals ("v42", aResult.get (Integer.valueOf (42)));
+  }
+
+  @Test
+  public void testUndeclaredTypeUsesFullName () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Foo");
+    final AbstractJClass aList = cm.ref ("java.util.ArrayList");
+    jClass.method (JMod.PUBLIC, cm.VOID, "run").body ().addLazy ( () -> IntStream.range (0, 2).mapToObj (i -> aList._new ()));
+
+    final String sSource = StringCodeWriter.represent (cm);
+    assertTrue (sSource.contains ("new java.util.ArrayList()"));
+  }
+
+  @Test
+  public void testErrorTypes () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Foo");
+    final AbstractJClass aError = cm.errorClass ("missing");
+    final AtomicInteger aCalls = new AtomicInteger ();
+    final JBlock aBody = jClass.method (JMod.PUBLIC, cm.VOID, "run").body ();
+    aBody.addLazy ( () -> {
+      aCalls.incrementAndGet ();
+      return IntStream.range (0, 2).mapToObj (i -> cm.ref (Integer.class).staticInvoke ("valueOf").arg (JExpr.lit (i)));
+    });
+    assertFalse (jClass.containsErrorTypes ());
+    assertFalse (cm.buildsErrorTypeRefs ());
+
+    // The error type is only used by the lazy statements
+    aBody.addLazy ( () -> {
+      aCalls.incrementAndGet ();
+      return IntStream.range (0, 2).mapToObj (i -> aError.staticInvoke ("valueOf").arg (JExpr.lit (i)));
+    });
+    assertTrue (jClass.containsErrorTypes ());
+    assertTrue (cm.buildsErrorTypeRefs ());
+    // Once per scan
+    assertEquals (6, aCalls.get ());
+  }
+}
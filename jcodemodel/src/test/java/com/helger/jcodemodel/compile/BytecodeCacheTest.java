@@ -0,0 +1,205 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+
+/**
+ * Test class for class {@link BytecodeCache}.
+ *
+ * @author Philip Helger
+ */
+public final class BytecodeCacheTest
+{
+  private static MemoryCodeWriter _create (final int nValue)
+  {
+    final JCodeModel cm = new JCodeModel ();
+    try
+    {
+      final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Cached");
+      jClass.method (JMod.PUBLIC | JMod.STATIC, int.class, "value").body ()._return (JExpr.lit (nValue));
+      jClass._class (JMod.PUBLIC | JMod.STATIC, "Inner");
+    }
+    catch (final Exception ex)
+    {
+      throw new IllegalStateException (ex);
+    }
+    return MemoryCodeWriter.from (cm);
+  }
+
+  private static void _deleteRecursive (final Path aDir) throws Exception
+  {
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      aStream.sorted (Comparator.reverseOrder ()).forEach (x -> x.toFile ().delete ());
+    }
+  }
+
+  @Test
+  public void testCompile () throws Exception
+  {
+    final Path aDir = Files.createTempDirectory ("jcm-cache");
+    try
+    {
+      final BytecodeCache aCache = new BytecodeCache (aDir);
+
+      DynamicClassLoader aDCL = _create (1).setBytecodeCache (aCache).compile ();
+      assertNotNull (aDCL);
+      assertEquals (0, aCache.getHitCount ());
+      assertEquals (1, aCache.getMissCount ());
+      assertTrue (aCache.getCurrentSize () > 0);
+
+      // Same sources - from cache
+      aDCL = _create (1).setBytecodeCache (aCache).compile ();
+      assertNotNull (aDCL);
+      assertEquals (1, aCache.getHitCount ());
+      assertEquals (1, aDCL.loadClass ("org.example.Cached").getMethod ("value").invoke (null));
+      assertNotNull (aDCL.loadClass ("org.example.Cached$Inner"));
+
+      // Different sources
+      aDCL = _create (2).setBytecodeCache (aCache).compile ();
+      assertNotNull (aDCL);
+      assertEquals (1, aCache.getHitCount ());
+      assertEquals (2, aCache.getMissCount ());
+      assertEquals (2, aDCL.loadClass ("org.example.Cached").getMethod ("value").invoke (null));
+
+      // Corrupt all files
+      try (final Stream <Path> aStream = Files.list (aDir))
+      {
+        for (final Path aPath : (Iterable <Path>) aStream::iterator)
+          Files.write (aPath, new byte [] { 1, 2, 3 });
+      }
+      aDCL = _create (2).setBytecodeCache (aCache).compile ();
+      assertNotNull (aDCL);
+      assertEquals (3, aCache.getMissCount ());
+      assertEquals (2, aDCL.loadClass ("org.example.Cached").getMethod ("value").invoke (null));
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+
+  @Test
+  public void testEviction () throws Exception
+  {
+    final Path aDir = Files.createTempDirectory ("jcm-cache");
+    try
+    {
+      final BytecodeCache aCache = new BytecodeCache (aDir, 2500);
+      final byte [] aData = new byte [1000];
+      aCache.put ("a", Map.of ("A", aData));
+      aCache.put ("b", Map.of ("B", aData));
+      // Make "a" the least recently used one
+      Files.setLastModifiedTime (aDir.resolve ("a" + BytecodeCache.FILE_EXTENSION), FileTime.fromMillis (1000));
+      assertNotNull (aCache.get ("b"));
+
+      aCache.put ("c", Map.of ("C", aData));
+      assertTrue (aCache.getCurrentSize () <= 2500);
+      assertNull (aCache.get ("a"));
+      assertArrayEquals (aData, aCache.get ("b").get ("B"));
+      assertNotNull (aCache.get ("c"));
+
+      // Too large entries are not stored
+      aCache.put ("d", Map.of ("D", new byte [3000]));
+      assertNull (aCache.get ("d"));
+      assertNotNull (aCache.get ("c"));
+
+      aCache.clear ();
+      assertEquals (0, aCache.getCurrentSize ());
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+
+  @Test
+  public void testClassDirectoryFingerprint () throws Exception
+  {
+    final Path aDir = Files.createTempDirectory ("jcm-cache");
+    final Path aClassDir = Files.createTempDirectory ("jcm-classes");
+    try (final URLClassLoader aCL = new URLClassLoader (new URL [] { aClassDir.toUri ().toURL () }, null))
+    {
+      final BytecodeCache aCache = new BytecodeCache (aDir);
+      final Map <String, ByteBuffer> aSources = Map.of ("A.java",
+                                                        ByteBuffer.wrap ("class A {}".getBytes (StandardCharsets.UTF_8)));
+      final Path aFile = Files.write (aClassDir.resolve ("B.class"), new byte [] { 1 });
+      final String sKey = aCache.createKey (aSources, StandardCharsets.UTF_8, List.of (), aCL);
+
+      // The directory content is only read once per cache instance
+      Files.write (aFile, new byte [] { 1, 2 });
+      assertEquals (sKey, aCache.createKey (aSources, StandardCharsets.UTF_8, List.of (), aCL));
+
+      aCache.clearClassPathFingerprints ();
+      assertNotEquals (sKey, aCache.createKey (aSources, StandardCharsets.UTF_8, List.of (), aCL));
+    }
+    finally
+    {
+      _deleteRecursive (aClassDir);
+      _deleteRecursive (aDir);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+
+/**
+ * Test class for class {@link ClassLoaderGenerations}.
+ *
+ * @author Philip Helger
+ */
+public final class ClassLoaderGenerationsTest
+{
+  private static MemoryCodeWriter _createModel (final String sValueC, final boolean bWithD) throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jA = cm._class (JMod.PUBLIC, "org.example.a.A");
+    jA.method (JMod.PUBLIC, String.class, "get").body ()._return (JExpr.lit ("a"));
+    final JDefinedClass jB = cm._class (JMod.PUBLIC, "org.example.a.B");
+    jB.method (JMod.PUBLIC, String.class, "get").body ()._return (JExpr._new (jA).invoke ("get"));
+
+    final JDefinedClass jC = cm._class (JMod.PUBLIC, "org.example.c.C");
+    jC.method (JMod.PUBLIC, String.class, "get").body ()._return (JExpr.lit (sValueC));
+    if (bWithD)
+      cm._class (JMod.PUBLIC, "org.example.c.D");
+
+    // E references C
+    final JDefinedClass jE = cm._class (JMod.PUBLIC, "org.example.e.E");
+    jE.method (JMod.PUBLIC, String.class, "get").body ()._return (JExpr._new (jC).invoke ("get"));
+    return MemoryCodeWriter.from (cm);
+  }
+
+  private static Object _get (final ClassLoader aCL, final String sClassName) throws Exception
+  {
+    final Class <?> aClass = aCL.loadClass (sClassName);
+    return aClass.getMethod ("get").invoke (aClass.getConstructor ().newInstance ());
+  }
+
+  @Test
+  public void testGenerations () throws Exception
+  {
+    try (final ClassLoaderGenerations aGenerations = new ClassLoaderGenerations ())
+    {
+      assertNull (aGenerations.getCurrentGeneration ());
+
+      final DynamicClassLoaderGeneration aGen0 = _createModel ("c1", true).compile (aGenerations);
+      assertNotNull (aGen0);
+      assertEquals (0, aGen0.getGeneration ());
+      assertTrue (aGen0.isFull ());
+      assertEquals (5, aGen0.getAllCode ().size ());
+      assertEquals ("c1", _get (aGen0, "org.example.e.E"));
+
+      // Only C changed: package c and E referencing C are redefined
+      final DynamicClassLoaderGeneration aGen1 = _createModel ("c2", true).compile (aGenerations);
+      assertNotNull (aGen1);
+      assertSame (aGen1, aGenerations.getCurrentGeneration ());
+      assertFalse (aGen1.isFull ());
+      assertEquals (3, aGen1.getAllCode ().size ());
+      assertNotNull (aGen1.getCode ("org.example.c.C"));
+      assertNotNull (aGen1.getCode ("org.example.c.D"));
+      assertNotNull (aGen1.getCode ("org.example.e.E"));
+      assertEquals ("c2", _get (aGen1, "org.example.c.C"));
+      assertEquals ("c2", _get (aGen1, "org.example.e.E"));
+      assertEquals ("a", _get (aGen1, "org.example.a.B"));
+      // Shared with the previous generation
+      assertSame (aGen0.loadClass ("org.example.a.A"), aGen1.loadClass ("org.example.a.A"));
+      assertNotSame (aGen0.loadClass ("org.example.c.C"), aGen1.loadClass ("org.example.c.C"));
+      // The old generation is unchanged
+      assertEquals ("c1", _get (aGen0, "org.example.e.E"));
+
+      // D removed
+      final DynamicClassLoaderGeneration aGen2 = _createModel ("c2", false).compile (aGenerations);
+      assertNotNull (aGen2);
+      assertTrue (aGen2.getAllHiddenClassNames ().contains ("org.example.c.D"));
+      try
+      {
+        aGen2.loadClass ("org.example.c.D");
+        fail ();
+      }
+      catch (final ClassNotFoundException ex)
+      {
+        // expected
+      }
+      assertEquals ("c2", _get (aGen2, "org.example.e.E"));
+      assertEquals (3, aGenerations.getAllChainGenerations ().size ());
+      assertTrue (aGenerations.getAllRetiredGenerations ().isEmpty ());
+
+      // Full generation requested
+      aGenerations.requestFull ();
+      final DynamicClassLoaderGeneration aGen3 = _createModel ("c3", false).compile (aGenerations);
+      assertNotNull (aGen3);
+      assertTrue (aGen3.isFull ());
+      assertEquals (4, aGen3.getAllCode ().size ());
+      assertEquals ("c3", _get (aGen3, "org.example.e.E"));
+      assertEquals (1, aGenerations.getAllChainGenerations ().size ());
+      assertEquals (3, aGenerations.getAllRetiredGenerations ().size ());
+
+      assertEquals (3, aGenerations.closeRetiredGenerations ());
+      assertTrue (aGen1.isClosed ());
+      assertTrue (aGen1.getAllCode ().isEmpty ());
+      // Already loaded classes are still available
+      assertNotNull (aGen1.loadClass ("org.example.c.C"));
+      assertFalse (aGen3.isClosed ());
+    }
+  }
+
+  @Test
+  public void testMaxDepth () throws Exception
+  {
+    try (final ClassLoaderGenerations aGenerations = new ClassLoaderGenerations ().setMaxDepth (2))
+    {
+      for (int i = 0; i < 5; ++i)
+      {
+        final DynamicClassLoaderGeneration aGen = _createModel ("v" + i, true).compile (aGenerations);
+        assertNotNull (aGen);
+        assertEquals (i % 2 == 0, aGen.isFull ());
+        assertEquals ("v" + i, _get (aGen, "org.example.e.E"));
+      }
+      assertEquals (4, aGenerations.closeRetiredGenerations ());
+    }
+  }
+
+  @Test
+  public void testCompileError () throws Exception
+  {
+    try (final ClassLoaderGenerations aGenerations = new ClassLoaderGenerations ())
+    {
+      assertNotNull (_createModel ("c1", true).compile (aGenerations));
+
+      final JCodeModel cm = new JCodeModel ();
+      cm._class (JMod.PUBLIC, "org.example.Broken").field (JMod.PUBLIC, int.class, "m_n", JExpr.lit ("x"));
+      assertNull (MemoryCodeWriter.from (cm).compile (aGenerations));
+      assertEquals (0, aGenerations.getCurrentGeneration ().getGeneration ());
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.JResourceDir;
+import com.helger.jcodemodel.fmt.JTextFile;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+/**
+ * Simple benchmark for {@link MemoryCodeWriter#compile(DynamicClassLoader)} against a large JAR
+ * file, comparing a new {@link ClassPathIndex} per compilation with a shared one. Not a unit test -
+ * run manually.
+ *
+ * @author Philip Helger
+ */
+public final class ClassPathIndexBenchmark
+{
+  private static final int PACKAGES = 300;
+  private static final int CLASSES_PER_PACKAGE = 10;
+  private static final int RESOURCES = 20_000;
+  private static final int RUNS = 5;
+
+  private ClassPathIndexBenchmark ()
+  {}
+
+  private static Path _createLibrary () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    for (int i = 0; i < PACKAGES; ++i)
+      for (int j = 0; j < CLASSES_PER_PACKAGE; ++j)
+        cm._class (JMod.PUBLIC, "org.lib.p" + i + ".C" + j);
+    final JResourceDir aRes = cm.resourceDir ("org/lib/res");
+    for (int i = 0; i < RESOURCES; ++i)
+      aRes.addResourceFile (JTextFile.createFully ("r" + i + ".txt", StandardCharsets.UTF_8, "x"));
+
+    final Path aJar = Files.createTempFile ("jcm-bench", ".jar");
+    try (final OutputStream aOS = Files.newOutputStream (aJar))
+    {
+      new JCMWriter (cm).build (new JarCodeWriter (aOS));
+    }
+    return aJar;
+  }
+
+  private static MemoryCodeWriter _createUser () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.app.User");
+    for (int i = 0; i < PACKAGES; ++i)
+      jClass.field (JMod.PUBLIC, cm.directClass ("org.lib.p" + i + ".C0"), "m_a" + i);
+    return MemoryCodeWriter.from (cm);
+  }
+
+  private static long _run (final URLClassLoader aLibCL, final ClassPathIndex aSharedIndex) throws Exception
+  {
+    final MemoryCodeWriter aWriter = _createUser ().setClassPathIndex (aSharedIndex);
+    final long nStart = System.nanoTime ();
+    if (aWriter.compile (new DynamicClassLoader (aLibCL)).isFailure ())
+      throw new IllegalStateException ("Compilation failed");
+    return (System.nanoTime () - nStart) / 1_000_000;
+  }
+
+  public static void main (final String... args) throws Exception
+  {
+    final Path aJar = _createLibrary ();
+    try (final URLClassLoader aLibCL = new URLClassLoader (new URL [] { aJar.toUri ().toURL () }, null))
+    {
+      // Warm up
+      _run (aLibCL, null);
+
+      final ClassPathIndex aShared = new ClassPathIndex ();
+      for (int i = 0; i < RUNS; ++i)
+      {
+        final long nFresh = _run (aLibCL, null);
+        final long nShared = _run (aLibCL, aShared);
+        System.out.println ("Run " + i + ": new index " + nFresh + " ms, shared index " + nShared + " ms");
+      }
+    }
+    finally
+    {
+      Files.delete (aJar);
+    }
+  }
+}
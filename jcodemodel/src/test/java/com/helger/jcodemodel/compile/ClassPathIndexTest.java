@@ -0,0 +1,114 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+/**
+ * Test class for class {@link ClassPathIndex}.
+ *
+ * @author Philip Helger
+ */
+public final class ClassPathIndexTest
+{
+  @Test
+  public void testJarIndex () throws Exception
+  {
+    // Create a JAR with some classes
+    final JCodeModel aLibCM = new JCodeModel ();
+    for (int i = 0; i < 5; ++i)
+      for (int j = 0; j < 3; ++j)
+        aLibCM._class (JMod.PUBLIC, "org.lib.p" + i + ".C" + j);
+
+    final Path aJar = Files.createTempFile ("jcm-lib", ".jar");
+    try
+    {
+      try (final OutputStream aOS = Files.newOutputStream (aJar))
+      {
+        new JCMWriter (aLibCM).build (new JarCodeWriter (aOS));
+      }
+
+      try (final URLClassLoader aLibCL = new URLClassLoader (new URL [] { aJar.toUri ().toURL () }, null))
+      {
+        final ClassPathIndex aIndex = new ClassPathIndex ();
+        final List <JavaFileObject> aFiles = aIndex.getJarPackage (aLibCL.getResource ("org/lib/p3"));
+        assertEquals (3, aFiles.size ());
+        assertEquals (1, aIndex.getJarCount ());
+
+        // Compile against the library twice with the same index
+        for (int n = 0; n < 2; ++n)
+        {
+          final JCodeModel cm = new JCodeModel ();
+          final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.app.User");
+          for (int i = 0; i < 5; ++i)
+            jClass.field (JMod.PUBLIC, cm.directClass ("org.lib.p" + i + ".C1"), "m_a" + i);
+
+          final DynamicClassLoader aDCL = new DynamicClassLoader (aLibCL);
+          assertTrue (MemoryCodeWriter.from (cm).setClassPathIndex (aIndex).compile (aDCL).isSuccess ());
+          assertNotNull (aDCL.loadClass ("org.app.User"));
+          assertEquals (1, aIndex.getJarCount ());
+        }
+      }
+    }
+    finally
+    {
+      Files.delete (aJar);
+    }
+  }
+}
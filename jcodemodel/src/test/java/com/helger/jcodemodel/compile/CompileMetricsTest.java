@@ -0,0 +1,156 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+import com.sun.source.util.TaskEvent;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test class for class {@link CompileMetrics} and the JFR events of the in-memory compiler.
+ *
+ * @author Philip Helger
+ */
+public final class CompileMetricsTest
+{
+  private static JCodeModel _createModel () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    for (int i = 0; i < 5; ++i)
+    {
+      final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Metric" + i);
+      jClass.method (JMod.PUBLIC, String.class, "get").body ()._return (JExpr.lit ("m" + i));
+    }
+    return cm;
+  }
+
+  @Test
+  public void testMetrics () throws Exception
+  {
+    final MemoryCodeWriter aWriter = MemoryCodeWriter.from (_createModel ());
+    final DynamicClassLoader aDCL = aWriter.compile ();
+    assertNotNull (aDCL);
+
+    final CompileMetrics aMetrics = aWriter.getLastCompileStatistics ().getMetrics ();
+    assertNotNull (aMetrics);
+    assertTrue (aMetrics.getPhaseDurationNanos (TaskEvent.Kind.PARSE) > 0);
+    assertTrue (aMetrics.getPhaseDurationNanos (TaskEvent.Kind.ANALYZE) > 0);
+    assertTrue (aMetrics.getPhaseDurationNanos (TaskEvent.Kind.GENERATE) > 0);
+    assertTrue (aMetrics.getListCount () > 0);
+
+    final Map <String, Map <TaskEvent.Kind, Long>> aUnits = aMetrics.getAllUnitDurationNanos ();
+    assertEquals (5, aUnits.size ());
+    for (final Map.Entry <String, Map <TaskEvent.Kind, Long>> aEntry : aUnits.entrySet ())
+    {
+      assertTrue (aEntry.getKey (), aEntry.getKey ().endsWith (".java"));
+      assertTrue (aEntry.getValue ().containsKey (TaskEvent.Kind.PARSE));
+      assertTrue (aEntry.getValue ().containsKey (TaskEvent.Kind.GENERATE));
+    }
+
+    // A new compilation gets new metrics
+    aWriter.compile ();
+    assertTrue (aMetrics != aWriter.getLastCompileStatistics ().getMetrics ());
+  }
+
+  @Test
+  public void testFlightRecorderEvents () throws Exception
+  {
+    final Path aFile = Files.createTempFile ("jcodemodel", ".jfr");
+    try
+    {
+      try (final Recording aRecording = new Recording ())
+      {
+        aRecording.enable ("com.helger.jcodemodel.Compile");
+        aRecording.enable ("com.helger.jcodemodel.FileManagerList");
+        aRecording.enable ("com.helger.jcodemodel.FindClass");
+        aRecording.start ();
+
+        final DynamicClassLoader aDCL = MemoryCodeWriter.from (_createModel ()).compile ();
+        assertNotNull (aDCL);
+        final Class <?> aClass = aDCL.loadClass ("org.example.Metric3");
+        assertEquals ("m3", aClass.getMethod ("get").invoke (aClass.getConstructor ().newInstance ()));
+
+        aRecording.stop ();
+        aRecording.dump (aFile);
+      }
+
+      final Set <String> aNames = new HashSet <> ();
+      for (final RecordedEvent aEvent : RecordingFile.readAllEvents (aFile))
+      {
+        final String sName = aEvent.getEventType ().getName ();
+        aNames.add (sName);
+        if (sName.equals ("com.helger.jcodemodel.Compile"))
+        {
+          assertEquals (5, aEvent.getInt ("compilationUnits"));
+          assertTrue (aEvent.getBoolean ("success"));
+        }
+        else
+          if (sName.equals ("com.helger.jcodemodel.FindClass"))
+            assertEquals ("org.example.Metric3", aEvent.getString ("className"));
+      }
+      assertTrue (aNames.toString (), aNames.contains ("com.helger.jcodemodel.Compile"));
+      assertTrue (aNames.toString (), aNames.contains ("com.helger.jcodemodel.FileManagerList"));
+      assertTrue (aNames.toString (), aNames.contains ("com.helger.jcodemodel.FindClass"));
+    }
+    finally
+    {
+      Files.deleteIfExists (aFile);
+    }
+  }
+}
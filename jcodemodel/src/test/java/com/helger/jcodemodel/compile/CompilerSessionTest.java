@@ -0,0 +1,123 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+
+/**
+ * Test class for class {@link CompilerSession}.
+ *
+ * @author Philip Helger
+ */
+public final class CompilerSessionTest
+{
+  @Test
+  public void testReuse () throws Exception
+  {
+    try (final CompilerSession aSession = new CompilerSession ())
+    {
+      for (int i = 0; i < 5; ++i)
+      {
+        final JCodeModel cm = new JCodeModel ();
+        final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Gen" + i);
+        jClass.method (JMod.PUBLIC, cm.ref (List.class).narrow (String.class), "list")
+              .body ()
+              ._return (cm.ref (List.class).staticInvoke ("of").arg ("v" + i));
+
+        final DynamicClassLoader aDCL = MemoryCodeWriter.from (cm).setCompilerSession (aSession).compile ();
+        assertNotNull (aDCL);
+        final Class <?> aClass = aDCL.loadClass ("org.example.Gen" + i);
+        final Object aObj = aClass.getConstructor ().newInstance ();
+        assertEquals (List.of ("v" + i), aClass.getMethod ("list").invoke (aObj));
+      }
+      assertEquals (5, aSession.getCompilationCount ());
+      assertFalse (aSession.isClosed ());
+
+      // Compilation errors don't break the session
+      final JCodeModel cm = new JCodeModel ();
+      cm._class (JMod.PUBLIC, "org.example.Broken").field (JMod.PUBLIC, int.class, "m_n", JExpr.lit ("x"));
+      assertEquals (null, MemoryCodeWriter.from (cm).setCompilerSession (aSession).compile ());
+
+      final JCodeModel cm2 = new JCodeModel ();
+      cm2._class (JMod.PUBLIC, "org.example.Fine");
+      assertNotNull (MemoryCodeWriter.from (cm2).setCompilerSession (aSession).compile ());
+      assertEquals (7, aSession.getCompilationCount ());
+
+      aSession.close ();
+      assertTrue (aSession.isClosed ());
+      try
+      {
+        MemoryCodeWriter.from (cm2).setCompilerSession (aSession).compile ();
+        fail ();
+      }
+      catch (final UnsupportedOperationException ex)
+      {
+        // expected
+        assertTrue (ex.getCause () instanceof IllegalStateException);
+      }
+    }
+  }
+
+  @Test
+  public void testOptions () throws Exception
+  {
+    try (final CompilerSession aSession = new CompilerSession (new ClassPathIndex (), List.of ("-proc:none")))
+    {
+      assertEquals (List.of ("-proc:none"), aSession.getAllOptions ());
+      final JCodeModel cm = new JCodeModel ();
+      cm._class (JMod.PUBLIC, "org.example.Opt");
+      assertNotNull (MemoryCodeWriter.from (cm).setCompilerSession (aSession).compile ());
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+
+/**
+ * Test class for class {@link DynamicClassLoader}.
+ *
+ * @author Philip Helger
+ */
+public final class DynamicClassLoaderTest
+{
+  private static final int CLASS_COUNT = 50;
+
+  private static DynamicClassLoader _compile () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    JDefinedClass jPrev = null;
+    for (int i = 0; i < CLASS_COUNT; ++i)
+    {
+      // Each class extends the previous one
+      final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Loaded" + i);
+      if (jPrev != null)
+        jClass._extends (jPrev);
+      jClass.method (JMod.PUBLIC | JMod.STATIC, int.class, "value" + i).body ()._return (JExpr.lit (i));
+      jPrev = jClass;
+    }
+    final DynamicClassLoader ret = MemoryCodeWriter.from (cm).compile ();
+    assertNotNull (ret);
+    return ret;
+  }
+
+  @Test
+  public void testParallelCapable () throws Exception
+  {
+    final DynamicClassLoader aDCL = _compile ();
+    assertTrue (aDCL.isRegisteredAsParallelCapable ());
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (8);
+    try
+    {
+      final List <Future <Class <?>>> aFutures = new ArrayList <> ();
+      for (int n = 0; n < 4; ++n)
+        for (int i = CLASS_COUNT - 1; i >= 0; --i)
+        {
+          final String sName = "org.example.Loaded" + i;
+          aFutures.add (aExecutor.submit ( () -> aDCL.loadClass (sName)));
+        }
+      for (int i = 0; i < aFutures.size (); ++i)
+        assertSame (aFutures.get (i % CLASS_COUNT).get (), aFutures.get (i).get ());
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+    }
+  }
+
+  @Test
+  public void testDefineAllAndRelease () throws Exception
+  {
+    final DynamicClassLoader aDCL = _compile ().setReleaseByteCode (true);
+    assertEquals (CLASS_COUNT, aDCL.getAllCode ().size ());
+    assertEquals (CLASS_COUNT, aDCL.defineAllClasses ());
+    // Byte code was released
+    assertEquals (0, aDCL.getAllCode ().size ());
+    assertNull (aDCL.getCode ("org.example.Loaded3"));
+    assertEquals (0, aDCL.defineAllClasses ());
+
+    // But the classes are still available
+    final Class <?> aClass = aDCL.loadClass ("org.example.Loaded" + (CLASS_COUNT - 1));
+    assertEquals (3, aClass.getMethod ("value3").invoke (null));
+  }
+}
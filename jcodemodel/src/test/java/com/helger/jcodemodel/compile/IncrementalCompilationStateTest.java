@@ -0,0 +1,153 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+
+/**
+ * Test class for class {@link IncrementalCompilationState}.
+ *
+ * @author Philip Helger
+ */
+public final class IncrementalCompilationStateTest
+{
+  private static MemoryCodeWriter _create (final int nValue,
+                                           final boolean bExtraMethod,
+                                           final boolean bWithC,
+                                           final boolean bBroken) throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jA = cm._class (JMod.PUBLIC, "org.example.A");
+    jA.method (JMod.PUBLIC | JMod.STATIC, int.class, "value").body ()._return (JExpr.lit (nValue));
+    if (bExtraMethod)
+      jA.method (JMod.PUBLIC | JMod.STATIC, int.class, "extra").body ()._return (JExpr.lit (0));
+    // Nested class to check that those are handled as well
+    jA._class (JMod.PUBLIC | JMod.STATIC, "Nested");
+
+    final JDefinedClass jB = cm._class (JMod.PUBLIC, "org.example.B");
+    jB.method (JMod.PUBLIC | JMod.STATIC, int.class, "twice")
+      .body ()
+      ._return (jA.staticInvoke ("value").mul (JExpr.lit (2)));
+
+    if (bWithC)
+    {
+      final JDefinedClass jC = cm._class (JMod.PUBLIC, "org.example.other.C");
+      jC.method (JMod.PUBLIC | JMod.STATIC, int.class, "value")
+        .body ()
+        ._return (bBroken ? JExpr.lit ("x") : JExpr.lit (7));
+    }
+    return MemoryCodeWriter.from (cm);
+  }
+
+  private static int _twice (final DynamicClassLoader aDCL) throws Exception
+  {
+    return ((Integer) aDCL.loadClass ("org.example.B").getMethod ("twice").invoke (null)).intValue ();
+  }
+
+  @Test
+  public void testIncremental () throws Exception
+  {
+    final IncrementalCompilationState aState = new IncrementalCompilationState ();
+
+    // Initial compilation
+    DynamicClassLoader aDCL = _create (1, false, true, false).setIncrementalState (aState).compile ();
+    assertNotNull (aDCL);
+    assertEquals (3, aState.getLastCompiledUnitCount ());
+    assertEquals (3, aState.getUnitCount ());
+    assertEquals (2, _twice (aDCL));
+
+    // Nothing changed
+    aDCL = _create (1, false, true, false).setIncrementalState (aState).compile ();
+    assertNotNull (aDCL);
+    assertEquals (0, aState.getLastCompiledUnitCount ());
+    assertEquals (2, _twice (aDCL));
+    assertNotNull (aDCL.loadClass ("org.example.A$Nested"));
+    assertNotNull (aDCL.loadClass ("org.example.other.C"));
+
+    // Method body of A changed - API is the same
+    aDCL = _create (5, false, true, false).setIncrementalState (aState).compile ();
+    assertNotNull (aDCL);
+    assertEquals (1, aState.getLastCompiledUnitCount ());
+    assertEquals (10, _twice (aDCL));
+    assertNotNull (aDCL.loadClass ("org.example.A$Nested"));
+
+    // API of A changed - B depends on it
+    aDCL = _create (5, true, true, false).setIncrementalState (aState).compile ();
+    assertNotNull (aDCL);
+    assertEquals (2, aState.getLastCompiledUnitCount ());
+    assertEquals (10, _twice (aDCL));
+
+    // Compilation error - state is not changed
+    assertNull (_create (5, true, true, true).setIncrementalState (aState).compile ());
+    assertEquals (3, aState.getUnitCount ());
+
+    // Remove C - nobody references it
+    aDCL = _create (5, true, false, false).setIncrementalState (aState).compile ();
+    assertNotNull (aDCL);
+    assertEquals (0, aState.getLastCompiledUnitCount ());
+    assertEquals (2, aState.getUnitCount ());
+    assertEquals (10, _twice (aDCL));
+
+    // Full compilation after clear
+    aState.clear ();
+    aDCL = _create (5, true, false, false).setIncrementalState (aState).compile ();
+    assertNotNull (aDCL);
+    assertEquals (2, aState.getLastCompiledUnitCount ());
+  }
+
+  @Test
+  public void testGetAllIdentifiers ()
+  {
+    assertEquals (Set.of ("package", "a", "b", "class", "Foo", "x1", "_y"),
+                  IncrementalCompilationState.getAllIdentifiers ("package a.b; class Foo { x1 = _y + 5; }"));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMethod;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.fmt.JTextFile;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+/**
+ * Test class for class {@link JarCodeWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class JarCodeWriterTest
+{
+  private static Map <String, byte []> _readJar (final byte [] aJar, final String sExpectedMainClass) throws IOException
+  {
+    final Map <String, byte []> ret = new HashMap <> ();
+    try (final JarInputStream aJIS = new JarInputStream (new NonBlockingByteArrayInputStream (aJar)))
+    {
+      assertNotNull (aJIS.getManifest ());
+      assertEquals (sExpectedMainClass, aJIS.getManifest ().getMainAttributes ().getValue ("Main-Class"));
+      JarEntry aEntry;
+      while ((aEntry = aJIS.getNextJarEntry ()) != null)
+        ret.put (aEntry.getName (), aJIS.readAllBytes ());
+    }
+    return ret;
+  }
+
+  @Test
+  public void testCompileIntoJar () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "my.Clazz");
+    final JMethod jMethodToString = jClass.method (JMod.PUBLIC, cm.ref (String.class), "toString");
+    jMethodToString.annotate (Override.class);
+    jMethodToString.body ()._return (JExpr.lit ("TEST"));
+    jClass._class (JMod.PUBLIC | JMod.STATIC, "Inner");
+    cm._class (JMod.PUBLIC, "Root");
+    cm.resourceDir ("my/res").addResourceFile (JTextFile.createFully ("File.txt", StandardCharsets.UTF_8, "abc"));
+
+    for (final boolean bIncludeSources : new boolean [] { false, true })
+    {
+      final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+      final JarCodeWriter aWriter = new JarCodeWriter (aBAOS).setIncludeSources (bIncludeSources);
+      aWriter.getManifest ().getMainAttributes ().putValue ("Main-Class", "my.Clazz");
+      new JCMWriter (cm).build (aWriter);
+
+      final Map <String, byte []> aEntries = _readJar (aBAOS.toByteArray (), "my.Clazz");
+      for (final String sClass : new String [] { "my/Clazz.class", "my/Clazz$Inner.class", "Root.class" })
+      {
+        final byte [] aBytes = aEntries.get (sClass);
+        assertNotNull (sClass, aBytes);
+        // Class file magic
+        assertEquals (0xCAFEBABE,
+                      ((aBytes[0] & 0xff) << 24) | ((aBytes[1] & 0xff) << 16) | ((aBytes[2] & 0xff) << 8) | (aBytes[3] & 0xff));
+      }
+      assertEquals ("abc", new String (aEntries.get ("my/res/File.txt"), StandardCharsets.UTF_8));
+      assertEquals (bIncludeSources, aEntries.containsKey ("my/Clazz.java"));
+      assertEquals (bIncludeSources, aEntries.containsKey ("Root.java"));
+    }
+  }
+
+  @Test
+  public void testDirectoryEntries () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    cm._class (JMod.PUBLIC, "my.pkg.Clazz");
+    cm.resourceDir ("my/res").addResourceFile (JTextFile.createFully ("File.txt", StandardCharsets.UTF_8, "abc"));
+
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    new JCMWriter (cm).build (new JarCodeWriter (aBAOS));
+    final Map <String, byte []> aEntries = _readJar (aBAOS.toByteArray (), null);
+    for (final String sDir : new String [] { "my/", "my/pkg/", "my/res/" })
+      assertTrue (sDir, aEntries.containsKey (sDir));
+
+    // Packages can be resolved by a class loader
+    final Path aJar = Files.createTempFile ("jcm", ".jar");
+    try
+    {
+      Files.write (aJar, aBAOS.toByteArray ());
+      try (final URLClassLoader aCL = new URLClassLoader (new URL [] { aJar.toUri ().toURL () }, null))
+      {
+        assertTrue (aCL.getResources ("my/pkg").hasMoreElements ());
+        assertNotNull (aCL.loadClass ("my.pkg.Clazz"));
+      }
+    }
+    finally
+    {
+      Files.delete (aJar);
+    }
+  }
+
+  @Test
+  public void testCompileError () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "com.example.TestError");
+    jClass.method (JMod.PUBLIC, cm.ref (String.class), "toString").body ()._return (JExpr.lit (42));
+
+    final JarCodeWriter aWriter = new JarCodeWriter (new NonBlockingByteArrayOutputStream ());
+    aWriter.setDiagnosticListener (x -> {});
+    try
+    {
+      new JCMWriter (cm).build (aWriter);
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+      assertTrue (ex.getMessage ().contains ("compile"));
+    }
+  }
+}
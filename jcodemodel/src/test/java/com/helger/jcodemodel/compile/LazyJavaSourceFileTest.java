@@ -0,0 +1,107 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.fmt.JTextFile;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+/**
+ * Test class for class {@link LazyJavaSourceFile}.
+ *
+ * @author Philip Helger
+ */
+public final class LazyJavaSourceFileTest
+{
+  @Test
+  public void testSameContent () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Lazy");
+    jClass.method (JMod.PUBLIC, cm.ref (List.class).narrow (String.class), "get")
+          .body ()
+          ._return (cm.ref (List.class).staticInvoke ("of").arg ("abc"));
+    jClass._class (JMod.PUBLIC | JMod.STATIC, "Inner");
+
+    final MemoryCodeWriter aWriter = new MemoryCodeWriter ();
+    new JCMWriter (cm).build (aWriter);
+    final String sExpected = aWriter.getBinaries ().get ("org/example/Lazy.java").getAsString (aWriter.encoding ());
+
+    final LazyJavaSourceFile aFile = new LazyJavaSourceFile (new JCMWriter (cm), jClass);
+    assertEquals ("string:///org/example/Lazy.java", aFile.toUri ().toString ());
+    assertEquals (sExpected, aFile.getCharContent (true).toString ());
+  }
+
+  @Test
+  public void testCompileLazy () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Lazy");
+    jClass.method (JMod.PUBLIC | JMod.STATIC, int.class, "value").body ()._return (JExpr.lit (42));
+    cm._package ("org.example").annotate (Deprecated.class);
+    cm.resourceDir ("org/example").addResourceFile (JTextFile.createFully ("data.txt", StandardCharsets.UTF_8, "abc"));
+
+    final MemoryCodeWriter aWriter = new MemoryCodeWriter ();
+    final DynamicClassLoader aDCL = MemoryCodeWriter.dynCL ();
+    assertEquals (true, aWriter.compileLazy (new JCMWriter (cm), aDCL).isSuccess ());
+    assertEquals (42, aDCL.loadClass ("org.example.Lazy").getMethod ("value").invoke (null));
+    assertNotNull (aDCL.getResource ("org/example/data.txt"));
+    // Only the package-info and the resource are rendered
+    assertEquals (2, aWriter.getBinaries ().size ());
+    assertEquals (2, aWriter.getLastCompileStatistics ().getCompiledUnitCount ());
+
+    // Compile error
+    jClass.field (JMod.PUBLIC, int.class, "m_n", JExpr.lit ("x"));
+    assertNull (MemoryCodeWriter.compileLazy (cm));
+  }
+}
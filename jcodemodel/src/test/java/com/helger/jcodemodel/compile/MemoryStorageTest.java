@@ -0,0 +1,195 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.fmt.JTextFile;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+/**
+ * Test class for the {@link IMemoryStorage} implementations.
+ *
+ * @author Philip Helger
+ */
+public final class MemoryStorageTest
+{
+  private static void _write (final IMemoryStorage aStorage, final String sPath, final String sContent) throws Exception
+  {
+    try (final OutputStream aOS = aStorage.openOutputStream (sPath))
+    {
+      aOS.write (sContent.getBytes (StandardCharsets.UTF_8));
+    }
+  }
+
+  private static String _read (final IMemoryStorage aStorage, final String sPath) throws Exception
+  {
+    final ByteBuffer aBB = aStorage.getContent (sPath);
+    assertTrue (aBB.isReadOnly ());
+    assertEquals (0, aBB.position ());
+    return StandardCharsets.UTF_8.decode (aBB).toString ();
+  }
+
+  private static void _testStorage (final IMemoryStorage aStorage) throws Exception
+  {
+    try
+    {
+      assertFalse (aStorage.contains ("a/b.txt"));
+      assertNull (aStorage.getContent ("a/b.txt"));
+
+      _write (aStorage, "a/b.txt", "Hello");
+      _write (aStorage, "c.txt", "");
+      final StringBuilder aSB = new StringBuilder ();
+      for (int i = 0; i < 1000; ++i)
+        aSB.append ("line ").append (i).append ('\n');
+      _write (aStorage, "large.txt", aSB.toString ());
+      for (int i = 0; i < 100; ++i)
+        _write (aStorage, "f" + i, "content " + i);
+
+      // Append
+      _write (aStorage, "a/b.txt", " World");
+
+      assertTrue (aStorage.contains ("a/b.txt"));
+      assertEquals (103, aStorage.getAllPaths ().size ());
+      assertEquals ("Hello World", _read (aStorage, "a/b.txt"));
+      assertEquals ("", _read (aStorage, "c.txt"));
+      assertEquals (aSB.toString (), _read (aStorage, "large.txt"));
+      for (int i = 0; i < 100; ++i)
+        assertEquals ("content " + i, _read (aStorage, "f" + i));
+      // Reading twice works
+      assertEquals ("Hello World", _read (aStorage, "a/b.txt"));
+
+      // The returned set is a copy
+      final Set <String> aPaths = aStorage.getAllPaths ();
+      aPaths.clear ();
+      assertTrue (aStorage.contains ("c.txt"));
+    }
+    finally
+    {
+      aStorage.close ();
+    }
+    assertTrue (aStorage.getAllPaths ().isEmpty ());
+  }
+
+  @Test
+  public void testHeap () throws Exception
+  {
+    _testStorage (new HeapMemoryStorage ());
+  }
+
+  @Test
+  public void testDirect () throws Exception
+  {
+    _testStorage (new DirectMemoryStorage ());
+    // Small segments, so that large files get their own buffer
+    _testStorage (new DirectMemoryStorage (256));
+  }
+
+  @Test
+  public void testSpilling () throws Exception
+  {
+    final SpillingMemoryStorage aStorage = new SpillingMemoryStorage (100, null);
+    _testStorage (aStorage);
+    assertEquals (0, aStorage.getSpilledSize ());
+
+    // Everything in the heap
+    _testStorage (new SpillingMemoryStorage (SpillingMemoryStorage.DEFAULT_THRESHOLD, null));
+    // Everything spilled
+    _testStorage (new SpillingMemoryStorage (0, null));
+  }
+
+  private static JCodeModel _createModel () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    for (int i = 0; i < 20; ++i)
+    {
+      final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.Stored" + i);
+      if (i > 0)
+        jClass._extends (cm._getClass ("org.example.Stored" + (i - 1)));
+      jClass.method (JMod.PUBLIC, String.class, "name" + i).body ()._return (JExpr.lit ("n" + i));
+    }
+    cm.resourceDir ("org/example").addResourceFile (JTextFile.createFully ("res.txt", StandardCharsets.UTF_8, "resource"));
+    return cm;
+  }
+
+  private static void _testCompile (final IMemoryStorage aStorage) throws Exception
+  {
+    try (final IMemoryStorage aCloseMe = aStorage)
+    {
+      final MemoryCodeWriter aWriter = new MemoryCodeWriter (aStorage);
+      new JCMWriter (_createModel ()).build (aWriter);
+      assertEquals (21, aStorage.getAllPaths ().size ());
+      assertEquals (21, aWriter.getBinaries ().size ());
+
+      if (aStorage instanceof SpillingMemoryStorage)
+        assertTrue (((SpillingMemoryStorage) aStorage).hasSpilled ());
+
+      final DynamicClassLoader aDCL = aWriter.compile ();
+      assertNotNull (aDCL);
+      final Class <?> aClass = aDCL.loadClass ("org.example.Stored19");
+      assertEquals ("n0", aClass.getMethod ("name0").invoke (aClass.getConstructor ().newInstance ()));
+      assertNotNull (aDCL.getResource ("org/example/res.txt"));
+    }
+  }
+
+  @Test
+  public void testCompile () throws Exception
+  {
+    _testCompile (new HeapMemoryStorage ());
+    _testCompile (new DirectMemoryStorage ());
+    _testCompile (new SpillingMemoryStorage (1024, null));
+  }
+}
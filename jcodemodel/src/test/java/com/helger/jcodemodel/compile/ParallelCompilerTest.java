@@ -0,0 +1,195 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JMod;
+
+/**
+ * Test class for class {@link ParallelCompiler}.
+ *
+ * @author Philip Helger
+ */
+public final class ParallelCompilerTest
+{
+  @Test
+  public void testComponents ()
+  {
+    // 0 -> 1 -> 2 -> 1, 3 -> 0, 4 alone
+    final int [] [] aGraph = { { 1 }, { 2 }, { 1 }, { 0 }, {} };
+    final int [] aComponents = ParallelCompiler.getComponents (aGraph);
+    assertEquals (aComponents[1], aComponents[2]);
+    assertNotEquals (aComponents[0], aComponents[1]);
+    // Dependencies have a lower component index
+    assertTrue (aComponents[1] < aComponents[0]);
+    assertTrue (aComponents[0] < aComponents[3]);
+
+    final List <List <List <Integer>>> aRounds = _createCompiler (2, 1).getRounds (aGraph);
+    // {1,2} and {4}; then {0} and {3} in one task
+    assertEquals (2, aRounds.size ());
+    assertEquals (2, aRounds.get (0).size ());
+    assertEquals (1, aRounds.get (1).size ());
+    assertEquals (List.of (Integer.valueOf (0), Integer.valueOf (3)), aRounds.get (1).get (0));
+  }
+
+  @NonNull
+  private static ParallelCompiler _createCompiler (final int nThreads, final int nMinUnitsPerPartition)
+  {
+    return new ParallelCompiler (nThreads, nMinUnitsPerPartition, new ClassPathIndex (), new CommonsArrayList <> (), x -> {}, null);
+  }
+
+  @Test
+  public void testRounds ()
+  {
+    // 4 independent nodes, then 1 depending on them, 4 depending on that one, 1 depending on them
+    final int [] [] aGraph = { {}, {}, {}, {}, { 0, 1, 2, 3 }, { 4 }, { 4 }, { 4 }, { 4 }, { 5, 6, 7, 8 } };
+    List <List <List <Integer>>> aRounds = _createCompiler (2, 1).getRounds (aGraph);
+    assertEquals (4, aRounds.size ());
+    assertEquals (2, aRounds.get (0).size ());
+    assertEquals (1, aRounds.get (1).size ());
+
+    // Too many rounds for the number of sources
+    aRounds = _createCompiler (2, 2).getRounds (aGraph);
+    assertEquals (1, aRounds.size ());
+    assertEquals (1, aRounds.get (0).size ());
+    assertEquals (10, aRounds.get (0).get (0).size ());
+
+    // A deep chain is compiled in one task
+    final int [] [] aChain = new int [20] [];
+    aChain[0] = new int [0];
+    for (int i = 1; i < aChain.length; ++i)
+      aChain[i] = new int [] { i - 1 };
+    aRounds = _createCompiler (4, 1).getRounds (aChain);
+    assertEquals (1, aRounds.size ());
+    assertEquals (1, aRounds.get (0).size ());
+    assertEquals (20, aRounds.get (0).get (0).size ());
+  }
+
+  @Test
+  public void testSessionPerThread () throws Exception
+  {
+    // 4 independent chains of 3 classes each
+    final Map <String, String> aSources = new HashMap <> ();
+    for (int nChain = 0; nChain < 4; ++nChain)
+      for (int i = 0; i < 3; ++i)
+      {
+        final String sName = "C" + nChain + "L" + i;
+        final String sField = i == 0 ? "" : "C" + nChain + "L" + (i - 1) + " m_aPrev; ";
+        aSources.put ("org/example/" + sName + ".java", "package org.example; public class " + sName + " { " + sField + "}");
+      }
+
+    final ParallelCompiler aCompiler = _createCompiler (2, 2);
+    final DynamicClassLoader aDCL = new DynamicClassLoader (ParallelCompilerTest.class.getClassLoader ());
+    assertTrue (aCompiler.compile (aSources, aDCL).isSuccess ());
+    assertNotNull (aDCL.loadClass ("org.example.C3L2"));
+    assertEquals (3, aCompiler.getRoundCount ());
+    assertEquals (6, aCompiler.getTaskCount ());
+    // Not one session per task
+    assertTrue (aCompiler.getSessionCount () >= 1);
+    assertTrue (aCompiler.getSessionCount () <= 2);
+  }
+
+  @Test
+  public void testCompile () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    // 10 independent chains of 4 classes each
+    for (int nChain = 0; nChain < 10; ++nChain)
+    {
+      JDefinedClass jPrev = null;
+      for (int i = 0; i < 4; ++i)
+      {
+        final JDefinedClass jClass = cm._class (JMod.PUBLIC, "org.example.c" + nChain + ".Chain" + nChain + "Link" + i);
+        jClass.method (JMod.PUBLIC | JMod.STATIC, int.class, "value")
+              .body ()
+              ._return (jPrev == null ? JExpr.lit (nChain) : jPrev.staticInvoke ("value").plus (JExpr.lit (1)));
+        jClass._class (JMod.PUBLIC | JMod.STATIC, "Nested");
+        jPrev = jClass;
+      }
+    }
+
+    final List <MemoryPoolMXBean> aPools = ManagementFactory.getMemoryPoolMXBeans ();
+    final long [] aPeaks = new long [aPools.size ()];
+    for (int i = 0; i < aPeaks.length; ++i)
+      aPeaks[i] = aPools.get (i).getPeakUsage ().getUsed ();
+
+    final MemoryCodeWriter aWriter = MemoryCodeWriter.from (cm).setParallelCompilation (4, 5);
+    final DynamicClassLoader aDCL = aWriter.compile ();
+
+    // The JVM wide peak usage is never reset
+    for (int i = 0; i < aPeaks.length; ++i)
+      assertTrue (aPools.get (i).getPeakUsage ().getUsed () >= aPeaks[i]);
+    assertNotNull (aDCL);
+    assertEquals (12, aDCL.loadClass ("org.example.c9.Chain9Link3").getMethod ("value").invoke (null));
+    assertNotNull (aDCL.loadClass ("org.example.c9.Chain9Link3$Nested"));
+
+    final CompileStatistics aStats = aWriter.getLastCompileStatistics ();
+    assertNotNull (aStats);
+    assertEquals (40, aStats.getSourceCount ());
+    assertEquals (40, aStats.getCompiledUnitCount ());
+    assertEquals (4, aStats.getRoundCount ());
+    // 10 classes per round in 2 partitions
+    assertEquals (8, aStats.getTaskCount ());
+    assertTrue (aStats.getPeakHeapBytes () >= 0);
+
+    // Compilation errors are reported
+    cm._getClass ("org.example.c0.Chain0Link0").field (JMod.PUBLIC, int.class, "m_n", JExpr.lit ("x"));
+    assertNull (MemoryCodeWriter.from (cm).setParallelCompilation (4, 5).compile ());
+  }
+}
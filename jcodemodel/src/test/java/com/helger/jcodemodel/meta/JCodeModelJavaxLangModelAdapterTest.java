@@ -0,0 +1,294 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.meta;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.AbstractJType;
+import com.helger.jcodemodel.JAnnotationUse;
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JMethod;
+import com.helger.jcodemodel.compile.SourceJavaFile;
+import com.sun.source.util.JavacTask;
+
+/**
+ * Test class for class {@link JCodeModelJavaxLangModelAdapter}.
+ *
+ * @author Philip Helger
+ */
+public final class JCodeModelJavaxLangModelAdapterTest
+{
+  private static final String SOURCE = "package org.example;\n" +
+                                       "public class Sample<T extends Number> extends java.util.ArrayList<T> implements Runnable {\n" +
+                                       "  public void run () {}\n" +
+                                       "  public <X> X convert (X x, String... s) throws java.io.IOException { return x; }\n" +
+                                       "  public static class Inner {\n" +
+                                       "    public int foo () { return 0; }\n" +
+                                       "  }\n" +
+                                       "}\n";
+
+  private static final String ANNOTATED_SOURCE = "package org.example;\n" +
+                                                 "public class Annotated {\n" +
+                                                 "  @Deprecated(since = \"1\") @SuppressWarnings({\"a\", \"b\"}) public void a () {}\n" +
+                                                 "  @Deprecated(since = \"1\") @SuppressWarnings({\"a\", \"b\"}) public void b () {}\n" +
+                                                 "  @Deprecated(since = \"2\") public void c (@Deprecated int x) {}\n" +
+                                                 "}\n";
+
+  private static JavacTask _createTask () throws Exception
+  {
+    return _createTask ("org/example/Sample.java", SOURCE);
+  }
+
+  private static JavacTask _createTask (final String sFilename, final String sSource) throws Exception
+  {
+    final JavaCompiler aCompiler = ToolProvider.getSystemJavaCompiler ();
+    final JavacTask aTask = (JavacTask) aCompiler.getTask (null,
+                                                           null,
+                                                           null,
+                                                           List.of ("-proc:none"),
+                                                           null,
+                                                           List.of (new SourceJavaFile (sFilename, sSource)));
+    aTask.analyze ();
+    return aTask;
+  }
+
+  private static void _assertMembers (final JDefinedClass aClass)
+  {
+    assertEquals (2, aClass.methods ().size ());
+    JMethod aConvert = null;
+    for (final JMethod aMethod : aClass.methods ())
+      if (aMethod.name ().equals ("convert"))
+        aConvert = aMethod;
+    assertNotNull (aConvert);
+    assertEquals (1, aConvert.params ().size ());
+    assertNotNull (aConvert.varParam ());
+    assertEquals (1, aConvert.getThrows ().size ());
+  }
+
+  @Test
+  public void testEager () throws Exception
+  {
+    final JavacTask aTask = _createTask ();
+    final Elements aElements = aTask.getElements ();
+    final TypeElement aElement = aElements.getTypeElement ("org.example.Sample");
+
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass aClass = cm.ref (aElement, aElements);
+    assertFalse (aClass.hasPendingLazyMembers ());
+    assertTrue (aClass.isHidden ());
+    _assertMembers (aClass);
+  }
+
+  @Test
+  public void testLazy () throws Exception
+  {
+    final JavacTask aTask = _createTask ();
+    final Elements aElements = aTask.getElements ();
+    final TypeElement aElement = aElements.getTypeElement ("org.example.Sample");
+
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass aClass = cm.ref (aElement, aElements, true);
+    assertTrue (aClass.hasPendingLazyMembers ());
+
+    // The declaration is available
+    assertEquals ("java.util.ArrayList<T>", aClass._extends ().fullName ());
+    assertEquals (1, aClass.typeParams ().length);
+    final JDefinedClass aInner = aClass.classes ().iterator ().next ();
+    assertEquals ("org.example.Sample.Inner", aInner.fullName ());
+    assertTrue (aInner.hasPendingLazyMembers ());
+
+    // First access populates the members
+    _assertMembers (aClass);
+    assertFalse (aClass.hasPendingLazyMembers ());
+    assertEquals (1, aInner.methods ().size ());
+    assertFalse (aInner.hasPendingLazyMembers ());
+  }
+
+  @Test
+  public void testLazyErrorType () throws Exception
+  {
+    // The return type of the second method can't be resolved
+    final String sSource = "package org.example;\n" +
+                           "public class Broken {\n" +
+                           "  public void ok () {}\n" +
+                           "  public Missing broken () { return null; }\n" +
+                           "}\n";
+    final JavacTask aTask = _createTask ("org/example/Broken.java", sSource);
+    final Elements aElements = aTask.getElements ();
+    final TypeElement aElement = aElements.getTypeElement ("org.example.Broken");
+
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass aClass = cm.ref (aElement, aElements, true);
+    assertTrue (aClass.hasPendingLazyMembers ());
+
+    // Every access fails, without leaving the methods filled so far behind
+    for (int i = 0; i < 2; ++i)
+    {
+      try
+      {
+        aClass.methods ();
+        fail ();
+      }
+      catch (final RuntimeErrorTypeFound ex)
+      {
+        assertNotNull (ex.getCause ());
+      }
+      assertTrue (aClass.hasPendingLazyMembers ());
+    }
+
+    // Removing the initializer leaves the class without the methods
+    aClass.setLazyMemberInitializer (null);
+    assertEquals (0, aClass.methods ().size ());
+  }
+
+  @Test
+  public void testTypeCache () throws Exception
+  {
+    final JavacTask aTask = _createTask ();
+    final Elements aElements = aTask.getElements ();
+    final TypeElement aElement = aElements.getTypeElement ("org.example.Sample");
+    final TypeElement aInnerElement = aElements.getTypeElement ("org.example.Sample.Inner");
+
+    final JCodeModel cm = new JCodeModel ();
+    final TypeConversionCache aCache = new TypeConversionCache ();
+    final DecidedErrorTypesModelsAdapter aAdapter = new DecidedErrorTypesModelsAdapter (cm,
+                                                                                        aElements,
+                                                                                        new ErrorTypePolicy (ErrorTypePolicy.EAction.THROW_EXCEPTION,
+                                                                                                             true),
+                                                                                        false,
+                                                                                        aCache);
+    final JDefinedClass aClass = aAdapter.getClass (aElement);
+
+    // Inner classes are found via the index
+    final JDefinedClass aInner = aAdapter.getClass (aInnerElement);
+    assertSame (aClass, aInner.outer ());
+    assertSame (aInner, aCache.getInnerClass ("org.example.Sample.Inner"));
+    assertSame (aInner, aAdapter.ref (aInnerElement));
+
+    // Types not depending on the environment were cached while filling the class
+    final TypeEnvironment aEnv = new TypeEnvironment ("org.example");
+    final int nCount = aCache.getCachedTypeCount ();
+    for (final ExecutableElement aMethod : ElementFilter.methodsIn (aElement.getEnclosedElements ()))
+      if (aMethod.getSimpleName ().contentEquals ("convert"))
+      {
+        final AbstractJType aVarArgs = aAdapter.toJType (aMethod.getParameters ().get (1).asType (), aEnv);
+        assertSame (aVarArgs, aAdapter.toJType (aMethod.getParameters ().get (1).asType (), aEnv));
+        assertEquals ("java.lang.String[]", aVarArgs.fullName ());
+      }
+    assertTrue (nCount > 0);
+    assertEquals (nCount, aCache.getCachedTypeCount ());
+
+    // Type variables depend on the environment
+    assertFalse (TypeConversionCache.isCacheable (aElement.getTypeParameters ().get (0).asType ()));
+    assertFalse (TypeConversionCache.isCacheable (aElement.getSuperclass ()));
+    assertTrue (TypeConversionCache.isCacheable (aInnerElement.asType ()));
+  }
+
+  @Test
+  public void testAnnotationCache () throws Exception
+  {
+    final JavacTask aTask = _createTask ("org/example/Annotated.java", ANNOTATED_SOURCE);
+    final Elements aElements = aTask.getElements ();
+    final TypeElement aElement = aElements.getTypeElement ("org.example.Annotated");
+
+    final JCodeModel cm = new JCodeModel ();
+    final TypeConversionCache aCache = new TypeConversionCache ();
+    final DecidedErrorTypesModelsAdapter aAdapter = new DecidedErrorTypesModelsAdapter (cm,
+                                                                                        aElements,
+                                                                                        new ErrorTypePolicy (ErrorTypePolicy.EAction.THROW_EXCEPTION,
+                                                                                                             true),
+                                                                                        false,
+                                                                                        aCache);
+    final JDefinedClass aClass = aAdapter.getClass (aElement);
+
+    // Deprecated (since=1), SuppressWarnings, Deprecated (since=2) and Deprecated ()
+    assertEquals (4, aCache.getAnnotationCache ().size ());
+    for (final JMethod aMethod : aClass.methods ())
+    {
+      final JAnnotationUse aDeprecated = aMethod.annotations ().iterator ().next ();
+      assertEquals ("java.lang.Deprecated", aDeprecated.getAnnotationClass ().fullName ());
+      if (aMethod.name ().equals ("c"))
+      {
+        assertEquals (1, aMethod.annotations ().size ());
+        assertEquals (1, aMethod.params ().get (0).annotations ().size ());
+      }
+      else
+      {
+        assertEquals (2, aMethod.annotations ().size ());
+        final JAnnotationUse aSuppress = aMethod.annotations ().stream ().skip (1).findFirst ().get ();
+        assertArrayEquals (new String [] { "a", "b" }, aSuppress.getParam ("value", String [].class));
+      }
+    }
+
+    // Enum classes are resolved by binary name
+    assertSame (RetentionPolicy.RUNTIME,
+                AnnotationCache.getEnumConstant ("java.lang.annotation.RetentionPolicy", "RUNTIME"));
+    assertSame (Thread.State.NEW, AnnotationCache.getEnumConstant ("java.lang.Thread$State", "NEW"));
+    try
+    {
+      AnnotationCache.getEnumConstant ("org.example.DoesNotExist", "A");
+      fail ();
+    }
+    catch (final ClassNotFoundException ex)
+    {
+      // expected
+    }
+  }
+}
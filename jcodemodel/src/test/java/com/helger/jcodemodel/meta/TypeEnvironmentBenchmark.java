@@ -0,0 +1,168 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.meta;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.helger.jcodemodel.AbstractJType;
+import com.helger.jcodemodel.JCodeModel;
+
+/**
+ * Simple benchmark for {@link TypeEnvironment} against the previous implementation, that used a
+ * {@link TreeMap} per scope. The workload mirrors a generic-heavy API: per class a scope with two
+ * type variables, per method an enclosed scope (with one type variable for every third method) and
+ * a few lookups of class and method type variables. Not a unit test - run manually.
+ *
+ * @author Philip Helger
+ */
+public final class TypeEnvironmentBenchmark
+{
+  private static final int CLASSES = 20_000;
+  private static final int METHODS_PER_CLASS = 20;
+  private static final int RUNS = 5;
+  private static final String [] CLASS_VARS = { "K", "V" };
+  private static final String [] LOOKUPS = { "K", "V", "X", "V", "K" };
+
+  /**
+   * The implementation before version 4.3.1
+   */
+  private static final class TreeMapEnvironment
+  {
+    private final Map <String, AbstractJType> m_aMap = new TreeMap <> ();
+    private final TreeMapEnvironment m_aParent;
+
+    TreeMapEnvironment (final TreeMapEnvironment aParent)
+    {
+      m_aParent = aParent;
+    }
+
+    TreeMapEnvironment enclosed ()
+    {
+      return new TreeMapEnvironment (this);
+    }
+
+    AbstractJType get (final String sName)
+    {
+      final AbstractJType ret = m_aMap.get (sName);
+      if (ret != null || m_aParent == null)
+        return ret;
+      return m_aParent.get (sName);
+    }
+
+    void put (final String sName, final AbstractJType aType)
+    {
+      m_aMap.put (sName, aType);
+    }
+  }
+
+  private TypeEnvironmentBenchmark ()
+  {}
+
+  private static long _runTreeMap (final AbstractJType aType)
+  {
+    long nFound = 0;
+    for (int i = 0; i < CLASSES; ++i)
+    {
+      final TreeMapEnvironment aClassEnv = new TreeMapEnvironment (new TreeMapEnvironment (null));
+      for (final String sVar : CLASS_VARS)
+        aClassEnv.put (sVar, aType);
+      for (int j = 0; j < METHODS_PER_CLASS; ++j)
+      {
+        final TreeMapEnvironment aMethodEnv = aClassEnv.enclosed ();
+        if (j % 3 == 0)
+          aMethodEnv.put ("X", aType);
+        for (final String sLookup : LOOKUPS)
+          if (aMethodEnv.get (sLookup) != null)
+            nFound++;
+      }
+    }
+    return nFound;
+  }
+
+  private static long _runCurrent (final AbstractJType aType)
+  {
+    long nFound = 0;
+    for (int i = 0; i < CLASSES; ++i)
+    {
+      final TypeEnvironment aClassEnv = new TypeEnvironment ("org.example").enclosed ();
+      for (final String sVar : CLASS_VARS)
+        aClassEnv.put (sVar, aType);
+      for (int j = 0; j < METHODS_PER_CLASS; ++j)
+      {
+        final TypeEnvironment aMethodEnv = aClassEnv.enclosed ();
+        if (j % 3 == 0)
+          aMethodEnv.put ("X", aType);
+        for (final String sLookup : LOOKUPS)
+          if (aMethodEnv.get (sLookup) != null)
+            nFound++;
+      }
+    }
+    return nFound;
+  }
+
+  public static void main (final String... args)
+  {
+    final AbstractJType aType = new JCodeModel ().ref (Object.class);
+
+    // Warm up
+    for (int i = 0; i < 5; ++i)
+    {
+      _runTreeMap (aType);
+      _runCurrent (aType);
+    }
+
+    for (int i = 0; i < RUNS; ++i)
+    {
+      long nStart = System.nanoTime ();
+      final long nTreeMapFound = _runTreeMap (aType);
+      final long nTreeMap = (System.nanoTime () - nStart) / 1_000;
+
+      nStart = System.nanoTime ();
+      final long nCurrentFound = _runCurrent (aType);
+      final long nCurrent = (System.nanoTime () - nStart) / 1_000;
+
+      if (nTreeMapFound != nCurrentFound)
+        throw new IllegalStateException ("Different lookup results");
+      System.out.println ("Run " + i + ": TreeMap " + nTreeMap + " us, current " + nCurrent + " us");
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.AbstractJType;
+import com.helger.jcodemodel.JCodeModel;
+
+/**
+ * Test class for class {@link TypeEnvironment}.
+ *
+ * @author Philip Helger
+ */
+public final class TypeEnvironmentTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final AbstractJType aString = cm.ref (String.class);
+    final AbstractJType aInteger = cm.ref (Integer.class);
+
+    final TypeEnvironment aRoot = new TypeEnvironment ("org.example");
+    assertNull (aRoot.get ("T"));
+    aRoot.put ("T", aString);
+    assertSame (aString, aRoot.get ("T"));
+
+    // Enclosed scopes see the parent and may shadow it
+    final TypeEnvironment aEmpty = aRoot.enclosed ();
+    final TypeEnvironment aInner = aEmpty.enclosed ();
+    assertSame (aString, aInner.get ("T"));
+    aInner.put ("T", aInteger);
+    assertSame (aInteger, aInner.get ("T"));
+    assertSame (aString, aEmpty.get ("T"));
+    assertEquals ("org.example", aInner.packageName ());
+
+    // Variables added to the parent later are visible as well
+    aEmpty.put ("U", aInteger);
+    assertSame (aInteger, aInner.get ("U"));
+    assertNull (aRoot.get ("U"));
+
+    // Replace and grow
+    aInner.put ("T", aString);
+    assertSame (aString, aInner.get ("T"));
+    for (int i = 0; i < 20; ++i)
+      aInner.put ("V" + i, i % 2 == 0 ? aString : aInteger);
+    for (int i = 0; i < 20; ++i)
+      assertSame (i % 2 == 0 ? aString : aInteger, aInner.get ("V" + i));
+    assertSame (aString, aInner.get ("T"));
+  }
+}
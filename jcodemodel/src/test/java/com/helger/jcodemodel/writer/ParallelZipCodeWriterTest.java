@@ -0,0 +1,162 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.compile.MemoryCodeWriter;
+import com.helger.jcodemodel.fmt.JTextFile;
+
+/**
+ * Test class for class {@link ParallelZipCodeWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class ParallelZipCodeWriterTest
+{
+  private static JCodeModel _createModel () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    for (int i = 0; i < 100; ++i)
+    {
+      final JDefinedClass c = cm._class (JMod.PUBLIC, "org.example.p" + (i % 7) + ".Class" + i);
+      c.field (JMod.PRIVATE, cm.ref (String.class), "m_sField" + i);
+    }
+    cm._class (JMod.PUBLIC, "Unpackaged");
+    cm.resourceDir ("org/example").addResourceFile (JTextFile.createFully ("ä.txt", StandardCharsets.UTF_8, "abc"));
+    return cm;
+  }
+
+  private static Map <String, String> _getExpected (final JCodeModel cm) throws IOException
+  {
+    final MemoryCodeWriter aMem = new MemoryCodeWriter ();
+    new JCMWriter (cm).build (aMem);
+    final Map <String, String> ret = new HashMap <> ();
+    for (final Map.Entry <String, NonBlockingByteArrayOutputStream> e : aMem.getBinaries ().entrySet ())
+    {
+      // MemoryCodeWriter always adds a slash
+      final String sName = e.getKey ().startsWith ("/") ? e.getKey ().substring (1) : e.getKey ();
+      ret.put (sName, e.getValue ().getAsString (StandardCharsets.UTF_8));
+    }
+    return ret;
+  }
+
+  private static void _check (final int nMethod, final int nLevel) throws Exception
+  {
+    final JCodeModel cm = _createModel ();
+    final Map <String, String> aExpected = _getExpected (cm);
+
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    new JCMWriter (cm).setCharset (null)
+                      .build (new ParallelZipCodeWriter (aBAOS, JCMWriter.DEFAULT_NEW_LINE, nMethod, nLevel, null));
+    final byte [] aZip = aBAOS.toByteArray ();
+
+    // Sequential read via the local headers
+    final Map <String, String> aActual = new HashMap <> ();
+    try (final ZipInputStream aZIS = new ZipInputStream (new NonBlockingByteArrayInputStream (aZip),
+                                                         StandardCharsets.UTF_8))
+    {
+      ZipEntry aEntry;
+      while ((aEntry = aZIS.getNextEntry ()) != null)
+      {
+        assertEquals (nMethod, aEntry.getMethod ());
+        aActual.put (aEntry.getName (), new String (aZIS.readAllBytes (), StandardCharsets.UTF_8));
+      }
+    }
+    assertEquals (aExpected, aActual);
+
+    // Random access via the central directory
+    final Path aFile = Files.createTempFile ("jcm", ".zip");
+    try
+    {
+      Files.write (aFile, aZip);
+      try (final ZipFile aZF = new ZipFile (aFile.toFile (), StandardCharsets.UTF_8))
+      {
+        assertEquals (aExpected.size (), aZF.size ());
+        final Enumeration <? extends ZipEntry> aEntries = aZF.entries ();
+        while (aEntries.hasMoreElements ())
+        {
+          final ZipEntry aEntry = aEntries.nextElement ();
+          assertNotNull (aExpected.get (aEntry.getName ()));
+          assertEquals (aExpected.get (aEntry.getName ()),
+                        new String (aZF.getInputStream (aEntry).readAllBytes (), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    finally
+    {
+      Files.delete (aFile);
+    }
+  }
+
+  @Test
+  public void testDeflated () throws Exception
+  {
+    _check (ZipEntry.DEFLATED, Deflater.DEFAULT_COMPRESSION);
+    _check (ZipEntry.DEFLATED, Deflater.BEST_SPEED);
+  }
+
+  @Test
+  public void testStored () throws Exception
+  {
+    _check (ZipEntry.STORED, Deflater.DEFAULT_COMPRESSION);
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JFieldVar;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.fmt.JTextFile;
+
+/**
+ * Test class for class {@link PathCodeWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class PathCodeWriterTest
+{
+  private static void _deleteRecursive (final Path aDir) throws IOException
+  {
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      aStream.sorted (Comparator.reverseOrder ()).forEach (x -> x.toFile ().delete ());
+    }
+  }
+
+  @Test
+  public void testBuildDefaultFileSystem () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    final JDefinedClass c1 = cm._class (JMod.PUBLIC, "org.example.Foo");
+    final JFieldVar f1 = c1.field (JMod.PRIVATE, cm.INT, "m_nValue");
+    cm._class (JMod.PUBLIC, "org.example.Bar");
+    cm.resourceDir ("org/example").addResourceFile (JTextFile.createFully ("a.txt", StandardCharsets.UTF_8, "abc"));
+
+    final Path aDir = Files.createTempDirectory ("jcm-path");
+    try
+    {
+      new JCMWriter (cm).build (aDir, null);
+      final Path aFoo = aDir.resolve ("org/example/Foo.java");
+      assertTrue (Files.isRegularFile (aFoo));
+      assertTrue (Files.readString (aFoo).contains ("m_nValue"));
+      assertTrue (Files.isRegularFile (aDir.resolve ("org/example/Bar.java")));
+      assertEquals ("abc", Files.readString (aDir.resolve ("org/example/a.txt")));
+
+      // Writing again truncates the existing files
+      c1.removeField (f1);
+      new JCMWriter (cm).build (aDir, null);
+      assertTrue (!Files.readString (aFoo).contains ("m_nValue"));
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+
+  @Test
+  public void testLargeContent () throws Exception
+  {
+    final byte [] aData = new byte [100_000];
+    for (int i = 0; i < aData.length; ++i)
+      aData[i] = (byte) i;
+
+    final Path aDir = Files.createTempDirectory ("jcm-path");
+    try
+    {
+      try (final PathCodeWriter aWriter = new PathCodeWriter (aDir, false, null, "\n", 16))
+      {
+        try (final OutputStream aOS = aWriter.openBinary ("a/b", "data.bin"))
+        {
+          aOS.write (aData, 0, 10);
+          aOS.write (aData[10]);
+          aOS.write (aData, 11, aData.length - 11);
+        }
+      }
+      final byte [] aRead = Files.readAllBytes (aDir.resolve ("a/b/data.bin"));
+      assertEquals (aData.length, aRead.length);
+      for (int i = 0; i < aData.length; ++i)
+        assertEquals (aData[i], aRead[i]);
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+
+  @Test
+  public void testBuildZipFileSystem () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    cm._class (JMod.PUBLIC, "org.example.Foo");
+
+    final Path aDir = Files.createTempDirectory ("jcm-path");
+    try
+    {
+      final Path aZip = aDir.resolve ("sources.zip");
+      try (final FileSystem aZipFS = FileSystems.newFileSystem (aZip, Map.of ("create", "true")))
+      {
+        new JCMWriter (cm).build (aZipFS.getPath ("/"), null);
+      }
+      try (final FileSystem aZipFS = FileSystems.newFileSystem (aZip))
+      {
+        assertTrue (Files.readString (aZipFS.getPath ("/org/example/Foo.java")).contains ("class Foo"));
+      }
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+
+  @Test
+  public void testCreateDirectoryRetriedAfterFailure () throws Exception
+  {
+    final Path aDir = Files.createTempDirectory ("jcm-path");
+    try
+    {
+      // A file blocks the creation of the package directory
+      final Path aBlocker = Files.createFile (aDir.resolve ("a"));
+      try (final PathCodeWriter aWriter = new PathCodeWriter (aDir, false, null, "\n", 16))
+      {
+        try
+        {
+          aWriter.openBinary ("a/b", "data.bin").close ();
+          fail ();
+        }
+        catch (final IOException ex)
+        {
+          // expected
+        }
+
+        Files.delete (aBlocker);
+        try (final OutputStream aOS = aWriter.openBinary ("a/b", "data.bin"))
+        {
+          aOS.write (1);
+        }
+      }
+      assertEquals (1, Files.size (aDir.resolve ("a/b/data.bin")));
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 1997-2010 Oracle and/or its affiliates. All rights reserved.
+ * Portions Copyright 2013-2026 Philip Helger + contributors
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.helger.jcodemodel.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.compile.MemoryCodeWriter;
+import com.helger.jcodemodel.fmt.JTextFile;
+
+/**
+ * Test class for class {@link PipelinedCodeWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class PipelinedCodeWriterTest
+{
+  private static JCodeModel _createModel () throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    for (int i = 0; i < 50; ++i)
+    {
+      final JDefinedClass c = cm._class (JMod.PUBLIC, "org.example.p" + (i % 5) + ".Class" + i);
+      c.field (JMod.PRIVATE, cm.ref (String.class), "m_sField" + i);
+    }
+    cm.resourceDir ("org/example").addResourceFile (JTextFile.createFully ("a.txt", StandardCharsets.UTF_8, "abc"));
+    return cm;
+  }
+
+  @Test
+  public void testSameContent () throws Exception
+  {
+    final JCodeModel cm = _createModel ();
+
+    final MemoryCodeWriter aDirect = new MemoryCodeWriter ();
+    new JCMWriter (cm).build (aDirect);
+
+    final MemoryCodeWriter aTarget = new MemoryCodeWriter ();
+    // Tiny budget to enforce backpressure
+    new JCMWriter (cm).build (new PipelinedCodeWriter (aTarget, 100));
+
+    final Map <String, NonBlockingByteArrayOutputStream> aExpected = aDirect.getBinaries ();
+    final Map <String, NonBlockingByteArrayOutputStream> aActual = aTarget.getBinaries ();
+    assertEquals (aExpected.keySet (), aActual.keySet ());
+    for (final Map.Entry <String, NonBlockingByteArrayOutputStream> e : aExpected.entrySet ())
+      assertEquals (e.getValue ().getAsString (StandardCharsets.UTF_8),
+                    aActual.get (e.getKey ()).getAsString (StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testErrorPropagation () throws Exception
+  {
+    final JCodeModel cm = _createModel ();
+    final AbstractCodeWriter aFailing = new MemoryCodeWriter ()
+    {
+      @Override
+      public OutputStream openBinary (final String sDirName, final String sFilename) throws IOException
+      {
+        throw new IOException ("Disk full");
+      }
+    };
+
+    try
+    {
+      new JCMWriter (cm).build (new PipelinedCodeWriter (aFailing));
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+      assertTrue (ex.getCause () != null);
+      assertEquals ("Disk full", ex.getCause ().getMessage ());
+    }
+  }
+}
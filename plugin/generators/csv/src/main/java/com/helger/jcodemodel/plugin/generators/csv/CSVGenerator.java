@@ -15,8 +15,12 @@
 package com.helger.jcodemodel.plugin.generators.csv;
 
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -36,19 +40,45 @@ import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecor
 @JCMGen
 public class CSVGenerator extends AbstractFlatStructureGenerator
 {
+  public static final String FIELD_SEP_PARAM = "field_sep";
+  public static final String QUOTE_PARAM = "quote";
+  public static final String CHARSET_PARAM = "charset";
+  public static final String PARALLEL_PARAM = "parallel";
+
   private String fldSep = ",";
+  private char quote = CSVLineTokenizer.NO_QUOTE;
+  private Charset charset = StandardCharsets.UTF_8;
+  private boolean parallel = true;
+  private CSVLineTokenizer tokenizer = new CSVLineTokenizer (fldSep, quote);
 
   @Override
   public void configure (@NonNull final Map <String, String> params)
   {
-    fldSep = params.getOrDefault ("field_sep", fldSep);
+    super.configure (params);
+    fldSep = params.getOrDefault (FIELD_SEP_PARAM, fldSep);
+    final String sQuote = params.get (QUOTE_PARAM);
+    if (sQuote != null)
+      quote = sQuote.isEmpty () ? CSVLineTokenizer.NO_QUOTE : sQuote.charAt (0);
+    final String sCharset = params.get (CHARSET_PARAM);
+    if (StringHelper.isNotEmpty (sCharset))
+      charset = Charset.forName (sCharset.trim ());
+    final String sParallel = params.get (PARALLEL_PARAM);
+    if (StringHelper.isNotEmpty (sParallel))
+      parallel = Boolean.parseBoolean (sParallel.trim ());
+    tokenizer = new CSVLineTokenizer (fldSep, quote);
   }
 
+  /**
+   * The lines of a file source are converted in parallel, unless the "parallel" param is false ;
+   * the records are still consumed in the order of the lines.
+   */
   @Override
   protected Stream <IFlatStructRecord> loadSource (final InputStream source)
   {
-    // What charset to use?
-    return new BufferedReader (new InputStreamReader (source)).lines ().map (this::convertLine).filter (r -> r != null);
+    Stream <String> lines = new BufferedReader (new InputStreamReader (source, charset)).lines ();
+    if (parallel && source instanceof FileInputStream)
+      lines = lines.parallel ();
+    return lines.map (this::convertLine).filter (r -> r != null);
   }
 
   @Nullable
@@ -58,41 +88,41 @@ public class CSVGenerator extends AbstractFlatStructureGenerator
     {
       return null;
     }
-    final String [] spl = line.trim ().split (fldSep);
-    final String className = spl[0].trim ();
+    final List <String> spl = tokenizer.tokenize (line);
+    if (spl.isEmpty ())
+      return null;
+    final String className = spl.get (0);
     if (StringHelper.isEmpty (className))
       return null;
 
     // field name for fields. Absent for non-fields
 
     String fieldName = null;
-    if (spl.length > 1)
+    if (spl.size () > 1)
     {
-      fieldName = spl[1].trim ();
+      fieldName = spl.get (1);
     }
 
     // find the type specified, if any, and array depth
 
     Encapsulated ec = null;
-    if (spl.length > 2)
+    if (spl.size () > 2)
     {
-      ec = Encapsulated.parse (spl[2]);
+      ec = Encapsulated.parse (spl.get (2));
     }
 
     final FieldOptions options = new FieldOptions ();
-    if (spl.length >= 4)
+    for (int i = 3; i < spl.size (); i++)
     {
-      for (int i = 3; i < spl.length; i++)
-      {
-        applyToFieldOptions (spl[i], options);
-      }
+      applyToFieldOptions (spl.get (i), options);
     }
 
     // no field name specified : class or package definition
     if (StringHelper.isEmpty (fieldName))
     {
-      if (className.contains (" "))
-        return new PackageCreation (className.replaceAll (".* ", ""), options);
+      final int idx = className.lastIndexOf (' ');
+      if (idx >= 0)
+        return new PackageCreation (className.substring (idx + 1), options);
 
       return new ClassCreation (className, ec, options);
     }
@@ -0,0 +1,121 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.generators.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Split a line of the flat structure CSV format into trimmed fields. A single char separator is
+ * searched directly; a longer separator is used as a regular expression, compiled once. With a
+ * single char separator, a field can be quoted to contain the separator, a quote inside is then
+ * doubled. Trailing empty fields are removed, as {@link String#split(String)} does.
+ */
+public class CSVLineTokenizer
+{
+  /**
+   * no quote char
+   */
+  public static final char NO_QUOTE = 0;
+
+  private final char sep;
+  private final Pattern sepPattern;
+  private final char quote;
+
+  public CSVLineTokenizer (@NonNull final String separator, final char quote)
+  {
+    if (separator.isEmpty ())
+      throw new IllegalArgumentException ("empty field separator");
+    this.sep = separator.charAt (0);
+    this.sepPattern = separator.length () == 1 ? null : Pattern.compile (separator);
+    this.quote = quote;
+  }
+
+  @NonNull
+  public List <String> tokenize (@NonNull final String line)
+  {
+    if (sepPattern != null)
+    {
+      final String [] spl = sepPattern.split (line.trim ());
+      for (int i = 0; i < spl.length; i++)
+        spl[i] = spl[i].trim ();
+      return Arrays.asList (spl);
+    }
+
+    final List <String> ret = new ArrayList <> ();
+    final int len = line.length ();
+    int pos = 0;
+    while (true)
+    {
+      int start = pos;
+      while (start < len && _isBlank (line.charAt (start)))
+        start++;
+
+      String field;
+      int end;
+      if (quote != NO_QUOTE && start < len && line.charAt (start) == quote)
+      {
+        final StringBuilder sb = new StringBuilder ();
+        int i = start + 1;
+        while (i < len)
+        {
+          final char c = line.charAt (i++);
+          if (c != quote)
+            sb.append (c);
+          else
+            if (i < len && line.charAt (i) == quote)
+            {
+              sb.append (quote);
+              i++;
+            }
+            else
+              break;
+        }
+        field = sb.toString ();
+        // anything between the closing quote and the separator is ignored
+        end = line.indexOf (sep, i);
+      }
+      else
+      {
+        end = line.indexOf (sep, start);
+        int last = end < 0 ? len : end;
+        while (last > start && _isBlank (line.charAt (last - 1)))
+          last--;
+        field = line.substring (start, last);
+      }
+      ret.add (field);
+      if (end < 0)
+        break;
+      pos = end + 1;
+    }
+
+    int size = ret.size ();
+    while (size > 0 && ret.get (size - 1).isEmpty ())
+      ret.remove (--size);
+    return ret;
+  }
+
+  /*
+   * same blanks as String.trim, but the separator itself (eg a tab) is never blank
+   */
+  private boolean _isBlank (final char c)
+  {
+    return c <= ' ' && c != sep;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.generators.csv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.writer.JCMWriter;
+
+public class CSVGeneratorTest
+{
+  /**
+   * the example project of the CSV generator, with its checked-in generated sources
+   */
+  private static final Path EXAMPLE_DIR = Paths.get ("../../../examples/plugins/csv");
+  private static final String EXAMPLE_PACKAGE = "com/helger/jcodemodel/examples/plugin/csv/";
+
+  /**
+   * the class header configured in the pom of the example project, trimmed by Maven
+   */
+  private static final String CLASS_HEADER = """
+      Licensed under the Apache License, Version 2.0 (the "License");
+      you may not use this file except in compliance with the License.
+      You may obtain a copy of the License at
+
+              http://www.apache.org/licenses/LICENSE-2.0
+
+      Unless required by applicable law or agreed to in writing, software
+      distributed under the License is distributed on an "AS IS" BASIS,
+      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+      See the License for the specific language governing permissions and
+      limitations under the License.""";
+
+  private static void _deleteRecursive (final Path aDir) throws IOException
+  {
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      for (final Path aPath : aStream.sorted (Comparator.reverseOrder ()).toList ())
+        Files.delete (aPath);
+    }
+  }
+
+  private static List <Path> _listFiles (final Path aDir) throws IOException
+  {
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      return aStream.filter (Files::isRegularFile).map (aDir::relativize).sorted ().toList ();
+    }
+  }
+
+  /**
+   * @return the sources written for the model, by their path relative to the output directory.
+   */
+  private static Map <Path, String> _writeSources (final JCodeModel cm) throws IOException
+  {
+    final Path aTempDir = Files.createTempDirectory ("jcm-csv");
+    try
+    {
+      new JCMWriter (cm).setNewLine ("\n").build (aTempDir.toFile ());
+      final Map <Path, String> ret = new TreeMap <> ();
+      for (final Path aFile : _listFiles (aTempDir))
+        ret.put (aFile, Files.readString (aTempDir.resolve (aFile), StandardCharsets.UTF_8));
+      return ret;
+    }
+    finally
+    {
+      _deleteRecursive (aTempDir);
+    }
+  }
+
+  /**
+   * Build the source with the generator and compare the result with the checked-in generated
+   * sources of the package in the example project.
+   */
+  private static void _assertExample (final CSVGenerator aGenerator, final InputStream aSource, final String sPackage)
+                                                                                                                       throws Exception
+  {
+    final JCodeModel cm = new JCodeModel ();
+    aGenerator.setClassHeader (CLASS_HEADER);
+    try (final InputStream aIS = aSource)
+    {
+      aGenerator.build (cm, aIS);
+    }
+
+    final Path aExpectedDir = EXAMPLE_DIR.resolve ("src/generated/java");
+    final Map <Path, String> aExpected = new TreeMap <> ();
+    for (final Path aFile : _listFiles (aExpectedDir))
+      if (aFile.startsWith (EXAMPLE_PACKAGE + sPackage))
+        aExpected.put (aFile,
+                       Files.readString (aExpectedDir.resolve (aFile), StandardCharsets.UTF_8).replace ("\r\n", "\n"));
+    assertEquals (aExpected, _writeSources (cm));
+  }
+
+  @Test
+  public void testExampleSourceFile () throws Exception
+  {
+    _assertExample (new CSVGenerator (), new FileInputStream (EXAMPLE_DIR.resolve ("source1.csv").toFile ()), "basic");
+  }
+
+  @Test
+  public void testExampleForwardReferences () throws Exception
+  {
+    // Fields refer to classes declared further down
+    final CSVGenerator aGenerator = new CSVGenerator ();
+    aGenerator.setRootPackage ("com.helger.jcodemodel.examples.plugin.csv.resolve");
+    final String sData = """
+        p .,,,get
+        Parent,children,Child[],set,private
+        Child,parent,Parent,private,set
+        Imported,,,set
+        Imported,model,com.helger.jcodemodel.JCodeModel,private
+        Imported,modelArr,com.helger.jcodemodel.JCodeModel[],private
+        """;
+    _assertExample (aGenerator,
+                    new NonBlockingByteArrayInputStream (sData.getBytes (StandardCharsets.UTF_8)),
+                    "resolve");
+  }
+
+  @Test
+  public void testParallel () throws Exception
+  {
+    // Classes refer to each other in a cycle, each with a parent declared later
+    final StringBuilder aSB = new StringBuilder ("p my.pkg,,,private,get\n");
+    final int nClasses = 300;
+    for (int i = 0; i < nClasses; ++i)
+    {
+      if (i < nClasses - 1)
+        aSB.append ("my.pkg.C").append (i).append (",,C").append (i + 1).append ('\n');
+      for (int j = 0; j < 5; ++j)
+        aSB.append ("my.pkg.C").append (i).append (",f").append (j).append (",int[],set\n");
+      aSB.append ("my.pkg.C").append (i).append (",next,C").append ((i + 1) % nClasses).append ('\n');
+    }
+    final Path aSource = Files.createTempFile ("jcm-csv", ".csv");
+    try
+    {
+      Files.writeString (aSource, aSB, StandardCharsets.UTF_8);
+
+      final Map <Path, String> aSequential = _build (aSource, "false");
+      assertEquals (nClasses, aSequential.size ());
+      assertEquals (aSequential, _build (aSource, "true"));
+    }
+    finally
+    {
+      Files.delete (aSource);
+    }
+  }
+
+  private static Map <Path, String> _build (final Path aSource, final String sParallel) throws Exception
+  {
+    final CSVGenerator aGenerator = new CSVGenerator ();
+    aGenerator.configure (Map.of (CSVGenerator.PARALLEL_PARAM, sParallel));
+    final JCodeModel cm = new JCodeModel ();
+    try (final InputStream aIS = new FileInputStream (aSource.toFile ()))
+    {
+      aGenerator.build (cm, aIS);
+    }
+    return _writeSources (cm);
+  }
+}
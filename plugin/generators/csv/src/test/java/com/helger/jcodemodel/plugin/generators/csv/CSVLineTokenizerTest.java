@@ -0,0 +1,106 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.generators.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class CSVLineTokenizerTest
+{
+  private static final CSVLineTokenizer COMMA = new CSVLineTokenizer (",", CSVLineTokenizer.NO_QUOTE);
+  private static final CSVLineTokenizer QUOTED = new CSVLineTokenizer (",", '"');
+
+  @Test
+  public void testSimple ()
+  {
+    assertEquals (List.of ("my.Class", "field", "int", "get"), COMMA.tokenize (" my.Class , field,int ,  get "));
+    assertEquals (List.of ("my.Class"), COMMA.tokenize ("my.Class"));
+    assertEquals (List.of ("a", "", "b"), COMMA.tokenize ("a, ,b"));
+    assertEquals (List.of ("", "b"), COMMA.tokenize (",b"));
+    // Without quote char, quotes are plain text
+    assertEquals (List.of ("\"a", "b\""), COMMA.tokenize ("\"a,b\""));
+  }
+
+  @Test
+  public void testTrailingEmptyFields ()
+  {
+    assertEquals (List.of ("a", "b"), COMMA.tokenize ("a,b,,"));
+    assertEquals (List.of ("a", "b"), COMMA.tokenize ("a,b, , "));
+    assertEquals (List.of (), COMMA.tokenize (",,"));
+    assertEquals (List.of (), COMMA.tokenize ("   "));
+    assertEquals (List.of (), COMMA.tokenize (""));
+    assertEquals (List.of (), QUOTED.tokenize ("\"\",,"));
+  }
+
+  @Test
+  public void testQuoted ()
+  {
+    assertEquals (List.of ("a,b", "c"), QUOTED.tokenize ("\"a,b\",c"));
+    assertEquals (List.of (" a ", "c"), QUOTED.tokenize ("  \" a \" ,c"));
+    // Doubled quote inside a quoted field
+    assertEquals (List.of ("a\"b", "c"), QUOTED.tokenize ("\"a\"\"b\",c"));
+    assertEquals (List.of ("\"", "c"), QUOTED.tokenize ("\"\"\"\",c"));
+    // Quotes inside an unquoted field are plain text
+    assertEquals (List.of ("a\"b", "c"), QUOTED.tokenize ("a\"b,c"));
+    // Text after the closing quote is ignored
+    assertEquals (List.of ("a", "c"), QUOTED.tokenize ("\"a\"b,c"));
+    // An unterminated quote runs until the end of the line
+    assertEquals (List.of ("x", "a,b "), QUOTED.tokenize ("x,\"a,b "));
+  }
+
+  @Test
+  public void testTabSeparator ()
+  {
+    final CSVLineTokenizer aTab = new CSVLineTokenizer ("\t", '"');
+    // The separator is never a blank, spaces around it are
+    assertEquals (List.of ("a", "", "b"), aTab.tokenize ("a\t\tb"));
+    assertEquals (List.of ("a", "b c"), aTab.tokenize (" a \t b c "));
+    assertEquals (List.of ("", "a"), aTab.tokenize ("\ta"));
+    assertEquals (List.of ("a\tb", "c"), aTab.tokenize ("\"a\tb\"\tc"));
+    assertEquals (List.of ("a"), aTab.tokenize ("a\t\t"));
+  }
+
+  @Test
+  public void testRegexSeparator ()
+  {
+    // Separators longer than one char are regular expressions, without quoting
+    final CSVLineTokenizer aRegex = new CSVLineTokenizer ("\\s*;\\s*", '"');
+    assertEquals (List.of ("a", "b", "c"), aRegex.tokenize (" a ; b;c "));
+    assertEquals (List.of ("a", "", "b"), aRegex.tokenize ("a;;b"));
+    assertEquals (List.of ("a"), aRegex.tokenize ("a;;"));
+    assertEquals (List.of ("\"a", "b\""), aRegex.tokenize ("\"a;b\""));
+
+    final CSVLineTokenizer aMulti = new CSVLineTokenizer ("::", CSVLineTokenizer.NO_QUOTE);
+    assertEquals (List.of ("a", "b:c"), aMulti.tokenize ("a :: b:c ::"));
+  }
+
+  @Test
+  public void testEmptySeparator ()
+  {
+    try
+    {
+      new CSVLineTokenizer ("", CSVLineTokenizer.NO_QUOTE);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+  }
+}
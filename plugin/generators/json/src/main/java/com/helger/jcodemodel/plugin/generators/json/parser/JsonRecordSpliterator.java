@@ -0,0 +1,260 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.generators.json.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.FieldOptions;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.ClassCreation;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.Encapsulated;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.PackageCreation;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.SimpleField;
+
+/**
+ * Produce the records of a json (or yaml) document while its tokens are read, without binding the
+ * document. Each object is a package, or a class if it has a "class", "extends" or "var" entry.
+ * <ul>
+ * <li>"var" : object of the fields of the class, by name. Each field has a "class" and
+ * "options"</li>
+ * <li>"class" : options of the class</li>
+ * <li>"extends" : parent type of the class</li>
+ * <li>"package" : options of the package</li>
+ * <li>any other entry is a sub package, ignored in a class</li>
+ * </ul>
+ * The fields are produced as they are read ; the class or package record of an object is produced
+ * at the end of that object, since its entries can come in any order.
+ */
+public class JsonRecordSpliterator extends Spliterators.AbstractSpliterator <IFlatStructRecord>
+{
+  public static final String FIELDS = "var";
+  public static final String CLASS = "class";
+  public static final String EXTENDS = "extends";
+  public static final String PACKAGE = "package";
+  public static final String FIELD_CLASS = "class";
+  public static final String FIELD_OPTIONS = "options";
+
+  /**
+   * an object being read
+   */
+  private static final class Frame
+  {
+    private final String path;
+    private List <String> clazz;
+    private String parentClassName;
+    private List <String> pck;
+    private boolean hasFields;
+
+    private Frame (@Nullable final String path)
+    {
+      this.path = path;
+    }
+
+    private boolean isClassInfo ()
+    {
+      return clazz != null || parentClassName != null || hasFields;
+    }
+
+    @NonNull
+    private String subPath (@NonNull final String name)
+    {
+      return (path == null ? "" : path + ".") + name;
+    }
+  }
+
+  private final JsonParser parser;
+  private final BiConsumer <String, FieldOptions> optionsApplier;
+  private final Deque <IFlatStructRecord> ready = new ArrayDeque <> ();
+  private final Deque <Frame> frames = new ArrayDeque <> ();
+  private boolean done = false;
+
+  /**
+   * @param parser
+   *        parser of the document
+   * @param optionsApplier
+   *        applies an option string to the options of a class, package or field
+   */
+  public JsonRecordSpliterator (@NonNull final JsonParser parser,
+                                @NonNull final BiConsumer <String, FieldOptions> optionsApplier)
+  {
+    super (Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.parser = parser;
+    this.optionsApplier = optionsApplier;
+  }
+
+  @Override
+  public boolean tryAdvance (final Consumer <? super IFlatStructRecord> action)
+  {
+    try
+    {
+      while (ready.isEmpty () && !done)
+        readNext ();
+    }
+    catch (final IOException e)
+    {
+      throw new UncheckedIOException (e);
+    }
+    if (ready.isEmpty ())
+      return false;
+    action.accept (ready.poll ());
+    return true;
+  }
+
+  private void readNext () throws IOException
+  {
+    final JsonToken token = parser.nextToken ();
+    if (token == null)
+    {
+      done = true;
+      return;
+    }
+    if (frames.isEmpty ())
+    {
+      if (token != JsonToken.START_OBJECT)
+        throw new JsonParseException (parser, "expected an object, got " + token);
+      frames.push (new Frame (null));
+      return;
+    }
+    final Frame frame = frames.peek ();
+    if (token == JsonToken.END_OBJECT)
+    {
+      frames.pop ();
+      endObject (frame);
+      // only the first document is read
+      done = frames.isEmpty ();
+      return;
+    }
+    if (token != JsonToken.FIELD_NAME)
+      throw new JsonParseException (parser, "expected an entry, got " + token);
+
+    final String name = parser.currentName ();
+    final JsonToken value = parser.nextToken ();
+    switch (name)
+    {
+      case FIELDS -> readFields (frame, value);
+      case CLASS -> frame.clazz = readStrings (value);
+      case EXTENDS -> frame.parentClassName = readString (value);
+      case PACKAGE -> frame.pck = readStrings (value);
+      default ->
+      {
+        if (value == JsonToken.START_OBJECT)
+        {
+          if (frame.isClassInfo ())
+            parser.skipChildren ();
+          else
+            frames.push (new Frame (frame.subPath (name)));
+        }
+        else
+          if (value != JsonToken.VALUE_NULL)
+            throw new JsonParseException (parser, "expected an object for package " + frame.subPath (name));
+      }
+    }
+  }
+
+  private void endObject (@NonNull final Frame frame)
+  {
+    if (frame.clazz != null || frame.parentClassName != null)
+      ready.add (new ClassCreation (frame.path, Encapsulated.parse (frame.parentClassName), toOptions (frame.clazz)));
+    else
+      if (frame.pck != null && !frame.hasFields)
+        ready.add (new PackageCreation (frame.path, toOptions (frame.pck)));
+  }
+
+  private void readFields (@NonNull final Frame frame, final JsonToken value) throws IOException
+  {
+    if (value == JsonToken.VALUE_NULL)
+      return;
+    if (value != JsonToken.START_OBJECT)
+      throw new JsonParseException (parser, "expected an object for the fields of " + frame.path);
+    while (parser.nextToken () == JsonToken.FIELD_NAME)
+    {
+      final String fieldName = parser.currentName ();
+      if (parser.nextToken () == JsonToken.VALUE_NULL)
+        continue;
+      if (parser.currentToken () != JsonToken.START_OBJECT)
+        throw new JsonParseException (parser, "expected an object for field " + frame.path + "::" + fieldName);
+
+      String type = null;
+      List <String> options = null;
+      while (parser.nextToken () == JsonToken.FIELD_NAME)
+      {
+        final String key = parser.currentName ();
+        final JsonToken fieldValue = parser.nextToken ();
+        switch (key)
+        {
+          case FIELD_CLASS -> type = readString (fieldValue);
+          case FIELD_OPTIONS -> options = readStrings (fieldValue);
+          default -> throw new JsonParseException (parser,
+                                                   "unknown entry " + key + " for field " + frame.path + "::" + fieldName);
+        }
+      }
+      ready.add (new SimpleField (frame.path, fieldName, Encapsulated.parse (type), toOptions (options)));
+      frame.hasFields = true;
+    }
+  }
+
+  @Nullable
+  private String readString (final JsonToken value) throws IOException
+  {
+    if (value == JsonToken.VALUE_NULL)
+      return null;
+    if (value == null || !value.isScalarValue ())
+      throw new JsonParseException (parser, "expected a value, got " + value);
+    return parser.getText ();
+  }
+
+  /*
+   * a single value is read as a list of that value
+   */
+  @Nullable
+  private List <String> readStrings (final JsonToken value) throws IOException
+  {
+    if (value != JsonToken.START_ARRAY)
+    {
+      final String ret = readString (value);
+      return ret == null ? null : List.of (ret);
+    }
+    final List <String> ret = new ArrayList <> ();
+    JsonToken token;
+    while ((token = parser.nextToken ()) != JsonToken.END_ARRAY && token != null)
+      ret.add (readString (token));
+    return ret;
+  }
+
+  @NonNull
+  private FieldOptions toOptions (@Nullable final List <String> options)
+  {
+    final FieldOptions ret = new FieldOptions ();
+    if (options != null)
+      for (final String optStr : options)
+        optionsApplier.accept (optStr, ret);
+    return ret;
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.generators.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.FieldOptions;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.ClassCreation;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.PackageCreation;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.SimpleField;
+
+public class JsonGeneratorTest
+{
+  /**
+   * the data of the "basic" execution of the JSON example project
+   */
+  private static final String EXAMPLE = """
+      {
+        "package":[
+          "get",
+          "set"
+        ],
+        "A":{
+          "var":{
+            "a":{
+              "class":"int",
+              "options":[
+                "private",
+                "final"
+              ]
+            }
+          }
+        },
+        "B":{
+          "extends":"A",
+          "var":{
+            "b":{
+              "class":"int",
+              "options":[
+                "private"
+              ]
+            }
+          }
+        },
+        "C":{
+          "var":{
+            "redirect":{
+              "class":"B",
+              "options":[
+                "private",
+                "redirect"
+              ]
+            }
+          }
+        }
+      }
+      """;
+
+  private static String _options (final FieldOptions aOptions)
+  {
+    final StringBuilder ret = new StringBuilder (aOptions.getVisibility ().name ().toLowerCase (Locale.ROOT));
+    if (aOptions.isFinal ())
+      ret.append (",final");
+    if (aOptions.isGetter ())
+      ret.append (",get");
+    if (aOptions.isSetter ())
+      ret.append (",set");
+    if (aOptions.isRedirect ())
+      ret.append (",redirect");
+    if (aOptions.isLastUpdated ())
+      ret.append (",lastupdated");
+    return ret.toString ();
+  }
+
+  private static String _describe (final IFlatStructRecord aRecord)
+  {
+    if (aRecord instanceof final SimpleField f)
+      return "field " + f.localName () + "::" + f.fieldName () + " " + f.fieldType () + " " + _options (f.options ());
+    if (aRecord instanceof final ClassCreation c)
+      return "class " +
+             c.localName () +
+             (c.parentType ().baseClassName () == null ? "" : " extends " + c.parentType ()) +
+             " " +
+             _options (c.options ());
+    final PackageCreation p = (PackageCreation) aRecord;
+    return "package " + p.localName () + " " + _options (p.options ());
+  }
+
+  private static Stream <IFlatStructRecord> _load (final String sJson)
+  {
+    return new JsonGenerator ().loadSource (new NonBlockingByteArrayInputStream (sJson.getBytes (StandardCharsets.UTF_8)));
+  }
+
+  private static List <String> _records (final String sJson)
+  {
+    try (final Stream <IFlatStructRecord> aRecords = _load (sJson))
+    {
+      return aRecords.map (JsonGeneratorTest::_describe).toList ();
+    }
+  }
+
+  private static void _assertParseError (final String sJson, final String sMessage)
+  {
+    try
+    {
+      _records (sJson);
+      fail (sJson);
+    }
+    catch (final UncheckedIOException ex)
+    {
+      assertTrue (ex.getCause () instanceof JsonParseException);
+      assertTrue (ex.getCause ().getMessage (), ex.getCause ().getMessage ().contains (sMessage));
+    }
+  }
+
+  @Test
+  public void testExample ()
+  {
+    // Fields are produced as they are read, the class and package records at the end of their object
+    assertEquals (List.of ("field A::a int private,final",
+                           "field B::b int private",
+                           "class B extends A public",
+                           "field C::redirect B private,redirect",
+                           "package null public,get,set"),
+                  _records (EXAMPLE));
+  }
+
+  @Test
+  public void testNestedObjects ()
+  {
+    // An object before the class entries is a sub package, an object after them is ignored
+    assertEquals (List.of ("field my.X.Sub::s int public",
+                           "class my.X public,final",
+                           "class my.Y public",
+                           "package my public,get"),
+                  _records ("""
+                      {
+                        "my": {
+                          "X": {
+                            "Sub": { "var": { "s": { "class": "int" } } },
+                            "class": "final"
+                          },
+                          "Y": {
+                            "class": [],
+                            "Ignored": { "var": { "i": { "class": "int" } } }
+                          },
+                          "package": "get",
+                          "Empty": null
+                        }
+                      }
+                      """));
+  }
+
+  @Test
+  public void testValues ()
+  {
+    // null values are absent values, a single value is a list of that value
+    assertEquals (List.of ("field A::a null public",
+                           "field A::b long [] public,final,get",
+                           "class A extends Object public",
+                           "class C extends java.util.List public"),
+                  _records ("""
+                      {
+                        "A": {
+                          "var": {
+                            "a": {},
+                            "b": { "class": "long[]", "options": [ "final", null, "get" ] },
+                            "n": null
+                          },
+                          "class": null,
+                          "extends": "Object"
+                        },
+                        "B": { "package": null },
+                        "C": { "var": null, "class": "public", "extends": "java.util.List" }
+                      }
+                      """));
+  }
+
+  @Test
+  public void testFirstDocumentOnly ()
+  {
+    assertEquals (List.of ("class A public,final"), _records ("{ \"A\": { \"class\": \"final\" } } { \"B\": {} } ]"));
+    assertEquals (List.of (), _records (""));
+  }
+
+  @Test
+  public void testLazy ()
+  {
+    // The records before a syntax error are produced
+    try (final Stream <IFlatStructRecord> aRecords = _load ("{ \"A\": { \"var\": { \"a\": { \"class\": \"int\" } } }, \"B\": 3 }"))
+    {
+      final Iterator <IFlatStructRecord> it = aRecords.iterator ();
+      assertEquals ("field A::a int public", _describe (it.next ()));
+      try
+      {
+        it.next ();
+        fail ();
+      }
+      catch (final UncheckedIOException ex)
+      {
+        assertTrue (ex.getCause ().getMessage (), ex.getCause ().getMessage ().contains ("expected an object for package B"));
+      }
+    }
+  }
+
+  @Test
+  public void testErrors ()
+  {
+    _assertParseError ("[ 1 ]", "expected an object, got START_ARRAY");
+    _assertParseError ("{ \"A\": 3 }", "expected an object for package A");
+    _assertParseError ("{ \"A\": { \"var\": [] } }", "expected an object for the fields of A");
+    _assertParseError ("{ \"A\": { \"var\": { \"a\": \"int\" } } }", "expected an object for field A::a");
+    _assertParseError ("{ \"A\": { \"var\": { \"a\": { \"type\": \"int\" } } } }", "unknown entry type for field A::a");
+    _assertParseError ("{ \"A\": { \"extends\": {} } }", "expected a value, got START_OBJECT");
+    _assertParseError ("{ \"A\": { \"class\": [ \"final\", [] ] } }", "expected a value, got START_ARRAY");
+    // Malformed input
+    _assertParseError ("{ \"A\": { \"class\": ", "end-of-input");
+    _assertParseError ("{ \"A\" \"class\" }", "Unexpected character");
+  }
+}
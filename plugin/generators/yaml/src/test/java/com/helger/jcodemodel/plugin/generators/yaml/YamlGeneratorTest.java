@@ -0,0 +1,129 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.generators.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.ClassCreation;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.PackageCreation;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.SimpleField;
+
+public class YamlGeneratorTest
+{
+  private static final class RecordingYamlGenerator extends YamlGenerator
+  {
+    private List <String> _records (final String sYaml)
+    {
+      try (final Stream <IFlatStructRecord> aRecords = loadSource (new NonBlockingByteArrayInputStream (sYaml.getBytes (StandardCharsets.UTF_8))))
+      {
+        return aRecords.map (RecordingYamlGenerator::_describe).toList ();
+      }
+    }
+
+    private static String _describe (final IFlatStructRecord aRecord)
+    {
+      if (aRecord instanceof final SimpleField f)
+        return "field " +
+               f.localName () +
+               "::" +
+               f.fieldName () +
+               " " +
+               f.fieldType () +
+               " " +
+               f.options ().getVisibility () +
+               (f.options ().isFinal () ? " final" : "");
+      if (aRecord instanceof final ClassCreation c)
+        return "class " + c.localName () + " extends " + c.parentType ();
+      final PackageCreation p = (PackageCreation) aRecord;
+      return "package " + p.localName () + (p.options ().isGetter () ? " get" : "");
+    }
+  }
+
+  @Test
+  public void testRecords ()
+  {
+    assertEquals (List.of ("field my.pck.A::uuid long PRIVATE final",
+                           "field my.pck.B::name String PUBLIC",
+                           "class my.pck.B extends A",
+                           "package my.pck get"),
+                  new RecordingYamlGenerator ()._records ("""
+                      # comment
+                      my.pck:
+                        package:
+                          - get
+                        A:
+                          var:
+                            uuid:
+                              class: long
+                              options: [ private, final ]
+                        B:
+                          extends: A
+                          var:
+                            name: { class: String }
+                            ignored:
+                      """));
+  }
+
+  @Test
+  public void testFirstDocumentOnly ()
+  {
+    assertEquals (List.of ("class A extends B"),
+                  new RecordingYamlGenerator ()._records ("""
+                      A:
+                        extends: B
+                      ---
+                      C:
+                        extends: D
+                      """));
+  }
+
+  @Test
+  public void testErrors ()
+  {
+    for (final String sYaml : new String [] { "- A\n- B\n", "A: 3\n", "A:\n  var:\n    a: int\n" })
+      try
+      {
+        new RecordingYamlGenerator ()._records (sYaml);
+        fail (sYaml);
+      }
+      catch (final UncheckedIOException ex)
+      {
+        assertTrue (ex.getCause () instanceof JsonParseException);
+      }
+
+    // Malformed input
+    try
+    {
+      new RecordingYamlGenerator ()._records ("A:\n  var: [\n");
+      fail ();
+    }
+    catch (final UncheckedIOException ex)
+    {
+      assertTrue (ex.getCause ().getMessage (), ex.getCause () instanceof JsonParseException);
+    }
+  }
+}
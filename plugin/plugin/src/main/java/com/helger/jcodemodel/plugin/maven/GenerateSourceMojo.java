@@ -20,7 +20,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -36,7 +48,11 @@ import org.jspecify.annotations.Nullable;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
 import com.helger.base.string.StringHelper;
 import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JPackage;
+import com.helger.jcodemodel.JResourceDir;
 import com.helger.jcodemodel.exceptions.JCodeModelException;
+import com.helger.jcodemodel.fmt.AbstractJResourceFile;
 import com.helger.jcodemodel.writer.JCMWriter;
 import com.helger.jcodemodel.writer.ProgressCodeWriter.IProgressTracker;
 
@@ -101,16 +117,260 @@ public class GenerateSourceMojo extends AbstractMojo
   @Parameter (name = "params", property = "jcodemodel.params")
   private Map <String, String> m_aParams;
 
+  /**
+   * if true, the sources are generated even if no input changed since the last generation.
+   */
+  @Parameter (name = "force", property = "jcodemodel.force", defaultValue = "false")
+  private boolean m_bForce;
+
+  /**
+   * list of generations to perform instead of the single one configured by source, data and
+   * params. Values not set in a unit are taken from this configuration, source and data only if the
+   * unit sets neither of them. The models of the units are built in parallel.
+   */
+  @Parameter (name = "units")
+  private List <GenerationUnit> m_aUnits;
+
+  /**
+   * maximum number of units generated concurrently. 0 or less means the number of available
+   * processors.
+   */
+  @Parameter (name = "threads", property = "jcodemodel.threads", defaultValue = "0")
+  private int m_nThreads;
+
+  /**
+   * Resolved configuration of a single generation. Values not set in the {@link GenerationUnit}
+   * are taken from the mojo configuration.
+   */
+  record ResolvedUnit (@Nullable String name,
+                               @Nullable String source,
+                               @Nullable String data,
+                               @Nullable String generator,
+                               @NonNull File outputDir,
+                               @Nullable String rootPackage,
+                               @Nullable String classHeader,
+                               @Nullable Map <String, String> params)
+  {
+    @NonNull
+    String logPrefix ()
+    {
+      return name == null ? "" : "[" + name + "] ";
+    }
+  }
+
+  /**
+   * A unit with its generator and the fingerprint to write after a successful generation. The
+   * up to date files are only set if the generation can be skipped.
+   */
+  private record CheckedUnit (@NonNull ResolvedUnit unit,
+                              @NonNull ICodeModelBuilder builder,
+                              @NonNull GenerationFingerprint fingerprint,
+                              @NonNull File fingerprintFile,
+                              @Nullable List <String> upToDateFiles)
+  {}
+
+  @FunctionalInterface
+  private interface IUnitTask <S, T>
+  {
+    T run (@NonNull S aInput) throws MojoExecutionException, MojoFailureException;
+  }
+
   @Override
   public void execute () throws MojoExecutionException, MojoFailureException
   {
-    final File dir = javaOutputFolder ();
-    getLog ().debug ("generating model into " + dir.getAbsolutePath ());
-    dir.mkdirs ();
+    final List <ResolvedUnit> aUnits = _resolveUnits ();
+    final int nThreads = Math.min (findThreads (), aUnits.size ());
+    if (nThreads <= 1)
+    {
+      _generateAll (aUnits, null);
+      return;
+    }
+
+    getLog ().info ("Generating " + aUnits.size () + " units with " + nThreads + " threads");
+    final long nStart = System.nanoTime ();
+    final AtomicInteger aThreadIndex = new AtomicInteger ();
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (nThreads, r -> {
+      final Thread t = new Thread (r, "jcodemodel-generate-" + aThreadIndex.incrementAndGet ());
+      t.setDaemon (true);
+      return t;
+    });
+    try
+    {
+      _generateAll (aUnits, aExecutor);
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+    getLog ().info ("Generated " + aUnits.size () + " units in " + _millisSince (nStart) + " ms");
+  }
+
+  /**
+   * Generate all units. The up to date check and the model building of every unit run on the
+   * executor. Only writing a model into its output directory, together with the conflict check
+   * and the fingerprint update, is serialized per output directory.
+   *
+   * @param aExecutor
+   *        the executor to run the units on. If <code>null</code> the units are generated
+   *        sequentially.
+   */
+  private void _generateAll (@NonNull final List <ResolvedUnit> aUnits, @Nullable final ExecutorService aExecutor)
+                                                                                                         throws MojoExecutionException,
+                                                                                                         MojoFailureException
+  {
+    // output directory to the relative file names mapped to the name of the unit generating them
+    final Map <File, Map <String, String>> aFileOwners = new HashMap <> ();
+    for (final ResolvedUnit aUnit : aUnits)
+      aFileOwners.computeIfAbsent (aUnit.outputDir ().getAbsoluteFile (), k -> new HashMap <> ());
+
+    // The files of up to date units are registered first, so that no other unit overwrites them
+    final List <CheckedUnit> aPending = new ArrayList <> ();
+    for (final CheckedUnit aChecked : _runAll (aExecutor, aUnits, this::_checkUpToDate))
+    {
+      final ResolvedUnit aUnit = aChecked.unit ();
+      if (aChecked.upToDateFiles () == null)
+        aPending.add (aChecked);
+      else
+        _registerFiles (aUnit, aChecked.upToDateFiles (), aFileOwners.get (aUnit.outputDir ().getAbsoluteFile ()));
+    }
+
+    _runAll (aExecutor, aPending, x -> {
+      _generate (x, aFileOwners.get (x.unit ().outputDir ().getAbsoluteFile ()));
+      return null;
+    });
+  }
+
+  private static long _millisSince (final long nStartNanos)
+  {
+    return (System.nanoTime () - nStartNanos) / 1_000_000;
+  }
+
+  /**
+   * Run a task for all inputs, on the executor if present. Fails on the first failing task.
+   *
+   * @return the results of the tasks, in the order of the inputs.
+   */
+  @NonNull
+  private static <S, T> List <T> _runAll (@Nullable final ExecutorService aExecutor,
+                                          @NonNull final List <S> aInputs,
+                                          @NonNull final IUnitTask <S, T> aTask) throws MojoExecutionException,
+                                                                                 MojoFailureException
+  {
+    final List <T> ret = new ArrayList <> (aInputs.size ());
+    if (aExecutor == null)
+    {
+      try
+      {
+        for (final S aInput : aInputs)
+          ret.add (aTask.run (aInput));
+      }
+      catch (final RuntimeException e)
+      {
+        throw new MojoFailureException ("error while generating sources", e);
+      }
+      return ret;
+    }
+
+    final CompletionService <T> aCS = new ExecutorCompletionService <> (aExecutor);
+    final List <Future <T>> aFutures = new ArrayList <> (aInputs.size ());
+    for (final S aInput : aInputs)
+      aFutures.add (aCS.submit ( () -> aTask.run (aInput)));
+    try
+    {
+      // Fail on the first failing task
+      for (int i = 0; i < aFutures.size (); ++i)
+        _await (aCS.take ());
+      for (final Future <T> aFuture : aFutures)
+        ret.add (_await (aFuture));
+    }
+    catch (final InterruptedException e)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new MojoExecutionException ("interrupted while generating sources", e);
+    }
+    return ret;
+  }
+
+  private static <T> T _await (@NonNull final Future <T> aFuture) throws InterruptedException,
+                                                                  MojoExecutionException,
+                                                                  MojoFailureException
+  {
+    try
+    {
+      return aFuture.get ();
+    }
+    catch (final ExecutionException e)
+    {
+      final Throwable aCause = e.getCause ();
+      if (aCause instanceof final MojoExecutionException a)
+        throw a;
+      if (aCause instanceof final MojoFailureException a)
+        throw a;
+      throw new MojoFailureException ("error while generating sources", aCause);
+    }
+  }
+
+  private static void _registerFiles (@NonNull final ResolvedUnit aUnit,
+                                      @NonNull final List <String> aFiles,
+                                      @NonNull final Map <String, String> aFileOwners) throws MojoFailureException
+  {
+    for (final String sFile : aFiles)
+    {
+      final String sOwner = aFileOwners.putIfAbsent (sFile, String.valueOf (aUnit.name ()));
+      if (sOwner != null)
+        throw new MojoFailureException ("File " +
+                                        sFile +
+                                        " in " +
+                                        aUnit.outputDir ().getAbsolutePath () +
+                                        " is generated by the units '" +
+                                        sOwner +
+                                        "' and '" +
+                                        aUnit.name () +
+                                        "'");
+    }
+  }
+
+  /**
+   * @return the relative names of the files {@link JCMWriter} writes for the model, in the format
+   *         reported to its {@link IProgressTracker}.
+   */
+  @NonNull
+  static List <String> _plannedFiles (@NonNull final JCodeModel cm)
+  {
+    final List <String> ret = new ArrayList <> ();
+    for (final JPackage aPackage : cm.getAllPackages ())
+    {
+      final String sDir = aPackage.isUnnamed () ? "" : aPackage.name ().replace ('.', '/') + '/';
+      for (final JDefinedClass aClass : aPackage.classes ())
+        if (!aClass.isHidden ())
+          ret.add (sDir + aClass.name () + ".java");
+      if (!aPackage.annotations ().isEmpty () || !aPackage.javadoc ().isEmpty ())
+        ret.add (sDir + "package-info.java");
+    }
+    for (final JResourceDir aResourceDir : cm.getAllResourceDirs ())
+    {
+      final String sDir = aResourceDir.isUnnamed () ? "" : aResourceDir.name () + '/';
+      for (final AbstractJResourceFile aFile : aResourceDir.getAllResourceFiles ())
+        ret.add (sDir + aFile.name ());
+    }
+    return ret;
+  }
+
+  /**
+   * Load the generator of a unit and check whether its generated sources are up to date.
+   *
+   * @return the checked unit. Never <code>null</code>.
+   */
+  @NonNull
+  private CheckedUnit _checkUpToDate (@NonNull final ResolvedUnit aUnit) throws MojoExecutionException,
+                                                                     MojoFailureException
+  {
+    final String sPrefix = aUnit.logPrefix ();
+    final File dir = aUnit.outputDir ();
     ICodeModelBuilder cmb = null;
     try
     {
-      cmb = findBuilder ();
+      cmb = findBuilder (aUnit.generator ());
     }
     catch (final Exception e)
     {
@@ -118,34 +378,98 @@ public class GenerateSourceMojo extends AbstractMojo
     }
     if (cmb == null)
     {
-      throw new MojoExecutionException ("could not load the generator class");
+      throw new MojoExecutionException (sPrefix + "could not load the generator class");
     }
-    getLog ().info ("Generator " +
+    getLog ().info (sPrefix +
+                    "Generator " +
                     cmb.getClass ().getCanonicalName () +
                     " generates model into " +
                     dir.getAbsolutePath () +
                     " with params " +
-                    m_aParams);
+                    aUnit.params ());
 
-    if (StringHelper.isNotEmpty (m_sClassHeader))
-      cmb.setClassHeader (m_sClassHeader);
+    final File aFingerprintFile = _fingerprintFile (cmb, aUnit);
+    try
+    {
+      final GenerationFingerprint aFingerprint = _createFingerprint (cmb, aUnit);
+      final List <String> aUpToDateFiles = m_bForce ? null : aFingerprint.getUpToDateFiles (aFingerprintFile, dir);
+      if (aUpToDateFiles != null)
+      {
+        getLog ().info (sPrefix +
+                        "Generated sources in " +
+                        dir.getAbsolutePath () +
+                        " are up to date, skipping generation");
+        return new CheckedUnit (aUnit, cmb, aFingerprint, aFingerprintFile, aUpToDateFiles);
+      }
+      // A failed generation must not leave a matching fingerprint
+      Files.deleteIfExists (aFingerprintFile.toPath ());
+      return new CheckedUnit (aUnit, cmb, aFingerprint, aFingerprintFile, null);
+    }
+    catch (final IOException e)
+    {
+      throw new MojoFailureException (e);
+    }
+  }
 
-    if (StringHelper.isNotEmpty (m_sRootPackage))
-      cmb.setRootPackage (m_sRootPackage);
+  /**
+   * Build the model of a single unit and write it.
+   *
+   * @param aFileOwners
+   *        the files generated by the other units into the same output directory, mapped to the
+   *        name of the unit. The files of this unit are added. Writing is synchronized on it.
+   */
+  private void _generate (@NonNull final CheckedUnit aChecked, @NonNull final Map <String, String> aFileOwners)
+                                                                                                             throws MojoExecutionException,
+                                                                                                             MojoFailureException
+  {
+    final ResolvedUnit aUnit = aChecked.unit ();
+    final ICodeModelBuilder cmb = aChecked.builder ();
+    final String sPrefix = aUnit.logPrefix ();
+    final File dir = aUnit.outputDir ();
+    getLog ().debug (sPrefix + "generating model into " + dir.getAbsolutePath ());
+
+    if (StringHelper.isNotEmpty (aUnit.classHeader ()))
+      cmb.setClassHeader (aUnit.classHeader ());
 
-    if (m_aParams != null)
-      cmb.configure (m_aParams);
+    if (StringHelper.isNotEmpty (aUnit.rootPackage ()))
+      cmb.setRootPackage (aUnit.rootPackage ());
+
+    if (aUnit.params () != null)
+      cmb.configure (aUnit.params ());
 
     final JCodeModel cm = new JCodeModel ();
-    if (m_sData != null && !m_sData.isBlank () && m_sSource != null && !m_sSource.isBlank ())
+    final String sData = aUnit.data ();
+    final String sSource = aUnit.source ();
+    if (sData != null && !sData.isBlank () && sSource != null && !sSource.isBlank ())
     {
-      getLog ().warn ("discarding source param " + m_sSource + " as data is already set");
+      getLog ().warn (sPrefix + "discarding source param " + sSource + " as data is already set");
     }
-    try (final InputStream aIS = StringHelper.isEmpty (m_sData) ? findSource ()
-                                                                : new NonBlockingByteArrayInputStream (m_sData.getBytes (StandardCharsets.UTF_8)))
+    try (final InputStream aIS = StringHelper.isEmpty (sData) ? findSource (sSource)
+                                                              : new NonBlockingByteArrayInputStream (sData.getBytes (StandardCharsets.UTF_8)))
     {
+      final long nBuildStart = System.nanoTime ();
       cmb.build (cm, aIS);
-      new JCMWriter (cm).setJavaFeature (findJavaFeature ()).build (dir, (IProgressTracker) null);
+      final long nBuildMillis = _millisSince (nBuildStart);
+
+      final long nWriteStart;
+      final List <String> aGeneratedFiles = new ArrayList <> ();
+      synchronized (aFileOwners)
+      {
+        nWriteStart = System.nanoTime ();
+        // Conflicts are detected before anything is written
+        _registerFiles (aUnit, _plannedFiles (cm), aFileOwners);
+        dir.mkdirs ();
+        new JCMWriter (cm).setJavaFeature (findJavaFeature ()).build (dir, (IProgressTracker) aGeneratedFiles::add);
+        aChecked.fingerprint ().write (aChecked.fingerprintFile (), aGeneratedFiles);
+      }
+      getLog ().info (sPrefix +
+                      "Built model in " +
+                      nBuildMillis +
+                      " ms, wrote " +
+                      aGeneratedFiles.size () +
+                      " files in " +
+                      _millisSince (nWriteStart) +
+                      " ms");
     }
     catch (JCodeModelException | IOException e)
     {
@@ -153,6 +477,63 @@ public class GenerateSourceMojo extends AbstractMojo
     }
   }
 
+  /**
+   * @return the units to generate. If no units are configured, a single unit with the mojo
+   *         configuration is returned.
+   */
+  @NonNull
+  List <ResolvedUnit> _resolveUnits ()
+  {
+    final File aBaseDir = javaOutputFolder ();
+    if (m_aUnits == null || m_aUnits.isEmpty ())
+      return List.of (new ResolvedUnit (null,
+                                        m_sSource,
+                                        m_sData,
+                                        m_sGenerator,
+                                        aBaseDir,
+                                        m_sRootPackage,
+                                        m_sClassHeader,
+                                        m_aParams));
+
+    final List <ResolvedUnit> ret = new ArrayList <> (m_aUnits.size ());
+    int nIndex = 0;
+    for (final GenerationUnit aUnit : m_aUnits)
+    {
+      nIndex++;
+      final String sOutputDir = aUnit.getOutputDir ();
+      final File aOutputDir;
+      if (sOutputDir == null || sOutputDir.isBlank ())
+        aOutputDir = aBaseDir;
+      else
+        if (sOutputDir.startsWith ("/"))
+          aOutputDir = new File (sOutputDir);
+        else
+          aOutputDir = new File (aBaseDir, sOutputDir);
+
+      // unit params override the mojo params
+      Map <String, String> aParams = m_aParams;
+      if (aUnit.getParams () != null)
+      {
+        aParams = m_aParams == null ? new HashMap <> () : new HashMap <> (m_aParams);
+        aParams.putAll (aUnit.getParams ());
+      }
+
+      // source and data are alternatives, so they are only taken from the mojo together
+      final boolean bOwnInput = StringHelper.isNotEmpty (aUnit.getSource ()) ||
+                                StringHelper.isNotEmpty (aUnit.getData ());
+
+      ret.add (new ResolvedUnit (aUnit.getId () != null ? aUnit.getId () : "unit " + nIndex,
+                                 bOwnInput ? aUnit.getSource () : m_sSource,
+                                 bOwnInput ? aUnit.getData () : m_sData,
+                                 aUnit.getGenerator () != null ? aUnit.getGenerator () : m_sGenerator,
+                                 aOutputDir,
+                                 aUnit.getRootPackage () != null ? aUnit.getRootPackage () : m_sRootPackage,
+                                 aUnit.getClassHeader () != null ? aUnit.getClassHeader () : m_sClassHeader,
+                                 aParams));
+    }
+    return ret;
+  }
+
   /**
    * @return the java files output folder
    */
@@ -168,12 +549,77 @@ public class GenerateSourceMojo extends AbstractMojo
     return new File (m_aProject.getBasedir (), m_sOutputDir);
   }
 
+  /**
+   * @return the file to store the fingerprint of the last generation of a unit in. It is located in
+   *         the build directory and unique per unit, output folder, generator and source.
+   */
+  @NonNull
+  private File _fingerprintFile (@NonNull final ICodeModelBuilder cmb, @NonNull final ResolvedUnit aUnit)
+  {
+    final String sID = new GenerationFingerprint ().addString ("unit", aUnit.name ())
+                                                   .addString ("outputDir", aUnit.outputDir ().getAbsolutePath ())
+                                                   .addString ("generator", cmb.getClass ().getName ())
+                                                   .addString ("source", aUnit.source ())
+                                                   .addString ("data", aUnit.data ())
+                                                   .getAsHex ()
+                                                   .substring (0, 16);
+    return new File (m_aProject.getBuild ().getDirectory (), "jcodemodel/fingerprint-" + sID + ".txt");
+  }
+
+  /**
+   * Create the fingerprint of all inputs of the generation of a unit: the source or data, the
+   * generator class and its jar, the jcodemodel jar, the params, the root package, the class header
+   * and the java feature.
+   */
+  @NonNull
+  private GenerationFingerprint _createFingerprint (@NonNull final ICodeModelBuilder cmb,
+                                                    @NonNull final ResolvedUnit aUnit) throws IOException
+  {
+    final GenerationFingerprint ret = new GenerationFingerprint ();
+    ret.addString ("outputDir", aUnit.outputDir ().getAbsolutePath ());
+    ret.addClassOrigin (cmb.getClass ());
+    ret.addClassOrigin (JCodeModel.class);
+    ret.addString ("rootPackage", aUnit.rootPackage ());
+    ret.addString ("classHeader", aUnit.classHeader ());
+    ret.addString ("javaFeature", Integer.toString (findJavaFeature ()));
+    if (aUnit.params () != null)
+      for (final Map.Entry <String, String> aEntry : new TreeMap <> (aUnit.params ()).entrySet ())
+        ret.addString ("param." + aEntry.getKey (), aEntry.getValue ());
+
+    final String sSource = aUnit.source ();
+    if (StringHelper.isNotEmpty (aUnit.data ()))
+      ret.addString ("data", aUnit.data ());
+    else
+      if (sSource != null && !sSource.isBlank ())
+      {
+        final File aSourceFile = sSource.startsWith ("/") ? new File (sSource)
+                                                          : new File (m_aProject.getBasedir (), sSource);
+        if (aSourceFile.isFile ())
+          ret.addFile ("source", aSourceFile);
+        else
+        {
+          // URLs can't be checked without reading them
+          ret.invalidate ();
+        }
+      }
+    return ret;
+  }
+
   /*
    * deduce the generator's class and instantiate it
    */
   protected ICodeModelBuilder findBuilder () throws Exception
   {
-    String sGeneratorClass = m_sGenerator;
+    return findBuilder (m_sGenerator);
+  }
+
+  /*
+   * deduce the generator's class from the provided name or the generator resource, and instantiate
+   * it
+   */
+  protected ICodeModelBuilder findBuilder (@Nullable final String sGenerator) throws Exception
+  {
+    String sGeneratorClass = sGenerator;
     if (sGeneratorClass == null)
       sGeneratorClass = findGeneratorClass ();
 
@@ -201,32 +647,38 @@ public class GenerateSourceMojo extends AbstractMojo
   @Nullable
   protected InputStream findSource () throws MojoExecutionException
   {
-    if (m_sSource == null || m_sSource.isBlank ())
+    return findSource (m_sSource);
+  }
+
+  @Nullable
+  protected InputStream findSource (@Nullable final String sSource) throws MojoExecutionException
+  {
+    if (sSource == null || sSource.isBlank ())
       return null;
 
     // dumb checking : is it a file ? a URL ?
     try
     {
-      final File aTargetFile = m_sSource.startsWith ("/") ? new File (m_sSource)
-                                                          : new File (m_aProject.getBasedir (), m_sSource);
+      final File aTargetFile = sSource.startsWith ("/") ? new File (sSource)
+                                                          : new File (m_aProject.getBasedir (), sSource);
       return new FileInputStream (aTargetFile);
     }
     catch (final Exception e)
     {
-      getLog ().info ("while trying to open " + m_sSource + " as a file", e);
+      getLog ().info ("while trying to open " + sSource + " as a file", e);
     }
 
     try
     {
-      final URL aURL = new URL (m_sSource);
+      final URL aURL = new URL (sSource);
       return aURL.openStream ();
     }
     catch (final IOException e)
     {
-      getLog ().info ("while trying to open " + m_sSource + " as a url", e);
+      getLog ().info ("while trying to open " + sSource + " as a url", e);
     }
 
-    throw new MojoExecutionException ("could not open provided source " + m_sSource + " as a file or url");
+    throw new MojoExecutionException ("could not open provided source " + sSource + " as a file or url");
   }
 
   /**
@@ -240,8 +692,22 @@ public class GenerateSourceMojo extends AbstractMojo
     return Integer.parseInt (m_sJavaFeature);
   }
 
+  /**
+   * @return the configured {@link #m_nThreads}, falling back to the number of available processors
+   *         when 0 or less.
+   */
+  public int findThreads ()
+  {
+    return m_nThreads > 0 ? m_nThreads : Runtime.getRuntime ().availableProcessors ();
+  }
+
   // Setters used by Maven Plexus injection (must match XML element name)
 
+  public void setProject (@Nullable final MavenProject aProject)
+  {
+    m_aProject = aProject;
+  }
+
   public void setOutputDir (@Nullable final String sOutputDir)
   {
     m_sOutputDir = sOutputDir;
@@ -281,4 +747,19 @@ public class GenerateSourceMojo extends AbstractMojo
   {
     m_aParams = aParams;
   }
+
+  public void setForce (final boolean bForce)
+  {
+    m_bForce = bForce;
+  }
+
+  public void setUnits (@Nullable final List <GenerationUnit> aUnits)
+  {
+    m_aUnits = aUnits;
+  }
+
+  public void setThreads (final int nThreads)
+  {
+    m_nThreads = nThreads;
+  }
 }
@@ -0,0 +1,314 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * SHA-256 fingerprint of all inputs of a source generation. It is stored together with the list of
+ * generated files, so that the generation can be skipped if neither the inputs changed nor a
+ * generated file was deleted.
+ */
+public final class GenerationFingerprint
+{
+  // Jar hashes are shared by all executions of a build - keyed by path, size and modification time
+  private static final Map <String, byte []> JAR_HASHES = new ConcurrentHashMap <> ();
+
+  private final MessageDigest m_aDigest;
+  private boolean m_bValid = true;
+  private String m_sHex;
+
+  public GenerationFingerprint ()
+  {
+    m_aDigest = _createDigest ();
+  }
+
+  @NonNull
+  private static MessageDigest _createDigest ()
+  {
+    try
+    {
+      return MessageDigest.getInstance ("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      throw new IllegalStateException ("SHA-256 is not supported", ex);
+    }
+  }
+
+  private void _update (@Nullable final String sValue)
+  {
+    if (m_sHex != null)
+      throw new IllegalStateException ("The fingerprint was already finished");
+    if (sValue == null)
+      m_aDigest.update ((byte) 0);
+    else
+    {
+      final byte [] aBytes = sValue.getBytes (StandardCharsets.UTF_8);
+      m_aDigest.update ((byte) 1);
+      m_aDigest.update (new byte [] { (byte) (aBytes.length >>> 24),
+                                      (byte) (aBytes.length >>> 16),
+                                      (byte) (aBytes.length >>> 8),
+                                      (byte) aBytes.length });
+      m_aDigest.update (aBytes);
+    }
+  }
+
+  /**
+   * Add a named string value.
+   *
+   * @param sName
+   *        name of the input
+   * @param sValue
+   *        value of the input. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public GenerationFingerprint addString (@NonNull final String sName, @Nullable final String sValue)
+  {
+    _update (sName);
+    _update (sValue);
+    return this;
+  }
+
+  /**
+   * Add the content of a file.
+   *
+   * @param sName
+   *        name of the input
+   * @param aFile
+   *        file to read
+   * @return this for chaining
+   * @throws IOException
+   *         if the file can't be read
+   */
+  @NonNull
+  public GenerationFingerprint addFile (@NonNull final String sName, @NonNull final File aFile) throws IOException
+  {
+    _update (sName);
+    _update (HexFormat.of ().formatHex (_hashFile (aFile.toPath ())));
+    return this;
+  }
+
+  /**
+   * Add the name of a class and a hash of the jar file or class directory it was loaded from.
+   *
+   * @param aClass
+   *        class to add
+   * @return this for chaining
+   * @throws IOException
+   *         if the jar or directory can't be read
+   */
+  @NonNull
+  public GenerationFingerprint addClassOrigin (@NonNull final Class <?> aClass) throws IOException
+  {
+    _update (aClass.getName ());
+    final CodeSource aCodeSource = aClass.getProtectionDomain ().getCodeSource ();
+    if (aCodeSource == null || aCodeSource.getLocation () == null)
+    {
+      // Part of the JDK
+      _update (Runtime.version ().toString ());
+      return this;
+    }
+
+    final Path aPath;
+    try
+    {
+      aPath = Path.of (aCodeSource.getLocation ().toURI ());
+    }
+    catch (final URISyntaxException | IllegalArgumentException ex)
+    {
+      // Not a local file - can't be fingerprinted
+      m_bValid = false;
+      return this;
+    }
+
+    if (Files.isDirectory (aPath))
+      _addDirectory (aPath);
+    else
+    {
+      final BasicFileAttributes aAttrs = Files.readAttributes (aPath, BasicFileAttributes.class);
+      final String sKey = aPath.toAbsolutePath () + "|" + aAttrs.size () + "|" + aAttrs.lastModifiedTime ().toMillis ();
+      byte [] aHash = JAR_HASHES.get (sKey);
+      if (aHash == null)
+      {
+        aHash = _hashFile (aPath);
+        JAR_HASHES.put (sKey, aHash);
+      }
+      _update (HexFormat.of ().formatHex (aHash));
+    }
+    return this;
+  }
+
+  private void _addDirectory (@NonNull final Path aDir) throws IOException
+  {
+    // Class directories are rebuilt often - use size and modification time instead of the content
+    final List <Path> aFiles = new ArrayList <> ();
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      aStream.filter (Files::isRegularFile).forEach (aFiles::add);
+    }
+    aFiles.sort (null);
+    for (final Path aFile : aFiles)
+    {
+      final BasicFileAttributes aAttrs = Files.readAttributes (aFile, BasicFileAttributes.class);
+      _update (aDir.relativize (aFile).toString ());
+      _update (aAttrs.size () + "|" + aAttrs.lastModifiedTime ().toMillis ());
+    }
+  }
+
+  @NonNull
+  private static byte [] _hashFile (@NonNull final Path aPath) throws IOException
+  {
+    final MessageDigest aDigest = _createDigest ();
+    try (final InputStream aIS = Files.newInputStream (aPath))
+    {
+      final byte [] aBuffer = new byte [64 * 1024];
+      int nRead;
+      while ((nRead = aIS.read (aBuffer)) > 0)
+        aDigest.update (aBuffer, 0, nRead);
+    }
+    return aDigest.digest ();
+  }
+
+  /**
+   * Mark the fingerprint as invalid, because an input can't be fingerprinted (e.g. a remote URL).
+   * An invalid fingerprint is never up to date.
+   *
+   * @return this for chaining
+   */
+  @NonNull
+  public GenerationFingerprint invalidate ()
+  {
+    m_bValid = false;
+    return this;
+  }
+
+  /**
+   * @return <code>false</code> if an input could not be fingerprinted.
+   */
+  public boolean isValid ()
+  {
+    return m_bValid;
+  }
+
+  /**
+   * Finish the fingerprint. No further inputs can be added afterwards.
+   *
+   * @return the fingerprint as lower case hex string
+   */
+  @NonNull
+  public String getAsHex ()
+  {
+    if (m_sHex == null)
+      m_sHex = HexFormat.of ().formatHex (m_aDigest.digest ());
+    return m_sHex;
+  }
+
+  /**
+   * Check if a previous generation with the same inputs is still valid.
+   *
+   * @param aFingerprintFile
+   *        the file written by {@link #write(File, Collection)}
+   * @param aOutputDir
+   *        the directory the files were generated into
+   * @return <code>true</code> if the fingerprint is valid, matches the stored one, and all files
+   *         generated at that time still exist.
+   * @throws IOException
+   *         if the fingerprint file can't be read
+   */
+  public boolean isUpToDate (@NonNull final File aFingerprintFile, @NonNull final File aOutputDir) throws IOException
+  {
+    return getUpToDateFiles (aFingerprintFile, aOutputDir) != null;
+  }
+
+  /**
+   * Check if a previous generation with the same inputs is still valid, and return the files
+   * generated at that time.
+   *
+   * @param aFingerprintFile
+   *        the file written by {@link #write(File, Collection)}
+   * @param aOutputDir
+   *        the directory the files were generated into
+   * @return the paths of the generated files, relative to the output directory, or
+   *         <code>null</code> if the generation is not up to date.
+   * @throws IOException
+   *         if the fingerprint file can't be read
+   * @see #isUpToDate(File, File)
+   */
+  @Nullable
+  public List <String> getUpToDateFiles (@NonNull final File aFingerprintFile, @NonNull final File aOutputDir)
+                                                                                                              throws IOException
+  {
+    if (!m_bValid || !aFingerprintFile.isFile () || !aOutputDir.isDirectory ())
+      return null;
+
+    final List <String> aLines = Files.readAllLines (aFingerprintFile.toPath (), StandardCharsets.UTF_8);
+    if (aLines.isEmpty () || !aLines.get (0).equals (getAsHex ()))
+      return null;
+
+    final List <String> ret = aLines.subList (1, aLines.size ());
+    for (final String sFile : ret)
+      if (!new File (aOutputDir, sFile).isFile ())
+        return null;
+    return ret;
+  }
+
+  /**
+   * Store the fingerprint and the generated files. Nothing is written if the fingerprint is
+   * invalid.
+   *
+   * @param aFingerprintFile
+   *        the file to write
+   * @param aGeneratedFiles
+   *        the paths of the generated files, relative to the output directory
+   * @throws IOException
+   *         if the fingerprint file can't be written
+   */
+  public void write (@NonNull final File aFingerprintFile, @NonNull final Collection <String> aGeneratedFiles)
+                                                                                                            throws IOException
+  {
+    if (!m_bValid)
+      return;
+
+    final List <String> aLines = new ArrayList <> (aGeneratedFiles.size () + 1);
+    aLines.add (getAsHex ());
+    aLines.addAll (aGeneratedFiles);
+    final File aParent = aFingerprintFile.getParentFile ();
+    if (aParent != null)
+      aParent.mkdirs ();
+    Files.write (aFingerprintFile.toPath (), aLines, StandardCharsets.UTF_8);
+  }
+}
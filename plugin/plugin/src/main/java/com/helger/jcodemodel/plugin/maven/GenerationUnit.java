@@ -0,0 +1,142 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.maven;
+
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A single generation of the {@link GenerateSourceMojo}: one generator applied to one source. All
+ * values that are not set are taken from the mojo configuration. Source and data are alternatives,
+ * they are only taken from the mojo if the unit sets neither of them. Configured as
+ *
+ * <pre>
+ * &lt;units&gt;
+ *   &lt;unit&gt;
+ *     &lt;source&gt;src/main/data/a.csv&lt;/source&gt;
+ *     &lt;outputDir&gt;a&lt;/outputDir&gt;
+ *   &lt;/unit&gt;
+ * &lt;/units&gt;
+ * </pre>
+ */
+public class GenerationUnit
+{
+  private String m_sId;
+  private String m_sSource;
+  private String m_sData;
+  private String m_sGenerator;
+  private String m_sOutputDir;
+  private String m_sRootPackage;
+  private String m_sClassHeader;
+  private Map <String, String> m_aParams;
+
+  /**
+   * @return the name of this unit used in the log. May be <code>null</code>.
+   */
+  @Nullable
+  public String getId ()
+  {
+    return m_sId;
+  }
+
+  @Nullable
+  public String getSource ()
+  {
+    return m_sSource;
+  }
+
+  @Nullable
+  public String getData ()
+  {
+    return m_sData;
+  }
+
+  @Nullable
+  public String getGenerator ()
+  {
+    return m_sGenerator;
+  }
+
+  /**
+   * @return the output directory of this unit, relative to the output directory of the mojo.
+   *         Absolute if it starts with "/". May be <code>null</code>.
+   */
+  @Nullable
+  public String getOutputDir ()
+  {
+    return m_sOutputDir;
+  }
+
+  @Nullable
+  public String getRootPackage ()
+  {
+    return m_sRootPackage;
+  }
+
+  @Nullable
+  public String getClassHeader ()
+  {
+    return m_sClassHeader;
+  }
+
+  @Nullable
+  public Map <String, String> getParams ()
+  {
+    return m_aParams;
+  }
+
+  // Setters used by Maven Plexus injection (must match XML element name)
+
+  public void setId (@Nullable final String sId)
+  {
+    m_sId = sId;
+  }
+
+  public void setSource (@Nullable final String sSource)
+  {
+    m_sSource = sSource;
+  }
+
+  public void setData (@Nullable final String sData)
+  {
+    m_sData = sData;
+  }
+
+  public void setGenerator (@Nullable final String sGenerator)
+  {
+    m_sGenerator = sGenerator;
+  }
+
+  public void setOutputDir (@Nullable final String sOutputDir)
+  {
+    m_sOutputDir = sOutputDir;
+  }
+
+  public void setRootPackage (@Nullable final String sRootPackage)
+  {
+    m_sRootPackage = sRootPackage;
+  }
+
+  public void setClassHeader (@Nullable final String sClassHeader)
+  {
+    m_sClassHeader = sClassHeader;
+  }
+
+  public void setParams (@Nullable final Map <String, String> aParams)
+  {
+    m_aParams = aParams;
+  }
+}
@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -59,15 +60,16 @@ import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecor
 import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.ClassCreation;
 import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.EEncapsulation;
 import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.Encapsulated;
-import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.IFieldCreation;
 import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.PackageCreation;
 import com.helger.jcodemodel.plugin.maven.generators.flatstruct.IFlatStructRecord.SimpleField;
+import com.helger.jcodemodel.plugin.maven.generators.flatstruct.ImportedTypes;
 
 public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilder
 {
   private String m_sClassHeader = "";
   private String m_sRootPackage = "";
   protected ConcreteTypes concrete;
+  protected ImportedTypes imports = ImportedTypes.from (Map.of ());
 
   /**
    * all the classes we created, by local name
@@ -90,6 +92,18 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
    */
   private final Map <String, JFieldVar> classLastUpdated = new HashMap <> ();
 
+  /**
+   * static classes resolved by type name, including the aliases and the names that could not be
+   * resolved.
+   */
+  private final Map <String, Optional <Class <?>>> staticClasses = new HashMap <> ();
+
+  /**
+   * @param source
+   *        source to read the records from
+   * @return the records of the source. The stream may be parallel, its records are consumed in
+   *         encounter order.
+   */
   protected abstract Stream <IFlatStructRecord> loadSource (@Nullable InputStream source);
 
   public @Nullable String getClassHeader ()
@@ -122,43 +136,66 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
   {
     ICodeModelBuilder.super.configure (params);
     concrete = ConcreteTypes.from (params);
+    imports = ImportedTypes.from (params);
+    staticClasses.clear ();
   }
 
+  /**
+   * Consume the records of the source in a single pass. Classes and package options are created as
+   * the records arrive ; only the records that may refer to classes declared later (inheritance and
+   * fields) are kept, and linked once the whole source has been read.<br>
+   * Fields are not created on the fly : their type may resolve to a class declared further down,
+   * their options inherit from class and package options that may follow them, and the fields of a
+   * class must keep the order of the source. So the kept records are proportional to the number of
+   * fields, as is the generated model itself.
+   */
   @Override
   public void build (final JCodeModel model, final InputStream source) throws JCodeModelException
   {
-    final List <IFlatStructRecord> records = loadSource (source).toList ();
-    createClasses (model, records);
-    updateParentOptions (records);
-    applyInheritance (model, records);
-    createFields (model, records);
-    createConstructors (model, records);
-    applyRedirects (model, records);
+    final List <ClassCreation> inheritances = new ArrayList <> ();
+    final List <SimpleField> fields = new ArrayList <> ();
+    try (final Stream <IFlatStructRecord> records = loadSource (source))
+    {
+      records.forEachOrdered (rec -> acceptRecord (model, rec, inheritances, fields));
+    }
+    updateParentOptions ();
+    applyInheritance (model, inheritances);
+    createFields (model, fields);
+    createConstructors (model);
+    applyRedirects (model, fields);
   }
 
   /*
-   * create the classes files, so that we can link them dynamically ; and the packages
+   * create the class file or package options of a record, so that we can link them dynamically ;
+   * and keep the records that need all the classes to be known
    */
-  protected void createClasses (final JCodeModel model, final List <IFlatStructRecord> records)
-  {
-    for (final IFlatStructRecord rec : records)
-    {
-      if (rec instanceof final ClassCreation cc)
+  protected void acceptRecord (final JCodeModel model,
+                               final IFlatStructRecord rec,
+                               final List <ClassCreation> inheritances,
+                               final List <SimpleField> fields)
+  {
+    if (rec instanceof final ClassCreation cc)
+    {
+      ensureClass (model, cc.localName (), cc.options ());
+      if (cc.parentType () != null &&
+        cc.parentType ().baseClassName () != null &&
+        !cc.parentType ().baseClassName ().isBlank ())
+        inheritances.add (cc);
+    }
+    else
+      if (rec instanceof final PackageCreation pc)
       {
-        ensureClass (model, cc.localName (), cc.options ());
+        String localName = pc.localName () == null ? "" : pc.localName ();
+        if (localName.startsWith ("."))
+          localName = localName.substring (1);
+        pathOptions.put (localName, pc.options ());
       }
       else
-        if (rec instanceof final PackageCreation pc)
+        if (rec instanceof final SimpleField sf)
         {
-          final String localName = pc.localName () == null ? "" : pc.localName ().replaceAll ("^\\.", "");
-          pathOptions.put (localName, pc.options ());
+          ensureClass (model, sf.localName (), null);
+          fields.add (sf);
         }
-        else
-          if (rec instanceof final IFieldCreation fc)
-          {
-            ensureClass (model, fc.localName (), null);
-          }
-    }
   }
 
   /*
@@ -180,7 +217,7 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
       }
     });
 
-    final String simpleName = localName.replaceAll (".*\\.", "");
+    final String simpleName = localName.substring (localName.lastIndexOf ('.') + 1);
     simpleDefinedClasses.computeIfAbsent (simpleName, n -> new HashSet <> ()).add (clazz);
     if (options == null)
       pathOptions.computeIfAbsent (localName, cn -> new FieldOptions ());
@@ -192,7 +229,7 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
   /*
    * link each class options and package option to its parent package option
    */
-  protected void updateParentOptions (final List <IFlatStructRecord> records)
+  protected void updateParentOptions ()
   {
     for (final Map.Entry <String, FieldOptions> e : pathOptions.entrySet ())
       if (StringHelper.isNotEmpty (e.getKey ()))
@@ -224,71 +261,58 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
   /*
    * make the classes extends or implement their parent classes, if any
    */
-  protected void applyInheritance (final JCodeModel model, final List <IFlatStructRecord> records)
+  protected void applyInheritance (final JCodeModel model, final List <ClassCreation> inheritances)
   {
-    for (final IFlatStructRecord rec : records)
+    for (final ClassCreation cc : inheritances)
     {
-      if (rec instanceof final ClassCreation cc)
+      final AbstractJType parentType = resolveConcreteType (model, cc.parentType ());
+      if (parentType == null)
       {
-        if (cc.parentType () != null &&
-          cc.parentType ().baseClassName () != null &&
-          !cc.parentType ().baseClassName ().isBlank ())
-        {
-          final AbstractJType parentType = resolveConcreteType (model, cc.parentType ());
-          if (parentType == null)
-          {
-            throw new IllegalStateException ("can't resolve type " +
-                                             cc.parentType () +
-                                             " as parent of " +
-                                             cc.localName ());
-          }
-          if (parentType instanceof final JPrimitiveType jpt)
-          {
-            throw new IllegalStateException ("class " + cc.localName () + " cannot extend the primitive class " + jpt);
-          }
-
-          final AbstractJClass aParentJClass = (AbstractJClass) parentType;
-          final JDefinedClass aOwnerClass = definedClasses.get (cc.localName ());
-          if (aParentJClass.isInterface ())
-            aOwnerClass._implements (aParentJClass);
-          else
-            aOwnerClass._extends (aParentJClass);
-        }
+        throw new IllegalStateException ("can't resolve type " + cc.parentType () + " as parent of " + cc.localName ());
       }
+      if (parentType instanceof final JPrimitiveType jpt)
+      {
+        throw new IllegalStateException ("class " + cc.localName () + " cannot extend the primitive class " + jpt);
+      }
+
+      final AbstractJClass aParentJClass = (AbstractJClass) parentType;
+      final JDefinedClass aOwnerClass = definedClasses.get (cc.localName ());
+      if (aParentJClass.isInterface ())
+        aOwnerClass._implements (aParentJClass);
+      else
+        aOwnerClass._extends (aParentJClass);
     }
   }
 
-  protected void createFields (final JCodeModel model, final List <IFlatStructRecord> records)
+  protected void createFields (final JCodeModel model, final List <SimpleField> fields)
   {
-    for (final IFlatStructRecord rec : records)
+    for (final SimpleField aSimpleField : fields)
     {
-      if (rec instanceof final SimpleField aSimpleField)
+      // messages are built lazily, the known classes would make each field linear in their count
+      final JDefinedClass owner = Objects.requireNonNull (definedClasses.get (aSimpleField.localName ()),
+                                                          () -> "can't find defined class " +
+                                                                aSimpleField.localName () +
+                                                                " for field " +
+                                                                aSimpleField);
+      final FieldOptions ownerOptions = pathOptions.get (aSimpleField.localName ());
+      Objects.requireNonNull (ownerOptions,
+                              () -> "can't find options for class " +
+                                    aSimpleField.localName () +
+                                    " known classes are " +
+                                    pathOptions.keySet ());
+      aSimpleField.options ().setParent (ownerOptions);
+
+      final AbstractJType fieldType = resolveType (model, aSimpleField.fieldType ());
+      if (fieldType == null)
       {
-        final JDefinedClass owner = Objects.requireNonNull (definedClasses.get (aSimpleField.localName ()),
-                                                            "can't find defined class " +
-                                                                                                            aSimpleField.localName () +
-                                                                                                            " for field " +
-                                                                                                            aSimpleField);
-        final FieldOptions ownerOptions = pathOptions.get (aSimpleField.localName ());
-        Objects.requireNonNull (ownerOptions,
-                                "can't find options for class " +
-                                              aSimpleField.localName () +
-                                              " known classes are " +
-                                              pathOptions.keySet ());
-        aSimpleField.options ().setParent (ownerOptions);
-
-        final AbstractJType fieldType = resolveType (model, aSimpleField.fieldType ());
-        if (fieldType == null)
-        {
-          throw new IllegalStateException ("can't resolve type " +
-                                           aSimpleField.fieldClassName () +
-                                           " for field " +
-                                           aSimpleField.localName () +
-                                           "::" +
-                                           aSimpleField.fieldName ());
-        }
-        addField (owner, fieldType, aSimpleField.fieldName (), aSimpleField.options (), model);
+        throw new IllegalStateException ("can't resolve type " +
+                                         aSimpleField.fieldClassName () +
+                                         " for field " +
+                                         aSimpleField.localName () +
+                                         "::" +
+                                         aSimpleField.fieldName ());
       }
+      addField (owner, fieldType, aSimpleField.fieldName (), aSimpleField.options (), model);
     }
   }
 
@@ -318,9 +342,11 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
    * <li>a created class with that exact local name</li>
    * <li>a created class with that exact simple name. If several classes exist with that simple
    * name, throws an exception</li>
+   * <li>a static class with that alias</li>
    * <li>a static class with that exact full name</li>
-   * <li>a static class with that exact full name in package java.lang</li>
-   * <li>a static class with that exact full name in package java.util</li>
+   * <li>an imported static class with that simple name</li>
+   * <li>a static class with that exact name in package java.lang, java.util, then the imported
+   * packages</li>
    * </ol>
    *
    * @param model
@@ -349,24 +375,27 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
     {
       return defined;
     }
-    Class <?> staticResolved = staticAlias (typeName);
-    for (final String prefix : new String [] { null, "java.lang", "java.util" })
-    {
-      if (staticResolved != null)
-        break;
-
-      try
-      {
-        staticResolved = Class.forName ((prefix == null || prefix.isBlank () ? "" : prefix + ".") + typeName);
-      }
-      catch (final ClassNotFoundException e)
-      {
-        // Ignore
-      }
-    }
+    final Class <?> staticResolved = resolveStaticClass (typeName);
     return staticResolved == null ? null : model._ref (staticResolved);
   }
 
+  /**
+   * resolve a name to a static class, either an alias or a class found by the {@link #imports}.
+   * The result is cached, even if no class was found.
+   *
+   * @param typeName
+   *        type name
+   * @return resolved class or <code>null</code>.
+   */
+  @Nullable
+  protected Class <?> resolveStaticClass (@NonNull final String typeName)
+  {
+    return staticClasses.computeIfAbsent (typeName, n -> {
+      final Class <?> alias = staticAlias (n);
+      return Optional.ofNullable (alias != null ? alias : imports.findClass (n));
+    }).orElse (null);
+  }
+
   protected AbstractJType resolveType (final JCodeModel model,
                                        final String typeName,
                                        final List <EEncapsulation> encapsulations)
@@ -492,7 +521,7 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
    * create constructors for classes that have a final field or extends a class without no-arg
    * constructor
    */
-  protected void createConstructors (final JCodeModel model, final List <IFlatStructRecord> records)
+  protected void createConstructors (final JCodeModel model)
   {
     final Set <JDefinedClass> done = new HashSet <> ();
     for (final JDefinedClass createdClass : definedClasses.values ())
@@ -671,46 +700,39 @@ public abstract class AbstractFlatStructureGenerator implements ICodeModelBuilde
   // apply redirect
   //
 
-  protected void applyRedirects (final JCodeModel model, final List <IFlatStructRecord> records)
+  protected void applyRedirects (final JCodeModel model, final List <SimpleField> fields)
   {
-    for (final IFlatStructRecord rec : records)
+    for (final SimpleField af : fields)
     {
-      if (rec instanceof final SimpleField af)
+      // can't redirect calls to a field encapsulated, eg String[] or List<Double>
+      if (!af.options ().isRedirect () || af.fieldType ().encapsulations ().size () > 0)
+      {
+        continue;
+      }
+      final JDefinedClass fieldOwner = Objects.requireNonNull (definedClasses.get (af.localName ()),
+                                                               () -> "can't find defined class " +
+                                                                     af.localName () +
+                                                                     " for field " +
+                                                                     af);
+      final AbstractJType fieldType = resolveType (model, af.fieldType ().baseClassName ());
+      if (fieldType instanceof final JDefinedClass jdc)
       {
-        if (af.options ().isRedirect ())
+        applyRedirect (model, af, fieldOwner, jdc);
+      }
+      else
+        if (fieldType instanceof final JReferencedClass jrc)
         {
-          // can't redirect calls to a field encapsulated, eg String[] or List<Double>
-
-          if (af.fieldType ().encapsulations ().size () > 0)
-          {
-            continue;
-          }
-          final JDefinedClass fieldOwner = Objects.requireNonNull (definedClasses.get (af.localName ()),
-                                                                   "can't find defined class " +
-                                                                                                         af.localName () +
-                                                                                                         " for field " +
-                                                                                                         af);
-          final AbstractJType fieldType = resolveType (model, af.fieldType ().baseClassName ());
-          if (fieldType instanceof final JDefinedClass jdc)
-          {
-            applyRedirect (model, af, fieldOwner, jdc);
-          }
-          else
-            if (fieldType instanceof final JReferencedClass jrc)
-            {
-              applyRedirect (model, af, fieldOwner, jrc.getReferencedClass ());
-            }
-            else
-            {
-              throw new UnsupportedOperationException ("can't apply redirect to " +
-                                                       fieldType +
-                                                       " " +
-                                                       af.fieldClassName () +
-                                                       "::" +
-                                                       af.fieldName ());
-            }
+          applyRedirect (model, af, fieldOwner, jrc.getReferencedClass ());
+        }
+        else
+        {
+          throw new UnsupportedOperationException ("can't apply redirect to " +
+                                                   fieldType +
+                                                   " " +
+                                                   af.fieldClassName () +
+                                                   "::" +
+                                                   af.fieldName ());
         }
-      }
     }
   }
 
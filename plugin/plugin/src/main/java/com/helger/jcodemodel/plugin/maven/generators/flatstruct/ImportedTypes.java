@@ -0,0 +1,119 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.maven.generators.flatstruct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Ordered imports used to resolve type names that are neither created nor fully qualified. An
+ * import is either a package ("java.time" or "java.time.*"), searched in order, or a class
+ * ("java.time.LocalDate"), indexed by its simple name when the imports are created. The packages
+ * java.lang and java.util are always searched first.
+ */
+public class ImportedTypes
+{
+  public static final String IMPORTS_PARAM = "imports";
+
+  private static final String [] DEFAULT_PACKAGES = { "java.lang", "java.util" };
+
+  private final List <String> packages = new ArrayList <> ();
+
+  /**
+   * imported classes by simple name
+   */
+  private final Map <String, Class <?>> classes = new HashMap <> ();
+
+  private ImportedTypes ()
+  {}
+
+  @NonNull
+  public static ImportedTypes from (@NonNull final Map <String, String> params)
+  {
+    final ImportedTypes ret = new ImportedTypes ();
+    Collections.addAll (ret.packages, DEFAULT_PACKAGES);
+    final String imports = params.get (IMPORTS_PARAM);
+    if (imports != null)
+      for (final String imp : imports.split ("[,;\\s]+"))
+        ret.addImport (imp);
+    return ret;
+  }
+
+  protected void addImport (@NonNull final String imp)
+  {
+    if (imp.isEmpty ())
+      return;
+    if (imp.endsWith (".*"))
+    {
+      addPackage (imp.substring (0, imp.length () - 2));
+      return;
+    }
+    final Class <?> clazz = forName (imp);
+    if (clazz == null)
+      addPackage (imp);
+    else
+      classes.putIfAbsent (clazz.getSimpleName (), clazz);
+  }
+
+  protected void addPackage (@NonNull final String pck)
+  {
+    if (!packages.contains (pck))
+      packages.add (pck);
+  }
+
+  @NonNull
+  public List <String> getPackages ()
+  {
+    return Collections.unmodifiableList (packages);
+  }
+
+  /**
+   * find a class by its full name, then by the simple name of an imported class, then in the
+   * imported packages in order.
+   *
+   * @param name
+   *        name of the class
+   * @return the first class found, or null
+   */
+  @Nullable
+  public Class <?> findClass (@NonNull final String name)
+  {
+    Class <?> ret = forName (name);
+    if (ret == null)
+      ret = classes.get (name);
+    for (int i = 0; ret == null && i < packages.size (); i++)
+      ret = forName (packages.get (i) + "." + name);
+    return ret;
+  }
+
+  @Nullable
+  private static Class <?> forName (@NonNull final String name)
+  {
+    try
+    {
+      return Class.forName (name);
+    }
+    catch (final ClassNotFoundException | LinkageError e)
+    {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.exceptions.JCodeModelException;
+
+public class GenerateSourceMojoTest
+{
+  /**
+   * Creates the class named by the data, with a field named by the "field" param. Fails if the
+   * "fail" param is set.
+   */
+  public static final class TestGenerator implements ICodeModelBuilder
+  {
+    private String m_sRootPackage = "test";
+    private String m_sField = "value";
+    private boolean m_bFail;
+
+    @Override
+    public void configure (final Map <String, String> params)
+    {
+      m_sField = params.getOrDefault ("field", m_sField);
+      m_bFail = params.containsKey ("fail");
+    }
+
+    @Override
+    public void build (final JCodeModel model, final InputStream source) throws JCodeModelException
+    {
+      if (m_bFail)
+        throw new IllegalStateException ("failing on purpose");
+      try
+      {
+        final JDefinedClass cl = model._class (expandClassName (new String (source.readAllBytes (),
+                                                                            StandardCharsets.UTF_8)));
+        cl.field (JMod.PUBLIC, String.class, m_sField);
+      }
+      catch (final IOException e)
+      {
+        throw new IllegalStateException (e);
+      }
+    }
+
+    @Override
+    public String getRootPackage ()
+    {
+      return m_sRootPackage;
+    }
+
+    @Override
+    public void setRootPackage (final String rootPackage)
+    {
+      m_sRootPackage = rootPackage;
+    }
+  }
+
+  private static void _deleteRecursive (final Path aDir) throws IOException
+  {
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      for (final Path aPath : aStream.sorted (Comparator.reverseOrder ()).toList ())
+        Files.delete (aPath);
+    }
+  }
+
+  private static GenerateSourceMojo _createMojo (final Path aBaseDir, final int nThreads)
+  {
+    final MavenProject aProject = new MavenProject ();
+    aProject.setFile (aBaseDir.resolve ("pom.xml").toFile ());
+    aProject.getBuild ().setDirectory (aBaseDir.resolve ("target").toString ());
+
+    final GenerateSourceMojo ret = new GenerateSourceMojo ();
+    ret.setProject (aProject);
+    ret.setOutputDir ("src/generated/java");
+    ret.setGenerator (TestGenerator.class.getName ());
+    ret.setThreads (nThreads);
+    return ret;
+  }
+
+  private static GenerationUnit _unit (final String sID, final String sData, final String... aParams)
+  {
+    final GenerationUnit ret = new GenerationUnit ();
+    ret.setId (sID);
+    ret.setData (sData);
+    if (aParams.length > 0)
+    {
+      final Map <String, String> aMap = new HashMap <> ();
+      for (int i = 0; i < aParams.length; i += 2)
+        aMap.put (aParams[i], aParams[i + 1]);
+      ret.setParams (aMap);
+    }
+    return ret;
+  }
+
+  private static String _read (final Path aBaseDir, final String sFile) throws IOException
+  {
+    return Files.readString (aBaseDir.resolve ("src/generated/java").resolve (sFile), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testResolveUnits () throws Exception
+  {
+    final Path aBaseDir = Files.createTempDirectory ("jcm-mojo");
+    try
+    {
+      final GenerateSourceMojo aMojo = _createMojo (aBaseDir, 1);
+      aMojo.setRootPackage ("root");
+      aMojo.setClassHeader ("header");
+      aMojo.setData ("M");
+      aMojo.setParams (Map.of ("a", "1", "b", "2"));
+
+      // No units: the mojo configuration
+      List <GenerateSourceMojo.ResolvedUnit> aUnits = aMojo._resolveUnits ();
+      assertEquals (1, aUnits.size ());
+      assertNull (aUnits.get (0).name ());
+      assertEquals ("M", aUnits.get (0).data ());
+      assertEquals (aBaseDir.resolve ("src/generated/java").toFile (), aUnits.get (0).outputDir ());
+
+      final GenerationUnit aUnit1 = _unit ("one", "A", "b", "3", "c", "4");
+      aUnit1.setOutputDir ("sub");
+      final GenerationUnit aUnit2 = _unit (null, "B");
+      aUnit2.setOutputDir (aBaseDir.resolve ("abs").toString ());
+      aUnit2.setRootPackage ("other");
+      aUnit2.setClassHeader ("other header");
+      aUnit2.setGenerator ("com.example.Generator");
+      final GenerationUnit aUnit3 = _unit ("three", null);
+      final GenerationUnit aUnit4 = _unit ("four", null);
+      aUnit4.setSource ("four.csv");
+      aMojo.setUnits (List.of (aUnit1, aUnit2, aUnit3, aUnit4));
+
+      aUnits = aMojo._resolveUnits ();
+      assertEquals (4, aUnits.size ());
+
+      // Inherits the mojo values, the unit params override the mojo params
+      final GenerateSourceMojo.ResolvedUnit aResolved1 = aUnits.get (0);
+      assertEquals ("one", aResolved1.name ());
+      assertEquals ("A", aResolved1.data ());
+      assertEquals (TestGenerator.class.getName (), aResolved1.generator ());
+      assertEquals ("root", aResolved1.rootPackage ());
+      assertEquals ("header", aResolved1.classHeader ());
+      assertEquals (Map.of ("a", "1", "b", "3", "c", "4"), aResolved1.params ());
+      // Relative to the output dir of the mojo
+      assertEquals (aBaseDir.resolve ("src/generated/java/sub").toFile (), aResolved1.outputDir ());
+
+      final GenerateSourceMojo.ResolvedUnit aResolved2 = aUnits.get (1);
+      assertEquals ("unit 2", aResolved2.name ());
+      assertEquals ("com.example.Generator", aResolved2.generator ());
+      assertEquals ("other", aResolved2.rootPackage ());
+      assertEquals ("other header", aResolved2.classHeader ());
+      assertEquals (Map.of ("a", "1", "b", "2"), aResolved2.params ());
+      assertEquals (aBaseDir.resolve ("abs").toFile (), aResolved2.outputDir ());
+
+      // Source and data are only inherited together
+      assertNull (aUnits.get (2).source ());
+      assertEquals ("M", aUnits.get (2).data ());
+      assertEquals ("four.csv", aUnits.get (3).source ());
+      assertNull (aUnits.get (3).data ());
+    }
+    finally
+    {
+      _deleteRecursive (aBaseDir);
+    }
+  }
+
+  @Test
+  public void testGenerate () throws Exception
+  {
+    for (final int nThreads : new int [] { 1, 4 })
+    {
+      final Path aBaseDir = Files.createTempDirectory ("jcm-mojo");
+      try
+      {
+        final GenerationUnit aAbsolute = _unit ("abs", "C");
+        aAbsolute.setOutputDir (aBaseDir.resolve ("abs").toString ());
+        final GenerateSourceMojo aMojo = _createMojo (aBaseDir, nThreads);
+        aMojo.setUnits (List.of (_unit ("a", "A", "field", "a"), _unit ("b", "B"), aAbsolute));
+        aMojo.execute ();
+
+        assertTrue (_read (aBaseDir, "test/A.java").contains ("public String a;"));
+        assertTrue (_read (aBaseDir, "test/B.java").contains ("public String value;"));
+        assertTrue (Files.isRegularFile (aBaseDir.resolve ("abs/test/C.java")));
+
+        // Up to date units are not generated again
+        final Path aFile = aBaseDir.resolve ("src/generated/java/test/A.java");
+        Files.writeString (aFile, "unchanged", StandardCharsets.UTF_8);
+        aMojo.execute ();
+        assertEquals ("unchanged", _read (aBaseDir, "test/A.java"));
+      }
+      finally
+      {
+        _deleteRecursive (aBaseDir);
+      }
+    }
+  }
+
+  @Test
+  public void testConflict () throws Exception
+  {
+    for (final int nThreads : new int [] { 1, 4 })
+    {
+      final Path aBaseDir = Files.createTempDirectory ("jcm-mojo");
+      try
+      {
+        final GenerateSourceMojo aMojo = _createMojo (aBaseDir, nThreads);
+        aMojo.setUnits (List.of (_unit ("a", "Same", "field", "a"), _unit ("b", "Same", "field", "b")));
+        try
+        {
+          aMojo.execute ();
+          fail ();
+        }
+        catch (final MojoFailureException ex)
+        {
+          assertTrue (ex.getMessage (), ex.getMessage ().contains ("is generated by the units"));
+        }
+
+        // The file was written by exactly one unit and not overwritten by the other
+        final String sContent = _read (aBaseDir, "test/Same.java");
+        assertTrue (sContent.contains ("public String a;") != sContent.contains ("public String b;"));
+        if (nThreads == 1)
+          assertTrue (sContent.contains ("public String a;"));
+      }
+      finally
+      {
+        _deleteRecursive (aBaseDir);
+      }
+    }
+  }
+
+  @Test
+  public void testConflictWithUpToDateUnit () throws Exception
+  {
+    final Path aBaseDir = Files.createTempDirectory ("jcm-mojo");
+    try
+    {
+      final GenerateSourceMojo aMojo = _createMojo (aBaseDir, 4);
+      aMojo.setUnits (List.of (_unit ("a", "Same", "field", "a")));
+      aMojo.execute ();
+
+      // Unit a is up to date, so unit b must not overwrite its file
+      aMojo.setUnits (List.of (_unit ("b", "Same", "field", "b"), _unit ("a", "Same", "field", "a")));
+      try
+      {
+        aMojo.execute ();
+        fail ();
+      }
+      catch (final MojoFailureException ex)
+      {
+        assertTrue (ex.getMessage (), ex.getMessage ().contains ("units 'a' and 'b'"));
+      }
+      final String sContent = _read (aBaseDir, "test/Same.java");
+      assertTrue (sContent.contains ("public String a;"));
+      assertFalse (sContent.contains ("public String b;"));
+    }
+    finally
+    {
+      _deleteRecursive (aBaseDir);
+    }
+  }
+
+  @Test
+  public void testFailure () throws Exception
+  {
+    for (final int nThreads : new int [] { 1, 4 })
+    {
+      final Path aBaseDir = Files.createTempDirectory ("jcm-mojo");
+      try
+      {
+        final GenerateSourceMojo aMojo = _createMojo (aBaseDir, nThreads);
+        aMojo.setUnits (List.of (_unit ("ok", "Ok"), _unit ("failing", "Failing", "fail", "true")));
+        try
+        {
+          aMojo.execute ();
+          fail ();
+        }
+        catch (final MojoFailureException ex)
+        {
+          assertTrue (ex.getCause () instanceof IllegalStateException);
+          assertEquals ("failing on purpose", ex.getCause ().getMessage ());
+        }
+        assertFalse (Files.exists (aBaseDir.resolve ("src/generated/java/test/Failing.java")));
+      }
+      finally
+      {
+        _deleteRecursive (aBaseDir);
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.helger.jcodemodel.JCodeModel;
+
+public class GenerationFingerprintTest
+{
+  private static void _deleteRecursive (final Path aDir) throws IOException
+  {
+    try (final Stream <Path> aStream = Files.walk (aDir))
+    {
+      for (final Path aPath : aStream.sorted (Comparator.reverseOrder ()).toList ())
+        Files.delete (aPath);
+    }
+  }
+
+  @Test
+  public void testInputs () throws Exception
+  {
+    final String s1 = new GenerationFingerprint ().addString ("a", "b").addString ("c", null).getAsHex ();
+    assertEquals (64, s1.length ());
+    assertEquals (s1, new GenerationFingerprint ().addString ("a", "b").addString ("c", null).getAsHex ());
+    assertNotEquals (s1, new GenerationFingerprint ().addString ("a", "b").addString ("c", "").getAsHex ());
+    assertNotEquals (s1, new GenerationFingerprint ().addString ("ab", null).addString ("c", null).getAsHex ());
+
+    final File aSource = Files.createTempFile ("jcm-fingerprint", ".csv").toFile ();
+    try
+    {
+      Files.writeString (aSource.toPath (), "a,b", StandardCharsets.UTF_8);
+      final String s2 = new GenerationFingerprint ().addFile ("source", aSource).getAsHex ();
+      Files.writeString (aSource.toPath (), "a,c", StandardCharsets.UTF_8);
+      assertNotEquals (s2, new GenerationFingerprint ().addFile ("source", aSource).getAsHex ());
+    }
+    finally
+    {
+      Files.delete (aSource.toPath ());
+    }
+
+    // JDK class, class directory and jar or directory of jcodemodel
+    final String s3 = new GenerationFingerprint ().addClassOrigin (String.class)
+                                                  .addClassOrigin (GenerationFingerprintTest.class)
+                                                  .addClassOrigin (JCodeModel.class)
+                                                  .getAsHex ();
+    assertEquals (s3,
+                  new GenerationFingerprint ().addClassOrigin (String.class)
+                                              .addClassOrigin (GenerationFingerprintTest.class)
+                                              .addClassOrigin (JCodeModel.class)
+                                              .getAsHex ());
+  }
+
+  @Test
+  public void testUpToDate () throws Exception
+  {
+    final Path aDir = Files.createTempDirectory ("jcm-fingerprint");
+    try
+    {
+      final File aOutputDir = aDir.resolve ("out").toFile ();
+      final File aFingerprintFile = aDir.resolve ("target/jcodemodel/fingerprint.txt").toFile ();
+      final File aGenerated = new File (aOutputDir, "org/example/A.java");
+      aGenerated.getParentFile ().mkdirs ();
+      Files.writeString (aGenerated.toPath (), "class A {}", StandardCharsets.UTF_8);
+
+      final GenerationFingerprint aFP = new GenerationFingerprint ().addString ("data", "x");
+      assertFalse (aFP.isUpToDate (aFingerprintFile, aOutputDir));
+      aFP.write (aFingerprintFile, List.of ("org/example/A.java"));
+      assertTrue (aFP.isUpToDate (aFingerprintFile, aOutputDir));
+      assertEquals (List.of ("org/example/A.java"), aFP.getUpToDateFiles (aFingerprintFile, aOutputDir));
+      assertTrue (new GenerationFingerprint ().addString ("data", "x").isUpToDate (aFingerprintFile, aOutputDir));
+
+      // Changed input
+      assertFalse (new GenerationFingerprint ().addString ("data", "y").isUpToDate (aFingerprintFile, aOutputDir));
+
+      // Inputs that can't be fingerprinted
+      assertFalse (new GenerationFingerprint ().addString ("data", "x")
+                                               .invalidate ()
+                                               .isUpToDate (aFingerprintFile, aOutputDir));
+
+      // Deleted output
+      Files.delete (aGenerated.toPath ());
+      assertFalse (aFP.isUpToDate (aFingerprintFile, aOutputDir));
+    }
+    finally
+    {
+      _deleteRecursive (aDir);
+    }
+  }
+}
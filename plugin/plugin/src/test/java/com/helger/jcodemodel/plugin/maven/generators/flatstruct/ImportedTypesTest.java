@@ -0,0 +1,52 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jcodemodel.plugin.maven.generators.flatstruct;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ImportedTypesTest
+{
+
+  @Test
+  public void testDefault ()
+  {
+    final ImportedTypes imports = ImportedTypes.from (Map.of ());
+    assertEquals (List.of ("java.lang", "java.util"), imports.getPackages ());
+    assertEquals (String.class, imports.findClass ("String"));
+    assertEquals (List.class, imports.findClass ("List"));
+    assertEquals (java.time.Instant.class, imports.findClass ("java.time.Instant"));
+    assertNull (imports.findClass ("Instant"));
+    assertNull (imports.findClass ("NoSuchClass"));
+  }
+
+  @Test
+  public void testImports ()
+  {
+    final ImportedTypes imports = ImportedTypes.from (Map.of (ImportedTypes.IMPORTS_PARAM,
+                                                              "java.time.*, java.util.concurrent\njava.awt.List ; java.util"));
+    assertEquals (List.of ("java.lang", "java.util", "java.time", "java.util.concurrent"), imports.getPackages ());
+    assertEquals (java.time.Instant.class, imports.findClass ("Instant"));
+    assertEquals (java.util.concurrent.TimeUnit.class, imports.findClass ("TimeUnit"));
+    // imported classes shadow the classes of the packages
+    assertEquals (java.awt.List.class, imports.findClass ("List"));
+  }
+
+}